@@ -6,6 +6,7 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableScheduling
@@ -32,4 +33,19 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    /** Short CPU-bound work split across runs or series (N-way comparisons, bottleneck analysis). */
+    @Bean(name = "comparisonExecutor")
+    public Executor comparisonExecutor() {
+        int threads = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(200);
+        // When saturated the request thread does the work itself rather than failing
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("compare-");
+        executor.initialize();
+        return executor;
+    }
 }
@@ -0,0 +1,29 @@
+package com.gatlingweb.config;
+
+import com.gatlingweb.live.LiveChannel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/** Raw WebSocket endpoint of the binary live channel; SockJS only carries text, so none here. */
+@Configuration
+@EnableWebSocket
+public class LiveWebSocketConfig implements WebSocketConfigurer {
+
+    @Value("${app.security.allowed-origins:http://localhost:5173,http://localhost:8080}")
+    private String allowedOrigins;
+
+    private final LiveChannel liveChannel;
+
+    public LiveWebSocketConfig(LiveChannel liveChannel) {
+        this.liveChannel = liveChannel;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(liveChannel, "/ws-live")
+            .setAllowedOrigins(allowedOrigins.split(","));
+    }
+}
@@ -0,0 +1,32 @@
+package com.gatlingweb.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/** Fan-out of independent tasks onto an executor such as {@code comparisonExecutor}. */
+public final class ParallelTasks {
+
+    private ParallelTasks() {}
+
+    /**
+     * Applies {@code task} to every item on {@code executor} and returns the results in item
+     * order. A task's runtime exception is rethrown as is once every earlier result is in.
+     */
+    public static <T, R> List<R> inParallel(Executor executor, List<T> items, Function<T, R> task) {
+        List<CompletableFuture<R>> futures = items.stream()
+            .map(item -> CompletableFuture.supplyAsync(() -> task.apply(item), executor))
+            .toList();
+        List<R> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<R> future : futures) results.add(future.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+        return results;
+    }
+}
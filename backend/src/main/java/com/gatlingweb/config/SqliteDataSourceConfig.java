@@ -0,0 +1,66 @@
+package com.gatlingweb.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * SQLite connection layout: one writer connection in WAL mode and a pool of read-only connections.
+ * <p>
+ * SQLite allows a single writer at a time, so the writer pool is capped at one connection and
+ * callers queue on it. WAL lets readers proceed while that connection writes. Transactions
+ * marked {@code readOnly} are routed to the reader pool by {@link LazyConnectionDataSourceProxy}.
+ */
+@Configuration
+@ConditionalOnExpression("'${spring.datasource.url:}'.startsWith('jdbc:sqlite:')")
+public class SqliteDataSourceConfig {
+
+    private static final String SQLITE_OPEN_READONLY = "1";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource writeDataSource(DataSourceProperties properties,
+                                            @Value("${app.datasource.busy-timeout-ms:5000}") int busyTimeoutMs) {
+        HikariDataSource ds = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        ds.setPoolName("sqlite-writer");
+        ds.setMaximumPoolSize(1);
+        ds.addDataSourceProperty("journal_mode", "WAL");
+        ds.addDataSourceProperty("synchronous", "NORMAL");
+        ds.addDataSourceProperty("foreign_keys", "true");
+        ds.addDataSourceProperty("busy_timeout", String.valueOf(busyTimeoutMs));
+        return ds;
+    }
+
+    @Bean
+    public HikariDataSource readDataSource(DataSourceProperties properties,
+                                           @Value("${app.datasource.read-pool-size:4}") int poolSize,
+                                           @Value("${app.datasource.busy-timeout-ms:5000}") int busyTimeoutMs) {
+        HikariDataSource ds = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        ds.setPoolName("sqlite-reader");
+        ds.setMaximumPoolSize(poolSize);
+        ds.setMinimumIdle(1);
+        // Opened read-only at the driver level: setReadOnly(true) on a SQLite connection is otherwise rejected
+        ds.setReadOnly(true);
+        ds.addDataSourceProperty("open_mode", SQLITE_OPEN_READONLY);
+        ds.addDataSourceProperty("busy_timeout", String.valueOf(busyTimeoutMs));
+        return ds;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writeDataSource") DataSource writeDataSource,
+                                 @Qualifier("readDataSource") DataSource readDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(writeDataSource);
+        proxy.setReadOnlyDataSource(readDataSource);
+        return proxy;
+    }
+}
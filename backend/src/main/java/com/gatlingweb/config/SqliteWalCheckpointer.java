@@ -0,0 +1,57 @@
+package com.gatlingweb.config;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Keeps the SQLite write-ahead log bounded. SQLite's automatic checkpoint cannot complete while
+ * readers hold old snapshots, so a passive checkpoint is retried periodically and the WAL is
+ * truncated on shutdown.
+ */
+@Component
+@ConditionalOnExpression("'${spring.datasource.url:}'.startsWith('jdbc:sqlite:')")
+public class SqliteWalCheckpointer {
+
+    private static final Logger log = LoggerFactory.getLogger(SqliteWalCheckpointer.class);
+
+    private final JdbcTemplate jdbc;
+
+    public SqliteWalCheckpointer(@Qualifier("writeDataSource") DataSource writeDataSource) {
+        this.jdbc = new JdbcTemplate(writeDataSource);
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.wal-checkpoint-interval-ms:60000}",
+               initialDelayString = "${app.datasource.wal-checkpoint-interval-ms:60000}")
+    public void checkpoint() {
+        checkpoint("PASSIVE");
+    }
+
+    @PreDestroy
+    void truncate() {
+        checkpoint("TRUNCATE");
+    }
+
+    private void checkpoint(String mode) {
+        try {
+            // Columns: busy (1 if blocked), log (frames in WAL), checkpointed (frames copied back)
+            Map<String, Object> result = jdbc.queryForMap("PRAGMA wal_checkpoint(" + mode + ")");
+            Object[] values = result.values().toArray();
+            if (values.length == 3 && !"0".equals(String.valueOf(values[0]))) {
+                log.debug("WAL checkpoint ({}) blocked by active readers: {}", mode, result);
+            } else {
+                log.debug("WAL checkpoint ({}): {}", mode, result);
+            }
+        } catch (Exception e) {
+            log.warn("WAL checkpoint ({}) failed: {}", mode, e.getMessage());
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.gatlingweb.entity.ServerType;
 import com.gatlingweb.entity.ThresholdProfile;
 import com.gatlingweb.repository.MonitoredServerRepository;
 import com.gatlingweb.repository.ThresholdProfileRepository;
+import com.gatlingweb.service.ExporterProfileService;
 import com.gatlingweb.selenium.entity.AppSetting;
 import com.gatlingweb.selenium.repository.AppSettingRepository;
 import org.springframework.http.ResponseEntity;
@@ -42,7 +43,8 @@ public class ConfigController {
             .map(s -> new ConfigExportDto.MonitoredServerExport(
                 s.getName(), s.getUrl(),
                 s.getServerType() != null ? s.getServerType().name() : null,
-                Boolean.TRUE.equals(s.getEnabled())))
+                Boolean.TRUE.equals(s.getEnabled()),
+                s.getExporterProfile()))
             .toList();
 
         List<ConfigExportDto.AppSettingExport> settings = settingRepo.findAll().stream()
@@ -78,6 +80,8 @@ public class ConfigController {
                 try { server.setServerType(ServerType.valueOf(s.serverType())); } catch (IllegalArgumentException ignored) {}
             }
             server.setEnabled(s.enabled());
+            // Exports older than the profiles carry none: the server type picks it
+            server.setExporterProfile(ExporterProfileService.profileOf(s.exporterProfile(), server.getServerType()));
             serverRepo.save(server);
         }
 
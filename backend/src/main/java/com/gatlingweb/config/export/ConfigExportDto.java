@@ -10,6 +10,6 @@ public record ConfigExportDto(
     List<AppSettingExport> appSettings
 ) {
     public record ThresholdProfileExport(String name, String simulationClass, String rules) {}
-    public record MonitoredServerExport(String name, String url, String serverType, boolean enabled) {}
+    public record MonitoredServerExport(String name, String url, String serverType, boolean enabled, String exporterProfile) {}
     public record AppSettingExport(String key, String value) {}
 }
@@ -1,8 +1,12 @@
 package com.gatlingweb.controller;
 
 import com.gatlingweb.dto.CreateServerRequest;
+import com.gatlingweb.dto.ExporterProfile;
 import com.gatlingweb.dto.MonitoredServerDto;
+import com.gatlingweb.dto.ServerHealthDto;
+import com.gatlingweb.service.ExporterProfileService;
 import com.gatlingweb.service.MonitoredServerService;
+import com.gatlingweb.service.ServerHealthService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -14,9 +18,14 @@ import java.util.List;
 public class MonitoredServerController {
 
     private final MonitoredServerService service;
+    private final ExporterProfileService profiles;
+    private final ServerHealthService health;
 
-    public MonitoredServerController(MonitoredServerService service) {
+    public MonitoredServerController(MonitoredServerService service, ExporterProfileService profiles,
+                                     ServerHealthService health) {
         this.service = service;
+        this.profiles = profiles;
+        this.health = health;
     }
 
     @GetMapping
@@ -24,6 +33,16 @@ public class MonitoredServerController {
         return service.findAll();
     }
 
+    @GetMapping("/exporter-profiles")
+    public List<ExporterProfile> getExporterProfiles() {
+        return profiles.list();
+    }
+
+    @GetMapping("/health")
+    public List<ServerHealthDto> getHealth() {
+        return health.list();
+    }
+
     @GetMapping("/{id}")
     public MonitoredServerDto getById(@PathVariable Long id) {
         return service.findById(id);
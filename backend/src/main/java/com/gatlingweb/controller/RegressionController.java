@@ -0,0 +1,25 @@
+package com.gatlingweb.controller;
+
+import com.gatlingweb.dto.RegressionDto;
+import com.gatlingweb.service.RegressionDetectionService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/regressions")
+public class RegressionController {
+
+    private final RegressionDetectionService regressionService;
+
+    public RegressionController(RegressionDetectionService regressionService) {
+        this.regressionService = regressionService;
+    }
+
+    @GetMapping
+    public List<RegressionDto> list(
+            @RequestParam(required = false) String simulationClass,
+            @RequestParam(defaultValue = "50") int limit) {
+        return regressionService.list(simulationClass, limit);
+    }
+}
@@ -0,0 +1,32 @@
+package com.gatlingweb.controller;
+
+import com.gatlingweb.dto.MetricsWriterStats;
+import com.gatlingweb.dto.RunCacheStats;
+import com.gatlingweb.service.FinishedRunCache;
+import com.gatlingweb.timeseries.TimeSeriesWriter;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/system")
+public class SystemController {
+
+    private final TimeSeriesWriter metricsWriter;
+    private final FinishedRunCache finishedRunCache;
+
+    public SystemController(TimeSeriesWriter metricsWriter, FinishedRunCache finishedRunCache) {
+        this.metricsWriter = metricsWriter;
+        this.finishedRunCache = finishedRunCache;
+    }
+
+    @GetMapping("/metrics-writer")
+    public MetricsWriterStats metricsWriterStats() {
+        return metricsWriter.stats();
+    }
+
+    @GetMapping("/run-cache")
+    public RunCacheStats runCacheStats() {
+        return finishedRunCache.stats();
+    }
+}
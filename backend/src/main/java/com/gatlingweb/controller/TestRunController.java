@@ -1,15 +1,25 @@
 package com.gatlingweb.controller;
 
-import com.gatlingweb.dto.ComparisonDto;
-import com.gatlingweb.dto.InfraMetricsSnapshot;
+import com.gatlingweb.dto.BottleneckReportDto;
+import com.gatlingweb.dto.InfraBaselineDto;
+import com.gatlingweb.dto.KeysetPage;
 import com.gatlingweb.dto.LaunchRequest;
-import com.gatlingweb.dto.MetricsSnapshot;
+import com.gatlingweb.dto.RunSearchResult;
 import com.gatlingweb.dto.TestRunDto;
+import com.gatlingweb.dto.TestRunRowDto;
 import com.gatlingweb.dto.TrendDataDto;
 import com.gatlingweb.dto.UpdateLabelsRequest;
+import com.gatlingweb.entity.RunKind;
+import com.gatlingweb.service.FinishedRunCache;
+import com.gatlingweb.service.BottleneckAnalysisService;
+import com.gatlingweb.service.InfraBaselineService;
 import com.gatlingweb.service.MetricsPersistenceService;
 import com.gatlingweb.service.PdfExportService;
+import com.gatlingweb.service.RunComparisonService;
+import com.gatlingweb.service.RunHistogramService;
+import com.gatlingweb.service.RunExportService;
 import com.gatlingweb.service.TestRunService;
+import com.gatlingweb.timeseries.Resolution;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -18,23 +28,45 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/tests")
 public class TestRunController {
 
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv; charset=UTF-8");
+
     private final TestRunService testRunService;
     private final MetricsPersistenceService metricsPersistenceService;
     private final PdfExportService pdfExportService;
+    private final RunExportService runExportService;
+    private final FinishedRunCache finishedRunCache;
+    private final RunHistogramService runHistogramService;
+    private final RunComparisonService runComparisonService;
+    private final InfraBaselineService infraBaselineService;
+    private final BottleneckAnalysisService bottleneckAnalysisService;
 
     public TestRunController(TestRunService testRunService, MetricsPersistenceService metricsPersistenceService,
-                             PdfExportService pdfExportService) {
+                             PdfExportService pdfExportService, RunExportService runExportService,
+                             FinishedRunCache finishedRunCache, RunHistogramService runHistogramService,
+                             RunComparisonService runComparisonService, InfraBaselineService infraBaselineService,
+                             BottleneckAnalysisService bottleneckAnalysisService) {
         this.testRunService = testRunService;
         this.metricsPersistenceService = metricsPersistenceService;
         this.pdfExportService = pdfExportService;
+        this.runExportService = runExportService;
+        this.finishedRunCache = finishedRunCache;
+        this.runHistogramService = runHistogramService;
+        this.runComparisonService = runComparisonService;
+        this.infraBaselineService = infraBaselineService;
+        this.bottleneckAnalysisService = bottleneckAnalysisService;
     }
 
     @PostMapping("/launch")
@@ -49,7 +81,7 @@ public class TestRunController {
     }
 
     @GetMapping
-    public Page<TestRunDto> list(
+    public Page<TestRunRowDto> list(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "startTime") String sortBy,
@@ -59,10 +91,45 @@ public class TestRunController {
         Sort sort = sortDir.equalsIgnoreCase("asc")
                 ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
-        if (label != null && !label.isBlank()) {
-            return testRunService.findByLabel(label.trim(), PageRequest.of(page, size, sort));
-        }
-        return testRunService.findAll(PageRequest.of(page, size, sort));
+        return testRunService.findRows(labelFilter(label), PageRequest.of(page, size, sort));
+    }
+
+    /** Newest-first history with cursor pagination; the cost of a page does not depend on its depth. */
+    @GetMapping("/seek")
+    public KeysetPage<TestRunRowDto> seek(
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String label,
+            @RequestParam(required = false) String cursor
+    ) {
+        return testRunService.findRowsBefore(labelFilter(label), cursor, size);
+    }
+
+    /**
+     * Full-text and faceted search, newest first. Each facet parameter may be repeated; values of
+     * one facet are alternatives, different facets must all match.
+     */
+    @GetMapping("/search")
+    public RunSearchResult<TestRunRowDto> search(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) List<String> simulation,
+            @RequestParam(required = false) List<String> version,
+            @RequestParam(required = false) List<String> label,
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) List<String> verdict,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        Map<String, List<String>> filters = new HashMap<>();
+        if (simulation != null) filters.put("simulation", simulation);
+        if (version != null) filters.put("version", version);
+        if (label != null) filters.put("label", label);
+        if (status != null) filters.put("status", status);
+        if (verdict != null) filters.put("verdict", verdict);
+        return testRunService.search(q, filters, page, size);
+    }
+
+    private static String labelFilter(String label) {
+        return label != null && !label.isBlank() ? label.trim() : null;
     }
 
     @GetMapping("/{id}")
@@ -104,13 +171,94 @@ public class TestRunController {
     }
 
     @GetMapping("/{id}/metrics")
-    public List<MetricsSnapshot> getMetrics(@PathVariable Long id) {
-        return metricsPersistenceService.getMetrics(id);
+    public ResponseEntity<byte[]> getMetrics(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to,
+            @RequestParam(defaultValue = "auto") String resolution,
+            @RequestParam(defaultValue = "2000") int maxPoints
+    ) {
+        Resolution res = Resolution.parse(resolution);
+        return cached("metrics", List.of(id),
+                () -> metricsPersistenceService.getMetrics(id, from, to, res, maxPoints), from, to, res, maxPoints);
+    }
+
+    @GetMapping("/{id}/metrics/downsampled")
+    public ResponseEntity<byte[]> getDownsampledMetrics(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to,
+            @RequestParam(defaultValue = "1000") int maxPoints
+    ) {
+        return cached("downsampled", List.of(id),
+                () -> metricsPersistenceService.getDownsampledMetrics(id, from, to, maxPoints), from, to, maxPoints);
     }
 
     @GetMapping("/{id}/infra-metrics")
-    public List<InfraMetricsSnapshot> getInfraMetrics(@PathVariable Long id) {
-        return metricsPersistenceService.getInfraMetrics(id);
+    public ResponseEntity<byte[]> getInfraMetrics(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to,
+            @RequestParam(defaultValue = "auto") String resolution,
+            @RequestParam(defaultValue = "2000") int maxPoints
+    ) {
+        Resolution res = Resolution.parse(resolution);
+        return cached("infra-metrics", List.of(id),
+                () -> metricsPersistenceService.getInfraMetrics(id, from, to, res, maxPoints), from, to, res, maxPoints);
+    }
+
+    @GetMapping("/{id}/infra-breakdowns")
+    public ResponseEntity<byte[]> getInfraBreakdowns(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long serverId,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to,
+            @RequestParam(defaultValue = "auto") String resolution,
+            @RequestParam(defaultValue = "2000") int maxPoints
+    ) {
+        Resolution res = Resolution.parse(resolution);
+        return cached("infra-breakdowns", List.of(id),
+                () -> metricsPersistenceService.getInfraBreakdowns(id, serverId, from, to, res, maxPoints),
+                serverId, from, to, res, maxPoints);
+    }
+
+    /** Not cached: the cool-down is still being collected for a while after the run finishes. */
+    @GetMapping("/{id}/infra-baseline")
+    public List<InfraBaselineDto> getInfraBaseline(@PathVariable Long id) {
+        return infraBaselineService.report(RunKind.GATLING, id);
+    }
+
+    /** Stored with the run: analysed when it finishes, or on the first request for older runs. */
+    @GetMapping("/{id}/bottlenecks")
+    public BottleneckReportDto getBottlenecks(@PathVariable Long id) {
+        return bottleneckAnalysisService.report(id);
+    }
+
+    @PostMapping("/{id}/bottlenecks/analyze")
+    public BottleneckReportDto analyzeBottlenecks(@PathVariable Long id) {
+        return bottleneckAnalysisService.analyze(id);
+    }
+
+    @GetMapping("/{id}/distribution")
+    public ResponseEntity<byte[]> getDistribution(
+            @PathVariable Long id,
+            @RequestParam(required = false) String percentiles
+    ) {
+        List<Double> p = RunHistogramService.parsePercentiles(percentiles);
+        return cached("distribution", List.of(id),
+                () -> runHistogramService.distribution(RunKind.GATLING, List.of(id), p), p);
+    }
+
+    /** Latency distribution of several runs merged, e.g. every run of a release. */
+    @GetMapping("/distribution")
+    public ResponseEntity<byte[]> getMergedDistribution(
+            @RequestParam String ids,
+            @RequestParam(required = false) String percentiles
+    ) {
+        List<Long> runIds = parseIds(ids);
+        List<Double> p = RunHistogramService.parsePercentiles(percentiles);
+        return cached("distribution", runIds,
+                () -> runHistogramService.distribution(RunKind.GATLING, runIds, p), p);
     }
 
     @GetMapping("/queue")
@@ -171,25 +319,85 @@ public class TestRunController {
     }
 
     @GetMapping("/export/json")
-    public List<TestRunDto> exportJson() {
-        return testRunService.findAll(PageRequest.of(0, Integer.MAX_VALUE, Sort.by("startTime").descending())).getContent();
+    public ResponseEntity<StreamingResponseBody> exportJson(@RequestParam(defaultValue = "false") boolean gzip) {
+        return streamed("test-results.json", MediaType.APPLICATION_JSON, gzip, runExportService::writeRunsJson);
     }
 
     @GetMapping("/export/csv")
-    public ResponseEntity<byte[]> exportCsv() {
-        String csv = testRunService.exportCsv();
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=test-results.csv")
-                .header(HttpHeaders.CONTENT_TYPE, "text/csv; charset=UTF-8")
-                .body(csv.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+    public ResponseEntity<StreamingResponseBody> exportCsv(@RequestParam(defaultValue = "false") boolean gzip) {
+        return streamed("test-results.csv", CSV, gzip, runExportService::writeRunsCsv);
+    }
+
+    @GetMapping("/{id}/export/metrics")
+    public ResponseEntity<StreamingResponseBody> exportMetrics(@PathVariable Long id,
+                                                               @RequestParam(defaultValue = "false") boolean gzip) {
+        if (testRunService.findById(id).isEmpty()) return ResponseEntity.notFound().build();
+        return streamed("test-" + id + "-metrics.csv", CSV, gzip, out -> runExportService.writeMetricsCsv(id, out));
+    }
+
+    @GetMapping("/{id}/export/infra-metrics")
+    public ResponseEntity<StreamingResponseBody> exportInfraMetrics(@PathVariable Long id,
+                                                                    @RequestParam(defaultValue = "false") boolean gzip) {
+        if (testRunService.findById(id).isEmpty()) return ResponseEntity.notFound().build();
+        return streamed("test-" + id + "-infra-metrics.csv", CSV, gzip,
+            out -> runExportService.writeInfraMetricsCsv(id, out));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> streamed(String filename, MediaType contentType, boolean gzip,
+                                                                 StreamingResponseBody body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
+                .contentType(contentType);
+        if (!gzip) {
+            return response.body(body);
+        }
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(out -> {
+            GZIPOutputStream zip = new GZIPOutputStream(out, 64 * 1024);
+            body.writeTo(zip);
+            zip.finish();
+        });
     }
 
     @GetMapping("/compare")
-    public ComparisonDto compare(@RequestParam String ids) {
+    public ResponseEntity<byte[]> compare(@RequestParam String ids) {
         String[] parts = ids.split(",");
         if (parts.length != 2) {
             throw new IllegalArgumentException("Exactly 2 test IDs required");
         }
-        return testRunService.compare(Long.parseLong(parts[0].trim()), Long.parseLong(parts[1].trim()));
+        long idA = Long.parseLong(parts[0].trim());
+        long idB = Long.parseLong(parts[1].trim());
+        return cached("compare", List.of(idA, idB), () -> testRunService.compare(idA, idB));
+    }
+
+    /**
+     * Compares 2 to 20 runs against the first one: latency distributions with significance
+     * tests, overall and per request, and series aligned on elapsed time.
+     */
+    @GetMapping("/compare/runs")
+    public ResponseEntity<byte[]> compareRuns(
+            @RequestParam String ids,
+            @RequestParam(defaultValue = "0.01") double alpha,
+            @RequestParam(defaultValue = "0.05") double minEffect,
+            @RequestParam(defaultValue = "500") int maxPoints
+    ) {
+        List<Long> runIds = parseIds(ids);
+        return cached("compare-runs", runIds,
+                () -> runComparisonService.compare(runIds, alpha, minEffect, maxPoints), alpha, minEffect, maxPoints);
+    }
+
+    private static List<Long> parseIds(String ids) {
+        List<Long> runIds = new ArrayList<>();
+        for (String part : ids.split(",")) {
+            if (!part.isBlank()) runIds.add(Long.parseLong(part.trim()));
+        }
+        return runIds;
+    }
+
+    /** Serves the view from the finished-run cache; cached only once every run involved is finished. */
+    private ResponseEntity<byte[]> cached(String view, List<Long> runIds, Supplier<?> loader, Object... params) {
+        return finishedRunCache.serve(
+                FinishedRunCache.Key.of(FinishedRunCache.Scope.GATLING, view, runIds, params),
+                () -> runIds.stream().allMatch(testRunService::isFinished),
+                loader);
     }
 }
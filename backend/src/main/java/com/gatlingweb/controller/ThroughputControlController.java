@@ -0,0 +1,62 @@
+package com.gatlingweb.controller;
+
+import com.gatlingweb.dto.RunAnnotationDto;
+import com.gatlingweb.dto.ThroughputControlRequest;
+import com.gatlingweb.dto.ThroughputControlState;
+import com.gatlingweb.service.ThroughputControlService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/tests")
+public class ThroughputControlController {
+
+    private static final Logger log = LoggerFactory.getLogger(ThroughputControlController.class);
+
+    private final ThroughputControlService controlService;
+
+    public ThroughputControlController(ThroughputControlService controlService) {
+        this.controlService = controlService;
+    }
+
+    @GetMapping("/{id}/control")
+    public ThroughputControlState getControl(@PathVariable Long id) {
+        return controlService.getState(id);
+    }
+
+    @PostMapping("/{id}/control")
+    public ThroughputControlState updateControl(@PathVariable Long id,
+                                                @Valid @RequestBody ThroughputControlRequest request) {
+        return controlService.apply(id, request);
+    }
+
+    @GetMapping("/{id}/annotations")
+    public List<RunAnnotationDto> getAnnotations(@PathVariable Long id) {
+        return controlService.getAnnotations(id);
+    }
+
+    // STOMP: SEND /app/tests/{id}/control — the new state is broadcast on /topic/control/{id}
+    @MessageMapping("/tests/{id}/control")
+    public void updateControlFromSocket(@DestinationVariable Long id,
+                                       @Payload ThroughputControlRequest request,
+                                       Principal principal) {
+        if (principal == null) {
+            throw new SecurityException("Authentication required to control a running test");
+        }
+        controlService.apply(id, request);
+    }
+
+    @MessageExceptionHandler
+    public void handleSocketError(Exception e) {
+        log.warn("Rejected throughput control command: {}", e.getMessage());
+    }
+}
@@ -0,0 +1,48 @@
+package com.gatlingweb.dto;
+
+import com.gatlingweb.entity.BottleneckFinding;
+
+import java.util.List;
+
+/**
+ * Resources of the monitored servers ranked by how closely the run's p95 followed them.
+ * {@code bottleneck} is the first finding when its score is high enough to name it, null otherwise.
+ */
+public record BottleneckReportDto(
+    Long testRunId,
+    Long analyzedAt,
+    long stepMs,
+    int points,
+    Finding bottleneck,
+    List<Finding> findings
+) {
+    public record Finding(
+        int ranking,
+        Long serverId,
+        String serverName,
+        String resource,
+        double correlation,
+        long lagMs,
+        Double peak,
+        Double kneeLevel,
+        Double latencyBelowKnee,
+        Double latencyAboveKnee,
+        double score
+    ) {
+        public static Finding from(BottleneckFinding f) {
+            return new Finding(
+                f.getRanking(),
+                f.getServerId(),
+                f.getServerName(),
+                f.getResource(),
+                f.getCorrelation(),
+                f.getLagMs(),
+                f.getPeak(),
+                f.getKneeLevel(),
+                f.getLatencyBelowKnee(),
+                f.getLatencyAboveKnee(),
+                f.getScore()
+            );
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.gatlingweb.dto;
+
+import java.util.List;
+
+/** One run of an N-way comparison; {@code shift} and {@code requestShifts} are empty for the baseline. */
+public record ComparedRunDto(
+    TestRunDto run,
+    LatencyDistributionDto distribution,
+    DistributionShiftDto shift,
+    List<DistributionShiftDto> requestShifts,
+    List<ElapsedPointDto> series
+) {}
@@ -12,5 +12,8 @@ public record CreateServerRequest(
     String url,
 
     @NotNull(message = "Server type is required")
-    ServerType serverType
+    ServerType serverType,
+
+    // Defaults to windows_exporter
+    String exporterProfile
 ) {}
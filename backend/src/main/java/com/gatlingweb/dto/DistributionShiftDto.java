@@ -0,0 +1,28 @@
+package com.gatlingweb.dto;
+
+/**
+ * How the latency distribution of a run differs from the baseline run, overall
+ * ({@code requestName} null) or for one request.
+ */
+public record DistributionShiftDto(
+    String requestName,
+    long baselineCount,
+    long count,
+    Double ksStatistic,
+    Double ksPValue,
+    Double mannWhitneyPValue,
+    Double probabilitySlower,
+    Double p95ChangePercent,
+    Verdict verdict
+) {
+    public enum Verdict {
+        /** Values tend to be larger than in the baseline. */
+        SLOWER,
+        FASTER,
+        /** Shape differs (e.g. a wider tail) without an overall shift. */
+        CHANGED,
+        /** Not significant, or too small an effect to matter. */
+        UNCHANGED,
+        NO_DATA
+    }
+}
@@ -0,0 +1,10 @@
+package com.gatlingweb.dto;
+
+/** Metrics of a run averaged over one slot of a grid shared by the compared runs. */
+public record ElapsedPointDto(
+    long elapsedMs,
+    double requestsPerSecond,
+    double errorsPerSecond,
+    double meanResponseTime,
+    double p95
+) {}
@@ -0,0 +1,118 @@
+package com.gatlingweb.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How to read one kind of Prometheus exporter, as declared in {@code exporter-profiles.json}.
+ * <p>
+ * {@code signals} maps the values the scraper understands (see {@link Signal}) to the families
+ * that carry them; each signal lists alternatives and the first one the page contains is used.
+ * {@code extra} declares further metrics of the exporter, reported by name in
+ * {@link InfraMetricsSnapshot#extra()}. {@code breakdowns} split a metric by one label (per core,
+ * disk or interface), for runs that ask for them; see {@link InfraMetricsSnapshot#breakdowns()}.
+ */
+public record ExporterProfile(
+    String id,
+    String label,
+    Map<String, List<Selector>> signals,
+    List<ExtraMetric> extra,
+    List<Breakdown> breakdowns
+) {
+
+    /** Values a profile can provide; counters are turned into rates by the scraper. */
+    public enum Signal {
+        /** Counter: CPU seconds spent idle, summed over cores. */
+        CPU_IDLE_SECONDS("cpuIdleSeconds"),
+        /** Counter: CPU seconds in every mode, summed over cores; with the idle time gives the busy share. */
+        CPU_TOTAL_SECONDS("cpuTotalSeconds"),
+        /** Counter: busy CPU seconds; divided by elapsed time and {@link #CPU_CORES} when there is no idle time. */
+        CPU_BUSY_SECONDS("cpuBusySeconds"),
+        CPU_CORES("cpuCores"),
+        /** Gauge between 0 and 1, used when no CPU counter is available. */
+        CPU_USAGE_RATIO("cpuUsageRatio"),
+        MEMORY_TOTAL_BYTES("memoryTotalBytes"),
+        MEMORY_FREE_BYTES("memoryFreeBytes"),
+        /** Gauge; takes precedence over total minus free. */
+        MEMORY_USED_BYTES("memoryUsedBytes"),
+        DISK_READ_BYTES("diskReadBytes"),
+        DISK_WRITE_BYTES("diskWriteBytes"),
+        NETWORK_RECEIVED_BYTES("networkReceivedBytes"),
+        NETWORK_SENT_BYTES("networkSentBytes"),
+        /** Counter of database work units (SQL batches, transactions), reported per second. */
+        DB_OPERATIONS("dbOperations"),
+        /** Counter: seconds the JVM was paused by garbage collection, summed over collectors. */
+        GC_PAUSE_SECONDS("gcPauseSeconds"),
+        /** Counter: garbage collection pauses, summed over collectors. */
+        GC_PAUSES("gcPauses");
+
+        private final String key;
+
+        Signal(String key) {
+            this.key = key;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public static Signal fromKey(String key) {
+            for (Signal s : values()) {
+                if (s.key.equals(key)) return s;
+            }
+            throw new IllegalArgumentException("Unknown signal: " + key);
+        }
+    }
+
+    public enum Fold { SUM, FIRST }
+
+    /**
+     * Samples of {@code family} (or of every family in {@code families}) whose labels satisfy
+     * {@code match}, folded into one value and multiplied by {@code scale}. A match value starting
+     * with {@code !} requires the label to differ. {@code fold} defaults to SUM, which skips NaN and
+     * infinite samples; FIRST keeps the first sample.
+     */
+    public record Selector(String family, List<String> families, Map<String, String> match, Fold fold, Double scale) {
+
+        public List<String> familyNames() {
+            List<String> names = new ArrayList<>();
+            if (family != null) names.add(family);
+            if (families != null) names.addAll(families);
+            return names;
+        }
+
+        public Fold foldOrDefault() {
+            return fold != null ? fold : Fold.SUM;
+        }
+
+        public double scaleOrDefault() {
+            return scale != null ? scale : 1.0;
+        }
+    }
+
+    /**
+     * GAUGE values are reported as read, RATE counters per second. BUSY_PERCENT counters of idle
+     * seconds are reported as the busy share, {@code 100 * (1 - idle seconds per second)}.
+     */
+    public enum Kind { GAUGE, RATE, BUSY_PERCENT }
+
+    /** An exporter-specific metric. */
+    public record ExtraMetric(String name, String label, String unit, Kind kind, List<Selector> sources) {}
+
+    /**
+     * A metric kept per value of the label {@code by} instead of summed: one series per core, disk
+     * or interface. Samples without the label are ignored; past {@code maxSeries} distinct values
+     * (default {@value #DEFAULT_MAX_SERIES}, at most {@value #MAX_SERIES}) new ones are dropped.
+     */
+    public record Breakdown(String name, String label, String unit, Kind kind, String by, Integer maxSeries,
+                            List<Selector> sources) {
+
+        public static final int DEFAULT_MAX_SERIES = 64;
+        public static final int MAX_SERIES = 1024;
+
+        public int maxSeriesOrDefault() {
+            return maxSeries != null ? maxSeries : DEFAULT_MAX_SERIES;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.gatlingweb.dto;
+
+import com.gatlingweb.entity.ServerType;
+
+/**
+ * Utilization of one monitored server around a run: at rest before it ({@code baseline}), during
+ * it ({@code run}), what the run added to the baseline ({@code net}, run minus baseline) and while
+ * it recovered afterwards ({@code cooldown}). A phase is null when nothing was collected for it.
+ */
+public record InfraBaselineDto(
+    Long serverId,
+    String serverName,
+    ServerType serverType,
+    Usage baseline,
+    Usage run,
+    Usage net,
+    Usage cooldown
+) {
+    /** Means over a phase; a metric is null when no sample of the phase had it. */
+    public record Usage(
+        int samples,
+        long fromTimestamp,
+        long toTimestamp,
+        Double cpuPercent,
+        Double memoryPercent,
+        Double diskReadBytesPerSec,
+        Double diskWriteBytesPerSec,
+        Double networkRecvBytesPerSec,
+        Double networkSentBytesPerSec,
+        Double sqlBatchPerSec
+    ) {}
+}
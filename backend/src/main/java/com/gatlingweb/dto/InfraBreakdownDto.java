@@ -0,0 +1,18 @@
+package com.gatlingweb.dto;
+
+import java.util.List;
+
+/**
+ * One breakdown of a monitored server over a run (CPU per core, disk per volume...): a series per
+ * label value of {@code keys}, {@code values.get(k).get(i)} being key k at {@code timestamps.get(i)},
+ * null where the exporter did not report it. Rollup resolutions give the mean of each step.
+ */
+public record InfraBreakdownDto(
+    Long serverId,
+    String serverName,
+    String name,
+    String resolution,
+    List<String> keys,
+    List<Long> timestamps,
+    List<List<Double>> values
+) {}
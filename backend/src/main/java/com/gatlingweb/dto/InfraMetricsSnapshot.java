@@ -2,6 +2,17 @@ package com.gatlingweb.dto;
 
 import com.gatlingweb.entity.ServerType;
 
+import java.util.Map;
+
+/**
+ * One scrape of a monitored server. {@code extra} holds the metrics its exporter profile declares
+ * beyond the common ones, by name; {@code sqlBatchPerSec} carries the profile's database
+ * operations (SQL batches, transactions) per second. {@code breakdowns} holds, when the run asked
+ * for them, the profile's per-core, per-disk or per-interface values by breakdown name then label
+ * value; they are stored as their own series and empty in stored metrics. {@code scrapeDurationMs} and
+ * {@code payloadBytes} (as transferred, compressed or not) describe the scrape itself; they are
+ * only sent live and are null in stored metrics.
+ */
 public record InfraMetricsSnapshot(
     long timestamp,
     Long serverId,
@@ -16,6 +27,10 @@ public record InfraMetricsSnapshot(
     Double networkRecvBytesPerSec,
     Double networkSentBytesPerSec,
     Double sqlBatchPerSec,
+    Map<String, Double> extra,
+    Map<String, Map<String, Double>> breakdowns,
+    Long scrapeDurationMs,
+    Long payloadBytes,
     String error
 ) {
     public static InfraMetricsSnapshot error(Long serverId, String serverName, ServerType serverType, String error) {
@@ -25,6 +40,9 @@ public record InfraMetricsSnapshot(
             serverName,
             serverType,
             null, null, null, null, null, null, null, null, null,
+            Map.of(),
+            Map.of(),
+            null, null,
             error
         );
     }
@@ -0,0 +1,9 @@
+package com.gatlingweb.dto;
+
+import java.util.List;
+
+/** A page of a seek-paginated list; pass {@code nextCursor} back to get the following page (null on the last). */
+public record KeysetPage<T>(
+    List<T> content,
+    String nextCursor
+) {}
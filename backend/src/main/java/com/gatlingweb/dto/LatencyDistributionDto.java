@@ -0,0 +1,34 @@
+package com.gatlingweb.dto;
+
+import com.gatlingweb.timeseries.LatencyHistogram;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Latency distribution read from a histogram; quantiles are keyed like {@code p50} or {@code p99.9}. */
+public record LatencyDistributionDto(
+    long count,
+    Double min,
+    Double max,
+    Double mean,
+    Map<String, Double> quantiles
+) {
+    public static LatencyDistributionDto of(LatencyHistogram histogram, List<Double> percentiles) {
+        Map<String, Double> quantiles = new LinkedHashMap<>();
+        for (double p : percentiles) {
+            quantiles.put(key(p), value(histogram.quantile(p / 100)));
+        }
+        return new LatencyDistributionDto(histogram.count(), value(histogram.min()), value(histogram.max()),
+            value(histogram.mean()), quantiles);
+    }
+
+    public static String key(double percentile) {
+        return "p" + BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString();
+    }
+
+    private static Double value(double v) {
+        return Double.isNaN(v) || Double.isInfinite(v) ? null : Math.round(v * 10) / 10.0;
+    }
+}
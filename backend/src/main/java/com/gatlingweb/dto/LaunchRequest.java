@@ -21,5 +21,9 @@ public record LaunchRequest(
     Boolean loop,
     @Min(value = 1, message = "bandwidthLimitMbps must be at least 1")
     @Max(value = 10000, message = "bandwidthLimitMbps must not exceed 10000")
-    Integer bandwidthLimitMbps
+    Integer bandwidthLimitMbps,
+    @Min(value = 500, message = "infraIntervalMs must be at least 500")
+    @Max(value = 60000, message = "infraIntervalMs must not exceed 60000")
+    Integer infraIntervalMs,
+    Boolean infraBreakdowns
 ) {}
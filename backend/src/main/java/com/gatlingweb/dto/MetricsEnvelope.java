@@ -0,0 +1,19 @@
+package com.gatlingweb.dto;
+
+/**
+ * Extremes of the source points merged into one downsampled point, from {@code start} to
+ * {@code end} inclusive. For rollups the per-window min/max are used.
+ */
+public record MetricsEnvelope(
+    long start,
+    long end,
+    int sourcePoints,
+    double minRequestsPerSecond,
+    double maxRequestsPerSecond,
+    double minMeanResponseTime,
+    double maxMeanResponseTime,
+    double minP95,
+    double maxP95,
+    double minP99,
+    double maxP99
+) {}
@@ -0,0 +1,10 @@
+package com.gatlingweb.dto;
+
+import java.util.List;
+
+public record MetricsSeriesDto(
+    String resolution,
+    int sourcePoints,
+    List<MetricsSnapshot> points,
+    List<MetricsEnvelope> envelopes
+) {}
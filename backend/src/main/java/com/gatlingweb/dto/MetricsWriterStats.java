@@ -0,0 +1,13 @@
+package com.gatlingweb.dto;
+
+public record MetricsWriterStats(
+    int queueDepth,
+    int queueCapacity,
+    int maxQueueDepth,
+    long enqueued,
+    long written,
+    long dropped,
+    long commits,
+    long lastCommitMicros,
+    long lastCommitAt
+) {}
@@ -9,6 +9,7 @@ public record MonitoredServerDto(
     String name,
     String url,
     ServerType serverType,
+    String exporterProfile,
     Boolean enabled,
     LocalDateTime lastSeenAt,
     String lastError
@@ -19,9 +20,18 @@ public record MonitoredServerDto(
             server.getName(),
             server.getUrl(),
             server.getServerType(),
+            server.getExporterProfile(),
             server.getEnabled(),
             server.getLastSeenAt(),
             server.getLastError()
         );
     }
+
+    /** The stored server with its live status when it has been scraped since startup. */
+    public static MonitoredServerDto from(MonitoredServer server, ServerHealthDto health) {
+        MonitoredServerDto dto = from(server);
+        if (health == null) return dto;
+        return new MonitoredServerDto(dto.id(), dto.name(), dto.url(), dto.serverType(), dto.exporterProfile(),
+            dto.enabled(), health.lastSeenAt(), health.lastError());
+    }
 }
@@ -0,0 +1,11 @@
+package com.gatlingweb.dto;
+
+import java.util.List;
+
+public record MultiRunComparisonDto(
+    Long baselineId,
+    double alpha,
+    double minEffect,
+    long stepMs,
+    List<ComparedRunDto> runs
+) {}
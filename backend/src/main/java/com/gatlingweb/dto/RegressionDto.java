@@ -0,0 +1,35 @@
+package com.gatlingweb.dto;
+
+import com.gatlingweb.entity.PerformanceRegression;
+
+public record RegressionDto(
+    Long id,
+    String simulationClass,
+    String metric,
+    Long changeRunId,
+    String changeVersion,
+    Long detectedRunId,
+    double baselineValue,
+    double currentValue,
+    double changePercent,
+    double pValue,
+    Double probabilitySlower,
+    long detectedAt
+) {
+    public static RegressionDto from(PerformanceRegression r) {
+        return new RegressionDto(
+            r.getId(),
+            r.getSimulationClass(),
+            r.getMetric(),
+            r.getChangeRunId(),
+            r.getChangeVersion(),
+            r.getDetectedRunId(),
+            r.getBaselineValue(),
+            r.getCurrentValue(),
+            r.getChangePercent(),
+            r.getPValue(),
+            r.getProbabilitySlower(),
+            r.getDetectedAt()
+        );
+    }
+}
@@ -0,0 +1,21 @@
+package com.gatlingweb.dto;
+
+import com.gatlingweb.entity.RunAnnotation;
+
+public record RunAnnotationDto(
+    Long id,
+    Long testRunId,
+    long timestamp,
+    String type,
+    String message
+) {
+    public static RunAnnotationDto from(RunAnnotation annotation) {
+        return new RunAnnotationDto(
+            annotation.getId(),
+            annotation.getTestRunId(),
+            annotation.getTimestamp(),
+            annotation.getType(),
+            annotation.getMessage()
+        );
+    }
+}
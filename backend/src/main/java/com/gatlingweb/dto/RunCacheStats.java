@@ -0,0 +1,9 @@
+package com.gatlingweb.dto;
+
+public record RunCacheStats(
+    int entries,
+    long bytes,
+    long maxBytes,
+    long hits,
+    long misses
+) {}
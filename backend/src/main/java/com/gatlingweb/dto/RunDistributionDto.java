@@ -0,0 +1,11 @@
+package com.gatlingweb.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/** Merged latency distribution of one or more runs, overall and per request (or Selenium step). */
+public record RunDistributionDto(
+    List<Long> runIds,
+    LatencyDistributionDto overall,
+    Map<String, LatencyDistributionDto> requests
+) {}
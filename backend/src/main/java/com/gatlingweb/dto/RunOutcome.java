@@ -0,0 +1,39 @@
+package com.gatlingweb.dto;
+
+import com.gatlingweb.entity.TestRun;
+import com.gatlingweb.entity.TestStatus;
+import com.gatlingweb.entity.ThresholdVerdict;
+
+import java.time.LocalDateTime;
+
+/** The columns of a run that trends and summaries need, without its labels or text fields. */
+public record RunOutcome(
+    Long id,
+    String simulationClass,
+    String version,
+    TestStatus status,
+    LocalDateTime startTime,
+    Long totalRequests,
+    Long totalErrors,
+    Double meanResponseTime,
+    Double p95ResponseTime,
+    ThresholdVerdict thresholdVerdict
+) {
+    public static RunOutcome from(TestRun run) {
+        return new RunOutcome(run.getId(), run.getSimulationClass(), run.getVersion(), run.getStatus(),
+            run.getStartTime(), run.getTotalRequests(), run.getTotalErrors(), run.getMeanResponseTime(),
+            run.getP95ResponseTime(), run.getThresholdVerdict());
+    }
+
+    public double errorRate() {
+        long total = totalRequests != null ? totalRequests : 0;
+        long errors = totalErrors != null ? totalErrors : 0;
+        return total > 0 ? (double) errors / total * 100 : 0.0;
+    }
+
+    public TrendPointDto toTrendPoint() {
+        return new TrendPointDto(id, startTime != null ? startTime.toString() : null, version,
+            totalRequests, totalErrors, meanResponseTime, p95ResponseTime, errorRate(),
+            thresholdVerdict != null ? thresholdVerdict.name() : null);
+    }
+}
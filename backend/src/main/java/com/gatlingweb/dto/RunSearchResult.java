@@ -0,0 +1,13 @@
+package com.gatlingweb.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/** A page of search hits with the number of matching runs for each facet value. */
+public record RunSearchResult<T>(
+    List<T> content,
+    int totalElements,
+    int page,
+    int size,
+    Map<String, Map<String, Integer>> facets
+) {}
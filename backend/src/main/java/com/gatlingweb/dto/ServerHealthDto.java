@@ -0,0 +1,19 @@
+package com.gatlingweb.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Live health of a monitored server as seen by its last scrapes. {@code since} is when it last went
+ * up or down; {@code lastSeenAt} is its last successful scrape and {@code lastScrapeMs} how long that
+ * scrape took.
+ */
+public record ServerHealthDto(
+    Long serverId,
+    String serverName,
+    boolean up,
+    LocalDateTime since,
+    LocalDateTime lastSeenAt,
+    String lastError,
+    Long lastScrapeMs,
+    int consecutiveFailures
+) {}
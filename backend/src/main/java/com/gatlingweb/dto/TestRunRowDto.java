@@ -0,0 +1,50 @@
+package com.gatlingweb.dto;
+
+import com.gatlingweb.entity.TestStatus;
+import com.gatlingweb.entity.ThresholdVerdict;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One line of the history list: the columns of {@link TestRunDto} without threshold details,
+ * launch parameters and notes. Built by a query projection; labels are attached afterwards.
+ */
+public record TestRunRowDto(
+    Long id,
+    String simulationClass,
+    String version,
+    TestStatus status,
+    LocalDateTime startTime,
+    LocalDateTime endTime,
+    String reportPath,
+    Long totalRequests,
+    Long totalErrors,
+    Double meanResponseTime,
+    Double p50ResponseTime,
+    Double p75ResponseTime,
+    Double p95ResponseTime,
+    Double p99ResponseTime,
+    List<String> labels,
+    String thresholdVerdict,
+    Long thresholdProfileId,
+    Integer bandwidthLimitMbps
+) {
+    /** Projection constructor, see {@code TestRunRepository}. */
+    public TestRunRowDto(Long id, String simulationClass, String version, TestStatus status,
+                         LocalDateTime startTime, LocalDateTime endTime, String reportPath,
+                         Long totalRequests, Long totalErrors, Double meanResponseTime,
+                         Double p50ResponseTime, Double p75ResponseTime, Double p95ResponseTime,
+                         Double p99ResponseTime, ThresholdVerdict thresholdVerdict,
+                         Long thresholdProfileId, Integer bandwidthLimitMbps) {
+        this(id, simulationClass, version, status, startTime, endTime, reportPath, totalRequests, totalErrors,
+            meanResponseTime, p50ResponseTime, p75ResponseTime, p95ResponseTime, p99ResponseTime, List.of(),
+            thresholdVerdict != null ? thresholdVerdict.name() : null, thresholdProfileId, bandwidthLimitMbps);
+    }
+
+    public TestRunRowDto withLabels(List<String> labels) {
+        return new TestRunRowDto(id, simulationClass, version, status, startTime, endTime, reportPath,
+            totalRequests, totalErrors, meanResponseTime, p50ResponseTime, p75ResponseTime, p95ResponseTime,
+            p99ResponseTime, labels, thresholdVerdict, thresholdProfileId, bandwidthLimitMbps);
+    }
+}
@@ -0,0 +1,11 @@
+package com.gatlingweb.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+
+public record ThroughputControlRequest(
+    @DecimalMin(value = "0.01", message = "rateMultiplier must be at least 0.01")
+    @DecimalMax(value = "100.0", message = "rateMultiplier must not exceed 100")
+    Double rateMultiplier,
+    Boolean paused
+) {}
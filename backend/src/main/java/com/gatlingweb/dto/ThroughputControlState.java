@@ -0,0 +1,8 @@
+package com.gatlingweb.dto;
+
+public record ThroughputControlState(
+    Long testRunId,
+    double rateMultiplier,
+    boolean paused,
+    long updatedAt
+) {}
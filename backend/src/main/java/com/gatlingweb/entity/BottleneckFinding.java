@@ -0,0 +1,81 @@
+package com.gatlingweb.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * How the latency of a run followed one resource of one monitored server: best lagged
+ * correlation, saturation knee if any, and the resulting score. {@code ranking} 1 is the most
+ * probable bottleneck of the run.
+ */
+@Entity
+@Table(name = "run_bottleneck_findings")
+public class BottleneckFinding {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long testRunId;
+    private int ranking;
+    private Long serverId;
+    private String serverName;
+    private String resource;
+    private double correlation;
+    private long lagMs;
+    private Double peak;
+    private Double kneeLevel;
+    private Double latencyBelowKnee;
+    private Double latencyAboveKnee;
+    private double score;
+    private long stepMs;
+    private int points;
+    private long analyzedAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getTestRunId() { return testRunId; }
+    public void setTestRunId(Long testRunId) { this.testRunId = testRunId; }
+
+    public int getRanking() { return ranking; }
+    public void setRanking(int ranking) { this.ranking = ranking; }
+
+    public Long getServerId() { return serverId; }
+    public void setServerId(Long serverId) { this.serverId = serverId; }
+
+    public String getServerName() { return serverName; }
+    public void setServerName(String serverName) { this.serverName = serverName; }
+
+    public String getResource() { return resource; }
+    public void setResource(String resource) { this.resource = resource; }
+
+    public double getCorrelation() { return correlation; }
+    public void setCorrelation(double correlation) { this.correlation = correlation; }
+
+    public long getLagMs() { return lagMs; }
+    public void setLagMs(long lagMs) { this.lagMs = lagMs; }
+
+    public Double getPeak() { return peak; }
+    public void setPeak(Double peak) { this.peak = peak; }
+
+    public Double getKneeLevel() { return kneeLevel; }
+    public void setKneeLevel(Double kneeLevel) { this.kneeLevel = kneeLevel; }
+
+    public Double getLatencyBelowKnee() { return latencyBelowKnee; }
+    public void setLatencyBelowKnee(Double latencyBelowKnee) { this.latencyBelowKnee = latencyBelowKnee; }
+
+    public Double getLatencyAboveKnee() { return latencyAboveKnee; }
+    public void setLatencyAboveKnee(Double latencyAboveKnee) { this.latencyAboveKnee = latencyAboveKnee; }
+
+    public double getScore() { return score; }
+    public void setScore(double score) { this.score = score; }
+
+    public long getStepMs() { return stepMs; }
+    public void setStepMs(long stepMs) { this.stepMs = stepMs; }
+
+    public int getPoints() { return points; }
+    public void setPoints(int points) { this.points = points; }
+
+    public long getAnalyzedAt() { return analyzedAt; }
+    public void setAnalyzedAt(long analyzedAt) { this.analyzedAt = analyzedAt; }
+}
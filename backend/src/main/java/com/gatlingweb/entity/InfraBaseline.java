@@ -0,0 +1,90 @@
+package com.gatlingweb.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Mean utilization of a monitored server around a run: at rest before it started
+ * ({@link Phase#BASELINE}) or while it recovered after the end ({@link Phase#COOLDOWN}).
+ * Means skip the samples where a metric is missing.
+ */
+@Entity
+@Table(name = "run_infra_baselines")
+public class InfraBaseline {
+
+    public enum Phase { BASELINE, COOLDOWN }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private RunKind runKind;
+    private Long runId;
+    @Enumerated(EnumType.STRING)
+    private Phase phase;
+    private Long serverId;
+    private String serverName;
+    @Enumerated(EnumType.STRING)
+    private ServerType serverType;
+    private int samples;
+    private long fromTimestamp;
+    private long toTimestamp;
+    private Double cpuPercent;
+    private Double memoryPercent;
+    private Double diskReadBytesPerSec;
+    private Double diskWriteBytesPerSec;
+    private Double networkRecvBytesPerSec;
+    private Double networkSentBytesPerSec;
+    private Double sqlBatchPerSec;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public RunKind getRunKind() { return runKind; }
+    public void setRunKind(RunKind runKind) { this.runKind = runKind; }
+
+    public Long getRunId() { return runId; }
+    public void setRunId(Long runId) { this.runId = runId; }
+
+    public Phase getPhase() { return phase; }
+    public void setPhase(Phase phase) { this.phase = phase; }
+
+    public Long getServerId() { return serverId; }
+    public void setServerId(Long serverId) { this.serverId = serverId; }
+
+    public String getServerName() { return serverName; }
+    public void setServerName(String serverName) { this.serverName = serverName; }
+
+    public ServerType getServerType() { return serverType; }
+    public void setServerType(ServerType serverType) { this.serverType = serverType; }
+
+    public int getSamples() { return samples; }
+    public void setSamples(int samples) { this.samples = samples; }
+
+    public long getFromTimestamp() { return fromTimestamp; }
+    public void setFromTimestamp(long fromTimestamp) { this.fromTimestamp = fromTimestamp; }
+
+    public long getToTimestamp() { return toTimestamp; }
+    public void setToTimestamp(long toTimestamp) { this.toTimestamp = toTimestamp; }
+
+    public Double getCpuPercent() { return cpuPercent; }
+    public void setCpuPercent(Double cpuPercent) { this.cpuPercent = cpuPercent; }
+
+    public Double getMemoryPercent() { return memoryPercent; }
+    public void setMemoryPercent(Double memoryPercent) { this.memoryPercent = memoryPercent; }
+
+    public Double getDiskReadBytesPerSec() { return diskReadBytesPerSec; }
+    public void setDiskReadBytesPerSec(Double diskReadBytesPerSec) { this.diskReadBytesPerSec = diskReadBytesPerSec; }
+
+    public Double getDiskWriteBytesPerSec() { return diskWriteBytesPerSec; }
+    public void setDiskWriteBytesPerSec(Double diskWriteBytesPerSec) { this.diskWriteBytesPerSec = diskWriteBytesPerSec; }
+
+    public Double getNetworkRecvBytesPerSec() { return networkRecvBytesPerSec; }
+    public void setNetworkRecvBytesPerSec(Double networkRecvBytesPerSec) { this.networkRecvBytesPerSec = networkRecvBytesPerSec; }
+
+    public Double getNetworkSentBytesPerSec() { return networkSentBytesPerSec; }
+    public void setNetworkSentBytesPerSec(Double networkSentBytesPerSec) { this.networkSentBytesPerSec = networkSentBytesPerSec; }
+
+    public Double getSqlBatchPerSec() { return sqlBatchPerSec; }
+    public void setSqlBatchPerSec(Double sqlBatchPerSec) { this.sqlBatchPerSec = sqlBatchPerSec; }
+}
@@ -3,6 +3,8 @@ package com.gatlingweb.entity;
 import com.gatlingweb.dto.InfraMetricsSnapshot;
 import jakarta.persistence.*;
 
+import java.util.Map;
+
 @Entity
 @Table(name = "infra_metrics_points")
 public class InfraMetricsPoint {
@@ -56,7 +58,7 @@ public class InfraMetricsPoint {
             cpuPercent, memoryUsedBytes, memoryTotalBytes, memoryPercent,
             diskReadBytesPerSec, diskWriteBytesPerSec,
             networkRecvBytesPerSec, networkSentBytesPerSec,
-            sqlBatchPerSec, null
+            sqlBatchPerSec, Map.of(), Map.of(), null, null, null
         );
     }
 
@@ -17,6 +17,7 @@ public class MonitoredServer {
     @Enumerated(EnumType.STRING)
     private ServerType serverType;
 
+    private String exporterProfile;
     private Boolean enabled = true;
     private LocalDateTime lastSeenAt;
     private String lastError;
@@ -35,6 +36,9 @@ public class MonitoredServer {
     public ServerType getServerType() { return serverType; }
     public void setServerType(ServerType serverType) { this.serverType = serverType; }
 
+    public String getExporterProfile() { return exporterProfile; }
+    public void setExporterProfile(String exporterProfile) { this.exporterProfile = exporterProfile; }
+
     public Boolean getEnabled() { return enabled; }
     public void setEnabled(Boolean enabled) { this.enabled = enabled; }
 
@@ -0,0 +1,65 @@
+package com.gatlingweb.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * A lasting shift of a run-level metric found in the history of a simulation. The regression
+ * started with run {@code changeRunId}; {@code baselineValue} and {@code currentValue} are the
+ * metric's mean before the shift and over the latest runs.
+ */
+@Entity
+@Table(name = "performance_regressions")
+public class PerformanceRegression {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String simulationClass;
+    private String metric;
+    private Long changeRunId;
+    private String changeVersion;
+    private Long detectedRunId;
+    private double baselineValue;
+    private double currentValue;
+    private double changePercent;
+    private double pValue;
+    private Double probabilitySlower;
+    private long detectedAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getSimulationClass() { return simulationClass; }
+    public void setSimulationClass(String simulationClass) { this.simulationClass = simulationClass; }
+
+    public String getMetric() { return metric; }
+    public void setMetric(String metric) { this.metric = metric; }
+
+    public Long getChangeRunId() { return changeRunId; }
+    public void setChangeRunId(Long changeRunId) { this.changeRunId = changeRunId; }
+
+    public String getChangeVersion() { return changeVersion; }
+    public void setChangeVersion(String changeVersion) { this.changeVersion = changeVersion; }
+
+    public Long getDetectedRunId() { return detectedRunId; }
+    public void setDetectedRunId(Long detectedRunId) { this.detectedRunId = detectedRunId; }
+
+    public double getBaselineValue() { return baselineValue; }
+    public void setBaselineValue(double baselineValue) { this.baselineValue = baselineValue; }
+
+    public double getCurrentValue() { return currentValue; }
+    public void setCurrentValue(double currentValue) { this.currentValue = currentValue; }
+
+    public double getChangePercent() { return changePercent; }
+    public void setChangePercent(double changePercent) { this.changePercent = changePercent; }
+
+    public double getPValue() { return pValue; }
+    public void setPValue(double pValue) { this.pValue = pValue; }
+
+    public Double getProbabilitySlower() { return probabilitySlower; }
+    public void setProbabilitySlower(Double probabilitySlower) { this.probabilitySlower = probabilitySlower; }
+
+    public long getDetectedAt() { return detectedAt; }
+    public void setDetectedAt(long detectedAt) { this.detectedAt = detectedAt; }
+}
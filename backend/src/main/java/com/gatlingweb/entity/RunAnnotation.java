@@ -0,0 +1,41 @@
+package com.gatlingweb.entity;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "run_annotations")
+public class RunAnnotation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long testRunId;
+    private long timestamp;
+    private String type;
+    private String message;
+
+    public RunAnnotation() {}
+
+    public RunAnnotation(Long testRunId, long timestamp, String type, String message) {
+        this.testRunId = testRunId;
+        this.timestamp = timestamp;
+        this.type = type;
+        this.message = message;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getTestRunId() { return testRunId; }
+    public void setTestRunId(Long testRunId) { this.testRunId = testRunId; }
+
+    public long getTimestamp() { return timestamp; }
+    public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
@@ -0,0 +1,51 @@
+package com.gatlingweb.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Serialized {@link com.gatlingweb.timeseries.LatencyHistogram} of a finished run: the whole run
+ * when {@code requestName} is empty, otherwise one Gatling request or Selenium step.
+ */
+@Entity
+@Table(name = "run_histograms")
+public class RunHistogram {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private RunKind runKind;
+    private Long runId;
+    private String requestName;
+    private long sampleCount;
+    private byte[] histogram;
+
+    public RunHistogram() {}
+
+    public RunHistogram(RunKind runKind, Long runId, String requestName, long sampleCount, byte[] histogram) {
+        this.runKind = runKind;
+        this.runId = runId;
+        this.requestName = requestName;
+        this.sampleCount = sampleCount;
+        this.histogram = histogram;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public RunKind getRunKind() { return runKind; }
+    public void setRunKind(RunKind runKind) { this.runKind = runKind; }
+
+    public Long getRunId() { return runId; }
+    public void setRunId(Long runId) { this.runId = runId; }
+
+    public String getRequestName() { return requestName; }
+    public void setRequestName(String requestName) { this.requestName = requestName; }
+
+    public long getSampleCount() { return sampleCount; }
+    public void setSampleCount(long sampleCount) { this.sampleCount = sampleCount; }
+
+    public byte[] getHistogram() { return histogram; }
+    public void setHistogram(byte[] histogram) { this.histogram = histogram; }
+}
@@ -0,0 +1,7 @@
+package com.gatlingweb.entity;
+
+/** Which history a run id refers to. */
+public enum RunKind {
+    GATLING,
+    SELENIUM
+}
@@ -4,5 +4,7 @@ public enum ServerType {
     API,
     SQL,
     WEB,
-    FILE
+    FILE,
+    /** A Java service; monitored with the JVM exporter profile unless another is chosen. */
+    JVM
 }
@@ -0,0 +1,203 @@
+package com.gatlingweb.live;
+
+import com.gatlingweb.entity.RunKind;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in binary channel on {@code /ws-live?kind=GATLING&run=<id>}: every live stream of the run
+ * (Gatling, Selenium and infrastructure samples) on one connection, delta-encoded by
+ * {@link LiveFrameEncoder}. The STOMP topics are unchanged; publishing is skipped while no client
+ * watches the run.
+ * <p>
+ * Publishing never waits for a client: frames are encoded in the caller and queued per connection,
+ * and a sender thread writes them out in order. A connection whose queue outgrows
+ * {@code buffer-size-limit} bytes, or whose current send has taken longer than
+ * {@code send-time-limit-ms}, is closed; skipping frames instead would corrupt the deltas.
+ */
+@Component
+public class LiveChannel extends BinaryWebSocketHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveChannel.class);
+
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final long sendTimeLimitNanos;
+    private final int bufferSizeLimit;
+    // A stalled client holds one sender thread until its connection is closed
+    private final ExecutorService senders = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "live-channel-sender");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public LiveChannel(
+            @Value("${gatling.live-channel.send-time-limit-ms:5000}") long sendTimeLimitMs,
+            @Value("${gatling.live-channel.buffer-size-limit:524288}") int bufferSizeLimit) {
+        if (sendTimeLimitMs <= 0 || bufferSizeLimit <= 0) {
+            throw new IllegalArgumentException("live-channel limits must be positive");
+        }
+        this.sendTimeLimitNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeLimitMs);
+        this.bufferSizeLimit = bufferSizeLimit;
+    }
+
+    public boolean isWatched(RunKind kind, Long runId) {
+        return subscribers.containsKey(key(kind, runId));
+    }
+
+    public void publish(RunKind kind, Long runId, LiveRecord record) {
+        publish(kind, runId, List.of(record));
+    }
+
+    /** Sends the records of the run as a single frame to each of its clients. */
+    public void publish(RunKind kind, Long runId, List<LiveRecord> records) {
+        Set<Subscriber> watching = subscribers.get(key(kind, runId));
+        if (watching == null || records.isEmpty()) return;
+        for (Subscriber subscriber : watching) {
+            subscriber.send(records);
+        }
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws IOException {
+        String key = key(session.getUri());
+        if (key == null) {
+            session.close(CloseStatus.BAD_DATA.withReason("Expected ?kind=GATLING|SELENIUM&run=<id>"));
+            return;
+        }
+        Subscriber subscriber = new Subscriber(session);
+        session.getAttributes().put(Subscriber.class.getName(), subscriber);
+        subscribers.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        log.debug("Live channel opened for {}", key);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        String key = key(session.getUri());
+        Object subscriber = session.getAttributes().get(Subscriber.class.getName());
+        if (key == null || subscriber == null) return;
+        subscribers.computeIfPresent(key, (k, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("Live channel error: {}", exception.getMessage());
+    }
+
+    private static String key(URI uri) {
+        if (uri == null) return null;
+        var params = UriComponentsBuilder.fromUri(uri).build().getQueryParams();
+        try {
+            RunKind kind = RunKind.valueOf(params.getFirst("kind"));
+            return key(kind, Long.valueOf(params.getFirst("run")));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return null;
+        }
+    }
+
+    private static String key(RunKind kind, Long runId) {
+        return kind + ":" + runId;
+    }
+
+    private final class Subscriber {
+        private final WebSocketSession session;
+        private final LiveFrameEncoder encoder = new LiveFrameEncoder();
+        private final Queue<byte[]> frames = new ArrayDeque<>();
+        private int queuedBytes;
+        private long sendStartedAt;
+        private boolean sending;
+        private boolean closed;
+
+        Subscriber(WebSocketSession session) {
+            this.session = session;
+        }
+
+        /** Encodes and queues under one lock, so frames leave in the order the deltas assume. */
+        void send(List<LiveRecord> records) {
+            synchronized (this) {
+                if (closed) return;
+                if (!session.isOpen()) {
+                    closed = true;
+                    return;
+                }
+                byte[] frame = encoder.encode(records);
+                if (queuedBytes + frame.length > bufferSizeLimit
+                        || sending && System.nanoTime() - sendStartedAt > sendTimeLimitNanos) {
+                    closed = true;
+                    frames.clear();
+                    senders.execute(this::close);
+                    return;
+                }
+                frames.add(frame);
+                queuedBytes += frame.length;
+                if (sending) return;
+                sending = true;
+                sendStartedAt = System.nanoTime();
+            }
+            senders.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                byte[] frame;
+                synchronized (this) {
+                    frame = frames.poll();
+                    if (frame == null || closed) {
+                        sending = false;
+                        return;
+                    }
+                    queuedBytes -= frame.length;
+                    sendStartedAt = System.nanoTime();
+                }
+                try {
+                    session.sendMessage(new BinaryMessage(frame));
+                } catch (IOException | RuntimeException e) {
+                    log.debug("Live channel send failed: {}", e.getMessage());
+                    synchronized (this) {
+                        closed = true;
+                        frames.clear();
+                        sending = false;
+                    }
+                    close();
+                    return;
+                }
+            }
+        }
+
+        private void close() {
+            log.debug("Closing live channel {}", session.getId());
+            try {
+                session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException | RuntimeException e) {
+                log.debug("Live channel close failed: {}", e.getMessage());
+            }
+        }
+    }
+}
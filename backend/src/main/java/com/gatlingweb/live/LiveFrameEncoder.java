@@ -0,0 +1,127 @@
+package com.gatlingweb.live;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes the live records of one connection into binary frames, each value as the difference with
+ * the previous record of the same stream and key. Holds the state of a single connection and is
+ * not thread-safe: frames must be sent in the order they were encoded.
+ * <p>
+ * A frame is a version byte, then a varint record count and the records. A record starts with its
+ * stream id byte, its key as a varint and a flags byte. A keyframe (flag bit 0) then carries its
+ * labels and column names (varint count, then each string as varint UTF-8 length + 1, 0 for null)
+ * and its timestamp; a delta record carries the zigzag varint difference with the previous
+ * timestamp. Both follow with a bitmap of the columns that hold a value, one bit per column, least
+ * significant bit first, and the present values scaled by {@link #SCALE}, rounded, as zigzag varints:
+ * absolute in a keyframe, relative to the column's last value in a delta record.
+ */
+public final class LiveFrameEncoder {
+
+    static final int VERSION = 1;
+    static final int KEYFRAME = 1;
+    /** Values travel with three decimals */
+    static final double SCALE = 1_000;
+    /** Records of a stream and key between keyframes, so a decoder out of step recovers */
+    static final int KEYFRAME_INTERVAL = 60;
+
+    private final Map<String, State> states = new HashMap<>();
+
+    public byte[] encode(List<LiveRecord> records) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + records.size() * 32);
+        out.write(VERSION);
+        writeVarint(out, records.size());
+        for (LiveRecord record : records) {
+            encode(out, record);
+        }
+        return out.toByteArray();
+    }
+
+    private void encode(ByteArrayOutputStream out, LiveRecord record) {
+        State state = states.get(record.stream().id + ":" + record.key());
+        boolean keyframe = state == null
+            || state.sinceKeyframe >= KEYFRAME_INTERVAL
+            || !state.labels.equals(record.labels())
+            || !state.columns.equals(record.columns());
+        if (keyframe) {
+            state = new State(record.labels(), record.columns());
+            states.put(record.stream().id + ":" + record.key(), state);
+        }
+
+        out.write(record.stream().id);
+        writeVarint(out, record.key());
+        out.write(keyframe ? KEYFRAME : 0);
+        if (keyframe) {
+            writeStrings(out, record.labels());
+            writeStrings(out, record.columns());
+            writeVarint(out, zigzag(record.timestamp()));
+        } else {
+            writeVarint(out, zigzag(record.timestamp() - state.timestamp));
+        }
+        state.timestamp = record.timestamp();
+        state.sinceKeyframe = keyframe ? 0 : state.sinceKeyframe + 1;
+
+        List<Double> values = record.values();
+        long[] scaled = new long[values.size()];
+        byte[] present = new byte[(values.size() + 7) / 8];
+        for (int i = 0; i < values.size(); i++) {
+            Double value = values.get(i);
+            // NaN and infinities have no fixed-point form: sent as missing
+            if (value == null || value.isNaN() || value.isInfinite()) continue;
+            present[i / 8] |= (byte) (1 << (i % 8));
+            scaled[i] = Math.round(value * SCALE);
+        }
+        out.write(present, 0, present.length);
+        for (int i = 0; i < scaled.length; i++) {
+            if ((present[i / 8] & (1 << (i % 8))) == 0) continue;
+            // Absent values leave the column's reference unchanged
+            writeVarint(out, zigzag(scaled[i] - state.last[i]));
+            state.last[i] = scaled[i];
+        }
+    }
+
+    private static void writeStrings(ByteArrayOutputStream out, List<String> strings) {
+        writeVarint(out, strings.size());
+        for (String s : strings) {
+            if (s == null) {
+                writeVarint(out, 0);
+                continue;
+            }
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, bytes.length + 1L);
+            out.write(bytes, 0, bytes.length);
+        }
+    }
+
+    static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static final class State {
+        final List<String> labels;
+        final List<String> columns;
+        // Reference of every column: zero in a keyframe, so its values are absolute
+        final long[] last;
+        long timestamp;
+        int sinceKeyframe;
+
+        State(List<String> labels, List<String> columns) {
+            // Labels may be null, such as the error of a healthy server
+            this.labels = new ArrayList<>(labels);
+            this.columns = List.copyOf(columns);
+            this.last = new long[columns.size()];
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.gatlingweb.live;
+
+import com.gatlingweb.dto.InfraMetricsSnapshot;
+import com.gatlingweb.dto.MetricsSnapshot;
+import com.gatlingweb.selenium.dto.SeleniumMetricsSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One live sample flattened for the binary channel: the stream and key (server id for infra,
+ * 0 otherwise) it belongs to, text {@code labels} that rarely change, and named numeric columns.
+ * A change of labels or column names starts a new keyframe for the stream and key.
+ */
+public record LiveRecord(
+    Stream stream,
+    long key,
+    long timestamp,
+    List<String> labels,
+    List<String> columns,
+    List<Double> values
+) {
+    public enum Stream {
+        GATLING_METRICS(1),
+        INFRA_METRICS(2),
+        SELENIUM_METRICS(3);
+
+        final int id;
+
+        Stream(int id) {
+            this.id = id;
+        }
+    }
+
+    private static final List<String> GATLING_COLUMNS = List.of(
+        "requestsPerSecond", "errorsPerSecond", "meanResponseTime", "p50", "p75", "p95", "p99",
+        "activeUsers", "totalRequests", "totalErrors");
+    private static final List<String> SELENIUM_COLUMNS = List.of(
+        "iterationsPerSecond", "errorsPerSecond", "meanStepDuration", "p50", "p75", "p95", "p99",
+        "activeBrowsers", "totalIterations", "totalErrors", "cpuPercent", "memoryPercent");
+    private static final List<String> INFRA_COLUMNS = List.of(
+        "cpuPercent", "memoryUsedBytes", "memoryTotalBytes", "memoryPercent", "diskReadBytesPerSec",
+        "diskWriteBytesPerSec", "networkRecvBytesPerSec", "networkSentBytesPerSec", "sqlBatchPerSec",
+        "scrapeDurationMs", "payloadBytes");
+    static final String EXTRA_PREFIX = "extra.";
+    static final String BREAKDOWN_PREFIX = "breakdown.";
+
+    public static LiveRecord of(MetricsSnapshot s) {
+        return new LiveRecord(Stream.GATLING_METRICS, 0, s.timestamp(), List.of(), GATLING_COLUMNS, List.of(
+            s.requestsPerSecond(), s.errorsPerSecond(), s.meanResponseTime(), s.p50(), s.p75(), s.p95(), s.p99(),
+            (double) s.activeUsers(), (double) s.totalRequests(), (double) s.totalErrors()));
+    }
+
+    public static LiveRecord of(SeleniumMetricsSnapshot s) {
+        List<Double> values = new ArrayList<>(SELENIUM_COLUMNS.size());
+        values.addAll(List.of(s.iterationsPerSecond(), s.errorsPerSecond(), s.meanStepDuration(),
+            s.p50(), s.p75(), s.p95(), s.p99(), (double) s.activeBrowsers(), (double) s.totalIterations(),
+            (double) s.totalErrors()));
+        values.add(s.cpuPercent());
+        values.add(s.memoryPercent());
+        return new LiveRecord(Stream.SELENIUM_METRICS, 0, s.timestamp(), List.of(), SELENIUM_COLUMNS, values);
+    }
+
+    /** Extra metrics and breakdown values become {@code extra.<name>} and {@code breakdown.<name>.<label>} columns. */
+    public static LiveRecord of(InfraMetricsSnapshot s) {
+        List<String> columns = new ArrayList<>(INFRA_COLUMNS);
+        List<Double> values = new ArrayList<>(columns.size() + s.extra().size());
+        values.add(s.cpuPercent());
+        values.add(toDouble(s.memoryUsedBytes()));
+        values.add(toDouble(s.memoryTotalBytes()));
+        values.add(s.memoryPercent());
+        values.add(s.diskReadBytesPerSec());
+        values.add(s.diskWriteBytesPerSec());
+        values.add(s.networkRecvBytesPerSec());
+        values.add(s.networkSentBytesPerSec());
+        values.add(s.sqlBatchPerSec());
+        values.add(toDouble(s.scrapeDurationMs()));
+        values.add(toDouble(s.payloadBytes()));
+        for (Map.Entry<String, Double> e : s.extra().entrySet()) {
+            columns.add(EXTRA_PREFIX + e.getKey());
+            values.add(e.getValue());
+        }
+        for (Map.Entry<String, Map<String, Double>> breakdown : s.breakdowns().entrySet()) {
+            for (Map.Entry<String, Double> e : breakdown.getValue().entrySet()) {
+                columns.add(BREAKDOWN_PREFIX + breakdown.getKey() + "." + e.getKey());
+                values.add(e.getValue());
+            }
+        }
+        List<String> labels = new ArrayList<>(3);
+        labels.add(s.serverName());
+        labels.add(s.serverType() != null ? s.serverType().name() : null);
+        labels.add(s.error());
+        long key = s.serverId() != null ? s.serverId() : 0;
+        return new LiveRecord(Stream.INFRA_METRICS, key, s.timestamp(), labels, columns, values);
+    }
+
+    private static Double toDouble(Long value) {
+        return value != null ? value.doubleValue() : null;
+    }
+}
@@ -0,0 +1,14 @@
+package com.gatlingweb.repository;
+
+import com.gatlingweb.entity.BottleneckFinding;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface BottleneckFindingRepository extends JpaRepository<BottleneckFinding, Long> {
+    List<BottleneckFinding> findByTestRunIdOrderByRankingAsc(Long testRunId);
+
+    @Transactional
+    void deleteByTestRunId(Long testRunId);
+}
@@ -0,0 +1,19 @@
+package com.gatlingweb.repository;
+
+import com.gatlingweb.entity.InfraBaseline;
+import com.gatlingweb.entity.RunKind;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface InfraBaselineRepository extends JpaRepository<InfraBaseline, Long> {
+    List<InfraBaseline> findByRunKindAndRunIdOrderByServerIdAsc(RunKind runKind, Long runId);
+
+    @Modifying
+    @Query("DELETE FROM InfraBaseline b WHERE b.runKind = :runKind AND b.runId = :runId AND b.phase = :phase")
+    void deletePhase(@Param("runKind") RunKind runKind, @Param("runId") Long runId,
+                     @Param("phase") InfraBaseline.Phase phase);
+}
@@ -2,11 +2,22 @@ package com.gatlingweb.repository;
 
 import com.gatlingweb.entity.MonitoredServer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface MonitoredServerRepository extends JpaRepository<MonitoredServer, Long> {
     List<MonitoredServer> findByEnabledTrue();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE MonitoredServer s SET s.lastSeenAt = :lastSeenAt, s.lastError = :lastError WHERE s.id = :id")
+    int updateStatus(@Param("id") Long id, @Param("lastSeenAt") LocalDateTime lastSeenAt,
+                     @Param("lastError") String lastError);
 }
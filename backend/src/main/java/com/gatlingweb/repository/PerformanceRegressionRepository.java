@@ -0,0 +1,15 @@
+package com.gatlingweb.repository;
+
+import com.gatlingweb.entity.PerformanceRegression;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface PerformanceRegressionRepository extends JpaRepository<PerformanceRegression, Long> {
+    Optional<PerformanceRegression> findFirstBySimulationClassAndMetricOrderByIdDesc(String simulationClass, String metric);
+    boolean existsBySimulationClassAndMetricAndChangeRunId(String simulationClass, String metric, Long changeRunId);
+    List<PerformanceRegression> findBySimulationClassOrderByIdDesc(String simulationClass, Pageable pageable);
+    List<PerformanceRegression> findAllByOrderByIdDesc(Pageable pageable);
+}
@@ -0,0 +1,11 @@
+package com.gatlingweb.repository;
+
+import com.gatlingweb.entity.RunAnnotation;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface RunAnnotationRepository extends JpaRepository<RunAnnotation, Long> {
+    List<RunAnnotation> findByTestRunIdOrderByTimestampAsc(Long testRunId);
+    void deleteByTestRunId(Long testRunId);
+}
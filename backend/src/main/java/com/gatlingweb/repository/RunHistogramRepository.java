@@ -0,0 +1,21 @@
+package com.gatlingweb.repository;
+
+import com.gatlingweb.entity.RunHistogram;
+import com.gatlingweb.entity.RunKind;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface RunHistogramRepository extends JpaRepository<RunHistogram, Long> {
+    List<RunHistogram> findByRunKindAndRunId(RunKind runKind, Long runId);
+    List<RunHistogram> findByRunKindAndRunIdIn(RunKind runKind, Collection<Long> runIds);
+    List<RunHistogram> findByRunKindAndRunIdInAndRequestName(RunKind runKind, Collection<Long> runIds, String requestName);
+
+    @Modifying
+    @Query("DELETE FROM RunHistogram h WHERE h.runKind = :runKind AND h.runId = :runId")
+    void deleteRun(@Param("runKind") RunKind runKind, @Param("runId") Long runId);
+}
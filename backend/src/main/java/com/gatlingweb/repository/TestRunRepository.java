@@ -1,38 +1,79 @@
 package com.gatlingweb.repository;
 
+import com.gatlingweb.dto.RunOutcome;
+import com.gatlingweb.dto.TestRunRowDto;
 import com.gatlingweb.entity.TestRun;
 import com.gatlingweb.entity.TestStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface TestRunRepository extends JpaRepository<TestRun, Long> {
     Optional<TestRun> findByStatus(TestStatus status);
-    List<TestRun> findAllByOrderByStartTimeDesc();
-    Page<TestRun> findAll(Pageable pageable);
+    /** Cursor over the whole history for exports; must be consumed inside a transaction and closed. */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT t FROM TestRun t ORDER BY t.startTime DESC")
+    Stream<TestRun> streamAllByOrderByStartTimeDesc();
     List<TestRun> findBySimulationClassOrderByStartTimeDesc(String simulationClass);
     List<TestRun> findByStatusOrderByStartTimeAsc(TestStatus status);
     List<TestRun> findAllByStatus(TestStatus status);
     long countByStatus(TestStatus status);
 
-    @Query("SELECT DISTINCT t.simulationClass FROM TestRun t WHERE t.status IN ('COMPLETED', 'FAILED')")
-    List<String> findDistinctSimulationClassCompleted();
+    @Query("SELECT new com.gatlingweb.dto.RunOutcome(t.id, t.simulationClass, t.version, t.status, t.startTime, "
+        + "t.totalRequests, t.totalErrors, t.meanResponseTime, t.p95ResponseTime, t.thresholdVerdict) "
+        + "FROM TestRun t WHERE t.status IN ('COMPLETED', 'FAILED') ORDER BY t.startTime, t.id")
+    List<RunOutcome> findFinishedOutcomes();
 
-    List<TestRun> findBySimulationClassAndStatusOrderByStartTimeDesc(String simulationClass, TestStatus status, Pageable pageable);
+    @Query("SELECT new com.gatlingweb.dto.RunOutcome(t.id, t.simulationClass, t.version, t.status, t.startTime, "
+        + "t.totalRequests, t.totalErrors, t.meanResponseTime, t.p95ResponseTime, t.thresholdVerdict) "
+        + "FROM TestRun t WHERE t.simulationClass = :simulationClass AND t.status = 'COMPLETED' "
+        + "ORDER BY t.startTime DESC, t.id DESC")
+    List<RunOutcome> findCompletedOutcomes(@Param("simulationClass") String simulationClass, Pageable pageable);
 
     @Query("SELECT DISTINCT l FROM TestRun t JOIN t.labels l ORDER BY l")
     List<String> findAllDistinctLabels();
 
-    @Query("SELECT DISTINCT t FROM TestRun t JOIN t.labels l WHERE l = :label")
-    Page<TestRun> findByLabel(@Param("label") String label, Pageable pageable);
+    // History list rows: no labels (fetched in one batch by findLabels) and no large text columns
+    String ROW = "SELECT new com.gatlingweb.dto.TestRunRowDto(t.id, t.simulationClass, t.version, t.status, "
+        + "t.startTime, t.endTime, t.reportPath, t.totalRequests, t.totalErrors, t.meanResponseTime, "
+        + "t.p50ResponseTime, t.p75ResponseTime, t.p95ResponseTime, t.p99ResponseTime, t.thresholdVerdict, "
+        + "t.thresholdProfileId, t.bandwidthLimitMbps) FROM TestRun t ";
+    String LABEL_FILTER = "(:label IS NULL OR :label MEMBER OF t.labels)";
 
-    long countByStatusAndStartTimeAfter(TestStatus status, java.time.LocalDateTime after);
+    @Query(value = ROW + "WHERE " + LABEL_FILTER,
+           countQuery = "SELECT COUNT(t) FROM TestRun t WHERE " + LABEL_FILTER)
+    Page<TestRunRowDto> findRows(@Param("label") String label, Pageable pageable);
 
-    @Query("SELECT AVG(t.meanResponseTime) FROM TestRun t WHERE t.status = 'COMPLETED' AND t.startTime > :after AND t.meanResponseTime IS NOT NULL")
-    Double avgMeanResponseTimeAfter(@Param("after") java.time.LocalDateTime after);
+    @Query(ROW + "WHERE " + LABEL_FILTER + " ORDER BY t.startTime DESC, t.id DESC")
+    List<TestRunRowDto> findFirstRows(@Param("label") String label, Pageable limit);
+
+    // startTime <= :startTime keeps the condition an index range; the second term breaks ties on id
+    @Query(ROW + "WHERE t.startTime <= :startTime AND (t.startTime < :startTime OR t.id < :id) AND " + LABEL_FILTER
+        + " ORDER BY t.startTime DESC, t.id DESC")
+    List<TestRunRowDto> findRowsBefore(@Param("startTime") LocalDateTime startTime, @Param("id") Long id,
+                                       @Param("label") String label, Pageable limit);
+
+    @Query(ROW + "WHERE t.id IN :ids")
+    List<TestRunRowDto> findRowsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT t.id, l FROM TestRun t JOIN t.labels l WHERE t.id IN :ids")
+    List<Object[]> findLabels(@Param("ids") Collection<Long> ids);
+
+    // Search index load: (id, simulationClass, version, status, thresholdVerdict, notes, startTime)
+    @Query("SELECT t.id, t.simulationClass, t.version, t.status, t.thresholdVerdict, t.notes, t.startTime FROM TestRun t")
+    List<Object[]> findSearchFields();
+
+    @Query("SELECT t.id, l FROM TestRun t JOIN t.labels l")
+    List<Object[]> findAllLabels();
 }
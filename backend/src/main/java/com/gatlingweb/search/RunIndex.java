@@ -0,0 +1,254 @@
+package com.gatlingweb.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-memory inverted index over run metadata.
+ * <p>
+ * Each run gets a slot; every facet value and every text token maps to the set of slots holding
+ * it. A query intersects those sets: values of one facet are OR-ed, facets and text tokens are
+ * AND-ed, and a text token matches every indexed token it is a prefix of. Facet counts follow the
+ * usual multi-select rule: the counts of a facet ignore that facet's own filter, so the other
+ * values stay selectable. Hits are ordered by sort key then id, both descending.
+ */
+public final class RunIndex {
+
+    /** One run: its facet values, free text, and the key it is listed by. */
+    public record Doc(long id, long sortKey, Map<String, ? extends Collection<String>> facets, String text) {}
+
+    /** Facet filters (facet name to accepted values), optional text, and the requested window of hits. */
+    public record Query(Map<String, ? extends Collection<String>> filters, String text, int offset, int limit) {}
+
+    /** Matching run ids for the window, the total number of matches and the count of each facet value. */
+    public record Hits(int total, List<Long> ids, Map<String, Map<String, Integer>> facets) {}
+
+    // Facet values of a run as ids into Facet.values, one array per facet in facetNames order
+    private record Stored(long id, long sortKey, int[][] facetValues, List<String> tokens) {}
+
+    private static final class Facet {
+        final Map<String, BitSet> postings = new HashMap<>();
+        final Map<String, Integer> ids = new HashMap<>();
+        final List<String> values = new ArrayList<>();
+
+        int idOf(String value) {
+            return ids.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+    }
+
+    private final List<String> facetNames;
+    private final Map<String, Facet> facets = new HashMap<>();
+    private final TreeMap<String, BitSet> tokenPostings = new TreeMap<>();
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    private Stored[] docs = new Stored[64];
+
+    public RunIndex(List<String> facetNames) {
+        this.facetNames = List.copyOf(facetNames);
+        for (String name : facetNames) facets.put(name, new Facet());
+    }
+
+    public List<String> facetNames() {
+        return facetNames;
+    }
+
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    /** Adds the run, or replaces what was indexed for it. */
+    public synchronized void put(Doc doc) {
+        remove(doc.id());
+        Integer slot = freeSlots.poll();
+        if (slot == null) {
+            slot = slots.size();
+            if (slot == docs.length) docs = Arrays.copyOf(docs, docs.length * 2);
+        }
+        int[][] facetValues = new int[facetNames.size()][];
+        for (int f = 0; f < facetNames.size(); f++) {
+            Facet facet = facets.get(facetNames.get(f));
+            Collection<String> values = doc.facets().get(facetNames.get(f));
+            Set<String> kept = new LinkedHashSet<>();
+            if (values != null) {
+                for (String value : values) {
+                    if (value != null && !value.isEmpty()) kept.add(value);
+                }
+            }
+            facetValues[f] = new int[kept.size()];
+            int i = 0;
+            for (String value : kept) {
+                facet.postings.computeIfAbsent(value, v -> new BitSet()).set(slot);
+                facetValues[f][i++] = facet.idOf(value);
+            }
+        }
+        List<String> tokens = List.copyOf(indexTokens(doc.text()));
+        for (String token : tokens) {
+            tokenPostings.computeIfAbsent(token, t -> new BitSet()).set(slot);
+        }
+        docs[slot] = new Stored(doc.id(), doc.sortKey(), facetValues, tokens);
+        slots.put(doc.id(), slot);
+        live.set(slot);
+    }
+
+    public synchronized void remove(long id) {
+        Integer slot = slots.remove(id);
+        if (slot == null) return;
+        Stored doc = docs[slot];
+        for (int f = 0; f < facetNames.size(); f++) {
+            Facet facet = facets.get(facetNames.get(f));
+            for (int value : doc.facetValues()[f]) clear(facet.postings, facet.values.get(value), slot);
+        }
+        for (String token : doc.tokens()) clear(tokenPostings, token, slot);
+        docs[slot] = null;
+        live.clear(slot);
+        freeSlots.push(slot);
+    }
+
+    public synchronized Hits search(Query query) {
+        if (query.offset() < 0 || query.limit() < 0) {
+            throw new IllegalArgumentException("offset and limit must not be negative");
+        }
+        BitSet text = textMatches(query.text());
+        Map<String, BitSet> filters = new LinkedHashMap<>();
+        if (query.filters() != null) {
+            query.filters().forEach((name, values) -> {
+                if (values == null || values.isEmpty()) return;
+                Facet facet = facets.get(name);
+                if (facet == null) throw new IllegalArgumentException("Unknown facet: " + name);
+                BitSet accepted = new BitSet();
+                for (String value : values) {
+                    BitSet bits = facet.postings.get(value);
+                    if (bits != null) accepted.or(bits);
+                }
+                filters.put(name, accepted);
+            });
+        }
+
+        BitSet matches = (BitSet) text.clone();
+        filters.values().forEach(matches::and);
+
+        Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+        for (int f = 0; f < facetNames.size(); f++) {
+            String name = facetNames.get(f);
+            BitSet base = matches;
+            if (filters.containsKey(name)) {
+                base = (BitSet) text.clone();
+                for (Map.Entry<String, BitSet> filter : filters.entrySet()) {
+                    if (!filter.getKey().equals(name)) base.and(filter.getValue());
+                }
+            }
+            counts.put(name, count(f, base));
+        }
+        return new Hits(matches.cardinality(), window(matches, query.offset(), query.limit()), counts);
+    }
+
+    private BitSet textMatches(String text) {
+        List<String> terms = queryTokens(text);
+        if (terms.isEmpty()) return (BitSet) live.clone();
+        BitSet result = null;
+        for (String term : terms) {
+            BitSet any = new BitSet();
+            NavigableMap<String, BitSet> prefixed = tokenPostings.subMap(term, true, term + Character.MAX_VALUE, false);
+            for (BitSet bits : prefixed.values()) any.or(bits);
+            if (result == null) result = any; else result.and(any);
+            if (result.isEmpty()) break;
+        }
+        return result;
+    }
+
+    /** Value counts of facet {@code f} over {@code base}, most frequent first. */
+    private Map<String, Integer> count(int f, BitSet base) {
+        Facet facet = facets.get(facetNames.get(f));
+        int[] counts = new int[facet.values.size()];
+        for (int slot = base.nextSetBit(0); slot >= 0; slot = base.nextSetBit(slot + 1)) {
+            for (int value : docs[slot].facetValues()[f]) counts[value]++;
+        }
+        List<Integer> present = new ArrayList<>();
+        for (int value = 0; value < counts.length; value++) {
+            if (counts[value] > 0) present.add(value);
+        }
+        present.sort(Comparator.<Integer>comparingInt(value -> -counts[value])
+            .thenComparing(value -> facet.values.get(value)));
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        for (int value : present) sorted.put(facet.values.get(value), counts[value]);
+        return sorted;
+    }
+
+    /**
+     * Ids of the hits in [offset, offset + limit) in listing order. Only the first offset + limit
+     * hits are kept, in a sorted buffer that most candidates fail to enter at the first comparison.
+     */
+    private List<Long> window(BitSet matches, int offset, int limit) {
+        int total = matches.cardinality();
+        if (limit == 0 || offset >= total) return List.of();
+        int wanted = (int) Math.min((long) offset + limit, total);
+        int[] best = new int[wanted];
+        int size = 0;
+        for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+            if (size == wanted && !before(slot, best[size - 1])) continue;
+            int i = size == wanted ? size - 1 : size++;
+            while (i > 0 && before(slot, best[i - 1])) {
+                best[i] = best[i - 1];
+                i--;
+            }
+            best[i] = slot;
+        }
+        List<Long> ids = new ArrayList<>(size - offset);
+        for (int i = offset; i < size; i++) ids.add(docs[best[i]].id());
+        return ids;
+    }
+
+    /** True if slot {@code a} is listed before slot {@code b}: higher sort key, then higher id. */
+    private boolean before(int a, int b) {
+        Stored x = docs[a];
+        Stored y = docs[b];
+        return x.sortKey() != y.sortKey() ? x.sortKey() > y.sortKey() : x.id() > y.id();
+    }
+
+    private static void clear(Map<String, BitSet> postings, String key, int slot) {
+        BitSet bits = postings.get(key);
+        if (bits == null) return;
+        bits.clear(slot);
+        if (bits.isEmpty()) postings.remove(key);
+    }
+
+    /** Lower-cased words of {@code text}; camel-case and letter/digit runs are also indexed on their own. */
+    static Set<String> indexTokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) return tokens;
+        for (String word : text.split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) continue;
+            tokens.add(word.toLowerCase(Locale.ROOT));
+            for (String part : word.split("(?<=\\p{Ll})(?=\\p{Lu})|(?<=\\p{L})(?=\\p{N})|(?<=\\p{N})(?=\\p{L})")) {
+                if (!part.isEmpty()) tokens.add(part.toLowerCase(Locale.ROOT));
+            }
+        }
+        return tokens;
+    }
+
+    static List<String> queryTokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+        for (String word : text.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) tokens.add(word.toLowerCase(Locale.ROOT));
+        }
+        return tokens;
+    }
+}
@@ -6,12 +6,12 @@ import com.gatlingweb.selenium.entity.SeleniumTestRun;
 import com.gatlingweb.selenium.repository.SeleniumTestRunRepository;
 import com.gatlingweb.selenium.service.SeleniumMetricsCollector;
 import com.gatlingweb.selenium.service.SeleniumPdfExportService;
+import com.gatlingweb.selenium.service.SeleniumRunSummaryService;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -22,14 +22,17 @@ public class SeleniumComparisonController {
     private final SeleniumTestRunRepository testRunRepository;
     private final SeleniumMetricsCollector metricsCollector;
     private final SeleniumPdfExportService pdfExportService;
+    private final SeleniumRunSummaryService summaryService;
 
     public SeleniumComparisonController(
             SeleniumTestRunRepository testRunRepository,
             SeleniumMetricsCollector metricsCollector,
-            SeleniumPdfExportService pdfExportService) {
+            SeleniumPdfExportService pdfExportService,
+            SeleniumRunSummaryService summaryService) {
         this.testRunRepository = testRunRepository;
         this.metricsCollector = metricsCollector;
         this.pdfExportService = pdfExportService;
+        this.summaryService = summaryService;
     }
 
     @GetMapping("/compare")
@@ -49,19 +52,9 @@ public class SeleniumComparisonController {
         List<SeleniumMetricsSnapshot> metricsA = metricsCollector.getMetrics(idA);
         List<SeleniumMetricsSnapshot> metricsB = metricsCollector.getMetrics(idB);
 
-        Map<String, Double> aggA = aggregateMetrics(testA, metricsA);
-        Map<String, Double> aggB = aggregateMetrics(testB, metricsB);
-
-        Map<String, Double> diffPercent = new LinkedHashMap<>();
-        for (String key : aggA.keySet()) {
-            Double valA = aggA.get(key);
-            Double valB = aggB.get(key);
-            if (valA != null && valB != null && valA != 0) {
-                diffPercent.put(key, ((valB - valA) / Math.abs(valA)) * 100.0);
-            } else {
-                diffPercent.put(key, null);
-            }
-        }
+        Map<String, Double> aggA = summaryService.summarize(testA, metricsA);
+        Map<String, Double> aggB = summaryService.summarize(testB, metricsB);
+        Map<String, Double> diffPercent = SeleniumRunSummaryService.diffPercent(aggA, aggB);
 
         return ResponseEntity.ok(new SeleniumComparisonDto(testA, testB, diffPercent, aggA, aggB));
     }
@@ -77,37 +70,4 @@ public class SeleniumComparisonController {
                 .contentType(MediaType.APPLICATION_PDF)
                 .body(pdf);
     }
-
-    private Map<String, Double> aggregateMetrics(SeleniumTestRun run, List<SeleniumMetricsSnapshot> metrics) {
-        Map<String, Double> agg = new LinkedHashMap<>();
-        agg.put("meanStepDuration", run.getMeanStepDuration());
-
-        if (!metrics.isEmpty()) {
-            List<Double> p50Vals = metrics.stream().map(SeleniumMetricsSnapshot::p50).filter(v -> v > 0).toList();
-            List<Double> p75Vals = metrics.stream().map(SeleniumMetricsSnapshot::p75).filter(v -> v > 0).toList();
-            List<Double> p95Vals = metrics.stream().map(SeleniumMetricsSnapshot::p95).filter(v -> v > 0).toList();
-            List<Double> p99Vals = metrics.stream().map(SeleniumMetricsSnapshot::p99).filter(v -> v > 0).toList();
-
-            agg.put("p50", p50Vals.isEmpty() ? null : p50Vals.stream().mapToDouble(Double::doubleValue).average().orElse(0));
-            agg.put("p75", p75Vals.isEmpty() ? null : p75Vals.stream().mapToDouble(Double::doubleValue).average().orElse(0));
-            agg.put("p95", p95Vals.isEmpty() ? null : p95Vals.stream().mapToDouble(Double::doubleValue).average().orElse(0));
-            agg.put("p99", p99Vals.isEmpty() ? null : p99Vals.stream().mapToDouble(Double::doubleValue).average().orElse(0));
-        } else {
-            agg.put("p50", null);
-            agg.put("p75", null);
-            agg.put("p95", null);
-            agg.put("p99", null);
-        }
-
-        int total = run.getTotalIterations();
-        int failed = run.getFailedIterations();
-        agg.put("totalIterations", (double) total);
-        agg.put("passedIterations", (double) run.getPassedIterations());
-        agg.put("failedIterations", (double) failed);
-        agg.put("errorRate", total > 0 ? ((double) failed / total) * 100.0 : 0.0);
-        agg.put("passedInstances", (double) run.getPassedInstances());
-        agg.put("failedInstances", (double) run.getFailedInstances());
-
-        return agg;
-    }
 }
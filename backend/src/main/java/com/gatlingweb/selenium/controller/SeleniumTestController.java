@@ -1,16 +1,19 @@
 package com.gatlingweb.selenium.controller;
 
-import com.gatlingweb.dto.InfraMetricsSnapshot;
+import com.gatlingweb.dto.KeysetPage;
+import com.gatlingweb.dto.RunSearchResult;
+import com.gatlingweb.entity.RunKind;
 import com.gatlingweb.entity.TestStatus;
 import com.gatlingweb.selenium.dto.SeleniumLaunchRequest;
-import com.gatlingweb.selenium.dto.SeleniumMetricsSnapshot;
+import com.gatlingweb.selenium.dto.SeleniumTestRunRowDto;
 import com.gatlingweb.selenium.dto.SeleniumTrendDataDto;
-import com.gatlingweb.selenium.entity.SeleniumBrowserResult;
 import com.gatlingweb.selenium.entity.SeleniumTestRun;
 import com.gatlingweb.selenium.repository.SeleniumBrowserResultRepository;
 import com.gatlingweb.selenium.repository.SeleniumTestRunRepository;
 import com.gatlingweb.selenium.service.*;
+import com.gatlingweb.service.FinishedRunCache;
 import com.gatlingweb.service.MetricsPersistenceService;
+import com.gatlingweb.service.RunHistogramService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -22,6 +25,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/selenium")
@@ -34,6 +38,10 @@ public class SeleniumTestController {
     private final SeleniumBrowserResultRepository resultRepository;
     private final MetricsPersistenceService metricsPersistenceService;
     private final SeleniumPdfExportService pdfExportService;
+    private final FinishedRunCache finishedRunCache;
+    private final SeleniumHistoryService historyService;
+    private final SeleniumSearchService searchService;
+    private final RunHistogramService runHistogramService;
 
     public SeleniumTestController(
             SeleniumExecutionService executionService,
@@ -42,7 +50,11 @@ public class SeleniumTestController {
             SeleniumTestRunRepository testRunRepository,
             SeleniumBrowserResultRepository resultRepository,
             MetricsPersistenceService metricsPersistenceService,
-            SeleniumPdfExportService pdfExportService) {
+            SeleniumPdfExportService pdfExportService,
+            FinishedRunCache finishedRunCache,
+            SeleniumHistoryService historyService,
+            SeleniumSearchService searchService,
+            RunHistogramService runHistogramService) {
         this.executionService = executionService;
         this.compilerService = compilerService;
         this.metricsCollector = metricsCollector;
@@ -50,6 +62,10 @@ public class SeleniumTestController {
         this.resultRepository = resultRepository;
         this.metricsPersistenceService = metricsPersistenceService;
         this.pdfExportService = pdfExportService;
+        this.finishedRunCache = finishedRunCache;
+        this.historyService = historyService;
+        this.searchService = searchService;
+        this.runHistogramService = runHistogramService;
     }
 
     @PostMapping("/compile")
@@ -69,7 +85,7 @@ public class SeleniumTestController {
     }
 
     @GetMapping("/tests")
-    public Page<SeleniumTestRun> listTests(
+    public Page<SeleniumTestRunRowDto> listTests(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "id") String sortBy,
@@ -78,29 +94,54 @@ public class SeleniumTestController {
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String label) {
         Sort sort = Sort.by(sortDir.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC, sortBy);
-        PageRequest pageRequest = PageRequest.of(page, size, sort);
-        boolean hasBrowser = browser != null && !browser.isEmpty();
-        boolean hasStatus = status != null && !status.isEmpty();
-        boolean hasLabel = label != null && !label.isEmpty();
-        if (hasBrowser && hasStatus && hasLabel) {
-            return testRunRepository.findByBrowserAndStatusAndLabel(browser, TestStatus.valueOf(status), label, pageRequest);
-        } else if (hasBrowser && hasStatus) {
-            return testRunRepository.findByBrowserAndStatus(browser, TestStatus.valueOf(status), pageRequest);
-        } else if (hasBrowser && hasLabel) {
-            return testRunRepository.findByBrowserAndLabel(browser, label, pageRequest);
-        } else if (hasStatus && hasLabel) {
-            return testRunRepository.findByStatusAndLabel(TestStatus.valueOf(status), label, pageRequest);
-        } else if (hasBrowser) {
-            return testRunRepository.findByBrowser(browser, pageRequest);
-        } else if (hasStatus) {
-            return testRunRepository.findByStatus(TestStatus.valueOf(status), pageRequest);
-        } else if (hasLabel) {
-            return testRunRepository.findByLabel(label, pageRequest);
-        }
-        return testRunRepository.findAll(pageRequest);
+        return historyService.findRows(emptyToNull(browser), statusFilter(status), emptyToNull(label),
+            PageRequest.of(page, size, sort));
+    }
+
+    /** Newest-first history with cursor pagination; the cost of a page does not depend on its depth. */
+    @GetMapping("/tests/seek")
+    public KeysetPage<SeleniumTestRunRowDto> seekTests(
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String browser,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String label,
+            @RequestParam(required = false) String cursor) {
+        return historyService.findRowsBefore(emptyToNull(browser), statusFilter(status), emptyToNull(label), cursor, size);
+    }
+
+    /**
+     * Full-text and faceted search, newest first. Each facet parameter may be repeated; values of
+     * one facet are alternatives, different facets must all match.
+     */
+    @GetMapping("/tests/search")
+    public RunSearchResult<SeleniumTestRunRowDto> searchTests(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) List<String> script,
+            @RequestParam(required = false) List<String> browser,
+            @RequestParam(required = false) List<String> version,
+            @RequestParam(required = false) List<String> label,
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Map<String, List<String>> filters = new HashMap<>();
+        if (script != null) filters.put("script", script);
+        if (browser != null) filters.put("browser", browser);
+        if (version != null) filters.put("version", version);
+        if (label != null) filters.put("label", label);
+        if (status != null) filters.put("status", status);
+        return historyService.search(q, filters, page, size);
+    }
+
+    private static String emptyToNull(String value) {
+        return value != null && !value.isEmpty() ? value : null;
+    }
+
+    private static TestStatus statusFilter(String status) {
+        return status != null && !status.isEmpty() ? TestStatus.valueOf(status) : null;
     }
 
     @GetMapping("/tests/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<SeleniumTestRun> getTest(@PathVariable Long id) {
         return testRunRepository.findById(id)
             .map(ResponseEntity::ok)
@@ -108,18 +149,36 @@ public class SeleniumTestController {
     }
 
     @GetMapping("/tests/{id}/results")
-    public List<SeleniumBrowserResult> getResults(@PathVariable Long id) {
-        return resultRepository.findByTestRunIdOrderByBrowserIndexAscIterationAsc(id);
+    @Transactional(readOnly = true)
+    public ResponseEntity<byte[]> getResults(@PathVariable Long id) {
+        return cached("results", id, () -> resultRepository.findByTestRunIdOrderByBrowserIndexAscIterationAsc(id));
     }
 
     @GetMapping("/tests/{id}/metrics")
-    public List<SeleniumMetricsSnapshot> getMetrics(@PathVariable Long id) {
-        return metricsCollector.getMetrics(id);
+    public ResponseEntity<byte[]> getMetrics(@PathVariable Long id) {
+        return cached("metrics", id, () -> metricsCollector.getMetrics(id));
     }
 
     @GetMapping("/tests/{id}/infra-metrics")
-    public List<InfraMetricsSnapshot> getInfraMetrics(@PathVariable Long id) {
-        return metricsPersistenceService.getInfraMetrics(id);
+    public ResponseEntity<byte[]> getInfraMetrics(@PathVariable Long id) {
+        return cached("infra-metrics", id, () -> metricsPersistenceService.getInfraMetrics(id));
+    }
+
+    /** Iteration duration distribution of the run, plus one per script step. */
+    @GetMapping("/tests/{id}/distribution")
+    public ResponseEntity<byte[]> getDistribution(@PathVariable Long id,
+                                                  @RequestParam(required = false) String percentiles) {
+        List<Double> p = RunHistogramService.parsePercentiles(percentiles);
+        return cached("distribution", id,
+            () -> runHistogramService.distribution(RunKind.SELENIUM, List.of(id), p), p);
+    }
+
+    private ResponseEntity<byte[]> cached(String view, Long id, Supplier<?> loader, Object... params) {
+        return finishedRunCache.serve(FinishedRunCache.Key.of(FinishedRunCache.Scope.SELENIUM, view, id, params),
+            () -> !Objects.equals(executionService.getCurrentTestRunId(), id)
+                && testRunRepository.findById(id).map(run -> run.getStatus().isFinished()).orElse(false)
+                && metricsPersistenceService.isSettled(id),
+            loader);
     }
 
     @GetMapping("/tests/{id}/export/pdf")
@@ -137,6 +196,8 @@ public class SeleniumTestController {
         metricsCollector.deleteMetrics(id);
         resultRepository.deleteByTestRunId(id);
         testRunRepository.deleteById(id);
+        searchService.runDeleted(id);
+        finishedRunCache.evictRun(FinishedRunCache.Scope.SELENIUM, id);
         return ResponseEntity.ok(Map.of("status", "deleted"));
     }
 
@@ -152,6 +213,7 @@ public class SeleniumTestController {
         testRunRepository.findById(id).ifPresent(run -> {
             run.setNotes(body.get("notes"));
             testRunRepository.save(run);
+            searchService.runChanged(run);
         });
         return ResponseEntity.ok(Map.of("status", "updated"));
     }
@@ -162,6 +224,7 @@ public class SeleniumTestController {
         testRunRepository.findById(id).ifPresent(run -> {
             run.setVersion(body.get("version"));
             testRunRepository.save(run);
+            searchService.runChanged(run);
         });
         return ResponseEntity.ok(Map.of("status", "updated"));
     }
@@ -178,16 +241,19 @@ public class SeleniumTestController {
             }
             run.setLabels(labelSet);
             testRunRepository.save(run);
+            searchService.runChanged(run);
         });
         return ResponseEntity.ok(Map.of("status", "updated"));
     }
 
     @GetMapping("/labels")
+    @Transactional(readOnly = true)
     public List<String> getAllLabels() {
         return testRunRepository.findAllDistinctLabels();
     }
 
     @GetMapping("/trends")
+    @Transactional(readOnly = true)
     public SeleniumTrendDataDto getTrends(
             @RequestParam String scriptClass,
             @RequestParam(defaultValue = "20") int limit) {
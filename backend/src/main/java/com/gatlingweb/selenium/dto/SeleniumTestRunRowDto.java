@@ -0,0 +1,48 @@
+package com.gatlingweb.selenium.dto;
+
+import com.gatlingweb.entity.TestStatus;
+
+import java.util.List;
+
+/**
+ * One line of the Selenium history list: the run without its notes and grid URL. Built by a query
+ * projection; labels are attached afterwards.
+ */
+public record SeleniumTestRunRowDto(
+    Long id,
+    String scriptClass,
+    String browser,
+    int instances,
+    TestStatus status,
+    Long startTime,
+    Long endTime,
+    int totalInstances,
+    int passedInstances,
+    int failedInstances,
+    String version,
+    List<String> labels,
+    int loops,
+    int rampUpSeconds,
+    int totalIterations,
+    int passedIterations,
+    int failedIterations,
+    Double meanStepDuration,
+    boolean headless
+) {
+    /** Projection constructor, see {@code SeleniumTestRunRepository}. */
+    public SeleniumTestRunRowDto(Long id, String scriptClass, String browser, int instances, TestStatus status,
+                                 Long startTime, Long endTime, int totalInstances, int passedInstances,
+                                 int failedInstances, String version, int loops, int rampUpSeconds,
+                                 int totalIterations, int passedIterations, int failedIterations,
+                                 Double meanStepDuration, boolean headless) {
+        this(id, scriptClass, browser, instances, status, startTime, endTime, totalInstances, passedInstances,
+            failedInstances, version, List.of(), loops, rampUpSeconds, totalIterations, passedIterations,
+            failedIterations, meanStepDuration, headless);
+    }
+
+    public SeleniumTestRunRowDto withLabels(List<String> labels) {
+        return new SeleniumTestRunRowDto(id, scriptClass, browser, instances, status, startTime, endTime,
+            totalInstances, passedInstances, failedInstances, version, labels, loops, rampUpSeconds,
+            totalIterations, passedIterations, failedIterations, meanStepDuration, headless);
+    }
+}
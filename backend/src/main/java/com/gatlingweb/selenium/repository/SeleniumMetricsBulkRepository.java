@@ -0,0 +1,65 @@
+package com.gatlingweb.selenium.repository;
+
+import com.gatlingweb.selenium.dto.SeleniumMetricsSnapshot;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Bulk insert path for {@code selenium_metrics_points}.
+ * <p>
+ * The JPA entity uses IDENTITY ids, which prevents Hibernate from batching inserts; this writes
+ * the rows as one JDBC prepared-statement batch inside a single transaction, without entities.
+ */
+@Repository
+public class SeleniumMetricsBulkRepository {
+
+    private static final String INSERT_SQL = """
+        INSERT INTO selenium_metrics_points (
+            test_run_id, timestamp, iterations_per_second, errors_per_second, mean_step_duration,
+            p50, p75, p95, p99, active_browsers, total_iterations, total_errors,
+            cpu_percent, memory_percent
+        ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SeleniumMetricsBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional
+    public int insertAll(Long testRunId, List<SeleniumMetricsSnapshot> snapshots) {
+        if (snapshots.isEmpty()) return 0;
+        jdbcTemplate.batchUpdate(INSERT_SQL, snapshots, snapshots.size(), (ps, s) -> {
+            ps.setLong(1, testRunId);
+            ps.setLong(2, s.timestamp());
+            ps.setDouble(3, s.iterationsPerSecond());
+            ps.setDouble(4, s.errorsPerSecond());
+            ps.setDouble(5, s.meanStepDuration());
+            ps.setDouble(6, s.p50());
+            ps.setDouble(7, s.p75());
+            ps.setDouble(8, s.p95());
+            ps.setDouble(9, s.p99());
+            ps.setInt(10, s.activeBrowsers());
+            ps.setLong(11, s.totalIterations());
+            ps.setLong(12, s.totalErrors());
+            setNullableDouble(ps, 13, s.cpuPercent());
+            setNullableDouble(ps, 14, s.memoryPercent());
+        });
+        return snapshots.size();
+    }
+
+    private static void setNullableDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value != null) {
+            ps.setDouble(index, value);
+        } else {
+            ps.setNull(index, Types.REAL);
+        }
+    }
+}
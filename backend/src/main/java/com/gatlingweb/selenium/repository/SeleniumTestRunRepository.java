@@ -1,6 +1,7 @@
 package com.gatlingweb.selenium.repository;
 
 import com.gatlingweb.entity.TestStatus;
+import com.gatlingweb.selenium.dto.SeleniumTestRunRowDto;
 import com.gatlingweb.selenium.entity.SeleniumTestRun;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -8,31 +9,49 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface SeleniumTestRunRepository extends JpaRepository<SeleniumTestRun, Long> {
-    Page<SeleniumTestRun> findAll(Pageable pageable);
-    Page<SeleniumTestRun> findByBrowser(String browser, Pageable pageable);
-    Page<SeleniumTestRun> findByStatus(TestStatus status, Pageable pageable);
-    Page<SeleniumTestRun> findByBrowserAndStatus(String browser, TestStatus status, Pageable pageable);
     Optional<SeleniumTestRun> findFirstByStatus(TestStatus status);
     List<SeleniumTestRun> findAllByStatus(TestStatus status);
 
     @Query("SELECT DISTINCT l FROM SeleniumTestRun t JOIN t.labels l ORDER BY l")
     List<String> findAllDistinctLabels();
 
-    @Query("SELECT DISTINCT t FROM SeleniumTestRun t JOIN t.labels l WHERE l = :label")
-    Page<SeleniumTestRun> findByLabel(@Param("label") String label, Pageable pageable);
-
-    @Query("SELECT DISTINCT t FROM SeleniumTestRun t JOIN t.labels l WHERE t.browser = :browser AND l = :label")
-    Page<SeleniumTestRun> findByBrowserAndLabel(@Param("browser") String browser, @Param("label") String label, Pageable pageable);
-
-    @Query("SELECT DISTINCT t FROM SeleniumTestRun t JOIN t.labels l WHERE t.status = :status AND l = :label")
-    Page<SeleniumTestRun> findByStatusAndLabel(@Param("status") TestStatus status, @Param("label") String label, Pageable pageable);
-
-    @Query("SELECT DISTINCT t FROM SeleniumTestRun t JOIN t.labels l WHERE t.browser = :browser AND t.status = :status AND l = :label")
-    Page<SeleniumTestRun> findByBrowserAndStatusAndLabel(@Param("browser") String browser, @Param("status") TestStatus status, @Param("label") String label, Pageable pageable);
+    String ROW = "SELECT new com.gatlingweb.selenium.dto.SeleniumTestRunRowDto(t.id, t.scriptClass, t.browser, "
+        + "t.instances, t.status, t.startTime, t.endTime, t.totalInstances, t.passedInstances, t.failedInstances, "
+        + "t.version, t.loops, t.rampUpSeconds, t.totalIterations, t.passedIterations, t.failedIterations, "
+        + "t.meanStepDuration, t.headless) FROM SeleniumTestRun t ";
+    String FILTERS = "(:browser IS NULL OR t.browser = :browser) AND (:status IS NULL OR t.status = :status) "
+        + "AND (:label IS NULL OR :label MEMBER OF t.labels)";
+
+    /** History rows; each filter is skipped when {@code null}. */
+    @Query(value = ROW + "WHERE " + FILTERS,
+           countQuery = "SELECT COUNT(t) FROM SeleniumTestRun t WHERE " + FILTERS)
+    Page<SeleniumTestRunRowDto> findRows(@Param("browser") String browser, @Param("status") TestStatus status,
+                                         @Param("label") String label, Pageable pageable);
+
+    /** Newest-first history rows with an id below {@code beforeId}, or from the start when it is {@code null}. */
+    @Query(ROW + "WHERE (:beforeId IS NULL OR t.id < :beforeId) AND " + FILTERS + " ORDER BY t.id DESC")
+    List<SeleniumTestRunRowDto> findRowsBefore(@Param("beforeId") Long beforeId, @Param("browser") String browser,
+                                               @Param("status") TestStatus status, @Param("label") String label,
+                                               Pageable limit);
+
+    @Query(ROW + "WHERE t.id IN :ids")
+    List<SeleniumTestRunRowDto> findRowsByIds(@Param("ids") Collection<Long> ids);
+
+    /** (run id, label) pairs of the given runs, in one query. */
+    @Query("SELECT t.id, l FROM SeleniumTestRun t JOIN t.labels l WHERE t.id IN :ids")
+    List<Object[]> findLabels(@Param("ids") Collection<Long> ids);
+
+    // Search index load: (id, scriptClass, browser, version, status, notes)
+    @Query("SELECT t.id, t.scriptClass, t.browser, t.version, t.status, t.notes FROM SeleniumTestRun t")
+    List<Object[]> findSearchFields();
+
+    @Query("SELECT t.id, l FROM SeleniumTestRun t JOIN t.labels l")
+    List<Object[]> findAllLabels();
 
     @Query("SELECT t FROM SeleniumTestRun t WHERE t.scriptClass = :scriptClass AND t.status = :status ORDER BY t.startTime DESC")
     List<SeleniumTestRun> findByScriptClassAndStatusOrderByStartTimeDesc(@Param("scriptClass") String scriptClass, @Param("status") TestStatus status, Pageable pageable);
@@ -1,6 +1,8 @@
 package com.gatlingweb.selenium.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gatlingweb.entity.RunKind;
 import com.gatlingweb.entity.TestStatus;
 import com.gatlingweb.selenium.dto.SeleniumLaunchRequest;
 import com.gatlingweb.selenium.entity.SeleniumBrowserResult;
@@ -8,6 +10,7 @@ import com.gatlingweb.selenium.entity.SeleniumTestRun;
 import com.gatlingweb.selenium.repository.SeleniumBrowserResultRepository;
 import com.gatlingweb.selenium.repository.SeleniumTestRunRepository;
 import com.gatlingweb.service.InfraMetricsScraperService;
+import com.gatlingweb.service.RunHistogramService;
 import jakarta.annotation.PreDestroy;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
@@ -28,6 +31,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileReader;
+import java.io.IOException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.file.Files;
@@ -50,6 +54,8 @@ public class SeleniumExecutionService {
     private final InfraMetricsScraperService infraScraper;
     private final SimpMessagingTemplate messaging;
     private final ObjectMapper objectMapper;
+    private final SeleniumSearchService searchService;
+    private final RunHistogramService histograms;
     private final Path screenshotsDir;
     private final Path sikuliImagesDir;
     private final Path seleniumWorkspace;
@@ -67,6 +73,8 @@ public class SeleniumExecutionService {
             InfraMetricsScraperService infraScraper,
             SimpMessagingTemplate messaging,
             ObjectMapper objectMapper,
+            SeleniumSearchService searchService,
+            RunHistogramService histograms,
             @Value("${selenium.screenshots-dir:../selenium-workspace/screenshots}") String screenshotsDir,
             @Value("${selenium.workspace:../selenium-workspace}") String seleniumWorkspace) {
         this.testRunRepository = testRunRepository;
@@ -77,6 +85,8 @@ public class SeleniumExecutionService {
         this.infraScraper = infraScraper;
         this.messaging = messaging;
         this.objectMapper = objectMapper;
+        this.searchService = searchService;
+        this.histograms = histograms;
         this.screenshotsDir = Path.of(screenshotsDir).toAbsolutePath().normalize();
         this.seleniumWorkspace = Path.of(seleniumWorkspace).toAbsolutePath().normalize();
         this.sikuliImagesDir = this.seleniumWorkspace.resolve("sikuli-images");
@@ -95,7 +105,7 @@ public class SeleniumExecutionService {
         run.setTotalIterations(request.instances() * request.loops());
         run.setHeadless(request.headless());
         run.setGridUrl(gridService.getGridUrl());
-        return testRunRepository.save(run);
+        return saveRun(run);
     }
 
     @Async("seleniumExecutor")
@@ -111,7 +121,7 @@ public class SeleniumExecutionService {
             // 1. Mark as running & setup drivers
             run.setStatus(TestStatus.RUNNING);
             run.setStartTime(System.currentTimeMillis());
-            testRunRepository.save(run);
+            saveRun(run);
             messaging.convertAndSend("/topic/selenium-status/" + testRunId, "RUNNING");
 
             gridService.ensureRunning();
@@ -121,7 +131,7 @@ public class SeleniumExecutionService {
             if (!compileResult.success()) {
                 run.setStatus(TestStatus.FAILED);
                 run.setEndTime(System.currentTimeMillis());
-                testRunRepository.save(run);
+                saveRun(run);
                 Map<String, Object> errorMsg = Map.of(
                     "type", "COMPILE_ERROR",
                     "errors", compileResult.output()
@@ -163,7 +173,7 @@ public class SeleniumExecutionService {
 
             // 4. Start metrics collector + infra scraper
             metricsCollector.start(testRunId);
-            infraScraper.startScraping(testRunId);
+            infraScraper.startScraping(RunKind.SELENIUM, testRunId);
 
             // 5. Execute in parallel with optional ramp-up
             int instanceCount = run.getInstances();
@@ -242,7 +252,9 @@ public class SeleniumExecutionService {
             run.setEndTime(System.currentTimeMillis());
             run.setStatus(cancelled ? TestStatus.CANCELLED :
                 (failedInstances.get() == 0 ? TestStatus.COMPLETED : TestStatus.FAILED));
-            testRunRepository.save(run);
+            saveRun(run);
+            histograms.save(RunKind.SELENIUM, testRunId,
+                metricsCollector.iterationHistogram(), metricsCollector.stepHistograms());
 
             messaging.convertAndSend("/topic/selenium-status/" + testRunId,
                 run.getStatus().name());
@@ -253,7 +265,7 @@ public class SeleniumExecutionService {
             infraScraper.stopScraping();
             run.setStatus(TestStatus.FAILED);
             run.setEndTime(System.currentTimeMillis());
-            testRunRepository.save(run);
+            saveRun(run);
             messaging.convertAndSend("/topic/selenium-status/" + testRunId, "FAILED");
         } finally {
             currentTestRunId = null;
@@ -360,7 +372,9 @@ public class SeleniumExecutionService {
                         try {
                             var getStepsMethod = scriptClazz.getMethod("getSteps");
                             List<?> steps = (List<?>) getStepsMethod.invoke(scriptInstance);
-                            result.setStepsJson(objectMapper.writeValueAsString(steps));
+                            String stepsJson = objectMapper.writeValueAsString(steps);
+                            result.setStepsJson(stepsJson);
+                            recordStepDurations(stepsJson);
                         } catch (Exception ignored) {}
                     }
 
@@ -503,12 +517,28 @@ public class SeleniumExecutionService {
             testRunRepository.findById(testRunId).ifPresent(run -> {
                 run.setStatus(TestStatus.CANCELLED);
                 run.setEndTime(System.currentTimeMillis());
-                testRunRepository.save(run);
+                saveRun(run);
                 messaging.convertAndSend("/topic/selenium-status/" + testRunId, "CANCELLED");
             });
         }
     }
 
+    private void recordStepDurations(String stepsJson) throws IOException {
+        for (JsonNode step : objectMapper.readTree(stepsJson)) {
+            JsonNode name = step.get("name");
+            JsonNode duration = step.get("durationMs");
+            if (name != null && name.isTextual() && duration != null && duration.isNumber()) {
+                metricsCollector.recordStepDuration(name.asText(), duration.asLong());
+            }
+        }
+    }
+
+    private SeleniumTestRun saveRun(SeleniumTestRun run) {
+        SeleniumTestRun saved = testRunRepository.save(run);
+        searchService.runChanged(saved);
+        return saved;
+    }
+
     public boolean isRunning() {
         return currentTestRunId != null;
     }
@@ -0,0 +1,105 @@
+package com.gatlingweb.selenium.service;
+
+import com.gatlingweb.dto.KeysetPage;
+import com.gatlingweb.dto.RunSearchResult;
+import com.gatlingweb.entity.TestStatus;
+import com.gatlingweb.search.RunIndex;
+import com.gatlingweb.service.RunLabels;
+import com.gatlingweb.selenium.dto.SeleniumTestRunRowDto;
+import com.gatlingweb.selenium.repository.SeleniumTestRunRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Selenium history list: rows come from a single projection query and the labels of a page from
+ * one batched query, so listing does not load the full runs nor their label collections one by one.
+ */
+@Service
+public class SeleniumHistoryService {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final SeleniumTestRunRepository repository;
+    private final SeleniumSearchService searchService;
+
+    public SeleniumHistoryService(SeleniumTestRunRepository repository, SeleniumSearchService searchService) {
+        this.repository = repository;
+        this.searchService = searchService;
+    }
+
+    /** History rows in any sort order; a {@code null} filter matches every run. */
+    @Transactional(readOnly = true)
+    public Page<SeleniumTestRunRowDto> findRows(String browser, TestStatus status, String label, Pageable pageable) {
+        Page<SeleniumTestRunRowDto> rows = repository.findRows(browser, status, label, pageable);
+        Map<Long, List<String>> labels = labelsOf(rows.getContent());
+        return rows.map(row -> row.withLabels(labels.getOrDefault(row.id(), List.of())));
+    }
+
+    /**
+     * Newest-first history rows after {@code cursor} (from the start when null). Runs are ordered by
+     * id, like the default list: queued runs have no start time yet.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<SeleniumTestRunRowDto> findRowsBefore(String browser, TestStatus status, String label,
+                                                           String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Long beforeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                beforeId = Long.valueOf(cursor);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+        List<SeleniumTestRunRowDto> rows = repository.findRowsBefore(beforeId, browser, status, label,
+            PageRequest.of(0, size + 1));
+        String next = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            next = rows.get(size - 1).id().toString();
+        }
+        Map<Long, List<String>> labels = labelsOf(rows);
+        return new KeysetPage<>(rows.stream()
+            .map(row -> row.withLabels(labels.getOrDefault(row.id(), List.of())))
+            .toList(), next);
+    }
+
+    /**
+     * Runs matching {@code text} and the facet filters, newest first, with per-facet counts.
+     * Filters map a facet of {@link SeleniumSearchService#FACETS} to the values to accept.
+     */
+    @Transactional(readOnly = true)
+    public RunSearchResult<SeleniumTestRunRowDto> search(String text, Map<String, List<String>> filters,
+                                                         int page, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (page < 0) {
+            throw new IllegalArgumentException("page must not be negative");
+        }
+        RunIndex.Hits hits = searchService.search(text, filters, page * size, size);
+        Map<Long, SeleniumTestRunRowDto> rows = new HashMap<>();
+        if (!hits.ids().isEmpty()) {
+            for (SeleniumTestRunRowDto row : repository.findRowsByIds(hits.ids())) rows.put(row.id(), row);
+        }
+        List<SeleniumTestRunRowDto> ordered = hits.ids().stream().map(rows::get).filter(Objects::nonNull).toList();
+        Map<Long, List<String>> labels = labelsOf(ordered);
+        return new RunSearchResult<>(ordered.stream()
+            .map(row -> row.withLabels(labels.getOrDefault(row.id(), List.of())))
+            .toList(), hits.total(), page, size, hits.facets());
+    }
+
+    private Map<Long, List<String>> labelsOf(List<SeleniumTestRunRowDto> rows) {
+        return RunLabels.of(rows, SeleniumTestRunRowDto::id, repository::findLabels);
+    }
+}
@@ -1,8 +1,13 @@
 package com.gatlingweb.selenium.service;
 
+import com.gatlingweb.entity.RunKind;
+import com.gatlingweb.live.LiveChannel;
+import com.gatlingweb.live.LiveRecord;
 import com.gatlingweb.selenium.dto.SeleniumMetricsSnapshot;
 import com.gatlingweb.selenium.entity.SeleniumMetricsPoint;
+import com.gatlingweb.selenium.repository.SeleniumMetricsBulkRepository;
 import com.gatlingweb.selenium.repository.SeleniumMetricsPointRepository;
+import com.gatlingweb.timeseries.LatencyHistogram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
@@ -24,6 +29,8 @@ public class SeleniumMetricsCollector {
 
     private final SimpMessagingTemplate messaging;
     private final SeleniumMetricsPointRepository metricsRepository;
+    private final SeleniumMetricsBulkRepository bulkRepository;
+    private final LiveChannel liveChannel;
 
     // Accumulators (thread-safe)
     private final ConcurrentLinkedQueue<Long> windowIterationDurations = new ConcurrentLinkedQueue<>();
@@ -34,15 +41,22 @@ public class SeleniumMetricsCollector {
     private final AtomicInteger activeBrowsers = new AtomicInteger(0);
     private final AtomicLong allIterationDurationsSum = new AtomicLong(0);
     private final AtomicLong allIterationDurationsCount = new AtomicLong(0);
+    // Whole-run histograms of iteration and step durations, guarded by themselves / stepHistograms
+    private final LatencyHistogram iterationHistogram = new LatencyHistogram();
+    private final Map<String, LatencyHistogram> stepHistograms = new HashMap<>();
 
     private volatile Long currentTestRunId;
     private ScheduledExecutorService scheduler;
-    private final List<SeleniumMetricsPoint> dbBuffer = new ArrayList<>();
+    private final List<SeleniumMetricsSnapshot> dbBuffer = new ArrayList<>();
 
     public SeleniumMetricsCollector(SimpMessagingTemplate messaging,
-                                    SeleniumMetricsPointRepository metricsRepository) {
+                                    SeleniumMetricsPointRepository metricsRepository,
+                                    SeleniumMetricsBulkRepository bulkRepository,
+                                    LiveChannel liveChannel) {
         this.messaging = messaging;
         this.metricsRepository = metricsRepository;
+        this.bulkRepository = bulkRepository;
+        this.liveChannel = liveChannel;
     }
 
     public void start(Long testRunId) {
@@ -55,7 +69,15 @@ public class SeleniumMetricsCollector {
         activeBrowsers.set(0);
         allIterationDurationsSum.set(0);
         allIterationDurationsCount.set(0);
-        dbBuffer.clear();
+        synchronized (this) {
+            dbBuffer.clear();
+        }
+        synchronized (iterationHistogram) {
+            iterationHistogram.reset();
+        }
+        synchronized (stepHistograms) {
+            stepHistograms.clear();
+        }
 
         scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
             Thread t = new Thread(r, "sel-metrics-" + testRunId);
@@ -89,6 +111,15 @@ public class SeleniumMetricsCollector {
         windowIterationDurations.add(durationMs);
         allIterationDurationsSum.addAndGet(durationMs);
         allIterationDurationsCount.incrementAndGet();
+        synchronized (iterationHistogram) {
+            iterationHistogram.record(durationMs);
+        }
+    }
+
+    public void recordStepDuration(String step, long durationMs) {
+        synchronized (stepHistograms) {
+            stepHistograms.computeIfAbsent(step, k -> new LatencyHistogram()).record(durationMs);
+        }
     }
 
     public void recordIterationComplete() {
@@ -152,22 +183,30 @@ public class SeleniumMetricsCollector {
 
             // 6. Send via WebSocket
             messaging.convertAndSend("/topic/selenium-metrics/" + testRunId, snapshot);
+            if (liveChannel.isWatched(RunKind.SELENIUM, testRunId)) {
+                liveChannel.publish(RunKind.SELENIUM, testRunId, LiveRecord.of(snapshot));
+            }
 
             // 7. Buffer for DB
-            dbBuffer.add(SeleniumMetricsPoint.from(testRunId, snapshot));
-            if (dbBuffer.size() >= DB_FLUSH_INTERVAL) {
-                flushToDb();
-            }
+            bufferForDb(snapshot);
 
         } catch (Exception e) {
             log.debug("Error pushing selenium metrics snapshot", e);
         }
     }
 
+    private synchronized void bufferForDb(SeleniumMetricsSnapshot snapshot) {
+        dbBuffer.add(snapshot);
+        if (dbBuffer.size() >= DB_FLUSH_INTERVAL) {
+            flushToDb();
+        }
+    }
+
     private synchronized void flushToDb() {
-        if (dbBuffer.isEmpty()) return;
+        Long testRunId = currentTestRunId;
+        if (dbBuffer.isEmpty() || testRunId == null) return;
         try {
-            metricsRepository.saveAll(new ArrayList<>(dbBuffer));
+            bulkRepository.insertAll(testRunId, new ArrayList<>(dbBuffer));
             dbBuffer.clear();
         } catch (Exception e) {
             log.warn("Failed to flush selenium metrics to DB", e);
@@ -209,8 +248,25 @@ public class SeleniumMetricsCollector {
         return (double) allIterationDurationsSum.get() / count;
     }
 
+    /** Copy of the iteration duration histogram of the current (or last) run. */
+    public LatencyHistogram iterationHistogram() {
+        synchronized (iterationHistogram) {
+            return iterationHistogram.copy();
+        }
+    }
+
+    /** Copies of the step duration histograms of the current (or last) run, by step name. */
+    public Map<String, LatencyHistogram> stepHistograms() {
+        synchronized (stepHistograms) {
+            Map<String, LatencyHistogram> copies = new HashMap<>();
+            stepHistograms.forEach((step, h) -> copies.put(step, h.copy()));
+            return copies;
+        }
+    }
+
     // --- Query API ---
 
+    @Transactional(readOnly = true)
     public List<SeleniumMetricsSnapshot> getMetrics(Long testRunId) {
         return metricsRepository.findByTestRunIdOrderByTimestampAsc(testRunId)
             .stream()
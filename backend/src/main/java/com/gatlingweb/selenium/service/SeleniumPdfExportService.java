@@ -28,17 +28,20 @@ public class SeleniumPdfExportService {
     private final SeleniumMetricsCollector metricsCollector;
     private final MetricsPersistenceService metricsPersistenceService;
     private final ObjectMapper objectMapper;
+    private final SeleniumRunSummaryService summaryService;
 
     public SeleniumPdfExportService(SeleniumTestRunRepository testRunRepository,
                                      SeleniumBrowserResultRepository resultRepository,
                                      SeleniumMetricsCollector metricsCollector,
                                      MetricsPersistenceService metricsPersistenceService,
-                                     ObjectMapper objectMapper) {
+                                     ObjectMapper objectMapper,
+                                     SeleniumRunSummaryService summaryService) {
         this.testRunRepository = testRunRepository;
         this.resultRepository = resultRepository;
         this.metricsCollector = metricsCollector;
         this.metricsPersistenceService = metricsPersistenceService;
         this.objectMapper = objectMapper;
+        this.summaryService = summaryService;
     }
 
     public byte[] generatePdf(Long id) {
@@ -165,21 +168,10 @@ public class SeleniumPdfExportService {
         List<InfraMetricsSnapshot> infraA = metricsPersistenceService.getInfraMetrics(idA);
         List<InfraMetricsSnapshot> infraB = metricsPersistenceService.getInfraMetrics(idB);
 
-        // Aggregate percentiles from time-series
-        Map<String, Double> aggA = aggregateForPdf(testA, metricsA);
-        Map<String, Double> aggB = aggregateForPdf(testB, metricsB);
+        Map<String, Double> aggA = summaryService.summarize(testA, metricsA);
+        Map<String, Double> aggB = summaryService.summarize(testB, metricsB);
 
-        // Compute diffs
-        Map<String, Double> diff = new LinkedHashMap<>();
-        for (String key : aggA.keySet()) {
-            Double valA = aggA.get(key);
-            Double valB = aggB.get(key);
-            if (valA != null && valB != null && valA != 0) {
-                diff.put(key, ((valB - valA) / Math.abs(valA)) * 100.0);
-            } else {
-                diff.put(key, null);
-            }
-        }
+        Map<String, Double> diff = SeleniumRunSummaryService.diffPercent(aggA, aggB);
 
         StringBuilder html = new StringBuilder();
         html.append(htmlHead("Selenium Comparison - #" + idA + " vs #" + idB));
@@ -270,31 +262,6 @@ public class SeleniumPdfExportService {
         return convertHtmlToPdf(html.toString());
     }
 
-    private Map<String, Double> aggregateForPdf(SeleniumTestRun run, List<SeleniumMetricsSnapshot> metrics) {
-        Map<String, Double> agg = new LinkedHashMap<>();
-        agg.put("meanStepDuration", run.getMeanStepDuration());
-
-        if (!metrics.isEmpty()) {
-            agg.put("p50", metrics.stream().mapToDouble(SeleniumMetricsSnapshot::p50).filter(v -> v > 0).average().orElse(0));
-            agg.put("p75", metrics.stream().mapToDouble(SeleniumMetricsSnapshot::p75).filter(v -> v > 0).average().orElse(0));
-            agg.put("p95", metrics.stream().mapToDouble(SeleniumMetricsSnapshot::p95).filter(v -> v > 0).average().orElse(0));
-            agg.put("p99", metrics.stream().mapToDouble(SeleniumMetricsSnapshot::p99).filter(v -> v > 0).average().orElse(0));
-        } else {
-            agg.put("p50", null); agg.put("p75", null); agg.put("p95", null); agg.put("p99", null);
-        }
-
-        int total = run.getTotalIterations();
-        int failed = run.getFailedIterations();
-        agg.put("totalIterations", (double) total);
-        agg.put("passedIterations", (double) run.getPassedIterations());
-        agg.put("failedIterations", (double) failed);
-        agg.put("errorRate", total > 0 ? ((double) failed / total) * 100.0 : 0.0);
-        agg.put("passedInstances", (double) run.getPassedInstances());
-        agg.put("failedInstances", (double) run.getFailedInstances());
-
-        return agg;
-    }
-
     private void appendStepDetails(StringBuilder html, List<SeleniumBrowserResult> results) {
         for (SeleniumBrowserResult r : results) {
             if (r.getStepsJson() == null) continue;
@@ -0,0 +1,83 @@
+package com.gatlingweb.selenium.service;
+
+import com.gatlingweb.entity.RunKind;
+import com.gatlingweb.selenium.dto.SeleniumMetricsSnapshot;
+import com.gatlingweb.selenium.entity.SeleniumTestRun;
+import com.gatlingweb.service.RunHistogramService;
+import com.gatlingweb.timeseries.LatencyHistogram;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Headline figures of a Selenium run for comparisons and reports. Percentiles come from the
+ * run's iteration histogram; runs recorded before histograms fall back to the mean of the
+ * per-second percentiles, which is only an approximation.
+ */
+@Service
+public class SeleniumRunSummaryService {
+
+    private final RunHistogramService histograms;
+
+    public SeleniumRunSummaryService(RunHistogramService histograms) {
+        this.histograms = histograms;
+    }
+
+    public Map<String, Double> summarize(SeleniumTestRun run, List<SeleniumMetricsSnapshot> metrics) {
+        Map<String, Double> agg = new LinkedHashMap<>();
+        agg.put("meanStepDuration", run.getMeanStepDuration());
+
+        Optional<LatencyHistogram> histogram = histograms.overall(RunKind.SELENIUM, run.getId());
+        if (histogram.isPresent()) {
+            LatencyHistogram h = histogram.get();
+            agg.put("p50", h.quantile(0.50));
+            agg.put("p75", h.quantile(0.75));
+            agg.put("p95", h.quantile(0.95));
+            agg.put("p99", h.quantile(0.99));
+        } else {
+            agg.put("p50", averageOfWindows(metrics, SeleniumMetricsSnapshot::p50));
+            agg.put("p75", averageOfWindows(metrics, SeleniumMetricsSnapshot::p75));
+            agg.put("p95", averageOfWindows(metrics, SeleniumMetricsSnapshot::p95));
+            agg.put("p99", averageOfWindows(metrics, SeleniumMetricsSnapshot::p99));
+        }
+
+        int total = run.getTotalIterations();
+        int failed = run.getFailedIterations();
+        agg.put("totalIterations", (double) total);
+        agg.put("passedIterations", (double) run.getPassedIterations());
+        agg.put("failedIterations", (double) failed);
+        agg.put("errorRate", total > 0 ? ((double) failed / total) * 100.0 : 0.0);
+        agg.put("passedInstances", (double) run.getPassedInstances());
+        agg.put("failedInstances", (double) run.getFailedInstances());
+
+        return agg;
+    }
+
+    /** Percent change from {@code a} to {@code b} per key; null when either side is missing or {@code a} is 0. */
+    public static Map<String, Double> diffPercent(Map<String, Double> a, Map<String, Double> b) {
+        Map<String, Double> diff = new LinkedHashMap<>();
+        for (String key : a.keySet()) {
+            Double valA = a.get(key);
+            Double valB = b.get(key);
+            if (valA != null && valB != null && valA != 0) {
+                diff.put(key, ((valB - valA) / Math.abs(valA)) * 100.0);
+            } else {
+                diff.put(key, null);
+            }
+        }
+        return diff;
+    }
+
+    private static Double averageOfWindows(List<SeleniumMetricsSnapshot> metrics,
+                                           ToDoubleFunction<SeleniumMetricsSnapshot> percentile) {
+        double[] values = metrics.stream().mapToDouble(percentile).filter(v -> v > 0).toArray();
+        if (values.length == 0) return null;
+        double sum = 0;
+        for (double v : values) sum += v;
+        return sum / values.length;
+    }
+}
@@ -0,0 +1,82 @@
+package com.gatlingweb.selenium.service;
+
+import com.gatlingweb.entity.TestStatus;
+import com.gatlingweb.search.RunIndex;
+import com.gatlingweb.selenium.entity.SeleniumTestRun;
+import com.gatlingweb.selenium.repository.SeleniumTestRunRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Faceted search over Selenium runs: script, browser, version, label and status facets, and free
+ * text over the script class, version, labels and notes. The index is built from the database on
+ * first use; every save of a run goes through {@link #runChanged}. Hits are listed by id, newest
+ * first, like the history.
+ */
+@Service
+public class SeleniumSearchService {
+
+    public static final List<String> FACETS = List.of("script", "browser", "version", "label", "status");
+
+    private final SeleniumTestRunRepository repository;
+    private final RunIndex index = new RunIndex(FACETS);
+    private volatile boolean loaded;
+
+    public SeleniumSearchService(SeleniumTestRunRepository repository) {
+        this.repository = repository;
+    }
+
+    public RunIndex.Hits search(String text, Map<String, ? extends Collection<String>> filters, int offset, int limit) {
+        ensureLoaded();
+        return index.search(new RunIndex.Query(filters, text, offset, limit));
+    }
+
+    public synchronized void runChanged(SeleniumTestRun run) {
+        if (!loaded) return;
+        index.put(doc(run.getId(), run.getScriptClass(), run.getBrowser(), run.getVersion(), run.getStatus(),
+            run.getNotes(), run.getLabels()));
+    }
+
+    public synchronized void runDeleted(Long id) {
+        if (loaded) index.remove(id);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            Map<Long, List<String>> labels = new HashMap<>();
+            for (Object[] row : repository.findAllLabels()) {
+                labels.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+            }
+            for (Object[] row : repository.findSearchFields()) {
+                Long id = (Long) row[0];
+                index.put(doc(id, (String) row[1], (String) row[2], (String) row[3], (TestStatus) row[4],
+                    (String) row[5], labels.getOrDefault(id, List.of())));
+            }
+            loaded = true;
+        }
+    }
+
+    private static RunIndex.Doc doc(Long id, String scriptClass, String browser, String version, TestStatus status,
+                                    String notes, Collection<String> labels) {
+        Map<String, Collection<String>> facets = new HashMap<>();
+        facets.put("script", single(scriptClass));
+        facets.put("browser", single(browser));
+        facets.put("version", single(version));
+        facets.put("label", labels != null ? labels : List.of());
+        facets.put("status", single(status != null ? status.name() : null));
+        String text = String.join(" ", scriptClass != null ? scriptClass : "", version != null ? version : "",
+            labels != null ? String.join(" ", labels) : "", notes != null ? notes : "");
+        return new RunIndex.Doc(id, id, facets, text);
+    }
+
+    private static List<String> single(String value) {
+        return value != null ? List.of(value) : List.of();
+    }
+}
@@ -0,0 +1,295 @@
+package com.gatlingweb.service;
+
+import com.gatlingweb.config.ParallelTasks;
+import com.gatlingweb.dto.BottleneckReportDto;
+import com.gatlingweb.dto.BottleneckReportDto.Finding;
+import com.gatlingweb.dto.InfraMetricsSnapshot;
+import com.gatlingweb.dto.MetricsSnapshot;
+import com.gatlingweb.entity.BottleneckFinding;
+import com.gatlingweb.entity.TestRun;
+import com.gatlingweb.repository.BottleneckFindingRepository;
+import com.gatlingweb.repository.TestRunRepository;
+import com.gatlingweb.timeseries.ResourceCorrelation;
+import com.gatlingweb.timeseries.ResourceCorrelation.Knee;
+import com.gatlingweb.timeseries.ResourceCorrelation.Lag;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds which resource of which monitored server the run's latency followed.
+ * <p>
+ * The Gatling series (p95 of the intervals with traffic) and every server resource are averaged
+ * onto one time grid. Each resource is then scored on how well latency tracks it: the correlation
+ * at the lag, within {@value #MAX_LAG_STEPS} steps, where their changes line up best, boosted when
+ * latency shows a saturation knee against the resource (flat, then rising past a level).
+ * Resources are ranked by score and the first one is named the probable bottleneck when its score
+ * reaches {@value #MIN_SCORE}.
+ * <p>
+ * Runs are analysed in the background when they finish, and on demand for older runs.
+ */
+@Service
+public class BottleneckAnalysisService {
+
+    private static final Logger log = LoggerFactory.getLogger(BottleneckAnalysisService.class);
+
+    static final String CPU = "cpuPercent";
+    static final String MEMORY = "memoryPercent";
+    static final String DISK = "diskBytesPerSec";
+    static final String NETWORK = "networkBytesPerSec";
+    static final String SQL_BATCH = "sqlBatchPerSec";
+    static final long MIN_STEP_MS = 2000;
+    static final int MAX_STEPS = 5000;
+    static final int MAX_LAG_STEPS = 15;
+    static final int MIN_POINTS = 10;
+    static final int MIN_KNEE_SIDE = 5;
+    static final double MIN_FIT_GAIN = 0.2;
+    static final double MIN_LIFT = 0.2;
+    static final double MIN_SCORE = 0.5;
+
+    private final TestRunRepository testRunRepository;
+    private final BottleneckFindingRepository repository;
+    private final MetricsPersistenceService metricsPersistence;
+    private final Executor executor;
+    // Completed runs are analysed one at a time; each analysis still fans out on the executor
+    private final ExecutorService background = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "bottleneck-analysis");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public BottleneckAnalysisService(TestRunRepository testRunRepository, BottleneckFindingRepository repository,
+                                     MetricsPersistenceService metricsPersistence,
+                                     @Qualifier("comparisonExecutor") Executor executor) {
+        this.testRunRepository = testRunRepository;
+        this.repository = repository;
+        this.metricsPersistence = metricsPersistence;
+        this.executor = executor;
+    }
+
+    /** Analyses the finished run in the background. */
+    public void runCompleted(TestRun run) {
+        if (run.getStatus() == null || !run.getStatus().isFinished()) return;
+        Long runId = run.getId();
+        background.execute(() -> {
+            try {
+                analyze(runId);
+            } catch (Exception e) {
+                log.warn("Bottleneck analysis failed for run #{}: {}", runId, e.getMessage());
+            }
+        });
+    }
+
+    /** The stored analysis of the run, computed first if the run has none yet. */
+    public BottleneckReportDto report(Long runId) {
+        List<BottleneckFinding> rows = repository.findByTestRunIdOrderByRankingAsc(runId);
+        if (rows.isEmpty()) return analyze(runId);
+        BottleneckFinding first = rows.get(0);
+        return report(runId, first.getAnalyzedAt(), first.getStepMs(), first.getPoints(),
+            rows.stream().map(Finding::from).toList());
+    }
+
+    /**
+     * Recomputes the analysis of the finished run and replaces the stored one. Synchronized so a
+     * request and the post-run analysis cannot interleave their replacements.
+     */
+    public synchronized BottleneckReportDto analyze(Long runId) {
+        TestRun run = testRunRepository.findById(runId)
+            .orElseThrow(() -> new IllegalArgumentException("Test run not found: " + runId));
+        if (run.getStatus() == null || !run.getStatus().isFinished()) {
+            throw new IllegalStateException("Test run #" + runId + " has not finished yet");
+        }
+
+        Grid grid = grid(metricsPersistence.getMetrics(runId), metricsPersistence.getInfraMetrics(runId));
+        long analyzedAt = System.currentTimeMillis();
+        if (grid == null) return report(runId, analyzedAt, 0, 0, List.of());
+
+        List<Scored> scored = new ArrayList<>();
+        for (Scored s : ParallelTasks.inParallel(executor, grid.resources(), series -> score(series, grid.latency()))) {
+            if (s != null) scored.add(s);
+        }
+        scored.sort(Comparator.comparingDouble(Scored::score).reversed()
+            .thenComparing(Comparator.comparingDouble(Scored::correlation).reversed()));
+
+        List<BottleneckFinding> rows = new ArrayList<>(scored.size());
+        for (int i = 0; i < scored.size(); i++) {
+            rows.add(row(runId, i + 1, scored.get(i), grid, analyzedAt));
+        }
+        repository.deleteByTestRunId(runId);
+        repository.saveAll(rows);
+        return report(runId, analyzedAt, grid.stepMs(), grid.latency().length,
+            rows.stream().map(Finding::from).toList());
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        background.shutdownNow();
+        background.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /** One resource of one server on the grid; NaN where the server reported nothing. */
+    record Series(Long serverId, String serverName, String resource, double[] values) {}
+
+    record Grid(long stepMs, double[] latency, List<Series> resources) {}
+
+    record Scored(Series series, Lag lag, Knee knee, double peak, double score) {
+        double correlation() { return lag.r(); }
+    }
+
+    /**
+     * Averages the Gatling p95 and every server resource onto a grid covering the Gatling series.
+     * The step is the coarser of the two sampling intervals, and never finer than the scraper's
+     * raw interval; null when there is nothing to correlate.
+     */
+    static Grid grid(List<MetricsSnapshot> gatling, List<InfraMetricsSnapshot> infra) {
+        List<InfraMetricsSnapshot> samples = new ArrayList<>();
+        for (InfraMetricsSnapshot s : infra) {
+            if (s.serverId() != null && s.error() == null) samples.add(s);
+        }
+        if (gatling.isEmpty() || samples.isEmpty()) return null;
+
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        for (MetricsSnapshot s : gatling) {
+            start = Math.min(start, s.timestamp());
+            end = Math.max(end, s.timestamp());
+        }
+        Map<Long, List<InfraMetricsSnapshot>> byServer = new LinkedHashMap<>();
+        for (InfraMetricsSnapshot s : samples) byServer.computeIfAbsent(s.serverId(), k -> new ArrayList<>()).add(s);
+
+        long step = Math.max(MIN_STEP_MS, medianSpacing(gatling.stream().mapToLong(MetricsSnapshot::timestamp).toArray()));
+        for (List<InfraMetricsSnapshot> points : byServer.values()) {
+            step = Math.max(step, medianSpacing(points.stream().mapToLong(InfraMetricsSnapshot::timestamp).toArray()));
+        }
+        step = Math.max(step, (end - start) / MAX_STEPS + 1);
+        int n = (int) ((end - start) / step) + 1;
+
+        Accumulator latency = new Accumulator(n);
+        for (MetricsSnapshot s : gatling) {
+            if (s.requestsPerSecond() > 0 && s.p95() > 0) latency.add(bucket(s.timestamp(), start, step, n), s.p95());
+        }
+
+        List<Series> resources = new ArrayList<>();
+        for (List<InfraMetricsSnapshot> points : byServer.values()) {
+            Map<String, Accumulator> metrics = new LinkedHashMap<>();
+            for (InfraMetricsSnapshot s : points) {
+                int b = bucket(s.timestamp(), start, step, n);
+                if (b < 0) continue;
+                add(metrics, n, CPU, b, s.cpuPercent());
+                add(metrics, n, MEMORY, b, s.memoryPercent());
+                add(metrics, n, DISK, b, sum(s.diskReadBytesPerSec(), s.diskWriteBytesPerSec()));
+                add(metrics, n, NETWORK, b, sum(s.networkRecvBytesPerSec(), s.networkSentBytesPerSec()));
+                add(metrics, n, SQL_BATCH, b, s.sqlBatchPerSec());
+                if (s.extra() != null) s.extra().forEach((name, value) -> add(metrics, n, name, b, value));
+            }
+            InfraMetricsSnapshot first = points.get(0);
+            metrics.forEach((name, acc) ->
+                resources.add(new Series(first.serverId(), first.serverName(), name, acc.means())));
+        }
+        return new Grid(step, latency.means(), resources);
+    }
+
+    /** Best lag and knee of latency against the resource; null when they cannot be compared. */
+    static Scored score(Series series, double[] latency) {
+        Lag lag = ResourceCorrelation.trackingLag(series.values(), latency, MAX_LAG_STEPS, MIN_POINTS);
+        if (lag == null) return null;
+        // Look for the knee with the resource shifted by the lag, so both move together
+        double[] shifted = new double[latency.length];
+        Arrays.fill(shifted, Double.NaN);
+        for (int t = 0; t < shifted.length; t++) {
+            int from = t - lag.steps();
+            if (from >= 0 && from < series.values().length) shifted[t] = series.values()[from];
+        }
+        Knee knee = ResourceCorrelation.knee(shifted, latency, MIN_KNEE_SIDE, MIN_FIT_GAIN, MIN_LIFT);
+        double peak = Arrays.stream(series.values()).filter(v -> !Double.isNaN(v)).max().orElse(Double.NaN);
+        double lift = knee != null ? Math.min(1, (knee.latencyAbove() - knee.latencyBelow()) / knee.latencyBelow()) : 0;
+        return new Scored(series, lag, knee, peak, Math.max(0, lag.r()) * (1 + lift));
+    }
+
+    private static BottleneckFinding row(Long runId, int ranking, Scored s, Grid grid, long analyzedAt) {
+        BottleneckFinding row = new BottleneckFinding();
+        row.setTestRunId(runId);
+        row.setRanking(ranking);
+        row.setServerId(s.series().serverId());
+        row.setServerName(s.series().serverName());
+        row.setResource(s.series().resource());
+        row.setCorrelation(s.lag().r());
+        row.setLagMs(s.lag().steps() * grid.stepMs());
+        row.setPeak(Double.isNaN(s.peak()) ? null : s.peak());
+        if (s.knee() != null) {
+            row.setKneeLevel(s.knee().level());
+            row.setLatencyBelowKnee(s.knee().latencyBelow());
+            row.setLatencyAboveKnee(s.knee().latencyAbove());
+        }
+        row.setScore(s.score());
+        row.setStepMs(grid.stepMs());
+        row.setPoints(grid.latency().length);
+        row.setAnalyzedAt(analyzedAt);
+        return row;
+    }
+
+    private static BottleneckReportDto report(Long runId, long analyzedAt, long stepMs, int points, List<Finding> findings) {
+        Finding bottleneck = !findings.isEmpty() && findings.get(0).score() >= MIN_SCORE ? findings.get(0) : null;
+        return new BottleneckReportDto(runId, analyzedAt, stepMs, points, bottleneck, findings);
+    }
+
+    private static long medianSpacing(long[] timestamps) {
+        long[] sorted = Arrays.stream(timestamps).distinct().sorted().toArray();
+        if (sorted.length < 2) return 0;
+        long[] gaps = new long[sorted.length - 1];
+        for (int i = 1; i < sorted.length; i++) gaps[i - 1] = sorted[i] - sorted[i - 1];
+        Arrays.sort(gaps);
+        return gaps[gaps.length / 2];
+    }
+
+    private static int bucket(long timestamp, long start, long step, int n) {
+        long b = Math.floorDiv(timestamp - start, step);
+        return b >= 0 && b < n ? (int) b : -1;
+    }
+
+    private static void add(Map<String, Accumulator> metrics, int n, String name, int bucket, Double value) {
+        if (value == null || value.isNaN()) return;
+        metrics.computeIfAbsent(name, k -> new Accumulator(n)).add(bucket, value);
+    }
+
+    private static Double sum(Double a, Double b) {
+        if (a == null) return b;
+        return b == null ? a : a + b;
+    }
+
+    /** Per-bucket sums and counts; buckets without a value read as NaN. */
+    private static final class Accumulator {
+        private final double[] sums;
+        private final int[] counts;
+
+        Accumulator(int n) {
+            sums = new double[n];
+            counts = new int[n];
+        }
+
+        void add(int bucket, double value) {
+            if (bucket < 0) return;
+            sums[bucket] += value;
+            counts[bucket]++;
+        }
+
+        double[] means() {
+            double[] means = new double[sums.length];
+            for (int i = 0; i < means.length; i++) means[i] = counts[i] > 0 ? sums[i] / counts[i] : Double.NaN;
+            return means;
+        }
+    }
+}
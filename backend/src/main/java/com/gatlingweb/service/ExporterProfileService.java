@@ -0,0 +1,154 @@
+package com.gatlingweb.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gatlingweb.dto.ExporterProfile;
+import com.gatlingweb.dto.ExporterProfile.Breakdown;
+import com.gatlingweb.dto.ExporterProfile.ExtraMetric;
+import com.gatlingweb.dto.ExporterProfile.Selector;
+import com.gatlingweb.entity.ServerType;
+import com.gatlingweb.service.PrometheusMetricsParser.Plan;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * The exporter profiles a monitored server can use: the built-in ones of
+ * {@code exporter-profiles.json}, plus those of the optional file
+ * {@code app.monitoring.exporter-profiles}, which replace built-in profiles with the same id.
+ * Each profile is compiled once for the parser.
+ */
+@Service
+public class ExporterProfileService {
+
+    public static final String DEFAULT_PROFILE = "windows_exporter";
+    public static final String JVM_PROFILE = "jvm";
+    private static final String BUILT_IN = "exporter-profiles.json";
+    private static final Pattern EXTRA_NAME = Pattern.compile("[a-zA-Z][a-zA-Z0-9_]*");
+    // Lowercased into a time-series name, where an underscore would read as a rollup
+    private static final Pattern BREAKDOWN_NAME = Pattern.compile("[a-zA-Z][a-zA-Z0-9]*");
+
+    private final ObjectMapper objectMapper;
+    private final PrometheusMetricsParser parser;
+    private final String externalFile;
+    private final Map<String, ExporterProfile> profiles = new LinkedHashMap<>();
+    private final Map<String, Plan> plans = new LinkedHashMap<>();
+
+    public ExporterProfileService(ObjectMapper objectMapper, PrometheusMetricsParser parser,
+                                  @Value("${app.monitoring.exporter-profiles:}") String externalFile) {
+        this.objectMapper = objectMapper;
+        this.parser = parser;
+        this.externalFile = externalFile;
+    }
+
+    @PostConstruct
+    void load() throws IOException {
+        try (InputStream is = new ClassPathResource(BUILT_IN).getInputStream()) {
+            register(objectMapper.readValue(is, new TypeReference<>() {}), BUILT_IN);
+        }
+        if (externalFile != null && !externalFile.isBlank()) {
+            try (InputStream is = Files.newInputStream(Path.of(externalFile))) {
+                register(objectMapper.readValue(is, new TypeReference<>() {}), externalFile);
+            }
+        }
+        for (String required : List.of(DEFAULT_PROFILE, JVM_PROFILE)) {
+            if (!profiles.containsKey(required)) throw new IllegalStateException("Exporter profile " + required + " is missing");
+        }
+    }
+
+    void register(List<ExporterProfile> declared, String source) {
+        for (ExporterProfile profile : declared) {
+            validate(profile, source);
+            profiles.put(profile.id(), profile);
+            plans.put(profile.id(), parser.compile(profile));
+        }
+    }
+
+    public List<ExporterProfile> list() {
+        return List.copyOf(profiles.values());
+    }
+
+    /** The profile with this id; throws IllegalArgumentException when there is none. */
+    public ExporterProfile get(String id) {
+        ExporterProfile profile = profiles.get(id);
+        if (profile == null) throw new IllegalArgumentException("Unknown exporter profile: " + id);
+        return profile;
+    }
+
+    /** The profile a server of this type uses when none is chosen. */
+    public static String defaultProfile(ServerType type) {
+        return type == ServerType.JVM ? JVM_PROFILE : DEFAULT_PROFILE;
+    }
+
+    /** The chosen profile, or the default one of the server type when none is. */
+    public static String profileOf(String chosen, ServerType type) {
+        return chosen == null || chosen.isBlank() ? defaultProfile(type) : chosen;
+    }
+
+    /** The compiled profile with this id, as resolved by {@link #profileOf}. */
+    public Plan plan(String id) {
+        Plan plan = id != null ? plans.get(id) : null;
+        if (plan == null) throw new IllegalArgumentException("Unknown exporter profile: " + id);
+        return plan;
+    }
+
+    private static void validate(ExporterProfile profile, String source) {
+        if (profile.id() == null || profile.id().isBlank()) {
+            throw new IllegalStateException("Exporter profile without id in " + source);
+        }
+        try {
+            if (profile.signals() != null) {
+                profile.signals().forEach((key, selectors) -> {
+                    ExporterProfile.Signal.fromKey(key);
+                    validate(selectors, key);
+                });
+            }
+            Set<String> names = new HashSet<>();
+            for (ExtraMetric extra : profile.extra() != null ? profile.extra() : List.<ExtraMetric>of()) {
+                if (extra.name() == null || !EXTRA_NAME.matcher(extra.name()).matches() || !names.add(extra.name())) {
+                    throw new IllegalArgumentException("Invalid or duplicate extra metric name: " + extra.name());
+                }
+                if (extra.kind() == null) throw new IllegalArgumentException("Extra metric " + extra.name() + " has no kind");
+                validate(extra.sources(), extra.name());
+            }
+            Set<String> breakdownNames = new HashSet<>();
+            for (Breakdown breakdown : profile.breakdowns() != null ? profile.breakdowns() : List.<Breakdown>of()) {
+                if (breakdown.name() == null || !BREAKDOWN_NAME.matcher(breakdown.name()).matches()
+                        || !breakdownNames.add(breakdown.name().toLowerCase(Locale.ROOT))) {
+                    throw new IllegalArgumentException("Invalid or duplicate breakdown name: " + breakdown.name());
+                }
+                if (breakdown.kind() == null) throw new IllegalArgumentException("Breakdown " + breakdown.name() + " has no kind");
+                if (breakdown.by() == null || breakdown.by().isBlank()) {
+                    throw new IllegalArgumentException("Breakdown " + breakdown.name() + " has no label to split by");
+                }
+                if (breakdown.maxSeries() != null && (breakdown.maxSeries() < 1 || breakdown.maxSeries() > Breakdown.MAX_SERIES)) {
+                    throw new IllegalArgumentException("Breakdown " + breakdown.name() + " maxSeries must be between 1 and "
+                        + Breakdown.MAX_SERIES);
+                }
+                validate(breakdown.sources(), breakdown.name());
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Exporter profile " + profile.id() + " in " + source + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void validate(List<Selector> selectors, String output) {
+        if (selectors == null || selectors.isEmpty()) throw new IllegalArgumentException(output + " has no source");
+        for (Selector selector : selectors) {
+            if (selector.familyNames().isEmpty()) throw new IllegalArgumentException(output + " has a source without family");
+        }
+    }
+}
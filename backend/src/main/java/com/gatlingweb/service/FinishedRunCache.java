@@ -0,0 +1,149 @@
+package com.gatlingweb.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gatlingweb.dto.RunCacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Serialized JSON responses of finished runs, with a strong ETag.
+ * <p>
+ * Once a run is COMPLETED, FAILED or CANCELLED and no longer executing, its metrics, comparisons
+ * and Selenium results only change when the run is edited or deleted or its metrics are rolled up;
+ * each of those paths calls {@link #evictRun}. Hits are answered without touching the database and
+ * a matching {@code If-None-Match} gets a 304. Entries are bounded by their total size and evicted
+ * least recently used first.
+ */
+@Component
+public class FinishedRunCache {
+
+    public enum Scope { GATLING, SELENIUM }
+
+    /** A cached view: what is returned ({@code view}) for which runs, with which request parameters. */
+    public record Key(Scope scope, String view, List<Long> runIds, String params) {
+
+        public static Key of(Scope scope, String view, Long runId, Object... params) {
+            return new Key(scope, view, List.of(runId), params(params));
+        }
+
+        public static Key of(Scope scope, String view, List<Long> runIds, Object... params) {
+            return new Key(scope, view, List.copyOf(runIds), params(params));
+        }
+
+        private static String params(Object[] params) {
+            StringBuilder sb = new StringBuilder();
+            for (Object p : params) sb.append(p).append('|');
+            return sb.toString();
+        }
+    }
+
+    private record Entry(byte[] body, String etag) {}
+
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+    // Bumped by every eviction so that a response loaded before an edit is never stored after it
+    private long generation;
+    private long hits;
+    private long misses;
+
+    public FinishedRunCache(ObjectMapper objectMapper,
+                            @Value("${app.cache.finished-runs.max-bytes:67108864}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Answers from the cache, or loads and serializes the view. The result is only cached when
+     * {@code finished} holds, which is checked before loading. The returned ETag lets Spring answer
+     * conditional requests with 304.
+     */
+    public ResponseEntity<byte[]> serve(Key key, BooleanSupplier finished, Supplier<?> loader) {
+        Entry entry;
+        long loadGeneration;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null) hits++; else misses++;
+            loadGeneration = generation;
+        }
+        if (entry == null) {
+            boolean cacheable = maxBytes > 0 && finished.getAsBoolean();
+            byte[] body = serialize(loader.get());
+            if (!cacheable) {
+                return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+            }
+            entry = new Entry(body, etag(body));
+            put(key, entry, loadGeneration);
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .eTag(entry.etag())
+            .cacheControl(REVALIDATE)
+            .body(entry.body());
+    }
+
+    /** Drops every entry that involves the run. */
+    public synchronized void evictRun(Scope scope, Long runId) {
+        generation++;
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> e = it.next();
+            if (e.getKey().scope() == scope && e.getKey().runIds().contains(runId)) {
+                bytes -= e.getValue().body().length;
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized RunCacheStats stats() {
+        return new RunCacheStats(entries.size(), bytes, maxBytes, hits, misses);
+    }
+
+    private synchronized void put(Key key, Entry entry, long loadGeneration) {
+        long size = entry.body().length;
+        if (loadGeneration != generation || size > maxBytes) return;
+        Entry previous = entries.put(key, entry);
+        if (previous != null) bytes -= previous.body().length;
+        bytes += size;
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().body().length;
+            eldest.remove();
+        }
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.gatlingweb.service;
 
 import com.gatlingweb.dto.LaunchRequest;
+import com.gatlingweb.entity.RunKind;
 import com.gatlingweb.entity.TestRun;
 import com.gatlingweb.entity.TestStatus;
 import com.gatlingweb.repository.TestRunRepository;
@@ -21,6 +22,7 @@ import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 @Service
@@ -35,6 +37,8 @@ public class GatlingExecutionService {
     private final InfraMetricsScraperService infraScraper;
     private final ThresholdService thresholdService;
     private final BandwidthLimiterService bandwidthLimiter;
+    private final ThroughputControlService throughputControl;
+    private final RunHistogramService histograms;
     private final Path workspacePath;
     private final long timeoutMinutes;
     private final ReentrantLock executionLock = new ReentrantLock();
@@ -43,7 +47,7 @@ public class GatlingExecutionService {
     private volatile Long currentTestRunId;
     private volatile ScheduledFuture<?> timeoutFuture;
     private final ScheduledExecutorService timeoutScheduler = Executors.newSingleThreadScheduledExecutor();
-    private volatile Runnable onTestComplete;
+    private volatile Consumer<Long> onTestComplete;
 
     public GatlingExecutionService(
             TestRunRepository repository,
@@ -53,6 +57,8 @@ public class GatlingExecutionService {
             InfraMetricsScraperService infraScraper,
             ThresholdService thresholdService,
             BandwidthLimiterService bandwidthLimiter,
+            ThroughputControlService throughputControl,
+            RunHistogramService histograms,
             @Value("${gatling.workspace}") String workspace,
             @Value("${gatling.timeout-minutes:30}") long timeoutMinutes) {
         this.repository = repository;
@@ -62,6 +68,8 @@ public class GatlingExecutionService {
         this.infraScraper = infraScraper;
         this.thresholdService = thresholdService;
         this.bandwidthLimiter = bandwidthLimiter;
+        this.throughputControl = throughputControl;
+        this.histograms = histograms;
         this.workspacePath = Path.of(workspace).toAbsolutePath().normalize();
         this.timeoutMinutes = timeoutMinutes;
     }
@@ -94,7 +102,8 @@ public class GatlingExecutionService {
         }
     }
 
-    public void setOnTestComplete(Runnable callback) {
+    /** Called with the run id once an execution is completely over, before the next queued run starts. */
+    public void setOnTestComplete(Consumer<Long> callback) {
         this.onTestComplete = callback;
     }
 
@@ -140,18 +149,21 @@ public class GatlingExecutionService {
                 }
             }
             scheduleTimeout(testRunId);
-            infraScraper.startScraping(testRunId);
+            infraScraper.startScraping(RunKind.GATLING, testRunId,
+                request.infraIntervalMs() != null ? request.infraIntervalMs() : InfraMetricsScraperService.SCRAPE_INTERVAL_MS,
+                Boolean.TRUE.equals(request.infraBreakdowns()));
             doExecute(testRunId, request);
         } finally {
             infraScraper.stopScraping();
             bandwidthLimiter.removeLimit();
+            throughputControl.close(testRunId);
             cancelTimeout();
             currentProcess = null;
             currentTestRunId = null;
             executionLock.unlock();
             if (onTestComplete != null) {
                 try {
-                    onTestComplete.run();
+                    onTestComplete.accept(testRunId);
                 } catch (Exception e) {
                     log.error("Error in onTestComplete callback", e);
                 }
@@ -220,6 +232,11 @@ public class GatlingExecutionService {
             if (request.loop() != null) {
                 command.add("-Dgatling.loop=" + request.loop());
             }
+            try {
+                command.add("-Dgatlingweb.controlFile=" + throughputControl.open(testRunId));
+            } catch (IOException e) {
+                log.warn("Throughput control channel unavailable for test {}: {}", testRunId, e.getMessage());
+            }
 
             ProcessBuilder pb = new ProcessBuilder(command);
             pb.directory(workspacePath.toFile());
@@ -260,6 +277,7 @@ public class GatlingExecutionService {
 
             logParser.applyFinalMetrics(run);
             repository.save(run);
+            histograms.save(RunKind.GATLING, testRunId, logParser.overallHistogram(), logParser.requestHistograms());
 
             if (run.getStatus() == TestStatus.COMPLETED) {
                 thresholdService.evaluateThresholds(run);
@@ -304,6 +322,11 @@ public class GatlingExecutionService {
         });
     }
 
+    /** True from launch until the run's execution, including its final bookkeeping, is over. */
+    public boolean isExecuting(Long testRunId) {
+        return Objects.equals(currentTestRunId, testRunId);
+    }
+
     public void cancel(Long testRunId) {
         if (currentProcess != null && Objects.equals(currentTestRunId, testRunId)) {
             // Graceful shutdown: try destroy() first, then forcibly after 5 seconds
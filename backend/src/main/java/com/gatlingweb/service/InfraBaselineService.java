@@ -0,0 +1,173 @@
+package com.gatlingweb.service;
+
+import com.gatlingweb.dto.InfraBaselineDto;
+import com.gatlingweb.dto.InfraBaselineDto.Usage;
+import com.gatlingweb.dto.InfraMetricsSnapshot;
+import com.gatlingweb.entity.InfraBaseline;
+import com.gatlingweb.entity.InfraBaseline.Phase;
+import com.gatlingweb.entity.RunKind;
+import com.gatlingweb.repository.InfraBaselineRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Utilization of the monitored servers around a run. The scraper hands over the samples it took
+ * at rest before the run and during the cool-down after it; they are stored as per-server means
+ * and compared with the run's own infrastructure series, so reports can show what the load added
+ * on top of what was already running.
+ */
+@Service
+public class InfraBaselineService {
+
+    private final InfraBaselineRepository repository;
+    private final MetricsPersistenceService metricsPersistence;
+
+    public InfraBaselineService(InfraBaselineRepository repository, MetricsPersistenceService metricsPersistence) {
+        this.repository = repository;
+        this.metricsPersistence = metricsPersistence;
+    }
+
+    /** Replaces the run's means for the phase with those of the samples, one row per server. */
+    @Transactional
+    public void save(RunKind kind, Long runId, Phase phase, List<InfraMetricsSnapshot> samples) {
+        repository.deletePhase(kind, runId, phase);
+        List<InfraBaseline> rows = new ArrayList<>();
+        byServer(samples).forEach((serverId, points) -> {
+            Usage usage = usage(points);
+            InfraMetricsSnapshot first = points.get(0);
+            InfraBaseline row = new InfraBaseline();
+            row.setRunKind(kind);
+            row.setRunId(runId);
+            row.setPhase(phase);
+            row.setServerId(serverId);
+            row.setServerName(first.serverName());
+            row.setServerType(first.serverType());
+            row.setSamples(usage.samples());
+            row.setFromTimestamp(usage.fromTimestamp());
+            row.setToTimestamp(usage.toTimestamp());
+            row.setCpuPercent(usage.cpuPercent());
+            row.setMemoryPercent(usage.memoryPercent());
+            row.setDiskReadBytesPerSec(usage.diskReadBytesPerSec());
+            row.setDiskWriteBytesPerSec(usage.diskWriteBytesPerSec());
+            row.setNetworkRecvBytesPerSec(usage.networkRecvBytesPerSec());
+            row.setNetworkSentBytesPerSec(usage.networkSentBytesPerSec());
+            row.setSqlBatchPerSec(usage.sqlBatchPerSec());
+            rows.add(row);
+        });
+        repository.saveAll(rows);
+    }
+
+    /** Baseline, run, net and cool-down utilization of every server that has any of them. */
+    @Transactional(readOnly = true)
+    public List<InfraBaselineDto> report(RunKind kind, Long runId) {
+        Map<Long, InfraBaseline> baselines = new LinkedHashMap<>();
+        Map<Long, InfraBaseline> cooldowns = new LinkedHashMap<>();
+        for (InfraBaseline row : repository.findByRunKindAndRunIdOrderByServerIdAsc(kind, runId)) {
+            (row.getPhase() == Phase.BASELINE ? baselines : cooldowns).put(row.getServerId(), row);
+        }
+        Map<Long, List<InfraMetricsSnapshot>> runs = byServer(metricsPersistence.getInfraMetrics(runId));
+
+        Set<Long> serverIds = new LinkedHashSet<>(runs.keySet());
+        serverIds.addAll(baselines.keySet());
+        serverIds.addAll(cooldowns.keySet());
+        List<InfraBaselineDto> report = new ArrayList<>(serverIds.size());
+        for (Long serverId : serverIds) {
+            List<InfraMetricsSnapshot> points = runs.get(serverId);
+            InfraBaseline baselineRow = baselines.get(serverId);
+            InfraBaseline cooldownRow = cooldowns.get(serverId);
+            Usage baseline = baselineRow != null ? usage(baselineRow) : null;
+            Usage run = points != null ? usage(points) : null;
+            Usage cooldown = cooldownRow != null ? usage(cooldownRow) : null;
+
+            InfraMetricsSnapshot first = points != null ? points.get(0) : null;
+            InfraBaseline named = baselineRow != null ? baselineRow : cooldownRow;
+            report.add(new InfraBaselineDto(
+                serverId,
+                first != null ? first.serverName() : named.getServerName(),
+                first != null ? first.serverType() : named.getServerType(),
+                baseline,
+                run,
+                baseline != null && run != null ? net(run, baseline) : null,
+                cooldown
+            ));
+        }
+        return report;
+    }
+
+    /** Means of the samples; a metric is null when no sample had it. */
+    static Usage usage(List<InfraMetricsSnapshot> points) {
+        long from = Long.MAX_VALUE;
+        long to = Long.MIN_VALUE;
+        for (InfraMetricsSnapshot p : points) {
+            from = Math.min(from, p.timestamp());
+            to = Math.max(to, p.timestamp());
+        }
+        return new Usage(
+            points.size(),
+            from,
+            to,
+            mean(points, InfraMetricsSnapshot::cpuPercent),
+            mean(points, InfraMetricsSnapshot::memoryPercent),
+            mean(points, InfraMetricsSnapshot::diskReadBytesPerSec),
+            mean(points, InfraMetricsSnapshot::diskWriteBytesPerSec),
+            mean(points, InfraMetricsSnapshot::networkRecvBytesPerSec),
+            mean(points, InfraMetricsSnapshot::networkSentBytesPerSec),
+            mean(points, InfraMetricsSnapshot::sqlBatchPerSec)
+        );
+    }
+
+    private static Usage usage(InfraBaseline row) {
+        return new Usage(row.getSamples(), row.getFromTimestamp(), row.getToTimestamp(),
+            row.getCpuPercent(), row.getMemoryPercent(),
+            row.getDiskReadBytesPerSec(), row.getDiskWriteBytesPerSec(),
+            row.getNetworkRecvBytesPerSec(), row.getNetworkSentBytesPerSec(),
+            row.getSqlBatchPerSec());
+    }
+
+    /** The run's means minus the baseline's; negative when the server was busier at rest. */
+    private static Usage net(Usage run, Usage baseline) {
+        return new Usage(run.samples(), run.fromTimestamp(), run.toTimestamp(),
+            minus(run.cpuPercent(), baseline.cpuPercent()),
+            minus(run.memoryPercent(), baseline.memoryPercent()),
+            minus(run.diskReadBytesPerSec(), baseline.diskReadBytesPerSec()),
+            minus(run.diskWriteBytesPerSec(), baseline.diskWriteBytesPerSec()),
+            minus(run.networkRecvBytesPerSec(), baseline.networkRecvBytesPerSec()),
+            minus(run.networkSentBytesPerSec(), baseline.networkSentBytesPerSec()),
+            minus(run.sqlBatchPerSec(), baseline.sqlBatchPerSec()));
+    }
+
+    private static Map<Long, List<InfraMetricsSnapshot>> byServer(List<InfraMetricsSnapshot> samples) {
+        Map<Long, List<InfraMetricsSnapshot>> byServer = new LinkedHashMap<>();
+        for (InfraMetricsSnapshot s : samples) {
+            if (s.serverId() != null && s.error() == null) {
+                byServer.computeIfAbsent(s.serverId(), k -> new ArrayList<>()).add(s);
+            }
+        }
+        return byServer;
+    }
+
+    private static Double mean(List<InfraMetricsSnapshot> points, Function<InfraMetricsSnapshot, Double> metric) {
+        double sum = 0;
+        int count = 0;
+        for (InfraMetricsSnapshot p : points) {
+            Double value = metric.apply(p);
+            if (value != null) {
+                sum += value;
+                count++;
+            }
+        }
+        return count > 0 ? sum / count : null;
+    }
+
+    private static Double minus(Double a, Double b) {
+        return a != null && b != null ? a - b : null;
+    }
+}
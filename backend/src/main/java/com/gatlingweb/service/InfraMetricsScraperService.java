@@ -1,10 +1,26 @@
 package com.gatlingweb.service;
 
+import com.gatlingweb.dto.ExporterProfile;
+import com.gatlingweb.dto.ExporterProfile.Breakdown;
+import com.gatlingweb.dto.ExporterProfile.ExtraMetric;
+import com.gatlingweb.dto.ExporterProfile.Kind;
+import com.gatlingweb.dto.ExporterProfile.Signal;
 import com.gatlingweb.dto.InfraMetricsSnapshot;
+import com.gatlingweb.dto.RunAnnotationDto;
+import com.gatlingweb.entity.InfraBaseline.Phase;
 import com.gatlingweb.entity.MonitoredServer;
+import com.gatlingweb.entity.RunAnnotation;
+import com.gatlingweb.entity.RunKind;
+import com.gatlingweb.live.LiveChannel;
+import com.gatlingweb.live.LiveRecord;
+import com.gatlingweb.repository.RunAnnotationRepository;
+import com.gatlingweb.service.PrometheusMetricsParser.Plan;
+import com.gatlingweb.service.PrometheusMetricsParser.Reading;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
@@ -12,219 +28,463 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.*;
 
 @Service
 public class InfraMetricsScraperService {
 
     private static final Logger log = LoggerFactory.getLogger(InfraMetricsScraperService.class);
-    private static final int SCRAPE_INTERVAL_SECONDS = 2;
-    private static final int HTTP_TIMEOUT_SECONDS = 5;
+    static final long SCRAPE_INTERVAL_MS = 2_000;
+    // Shorter than the interval: a dead exporter never delays the next tick
+    static final long SCRAPE_DEADLINE_MS = 1_500;
+    // Scheduler period; run and baseline intervals are multiples of it
+    static final long TICK_MS = 500;
+    // Derived from the GC signals, stored with the extra metrics
+    static final String GC_PAUSES_PER_SEC = "gcPausesPerSec";
+    static final String GC_TIME_PERCENT = "gcTimePercent";
+    static final String GC_ANNOTATION_TYPE = "GC_PAUSE";
 
     private final MonitoredServerService serverService;
+    private final ServerHealthService health;
     private final PrometheusMetricsParser parser;
+    private final ExporterProfileService profiles;
     private final SimpMessagingTemplate messaging;
     private final MetricsPersistenceService metricsPersistence;
+    private final InfraBaselineService baselines;
+    private final RunAnnotationRepository annotations;
+    private final LiveChannel liveChannel;
     private final HttpClient httpClient;
+    private final long baselineWindowMs;
+    private final long baselineIntervalMs;
+    private final long cooldownMs;
+    private final long gcAnnotationMs;
 
     private volatile ScheduledExecutorService scheduler;
-    private volatile Long currentTestRunId;
+    private volatile ActiveRun currentRun;
+    private volatile Cooldown cooldown;
+    // Only touched by the scheduler thread
+    private long lastTick;
     private final ConcurrentHashMap<Long, ServerMetricsState> serverStates = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, SampleRing> baselineRings = new ConcurrentHashMap<>();
 
     public InfraMetricsScraperService(
             MonitoredServerService serverService,
+            ServerHealthService health,
             PrometheusMetricsParser parser,
+            ExporterProfileService profiles,
             SimpMessagingTemplate messaging,
-            MetricsPersistenceService metricsPersistence) {
+            MetricsPersistenceService metricsPersistence,
+            InfraBaselineService baselines,
+            RunAnnotationRepository annotations,
+            LiveChannel liveChannel,
+            @Value("${app.monitoring.baseline.window-minutes:10}") int baselineWindowMinutes,
+            @Value("${app.monitoring.baseline.interval-ms:10000}") long baselineIntervalMs,
+            @Value("${app.monitoring.cooldown-seconds:60}") int cooldownSeconds,
+            @Value("${app.monitoring.gc-annotation-ms:100}") long gcAnnotationMs) {
         this.serverService = serverService;
+        this.health = health;
         this.parser = parser;
+        this.profiles = profiles;
         this.messaging = messaging;
         this.metricsPersistence = metricsPersistence;
+        this.baselines = baselines;
+        this.annotations = annotations;
+        this.liveChannel = liveChannel;
         this.httpClient = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(HTTP_TIMEOUT_SECONDS))
+            .connectTimeout(Duration.ofMillis(SCRAPE_DEADLINE_MS))
             .build();
+        this.baselineWindowMs = Math.max(0, baselineWindowMinutes) * 60_000L;
+        // Background samples fall on scheduler ticks: round the interval up to a multiple of them
+        this.baselineIntervalMs = ticks(baselineIntervalMs);
+        this.cooldownMs = Math.max(0, cooldownSeconds) * 1000L;
+        this.gcAnnotationMs = gcAnnotationMs;
     }
 
-    public synchronized void startScraping(Long testRunId) {
-        if (scheduler != null && !scheduler.isShutdown()) {
-            log.warn("Scraper already running, stopping previous instance");
-            stopScraping();
-        }
-
-        currentTestRunId = testRunId;
-        serverStates.clear();
+    /**
+     * Starts the scheduler, which keeps running between runs: at rest it samples every server each
+     * {@code baseline.interval-ms} into a ring holding the last {@code baseline.window-minutes}.
+     */
+    @PostConstruct
+    synchronized void start() {
+        if (scheduler != null) return;
         scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
             Thread t = new Thread(r, "infra-metrics-scraper");
             t.setDaemon(true);
             return t;
         });
 
+        // Ticks fall on multiples of the period so that every server's samples line up
+        long firstTick = TICK_MS - System.currentTimeMillis() % TICK_MS;
         scheduler.scheduleAtFixedRate(
             this::scrapeAllServers,
-            0,
-            SCRAPE_INTERVAL_SECONDS,
-            TimeUnit.SECONDS
+            firstTick,
+            TICK_MS,
+            TimeUnit.MILLISECONDS
         );
+    }
 
-        log.info("Started infrastructure metrics scraping for test run {}", testRunId);
+    /** Scrapes for the run every {@link #SCRAPE_INTERVAL_MS}, without breakdowns. */
+    public void startScraping(RunKind kind, Long testRunId) {
+        startScraping(kind, testRunId, SCRAPE_INTERVAL_MS, false);
     }
 
-    public synchronized void stopScraping() {
-        if (scheduler != null) {
-            scheduler.shutdownNow();
-            try {
-                scheduler.awaitTermination(2, TimeUnit.SECONDS);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-            scheduler = null;
+    /**
+     * Scrapes every server each {@code intervalMs} (rounded up to a multiple of {@link #TICK_MS})
+     * for the run, publishing and recording the samples, until {@link #stopScraping}. With
+     * {@code breakdowns}, the samples also carry the per-core, per-disk and per-interface values
+     * of the servers' exporter profiles. The samples taken at rest during the last
+     * {@code baseline.window-minutes} are stored as the run's baseline; a cool-down still being
+     * collected for the previous run ends here.
+     */
+    public synchronized void startScraping(RunKind kind, Long testRunId, long intervalMs, boolean breakdowns) {
+        if (currentRun != null) {
+            log.warn("Scraper already running, stopping previous instance");
+            stopScraping();
         }
-        currentTestRunId = null;
+        finishCooldown();
+
+        long now = System.currentTimeMillis();
+        List<InfraMetricsSnapshot> baseline = new ArrayList<>();
+        for (SampleRing ring : baselineRings.values()) {
+            baseline.addAll(ring.since(now - baselineWindowMs));
+        }
+        // The next baseline only starts once this run has cooled down
+        baselineRings.clear();
         serverStates.clear();
-        log.info("Stopped infrastructure metrics scraping");
+        ActiveRun run = new ActiveRun(kind, testRunId, ticks(intervalMs), breakdowns);
+        currentRun = run;
+        storePhase(kind, testRunId, Phase.BASELINE, baseline);
+
+        log.info("Started infrastructure metrics scraping for test run {} every {} ms{} ({} baseline samples)",
+            testRunId, run.intervalMs(), breakdowns ? " with breakdowns" : "", baseline.size());
+    }
+
+    /** Stops recording the run; its cool-down tail is collected for {@code cooldown-seconds}. */
+    public synchronized void stopScraping() {
+        ActiveRun run = currentRun;
+        if (run == null) return;
+        currentRun = null;
+        if (cooldownMs > 0) {
+            cooldown = new Cooldown(run, System.currentTimeMillis() + cooldownMs);
+        }
+        log.info("Stopped infrastructure metrics scraping for test run {}", run.id());
     }
 
     @PreDestroy
     void shutdown() {
         log.info("InfraMetricsScraperService shutting down...");
-        stopScraping();
+        ScheduledExecutorService stopped;
+        synchronized (this) {
+            currentRun = null;
+            cooldown = null;
+            stopped = scheduler;
+            scheduler = null;
+        }
+        if (stopped != null) {
+            stopped.shutdownNow();
+            try {
+                stopped.awaitTermination(2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
         log.info("InfraMetricsScraperService shutdown complete");
     }
 
     private void scrapeAllServers() {
-        if (currentTestRunId == null) return;
+        long tick = System.currentTimeMillis() / TICK_MS * TICK_MS;
+        // Executions delayed by a slow scrape run back to back: never scrape a tick twice
+        if (tick <= lastTick) return;
+        lastTick = tick;
+        scheduledTick(tick);
+    }
+
+    /**
+     * One scheduler tick: records the run or collects its cool-down on the ticks of its interval,
+     * or, at rest, feeds the baseline rings.
+     */
+    void scheduledTick(long tick) {
+        ActiveRun run = currentRun;
+        if (run != null) {
+            if (tick % run.intervalMs() == 0) scrapeTick(run, tick);
+            return;
+        }
+        Cooldown tail = cooldown;
+        if (tail != null) {
+            if (tick >= tail.until) {
+                finishCooldown();
+                return;
+            }
+            if (tick % tail.run.intervalMs() != 0) return;
+            List<InfraMetricsSnapshot> samples = scrape(tick, deadline(tail.run.intervalMs()), false);
+            synchronized (this) {
+                if (cooldown == tail) samples.stream().filter(s -> s.error() == null).forEach(tail.samples::add);
+            }
+            return;
+        }
+        if (baselineWindowMs > 0 && tick % baselineIntervalMs == 0) {
+            sampleBaseline(tick);
+        }
+    }
+
+    private void sampleBaseline(long tick) {
+        int capacity = (int) (baselineWindowMs / baselineIntervalMs) + 1;
+        List<InfraMetricsSnapshot> samples = scrape(tick, SCRAPE_DEADLINE_MS, false);
+        synchronized (this) {
+            // A run started meanwhile: these samples belong before its baseline was taken
+            if (currentRun != null || cooldown != null) return;
+            Set<Long> enabled = new HashSet<>();
+            for (InfraMetricsSnapshot sample : samples) {
+                enabled.add(sample.serverId());
+                if (sample.error() == null) {
+                    baselineRings.computeIfAbsent(sample.serverId(), id -> new SampleRing(capacity)).add(sample);
+                }
+            }
+            baselineRings.keySet().retainAll(enabled);
+        }
+    }
+
+    private void finishCooldown() {
+        Cooldown tail;
+        synchronized (this) {
+            tail = cooldown;
+            cooldown = null;
+        }
+        if (tail != null) {
+            storePhase(tail.run.kind(), tail.run.id(), Phase.COOLDOWN, tail.samples);
+        }
+    }
+
+    private void storePhase(RunKind kind, Long runId, Phase phase, List<InfraMetricsSnapshot> samples) {
+        if (samples.isEmpty()) return;
+        try {
+            baselines.save(kind, runId, phase, samples);
+        } catch (RuntimeException e) {
+            log.warn("Could not store the {} of test run {}: {}", phase, runId, e.getMessage());
+        }
+    }
+
+    /** Scrapes every server for a tick of the run, then publishes and records the samples. */
+    private void scrapeTick(ActiveRun run, long tick) {
+        List<InfraMetricsSnapshot> samples = scrape(tick, deadline(run.intervalMs()), run.breakdowns());
+        // The whole tick goes out as one frame on the binary channel
+        if (liveChannel.isWatched(run.kind(), run.id())) {
+            liveChannel.publish(run.kind(), run.id(), samples.stream().map(LiveRecord::of).toList());
+        }
+        for (InfraMetricsSnapshot snapshot : samples) {
+            messaging.convertAndSend("/topic/infra-metrics/" + run.id(), snapshot);
+            if (snapshot.error() == null) {
+                metricsPersistence.bufferInfra(run.id(), snapshot);
+                // Annotations belong to Gatling runs only
+                if (run.kind() == RunKind.GATLING) annotateGcPauses(run, tick, snapshot);
+            }
+        }
+    }
+
+    /**
+     * Marks the interval on the run's timeline when the server spent at least
+     * {@code gc-annotation-ms} in GC pauses during it, so latency spikes can be told apart from
+     * network or load effects.
+     */
+    private void annotateGcPauses(ActiveRun run, long tick, InfraMetricsSnapshot snapshot) {
+        Double percent = snapshot.extra().get(GC_TIME_PERCENT);
+        if (percent == null || gcAnnotationMs <= 0) return;
+        long gcMs = Math.round(percent / 100.0 * run.intervalMs());
+        if (gcMs < gcAnnotationMs) return;
+        Double perSec = snapshot.extra().get(GC_PAUSES_PER_SEC);
+        long pauses = perSec != null ? Math.round(perSec * run.intervalMs() / 1000.0) : 0;
+        String message = String.format(Locale.ROOT, "%s: %d ms of GC pauses in %d ms", snapshot.serverName(), gcMs,
+            run.intervalMs()) + (pauses > 0 ? " (" + pauses + (pauses > 1 ? " pauses, " : " pause, ")
+            + Math.round((double) gcMs / pauses) + " ms each)" : "");
+        try {
+            RunAnnotation annotation = annotations.save(
+                new RunAnnotation(run.id(), tick - run.intervalMs(), GC_ANNOTATION_TYPE, message));
+            messaging.convertAndSend("/topic/annotations/" + run.id(), RunAnnotationDto.from(annotation));
+        } catch (RuntimeException e) {
+            log.warn("Could not annotate GC pauses of test run {}: {}", run.id(), e.getMessage());
+        }
+    }
 
+    /**
+     * Scrapes every enabled server concurrently for the tick and waits for all of them, so a tick
+     * lasts as long as the slowest server and at most {@code deadlineMs}. Samples carry the tick's
+     * timestamp and come back in server order, an error snapshot for each server that failed; the
+     * servers' health is updated on the way.
+     */
+    private List<InfraMetricsSnapshot> scrape(long tick, long deadlineMs, boolean breakdowns) {
         List<MonitoredServer> servers = serverService.findEnabled();
+        List<CompletableFuture<InfraMetricsSnapshot>> scrapes = new ArrayList<>(servers.size());
         for (MonitoredServer server : servers) {
+            scrapes.add(scrapeServer(server, tick, deadlineMs, breakdowns));
+        }
+        try {
+            CompletableFuture.allOf(scrapes.toArray(CompletableFuture[]::new))
+                .exceptionally(e -> null)
+                .get(deadlineMs + 500, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        } catch (ExecutionException | TimeoutException e) {
+            log.debug("Scrape tick {} did not finish in time", tick);
+        }
+
+        List<InfraMetricsSnapshot> samples = new ArrayList<>(servers.size());
+        for (int i = 0; i < servers.size(); i++) {
+            MonitoredServer server = servers.get(i);
+            CompletableFuture<InfraMetricsSnapshot> scrape = scrapes.get(i);
             try {
-                InfraMetricsSnapshot snapshot = scrapeServer(server);
-                messaging.convertAndSend("/topic/infra-metrics/" + currentTestRunId, snapshot);
-                metricsPersistence.bufferInfra(currentTestRunId, snapshot);
-                serverService.updateStatus(server.getId(), LocalDateTime.now(), null);
+                InfraMetricsSnapshot snapshot = scrape.getNow(null);
+                if (snapshot == null) throw new TimeoutException();
+                samples.add(snapshot);
+                health.recordSuccess(server, LocalDateTime.now(), snapshot.scrapeDurationMs());
             } catch (Exception e) {
-                log.debug("Failed to scrape server {}: {}", server.getName(), e.getMessage());
-                InfraMetricsSnapshot errorSnapshot = InfraMetricsSnapshot.error(
+                scrape.cancel(true);
+                String message = errorMessage(e, deadlineMs);
+                log.debug("Failed to scrape server {}: {}", server.getName(), message);
+                samples.add(InfraMetricsSnapshot.error(
                     server.getId(),
                     server.getName(),
                     server.getServerType(),
-                    e.getMessage()
-                );
-                messaging.convertAndSend("/topic/infra-metrics/" + currentTestRunId, errorSnapshot);
-                serverService.updateStatus(server.getId(), null, e.getMessage());
+                    message
+                ));
+                health.recordFailure(server, LocalDateTime.now(), message);
             }
         }
+        return samples;
     }
 
-    private InfraMetricsSnapshot scrapeServer(MonitoredServer server) throws Exception {
+    private CompletableFuture<InfraMetricsSnapshot> scrapeServer(MonitoredServer server, long tick, long deadlineMs,
+                                                                 boolean breakdowns) {
         String url = server.getUrl();
-        if (!url.endsWith("/metrics")) {
+        // Spring Boot serves its Micrometer registry on /actuator/prometheus
+        if (!url.endsWith("/metrics") && !url.endsWith("/prometheus")) {
             url = url.endsWith("/") ? url + "metrics" : url + "/metrics";
         }
 
-        HttpRequest request = HttpRequest.newBuilder()
-            .uri(URI.create(url))
-            .timeout(Duration.ofSeconds(HTTP_TIMEOUT_SECONDS))
-            .GET()
-            .build();
+        HttpRequest request;
+        ServerMetricsState state;
+        try {
+            request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(Duration.ofMillis(deadlineMs))
+                .header("Accept", PrometheusMetricsParser.ACCEPT)
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+            // The profile is fixed for the run: the stored series keep the columns they started with
+            state = serverStates.computeIfAbsent(server.getId(), k -> new ServerMetricsState(
+                profiles.get(profileId(server)), profiles.plan(profileId(server))));
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        // The page is inflated and parsed as it arrives; an error page is discarded unread
+        HttpResponse.BodyHandler<Reading> handler = info -> info.statusCode() == 200
+            ? parser.newScan(state.plan, info.headers().firstValue("Content-Type").orElse(null),
+                info.headers().firstValue("Content-Encoding").orElse(null))
+            : HttpResponse.BodySubscribers.replacing(null);
+        long start = System.nanoTime();
+        return httpClient.sendAsync(request, handler)
+            // The request timeout only covers the headers; the deadline also bounds the body
+            .orTimeout(deadlineMs, TimeUnit.MILLISECONDS)
+            .thenApply(response -> {
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("HTTP " + response.statusCode());
+                }
+                long durationMs = (System.nanoTime() - start) / 1_000_000;
+                return toSnapshot(server, state, response.body(), tick, durationMs, breakdowns);
+            });
+    }
 
-        if (response.statusCode() != 200) {
-            throw new RuntimeException("HTTP " + response.statusCode());
+    private static String profileId(MonitoredServer server) {
+        return ExporterProfileService.profileOf(server.getExporterProfile(), server.getServerType());
+    }
+
+    /** The interval in whole scheduler ticks, rounded up. */
+    private static long ticks(long intervalMs) {
+        return Math.max(1, (intervalMs + TICK_MS - 1) / TICK_MS) * TICK_MS;
+    }
+
+    /** Three quarters of short intervals, so that a slow exporter still leaves room for the next tick. */
+    private static long deadline(long intervalMs) {
+        return Math.min(SCRAPE_DEADLINE_MS, intervalMs * 3 / 4);
+    }
+
+    private static String errorMessage(Throwable e, long deadlineMs) {
+        Throwable cause = e;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
         }
+        if (cause instanceof TimeoutException || cause instanceof HttpTimeoutException) return "No response within " + deadlineMs + " ms";
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
 
-        Map<String, Map<String, Double>> metrics = parser.parse(response.body());
+    private static InfraMetricsSnapshot toSnapshot(MonitoredServer server, ServerMetricsState state, Reading reading,
+                                                   long tick, long durationMs, boolean withBreakdowns) {
+        // Rates use the time the sample was received; the snapshot is stamped with the tick
         long now = System.currentTimeMillis();
+        Reading previous = state.previous;
+        double elapsed = previous != null ? (now - state.previousAt) / 1000.0 : 0;
 
-        ServerMetricsState state = serverStates.computeIfAbsent(server.getId(), k -> new ServerMetricsState());
-        ServerMetricsState.Snapshot previous = state.previous;
-
-        // CPU calculation (rate-based)
+        // CPU: idle share of all CPU time, else busy time over the cores, else the exporter's own ratio
         Double cpuPercent = null;
-        Double cpuIdleTotal = parser.getCpuIdleTotal(metrics);
-        Double cpuTotal = parser.getCpuTotal(metrics);
-        if (cpuIdleTotal != null && cpuTotal != null && previous != null) {
-            double idleDelta = cpuIdleTotal - previous.cpuIdleTotal;
-            double totalDelta = cpuTotal - previous.cpuTotal;
-            if (totalDelta > 0) {
-                cpuPercent = 100.0 * (1.0 - idleDelta / totalDelta);
-            }
+        Double idleDelta = delta(reading, previous, Signal.CPU_IDLE_SECONDS);
+        Double totalDelta = delta(reading, previous, Signal.CPU_TOTAL_SECONDS);
+        Double busyDelta = delta(reading, previous, Signal.CPU_BUSY_SECONDS);
+        Double cores = reading.signal(Signal.CPU_CORES);
+        Double ratio = reading.signal(Signal.CPU_USAGE_RATIO);
+        if (idleDelta != null && totalDelta != null) {
+            if (totalDelta > 0) cpuPercent = 100.0 * (1.0 - idleDelta / totalDelta);
+        } else if (busyDelta != null && cores != null && cores > 0 && elapsed > 0) {
+            cpuPercent = 100.0 * busyDelta / (elapsed * cores);
+        } else if (ratio != null && ratio >= 0) {
+            cpuPercent = 100.0 * ratio;
         }
 
-        // Memory
-        Long memoryTotal = parser.getPhysicalMemoryBytes(metrics);
-        Long memoryFree = parser.getFreeMemoryBytes(metrics);
-        Long memoryUsed = (memoryTotal != null && memoryFree != null) ? memoryTotal - memoryFree : null;
+        // Memory: a used gauge when the exporter has one, else total minus free
+        Long memoryTotal = toLong(reading.signal(Signal.MEMORY_TOTAL_BYTES));
+        Long memoryFree = toLong(reading.signal(Signal.MEMORY_FREE_BYTES));
+        Long memoryUsed = toLong(reading.signal(Signal.MEMORY_USED_BYTES));
+        if (memoryUsed == null && memoryTotal != null && memoryFree != null) memoryUsed = memoryTotal - memoryFree;
         Double memoryPercent = (memoryUsed != null && memoryTotal != null && memoryTotal > 0)
             ? 100.0 * memoryUsed / memoryTotal : null;
 
         if (memoryPercent == null) {
-            log.debug("Memory metrics incomplete for {}: total={}, free={}",
-                server.getName(), memoryTotal, memoryFree);
+            log.debug("Memory metrics incomplete for {}: total={}, free={}, used={}",
+                server.getName(), memoryTotal, memoryFree, memoryUsed);
         }
 
-        // Disk I/O (rate-based)
-        Double diskReadTotal = parser.getDiskReadBytesTotal(metrics);
-        Double diskWriteTotal = parser.getDiskWriteBytesTotal(metrics);
-        Double diskReadPerSec = null;
-        Double diskWritePerSec = null;
-        if (previous != null && previous.timestamp > 0) {
-            double timeDelta = (now - previous.timestamp) / 1000.0;
-            if (timeDelta > 0) {
-                if (diskReadTotal != null && previous.diskReadTotal != null) {
-                    diskReadPerSec = (diskReadTotal - previous.diskReadTotal) / timeDelta;
-                }
-                if (diskWriteTotal != null && previous.diskWriteTotal != null) {
-                    diskWritePerSec = (diskWriteTotal - previous.diskWriteTotal) / timeDelta;
-                }
-            }
+        Map<String, Double> extra = new LinkedHashMap<>();
+        Map<String, Double> current = reading.extra();
+        Map<String, Double> before = previous != null ? previous.extra() : Map.of();
+        for (ExtraMetric metric : state.extraMetrics) {
+            extra.put(metric.name(), value(metric.kind(), current.get(metric.name()), before.get(metric.name()), elapsed));
         }
-
-        // Network I/O (rate-based)
-        Double netRecvTotal = parser.getNetworkRecvBytesTotal(metrics);
-        Double netSentTotal = parser.getNetworkSentBytesTotal(metrics);
-        Double netRecvPerSec = null;
-        Double netSentPerSec = null;
-        if (previous != null && previous.timestamp > 0) {
-            double timeDelta = (now - previous.timestamp) / 1000.0;
-            if (timeDelta > 0) {
-                if (netRecvTotal != null && previous.netRecvTotal != null) {
-                    netRecvPerSec = (netRecvTotal - previous.netRecvTotal) / timeDelta;
-                }
-                if (netSentTotal != null && previous.netSentTotal != null) {
-                    netSentPerSec = (netSentTotal - previous.netSentTotal) / timeDelta;
-                }
-            }
+        if (state.gc) {
+            // Pauses per second, and the share of the interval the JVM spent paused
+            extra.put(GC_PAUSES_PER_SEC, rate(reading, previous, Signal.GC_PAUSES, elapsed));
+            Double gcSeconds = rate(reading, previous, Signal.GC_PAUSE_SECONDS, elapsed);
+            extra.put(GC_TIME_PERCENT, gcSeconds != null ? Math.min(100.0, 100.0 * gcSeconds) : null);
         }
+        Map<String, Map<String, Double>> breakdowns = withBreakdowns
+            ? breakdowns(server, state, reading, previous, elapsed) : Map.of();
 
-        // SQL Batch/s (rate-based)
-        Double sqlBatchTotal = parser.getSqlBatchRequestsTotal(metrics);
-        Double sqlBatchPerSec = null;
-        if (previous != null && previous.timestamp > 0 && sqlBatchTotal != null && previous.sqlBatchTotal != null) {
-            double timeDelta = (now - previous.timestamp) / 1000.0;
-            if (timeDelta > 0) {
-                sqlBatchPerSec = (sqlBatchTotal - previous.sqlBatchTotal) / timeDelta;
-            }
-        }
-
-        // Save current state for next iteration
-        state.previous = new ServerMetricsState.Snapshot(
-            now,
-            cpuIdleTotal != null ? cpuIdleTotal : 0,
-            cpuTotal != null ? cpuTotal : 0,
-            diskReadTotal,
-            diskWriteTotal,
-            netRecvTotal,
-            netSentTotal,
-            sqlBatchTotal
-        );
+        state.previous = reading;
+        state.previousAt = now;
 
         return new InfraMetricsSnapshot(
-            now,
+            tick,
             server.getId(),
             server.getName(),
             server.getServerType(),
@@ -232,40 +492,109 @@ public class InfraMetricsScraperService {
             memoryUsed,
             memoryTotal,
             memoryPercent,
-            diskReadPerSec,
-            diskWritePerSec,
-            netRecvPerSec,
-            netSentPerSec,
-            sqlBatchPerSec,
+            rate(reading, previous, Signal.DISK_READ_BYTES, elapsed),
+            rate(reading, previous, Signal.DISK_WRITE_BYTES, elapsed),
+            rate(reading, previous, Signal.NETWORK_RECEIVED_BYTES, elapsed),
+            rate(reading, previous, Signal.NETWORK_SENT_BYTES, elapsed),
+            rate(reading, previous, Signal.DB_OPERATIONS, elapsed),
+            extra,
+            breakdowns,
+            durationMs,
+            reading.payloadBytes(),
             null
         );
     }
 
-    private static class ServerMetricsState {
-        Snapshot previous;
-
-        static class Snapshot {
-            final long timestamp;
-            final double cpuIdleTotal;
-            final double cpuTotal;
-            final Double diskReadTotal;
-            final Double diskWriteTotal;
-            final Double netRecvTotal;
-            final Double netSentTotal;
-            final Double sqlBatchTotal;
-
-            Snapshot(long timestamp, double cpuIdleTotal, double cpuTotal,
-                     Double diskReadTotal, Double diskWriteTotal,
-                     Double netRecvTotal, Double netSentTotal, Double sqlBatchTotal) {
-                this.timestamp = timestamp;
-                this.cpuIdleTotal = cpuIdleTotal;
-                this.cpuTotal = cpuTotal;
-                this.diskReadTotal = diskReadTotal;
-                this.diskWriteTotal = diskWriteTotal;
-                this.netRecvTotal = netRecvTotal;
-                this.netSentTotal = netSentTotal;
-                this.sqlBatchTotal = sqlBatchTotal;
+    /**
+     * The breakdowns of the reading. Each keeps the label values of its first sample in the run, in
+     * that order, since they are the columns of its stored series: a value that disappears is
+     * reported as null, one that appears later is left out.
+     */
+    private static Map<String, Map<String, Double>> breakdowns(MonitoredServer server, ServerMetricsState state,
+                                                               Reading reading, Reading previous, double elapsed) {
+        Map<String, Map<String, Double>> breakdowns = new LinkedHashMap<>();
+        for (Breakdown breakdown : state.breakdowns) {
+            Map<String, Double> current = reading.breakdowns().get(breakdown.name());
+            if (current == null) continue;
+            if (reading.truncated().contains(breakdown.name()) && state.truncated.add(breakdown.name())) {
+                log.warn("Breakdown {} of server {} has more than {} series, the others are dropped",
+                    breakdown.name(), server.getName(), breakdown.maxSeriesOrDefault());
+            }
+            List<String> keys = state.breakdownKeys.computeIfAbsent(breakdown.name(), n -> List.copyOf(current.keySet()));
+            Map<String, Double> before = previous != null
+                ? previous.breakdowns().getOrDefault(breakdown.name(), Map.of()) : Map.of();
+            Map<String, Double> values = new LinkedHashMap<>();
+            for (String key : keys) {
+                values.put(key, value(breakdown.kind(), current.get(key), before.get(key), elapsed));
             }
+            breakdowns.put(breakdown.name(), values);
+        }
+        return breakdowns;
+    }
+
+    /** A reported value of the given kind from the current and previous readings. */
+    private static Double value(Kind kind, Double value, Double before, double elapsed) {
+        return switch (kind) {
+            case GAUGE -> value;
+            case RATE -> rate(value, before, elapsed);
+            case BUSY_PERCENT -> {
+                Double idle = rate(value, before, elapsed);
+                // Timer jitter can make a core look idle for slightly more than a second per second
+                yield idle != null ? Math.max(0.0, Math.min(100.0, 100.0 * (1.0 - idle))) : null;
+            }
+        };
+    }
+
+    private static Double delta(Reading reading, Reading previous, Signal signal) {
+        Double value = reading.signal(signal);
+        Double before = previous != null ? previous.signal(signal) : null;
+        return value != null && before != null ? value - before : null;
+    }
+
+    private static Double rate(Reading reading, Reading previous, Signal signal, double elapsed) {
+        return rate(reading.signal(signal), previous != null ? previous.signal(signal) : null, elapsed);
+    }
+
+    /** Per-second increase of a counter; null across a counter reset. */
+    private static Double rate(Double value, Double before, double elapsed) {
+        if (value == null || before == null || elapsed <= 0 || value < before) return null;
+        return (value - before) / elapsed;
+    }
+
+    private static Long toLong(Double value) {
+        return value != null ? Math.round(value) : null;
+    }
+
+    private record ActiveRun(RunKind kind, Long id, long intervalMs, boolean breakdowns) {}
+
+    /** Samples of a finished run's cool-down, collected until {@code until}. */
+    private static final class Cooldown {
+        final ActiveRun run;
+        final long until;
+        final List<InfraMetricsSnapshot> samples = new ArrayList<>();
+
+        Cooldown(ActiveRun run, long until) {
+            this.run = run;
+            this.until = until;
+        }
+    }
+
+    private static class ServerMetricsState {
+        final Plan plan;
+        final List<ExtraMetric> extraMetrics;
+        final List<Breakdown> breakdowns;
+        final boolean gc;
+        // Label values of each breakdown, fixed by its first sample
+        final Map<String, List<String>> breakdownKeys = new HashMap<>();
+        final Set<String> truncated = new HashSet<>();
+        Reading previous;
+        long previousAt;
+
+        ServerMetricsState(ExporterProfile profile, Plan plan) {
+            this.plan = plan;
+            this.extraMetrics = profile.extra() != null ? profile.extra() : List.of();
+            this.breakdowns = profile.breakdowns() != null ? profile.breakdowns() : List.of();
+            this.gc = profile.signals() != null && profile.signals().containsKey(Signal.GC_PAUSE_SECONDS.key());
         }
     }
 }
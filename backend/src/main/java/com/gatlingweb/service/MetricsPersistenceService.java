@@ -1,11 +1,23 @@
 package com.gatlingweb.service;
 
+import com.gatlingweb.dto.InfraBreakdownDto;
 import com.gatlingweb.dto.InfraMetricsSnapshot;
+import com.gatlingweb.dto.MetricsEnvelope;
+import com.gatlingweb.dto.MetricsSeriesDto;
 import com.gatlingweb.dto.MetricsSnapshot;
 import com.gatlingweb.entity.InfraMetricsPoint;
 import com.gatlingweb.entity.MetricsPoint;
+import com.gatlingweb.entity.ServerType;
 import com.gatlingweb.repository.InfraMetricsPointRepository;
 import com.gatlingweb.repository.MetricsPointRepository;
+import com.gatlingweb.timeseries.HistogramSeries;
+import com.gatlingweb.timeseries.LatencyHistogram;
+import com.gatlingweb.timeseries.Lttb;
+import com.gatlingweb.timeseries.Resolution;
+import com.gatlingweb.timeseries.Rollups;
+import com.gatlingweb.timeseries.SeriesData;
+import com.gatlingweb.timeseries.TimeSeriesStore;
+import com.gatlingweb.timeseries.TimeSeriesWriter;
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,83 +25,616 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
+/**
+ * Stores per-second run metrics in the columnar {@link TimeSeriesStore}.
+ * Writes go through the {@link TimeSeriesWriter} queue so that producers never wait on disk.
+ * Runs recorded before the store existed are still read from the legacy SQLite point tables.
+ */
 @Service
 public class MetricsPersistenceService {
 
     private static final Logger log = LoggerFactory.getLogger(MetricsPersistenceService.class);
-    private static final int BATCH_SIZE = 5;
+
+    static final String GATLING_SERIES = "gatling";
+    static final String INFRA_SERIES_PREFIX = "infra-";
+    static final String BREAKDOWN_SERIES_PREFIX = "breakdown-";
+    private static final String META_SEPARATOR = "\t";
+    private static final String EXTRA_SEPARATOR = ",";
+    private static final long READ_SYNC_TIMEOUT_MS = 2000;
+    static final long GATLING_RAW_INTERVAL_MS = 1000;
+    static final long INFRA_RAW_INTERVAL_MS = 2000;
+
+    // Column layout of the raw Gatling series (see toRow)
+    static final int COL_RPS = 0;
+    static final int COL_EPS = 1;
+    static final int COL_MEAN = 2;
+    static final int COL_P50 = 3;
+    static final int COL_P75 = 4;
+    static final int COL_P95 = 5;
+    static final int COL_P99 = 6;
+    static final int COL_ACTIVE_USERS = 7;
+    static final int COL_TOTAL_REQUESTS = 8;
+    static final int COL_TOTAL_ERRORS = 9;
+    static final int GATLING_COLUMNS = 10;
+
+    // Columns of the raw infra series (see toRow); the profile's extra metrics follow them
+    static final int INFRA_COLUMNS = 9;
+
+    // Gatling rollups append these columns after the generic min/max/sum/count ones. Rollups built
+    // before the latency histograms have four more (window quantiles), which reads ignore.
+    static final int ROLLUP_WEIGHTED_MEAN_SUM = GATLING_COLUMNS * Rollups.COLUMNS_PER_SOURCE;
+    static final int ROLLUP_REQUESTS = ROLLUP_WEIGHTED_MEAN_SUM + 1;
+    static final int ROLLUP_EXTRA_COLUMNS = 2;
+
+    /**
+     * Latency histograms of the Gatling series, one per 10 s window, stored next to the 10 s rollup.
+     * Rollup reads merge them into the quantiles of each window, so 1 min quantiles are exact merges
+     * of the 10 s ones.
+     */
+    static final String LATENCY_SERIES = Resolution.TEN_SECONDS.seriesName(GATLING_SERIES);
+    public static final long LATENCY_WINDOW_MS = Resolution.TEN_SECONDS.stepMs();
+
+    // Columns reported in MetricsEnvelope, in record order
+    private static final int[] ENVELOPE_COLUMNS = {COL_RPS, COL_MEAN, COL_P95, COL_P99};
 
     private final MetricsPointRepository metricsRepo;
     private final InfraMetricsPointRepository infraRepo;
-    private final List<MetricsPoint> metricsBuffer = new ArrayList<>();
-    private final List<InfraMetricsPoint> infraBuffer = new ArrayList<>();
+    private final TimeSeriesStore store;
+    private final TimeSeriesWriter writer;
 
-    public MetricsPersistenceService(MetricsPointRepository metricsRepo, InfraMetricsPointRepository infraRepo) {
+    public MetricsPersistenceService(MetricsPointRepository metricsRepo, InfraMetricsPointRepository infraRepo,
+                                     TimeSeriesStore store, TimeSeriesWriter writer) {
         this.metricsRepo = metricsRepo;
         this.infraRepo = infraRepo;
+        this.store = store;
+        this.writer = writer;
     }
 
-    public synchronized void buffer(Long testRunId, MetricsSnapshot snapshot) {
-        metricsBuffer.add(MetricsPoint.from(testRunId, snapshot));
-        if (metricsBuffer.size() >= BATCH_SIZE) {
-            flushMetrics();
-        }
+    public void buffer(Long testRunId, MetricsSnapshot snapshot) {
+        writer.offer(testRunId, GATLING_SERIES, "", snapshot.timestamp(), toRow(snapshot));
     }
 
-    public synchronized void bufferInfra(Long testRunId, InfraMetricsSnapshot snapshot) {
-        if (snapshot.error() != null) return; // Don't persist error snapshots
-        infraBuffer.add(InfraMetricsPoint.from(testRunId, snapshot));
-        if (infraBuffer.size() >= BATCH_SIZE) {
-            flushInfra();
+    /** Histogram of every response of the {@link #LATENCY_WINDOW_MS} window starting at {@code windowStart}. */
+    public void bufferLatency(Long testRunId, long windowStart, LatencyHistogram histogram) {
+        writer.offerHistogram(testRunId, LATENCY_SERIES, windowStart, histogram);
+    }
+
+    public void bufferInfra(Long testRunId, InfraMetricsSnapshot snapshot) {
+        if (snapshot.error() != null || snapshot.serverId() == null) return; // Don't persist error snapshots
+        String meta = (snapshot.serverName() != null ? snapshot.serverName().replace(META_SEPARATOR, " ") : "")
+            + META_SEPARATOR + (snapshot.serverType() != null ? snapshot.serverType().name() : "")
+            + META_SEPARATOR + String.join(EXTRA_SEPARATOR, extra(snapshot).keySet());
+        writer.offer(testRunId, INFRA_SERIES_PREFIX + snapshot.serverId(), meta, snapshot.timestamp(), toRow(snapshot));
+        if (snapshot.breakdowns() == null) return;
+        // One series per breakdown, a column per label value; the scraper keeps the values of the first sample
+        for (Map.Entry<String, Map<String, Double>> breakdown : snapshot.breakdowns().entrySet()) {
+            Map<String, Double> values = breakdown.getValue();
+            if (values.isEmpty()) continue;
+            StringBuilder breakdownMeta = new StringBuilder(breakdown.getKey())
+                .append(META_SEPARATOR).append(snapshot.serverName() != null ? snapshot.serverName().replace(META_SEPARATOR, " ") : "");
+            for (String key : values.keySet()) breakdownMeta.append(META_SEPARATOR).append(key.replace(META_SEPARATOR, " "));
+            double[] row = values.values().stream().mapToDouble(MetricsPersistenceService::orNaN).toArray();
+            writer.offer(testRunId, breakdownSeries(snapshot.serverId(), breakdown.getKey()), breakdownMeta.toString(),
+                snapshot.timestamp(), row);
         }
     }
 
+    static String breakdownSeries(Long serverId, String breakdown) {
+        return BREAKDOWN_SERIES_PREFIX + serverId + "-" + breakdown.toLowerCase(Locale.ROOT);
+    }
+
     @PreDestroy
     void shutdown() {
         log.info("MetricsPersistenceService shutting down, flushing remaining metrics...");
-        flush();
+        try {
+            flush().get(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Metrics flush did not complete on shutdown: {}", e.toString());
+        }
         log.info("MetricsPersistenceService shutdown complete");
     }
 
-    @Transactional
-    public synchronized void flush() {
-        flushMetrics();
-        flushInfra();
-    }
-
-    private void flushMetrics() {
-        if (!metricsBuffer.isEmpty()) {
-            metricsRepo.saveAll(new ArrayList<>(metricsBuffer));
-            metricsBuffer.clear();
-        }
+    /**
+     * Asks the writer to persist everything queued so far; does not wait for the disk.
+     */
+    public CompletableFuture<Void> flush() {
+        return writer.barrier(null, true);
     }
 
-    private void flushInfra() {
-        if (!infraBuffer.isEmpty()) {
-            infraRepo.saveAll(new ArrayList<>(infraBuffer));
-            infraBuffer.clear();
-        }
+    /** End-of-run flush: seals the run's open blocks once its queued points are written. */
+    public CompletableFuture<Void> flush(Long testRunId) {
+        return writer.barrier(testRunId, true);
     }
 
     @Transactional
     public void deleteMetricsForTest(Long testRunId) {
+        // Queued points must not recreate the series after it is deleted
+        awaitPendingWrites();
+        store.deleteRun(testRunId);
         metricsRepo.deleteByTestRunId(testRunId);
         infraRepo.deleteByTestRunId(testRunId);
     }
 
+    /** True once every point of the run has been written and its series are sealed. */
+    public boolean isSettled(Long testRunId) {
+        return writer.isIdle() && !store.isOpen(testRunId);
+    }
+
+    /** Full-detail series of a run: raw points, or the finest rollup left after retention. */
     public List<MetricsSnapshot> getMetrics(Long testRunId) {
-        return metricsRepo.findByTestRunIdOrderByTimestampAsc(testRunId)
-                .stream()
-                .map(MetricsPoint::toSnapshot)
-                .toList();
+        return getMetrics(testRunId, null, null, Resolution.RAW, Integer.MAX_VALUE);
     }
 
+    /**
+     * Reads the Gatling series of a run between {@code from} and {@code to} (epoch ms, inclusive,
+     * both optional). A null {@code resolution} picks the finest stored resolution that returns at
+     * most {@code maxPoints} points for the range; if there are still more, they are downsampled
+     * with LTTB.
+     */
+    @Transactional(readOnly = true)
+    public List<MetricsSnapshot> getMetrics(Long testRunId, Long from, Long to, Resolution resolution, int maxPoints) {
+        GatlingRange range = readGatling(testRunId, from, to, resolution, maxPoints);
+        if (range.points().size() <= maxPoints) return range.points();
+        int[] kept = selectGatlingPoints(range.points(), maxPoints);
+        List<MetricsSnapshot> result = new ArrayList<>(kept.length);
+        for (int i : kept) result.add(range.points().get(i));
+        return result;
+    }
+
+    /**
+     * Series of at most {@code maxPoints} points downsampled with LTTB on p95, each with the
+     * min/max envelope of the source points it stands for.
+     */
+    @Transactional(readOnly = true)
+    public MetricsSeriesDto getDownsampledMetrics(Long testRunId, Long from, Long to, int maxPoints) {
+        GatlingRange range = readGatling(testRunId, from, to, null, maxPoints);
+        List<MetricsSnapshot> points = range.points();
+        int count = points.size();
+        int[] kept = selectGatlingPoints(points, maxPoints);
+        List<MetricsSnapshot> result = new ArrayList<>(kept.length);
+        List<MetricsEnvelope> envelopes = new ArrayList<>(kept.length);
+        for (int b = 0; b < kept.length; b++) {
+            result.add(points.get(kept[b]));
+            // Without downsampling every bucket holds exactly its own point
+            int start = count > kept.length ? Lttb.bucketStart(b, count, kept.length) : b;
+            int end = count > kept.length ? Lttb.bucketStart(b + 1, count, kept.length) : b + 1;
+            envelopes.add(envelope(range, start, end));
+        }
+        String resolution = range.resolution() != null ? range.resolution().label() : Resolution.RAW.label();
+        return new MetricsSeriesDto(resolution, count, result, envelopes);
+    }
+
+    private GatlingRange readGatling(Long testRunId, Long from, Long to, Resolution resolution, int maxPoints) {
+        if (maxPoints <= 0) throw new IllegalArgumentException("maxPoints must be positive");
+        awaitPendingWrites();
+        long lo = from != null ? from : Long.MIN_VALUE;
+        long hi = to != null ? to : Long.MAX_VALUE;
+        Resolution chosen = chooseResolution(testRunId, GATLING_SERIES, from, to, resolution, maxPoints,
+            GATLING_RAW_INTERVAL_MS);
+        if (chosen == null) {
+            List<MetricsSnapshot> legacy = metricsRepo.findByTestRunIdOrderByTimestampAsc(testRunId)
+                    .stream()
+                    .map(MetricsPoint::toSnapshot)
+                    .filter(s -> s.timestamp() >= lo && s.timestamp() <= hi)
+                    .toList();
+            return new GatlingRange(null, null, legacy);
+        }
+        Optional<SeriesData> series = store.read(testRunId, chosen.seriesName(GATLING_SERIES), lo, hi);
+        if (series.isEmpty()) return new GatlingRange(chosen, null, List.of());
+        SeriesData data = series.get();
+        List<MetricsSnapshot> points = new ArrayList<>(data.size());
+        if (chosen == Resolution.RAW) {
+            for (int i = 0; i < data.size(); i++) points.add(toMetricsSnapshot(data, i));
+            return new GatlingRange(chosen, data, points);
+        }
+        HistogramSeries latency = data.size() == 0 ? null : store.readHistograms(testRunId, LATENCY_SERIES,
+            data.timestamps()[0], data.timestamps()[data.size() - 1] + chosen.stepMs() - 1).orElse(null);
+        for (int i = 0; i < data.size(); i++) {
+            long start = data.timestamps()[i];
+            points.add(fromGatlingRollup(data, i, latency != null ? latency.merge(start, start + chosen.stepMs()) : null));
+        }
+        return new GatlingRange(chosen, data, points);
+    }
+
+    private static int[] selectGatlingPoints(List<MetricsSnapshot> points, int maxPoints) {
+        long[] x = new long[points.size()];
+        double[] y = new double[points.size()];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = points.get(i).timestamp();
+            y[i] = points.get(i).p95();
+        }
+        return Lttb.select(x, y, x.length, maxPoints);
+    }
+
+    private static MetricsEnvelope envelope(GatlingRange range, int start, int end) {
+        double[] min = new double[ENVELOPE_COLUMNS.length];
+        double[] max = new double[ENVELOPE_COLUMNS.length];
+        Arrays.fill(min, Double.NaN);
+        Arrays.fill(max, Double.NaN);
+        boolean rollup = range.data() != null && range.resolution() != Resolution.RAW;
+        for (int i = start; i < end; i++) {
+            MetricsSnapshot p = range.points().get(i);
+            for (int f = 0; f < ENVELOPE_COLUMNS.length; f++) {
+                int column = ENVELOPE_COLUMNS[f];
+                double lo = rollup ? range.data().columns()[Rollups.min(column)][i] : rawValue(p, column);
+                double hi = rollup ? range.data().columns()[Rollups.max(column)][i] : lo;
+                if (!Double.isNaN(lo)) min[f] = Double.isNaN(min[f]) ? lo : Math.min(min[f], lo);
+                if (!Double.isNaN(hi)) max[f] = Double.isNaN(max[f]) ? hi : Math.max(max[f], hi);
+            }
+        }
+        List<MetricsSnapshot> points = range.points();
+        return new MetricsEnvelope(
+            points.get(start).timestamp(), points.get(end - 1).timestamp(), end - start,
+            zeroIfNaN(min[0]), zeroIfNaN(max[0]), zeroIfNaN(min[1]), zeroIfNaN(max[1]),
+            zeroIfNaN(min[2]), zeroIfNaN(max[2]), zeroIfNaN(min[3]), zeroIfNaN(max[3])
+        );
+    }
+
+    private static double rawValue(MetricsSnapshot p, int column) {
+        return switch (column) {
+            case COL_RPS -> p.requestsPerSecond();
+            case COL_MEAN -> p.meanResponseTime();
+            case COL_P95 -> p.p95();
+            case COL_P99 -> p.p99();
+            default -> throw new IllegalArgumentException("No envelope for column " + column);
+        };
+    }
+
+    private static double zeroIfNaN(double value) {
+        return Double.isNaN(value) ? 0 : value;
+    }
+
+    /** Points of the Gatling series at {@code resolution} (null for legacy rows); {@code data} backs rollup envelopes. */
+    private record GatlingRange(Resolution resolution, SeriesData data, List<MetricsSnapshot> points) {}
+
     public List<InfraMetricsSnapshot> getInfraMetrics(Long testRunId) {
-        return infraRepo.findByTestRunIdOrderByTimestampAsc(testRunId)
-                .stream()
-                .map(InfraMetricsPoint::toSnapshot)
+        return getInfraMetrics(testRunId, null, null, Resolution.RAW, Integer.MAX_VALUE);
+    }
+
+    /** Same as {@link #getMetrics(Long, Long, Long, Resolution, int)}; {@code maxPoints} applies per server. */
+    @Transactional(readOnly = true)
+    public List<InfraMetricsSnapshot> getInfraMetrics(Long testRunId, Long from, Long to, Resolution resolution,
+                                                      int maxPoints) {
+        if (maxPoints <= 0) throw new IllegalArgumentException("maxPoints must be positive");
+        awaitPendingWrites();
+        long lo = from != null ? from : Long.MIN_VALUE;
+        long hi = to != null ? to : Long.MAX_VALUE;
+        List<InfraMetricsSnapshot> result = new ArrayList<>();
+        Set<String> baseSeries = new LinkedHashSet<>();
+        for (String name : store.listSeries(testRunId)) {
+            if (!name.startsWith(INFRA_SERIES_PREFIX)) continue;
+            int suffix = name.indexOf('_');
+            baseSeries.add(suffix >= 0 ? name.substring(0, suffix) : name);
+        }
+        for (String base : baseSeries) {
+            Long serverId = Long.valueOf(base.substring(INFRA_SERIES_PREFIX.length()));
+            Resolution chosen = chooseResolution(testRunId, base, from, to, resolution, maxPoints, INFRA_RAW_INTERVAL_MS);
+            if (chosen == null) continue;
+            store.read(testRunId, chosen.seriesName(base), lo, hi).ifPresent(data -> {
+                String serverName = serverName(data.meta());
+                ServerType serverType = serverType(data.meta());
+                List<String> extraNames = extraNames(data.meta());
+                // Downsample each server on CPU, which is the column every server type reports
+                double[] cpu = chosen == Resolution.RAW ? data.columns()[0] : averages(data, 0);
+                for (int i : Lttb.select(data.timestamps(), cpu, data.size(), maxPoints)) {
+                    result.add(chosen == Resolution.RAW
+                        ? toInfraSnapshot(serverId, serverName, serverType, extraNames, data, i)
+                        : fromInfraRollup(serverId, serverName, serverType, extraNames, data, i));
+                }
+            });
+        }
+        if (baseSeries.isEmpty()) {
+            Map<Long, List<InfraMetricsSnapshot>> byServer = new LinkedHashMap<>();
+            for (InfraMetricsPoint point : infraRepo.findByTestRunIdOrderByTimestampAsc(testRunId)) {
+                InfraMetricsSnapshot s = point.toSnapshot();
+                if (s.timestamp() < lo || s.timestamp() > hi) continue;
+                byServer.computeIfAbsent(s.serverId(), k -> new ArrayList<>()).add(s);
+            }
+            for (List<InfraMetricsSnapshot> points : byServer.values()) {
+                long[] x = new long[points.size()];
+                double[] cpu = new double[points.size()];
+                for (int i = 0; i < x.length; i++) {
+                    x[i] = points.get(i).timestamp();
+                    cpu[i] = orNaN(points.get(i).cpuPercent());
+                }
+                for (int i : Lttb.select(x, cpu, x.length, maxPoints)) result.add(points.get(i));
+            }
+        }
+        result.sort(Comparator.comparingLong(InfraMetricsSnapshot::timestamp));
+        return result;
+    }
+
+    /**
+     * The per-core, per-disk and per-interface series recorded for the run, of one server or of all
+     * of them. Resolution and {@code maxPoints} work as for {@link #getInfraMetrics}, each breakdown
+     * being downsampled on its hottest value.
+     */
+    @Transactional(readOnly = true)
+    public List<InfraBreakdownDto> getInfraBreakdowns(Long testRunId, Long serverId, Long from, Long to,
+                                                      Resolution resolution, int maxPoints) {
+        if (maxPoints <= 0) throw new IllegalArgumentException("maxPoints must be positive");
+        awaitPendingWrites();
+        long lo = from != null ? from : Long.MIN_VALUE;
+        long hi = to != null ? to : Long.MAX_VALUE;
+        String prefix = BREAKDOWN_SERIES_PREFIX + (serverId != null ? serverId + "-" : "");
+        List<InfraBreakdownDto> result = new ArrayList<>();
+        for (String base : store.listSeries(testRunId)) {
+            if (!base.startsWith(prefix) || Resolution.isRollupName(base)) continue;
+            Resolution chosen = chooseResolution(testRunId, base, from, to, resolution, maxPoints, INFRA_RAW_INTERVAL_MS);
+            if (chosen == null) continue;
+            store.read(testRunId, chosen.seriesName(base), lo, hi).ifPresent(data -> {
+                String[] meta = data.meta().split(META_SEPARATOR, -1);
+                List<String> keys = List.of(meta).subList(2, meta.length);
+                double[][] columns = new double[keys.size()][];
+                for (int k = 0; k < columns.length; k++) {
+                    columns[k] = chosen == Resolution.RAW ? data.columns()[k] : averages(data, k);
+                }
+                double[] hottest = new double[data.size()];
+                for (int i = 0; i < hottest.length; i++) {
+                    double max = Double.NaN;
+                    for (double[] column : columns) {
+                        if (!Double.isNaN(column[i]) && (Double.isNaN(max) || column[i] > max)) max = column[i];
+                    }
+                    hottest[i] = max;
+                }
+                int[] kept = Lttb.select(data.timestamps(), hottest, data.size(), maxPoints);
+                List<Long> timestamps = new ArrayList<>(kept.length);
+                for (int i : kept) timestamps.add(data.timestamps()[i]);
+                List<List<Double>> values = new ArrayList<>(columns.length);
+                for (double[] column : columns) {
+                    List<Double> series = new ArrayList<>(kept.length);
+                    for (int i : kept) series.add(Double.isNaN(column[i]) ? null : column[i]);
+                    values.add(series);
+                }
+                Long server = Long.valueOf(base.substring(BREAKDOWN_SERIES_PREFIX.length(), base.lastIndexOf('-')));
+                result.add(new InfraBreakdownDto(server, meta.length > 1 && !meta[1].isEmpty() ? meta[1] : null, meta[0],
+                    chosen.label(), keys, timestamps, values));
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Feeds every point of the run's Gatling series to {@code sink} in time order. The raw series is
+     * streamed block by block; runs without one (legacy, or past raw retention) are read whole.
+     */
+    @Transactional(readOnly = true)
+    public void forEachMetric(Long testRunId, Consumer<MetricsSnapshot> sink) {
+        awaitPendingWrites();
+        if (!store.exists(testRunId, GATLING_SERIES)) {
+            getMetrics(testRunId).forEach(sink);
+            return;
+        }
+        store.scan(testRunId, GATLING_SERIES, (timestamps, columns, count) -> {
+            for (int i = 0; i < count; i++) sink.accept(toMetricsSnapshot(timestamps, columns, i));
+        });
+    }
+
+    /** Same as {@link #forEachMetric} for infra points, server by server. */
+    @Transactional(readOnly = true)
+    public void forEachInfraMetric(Long testRunId, Consumer<InfraMetricsSnapshot> sink) {
+        awaitPendingWrites();
+        List<String> rawSeries = store.listSeries(testRunId).stream()
+                .filter(name -> name.startsWith(INFRA_SERIES_PREFIX) && !Resolution.isRollupName(name))
                 .toList();
+        if (rawSeries.isEmpty()) {
+            getInfraMetrics(testRunId).forEach(sink);
+            return;
+        }
+        for (String series : rawSeries) {
+            Long serverId = Long.valueOf(series.substring(INFRA_SERIES_PREFIX.length()));
+            String meta = store.meta(testRunId, series).orElse(null);
+            String serverName = serverName(meta);
+            ServerType serverType = serverType(meta);
+            List<String> extraNames = extraNames(meta);
+            store.scan(testRunId, series, (timestamps, columns, count) -> {
+                for (int i = 0; i < count; i++) {
+                    sink.accept(toInfraSnapshot(serverId, serverName, serverType, extraNames, timestamps, columns, i));
+                }
+            });
+        }
+    }
+
+    private static String serverName(String meta) {
+        String[] parts = meta != null ? meta.split(META_SEPARATOR, -1) : new String[0];
+        return parts.length > 0 && !parts[0].isEmpty() ? parts[0] : null;
+    }
+
+    private static ServerType serverType(String meta) {
+        String[] parts = meta != null ? meta.split(META_SEPARATOR, -1) : new String[0];
+        return parts.length > 1 && !parts[1].isEmpty() ? ServerType.valueOf(parts[1]) : null;
+    }
+
+    /** Names of the extra columns, in column order; series written before profiles have none. */
+    static List<String> extraNames(String meta) {
+        String[] parts = meta != null ? meta.split(META_SEPARATOR, -1) : new String[0];
+        return parts.length > 2 && !parts[2].isEmpty() ? List.of(parts[2].split(EXTRA_SEPARATOR)) : List.of();
+    }
+
+    private static Map<String, Double> extra(InfraMetricsSnapshot s) {
+        return s.extra() != null ? s.extra() : Map.of();
+    }
+
+    private static double[] averages(SeriesData rollup, int column) {
+        double[] values = new double[rollup.size()];
+        for (int i = 0; i < values.length; i++) {
+            Double avg = Rollups.average(rollup, column, i);
+            values[i] = avg != null ? avg : Double.NaN;
+        }
+        return values;
+    }
+
+    private Resolution chooseResolution(long runId, String base, Long from, Long to, Resolution requested,
+                                        int maxPoints, long rawIntervalMs) {
+        List<Resolution> available = new ArrayList<>();
+        for (Resolution r : Resolution.values()) {
+            if (store.exists(runId, r.seriesName(base))) available.add(r);
+        }
+        if (available.isEmpty()) return null;
+        if (requested != null) {
+            // Raw points may have been dropped by retention: fall back to the next coarser level
+            for (Resolution r : available) {
+                if (r.compareTo(requested) >= 0) return r;
+            }
+            return available.get(available.size() - 1);
+        }
+        if (available.size() == 1) return available.get(0);
+        long span;
+        if (from != null && to != null) {
+            span = to - from;
+        } else {
+            Resolution coarsest = available.get(available.size() - 1);
+            SeriesData overview = store.read(runId, coarsest.seriesName(base),
+                from != null ? from : Long.MIN_VALUE, to != null ? to : Long.MAX_VALUE).orElse(null);
+            if (overview == null || overview.size() == 0) return available.get(0);
+            span = overview.timestamps()[overview.size() - 1] - overview.timestamps()[0] + coarsest.stepMs();
+        }
+        return Resolution.select(span, maxPoints, rawIntervalMs, available);
+    }
+
+    private void awaitPendingWrites() {
+        if (writer.isIdle()) return;
+        try {
+            writer.barrier(null, false).get(READ_SYNC_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Reading metrics while writes are still pending: {}", e.toString());
+        }
+    }
+
+    static double[] toRow(MetricsSnapshot s) {
+        return new double[] {
+            s.requestsPerSecond(), s.errorsPerSecond(), s.meanResponseTime(),
+            s.p50(), s.p75(), s.p95(), s.p99(),
+            s.activeUsers(), s.totalRequests(), s.totalErrors()
+        };
+    }
+
+    static MetricsSnapshot toMetricsSnapshot(SeriesData d, int i) {
+        return toMetricsSnapshot(d.timestamps(), d.columns(), i);
+    }
+
+    static MetricsSnapshot toMetricsSnapshot(long[] timestamps, double[][] c, int i) {
+        return new MetricsSnapshot(
+            timestamps[i], c[0][i], c[1][i], c[2][i],
+            c[3][i], c[4][i], c[5][i], c[6][i],
+            (int) c[7][i], (long) c[8][i], (long) c[9][i]
+        );
+    }
+
+    static double[] toRow(InfraMetricsSnapshot s) {
+        Map<String, Double> extra = extra(s);
+        double[] row = new double[INFRA_COLUMNS + extra.size()];
+        double[] base = {
+            orNaN(s.cpuPercent()), orNaN(s.memoryUsedBytes()), orNaN(s.memoryTotalBytes()),
+            orNaN(s.memoryPercent()), orNaN(s.diskReadBytesPerSec()), orNaN(s.diskWriteBytesPerSec()),
+            orNaN(s.networkRecvBytesPerSec()), orNaN(s.networkSentBytesPerSec()), orNaN(s.sqlBatchPerSec())
+        };
+        System.arraycopy(base, 0, row, 0, INFRA_COLUMNS);
+        int column = INFRA_COLUMNS;
+        for (Double value : extra.values()) row[column++] = orNaN(value);
+        return row;
+    }
+
+    static InfraMetricsSnapshot toInfraSnapshot(Long serverId, String serverName, ServerType serverType,
+                                                List<String> extraNames, SeriesData d, int i) {
+        return toInfraSnapshot(serverId, serverName, serverType, extraNames, d.timestamps(), d.columns(), i);
+    }
+
+    static InfraMetricsSnapshot toInfraSnapshot(Long serverId, String serverName, ServerType serverType,
+                                                List<String> extraNames, long[] timestamps, double[][] c, int i) {
+        Map<String, Double> extra = new LinkedHashMap<>();
+        for (int e = 0; e < extraNames.size(); e++) extra.put(extraNames.get(e), valueOrNull(c, INFRA_COLUMNS + e, i));
+        Double memoryUsed = valueOrNull(c, 1, i);
+        Double memoryTotal = valueOrNull(c, 2, i);
+        return new InfraMetricsSnapshot(
+            timestamps[i], serverId, serverName, serverType,
+            valueOrNull(c, 0, i),
+            memoryUsed != null ? memoryUsed.longValue() : null,
+            memoryTotal != null ? memoryTotal.longValue() : null,
+            valueOrNull(c, 3, i), valueOrNull(c, 4, i), valueOrNull(c, 5, i),
+            valueOrNull(c, 6, i), valueOrNull(c, 7, i), valueOrNull(c, 8, i),
+            extra,
+            Map.of(),
+            null, null, null
+        );
+    }
+
+    private static Double valueOrNull(double[][] columns, int column, int i) {
+        double v = columns[column][i];
+        return Double.isNaN(v) ? null : v;
+    }
+
+    /**
+     * Point of a Gatling rollup window. Quantiles come from the window's merged latency histogram;
+     * runs recorded before the histograms only have the average of the per-second percentiles.
+     */
+    static MetricsSnapshot fromGatlingRollup(SeriesData d, int i, LatencyHistogram latency) {
+        double[][] c = d.columns();
+        double requests = c[ROLLUP_REQUESTS][i];
+        double mean = requests > 0 ? c[ROLLUP_WEIGHTED_MEAN_SUM][i] / requests : averageOrZero(d, COL_MEAN, i);
+        return new MetricsSnapshot(
+            d.timestamps()[i],
+            averageOrZero(d, COL_RPS, i), averageOrZero(d, COL_EPS, i), mean,
+            quantileOrAverage(latency, 0.50, d, COL_P50, i), quantileOrAverage(latency, 0.75, d, COL_P75, i),
+            quantileOrAverage(latency, 0.95, d, COL_P95, i), quantileOrAverage(latency, 0.99, d, COL_P99, i),
+            (int) maxOrZero(d, COL_ACTIVE_USERS, i),
+            (long) maxOrZero(d, COL_TOTAL_REQUESTS, i), (long) maxOrZero(d, COL_TOTAL_ERRORS, i)
+        );
+    }
+
+    static InfraMetricsSnapshot fromInfraRollup(Long serverId, String serverName, ServerType serverType,
+                                                List<String> extraNames, SeriesData d, int i) {
+        Map<String, Double> extra = new LinkedHashMap<>();
+        for (int e = 0; e < extraNames.size(); e++) extra.put(extraNames.get(e), Rollups.average(d, INFRA_COLUMNS + e, i));
+        Double memoryUsed = Rollups.average(d, 1, i);
+        Double memoryTotal = Rollups.average(d, 2, i);
+        return new InfraMetricsSnapshot(
+            d.timestamps()[i], serverId, serverName, serverType,
+            Rollups.average(d, 0, i),
+            memoryUsed != null ? memoryUsed.longValue() : null,
+            memoryTotal != null ? memoryTotal.longValue() : null,
+            Rollups.average(d, 3, i), Rollups.average(d, 4, i), Rollups.average(d, 5, i),
+            Rollups.average(d, 6, i), Rollups.average(d, 7, i), Rollups.average(d, 8, i),
+            extra,
+            Map.of(),
+            null, null, null
+        );
+    }
+
+    private static double averageOrZero(SeriesData d, int column, int i) {
+        Double avg = Rollups.average(d, column, i);
+        return avg != null ? avg : 0;
+    }
+
+    private static double maxOrZero(SeriesData d, int column, int i) {
+        double max = d.columns()[Rollups.max(column)][i];
+        return Double.isNaN(max) ? 0 : max;
+    }
+
+    private static double quantileOrAverage(LatencyHistogram latency, double q, SeriesData d, int sourceColumn, int i) {
+        return latency != null && latency.count() > 0 ? latency.quantile(q) : averageOrZero(d, sourceColumn, i);
+    }
+
+    private static double orNaN(Number value) {
+        return value != null ? value.doubleValue() : Double.NaN;
     }
 }
@@ -0,0 +1,169 @@
+package com.gatlingweb.service;
+
+import com.gatlingweb.timeseries.Resolution;
+import com.gatlingweb.timeseries.Rollups;
+import com.gatlingweb.timeseries.SeriesData;
+import com.gatlingweb.timeseries.TimeSeriesStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.gatlingweb.service.MetricsPersistenceService.COL_MEAN;
+import static com.gatlingweb.service.MetricsPersistenceService.COL_RPS;
+import static com.gatlingweb.service.MetricsPersistenceService.GATLING_SERIES;
+import static com.gatlingweb.service.MetricsPersistenceService.ROLLUP_EXTRA_COLUMNS;
+import static com.gatlingweb.service.MetricsPersistenceService.ROLLUP_REQUESTS;
+import static com.gatlingweb.service.MetricsPersistenceService.ROLLUP_WEIGHTED_MEAN_SUM;
+
+/**
+ * Builds the 10 s and 1 min rollups of finished runs and applies the raw retention policy.
+ * <p>
+ * A series is rolled up once it has not been written to for {@code settle-ms}, and rebuilt if the
+ * raw series changes afterwards. With {@code raw-retention-days} set, raw series older than that
+ * are deleted once both rollups exist; reads then fall back to the 10 s rollup. Latency quantiles
+ * are not rolled up: the parser stores a histogram per 10 s window, merged when a rollup is read.
+ * <p>
+ * A run left with nothing to do is remembered and skipped by later passes until it is appended to
+ * again or its raw retention falls due, so old runs cost no file-system calls. Every run is looked
+ * at once after a restart.
+ */
+@Service
+public class MetricsRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(MetricsRollupService.class);
+
+    private final TimeSeriesStore store;
+    private final FinishedRunCache finishedRunCache;
+    private final Duration settle;
+    private final int rawRetentionDays;
+    private final Map<Long, Settled> settled = new ConcurrentHashMap<>();
+
+    public MetricsRollupService(
+            TimeSeriesStore store,
+            FinishedRunCache finishedRunCache,
+            @Value("${gatling.metrics-rollup.settle-ms:300000}") long settleMs,
+            @Value("${gatling.metrics-rollup.raw-retention-days:0}") int rawRetentionDays) {
+        this.store = store;
+        this.finishedRunCache = finishedRunCache;
+        this.settle = Duration.ofMillis(settleMs);
+        this.rawRetentionDays = rawRetentionDays;
+    }
+
+    @Scheduled(fixedDelayString = "${gatling.metrics-rollup.interval-ms:300000}",
+               initialDelayString = "${gatling.metrics-rollup.interval-ms:300000}")
+    public void rollupAll() {
+        int written = 0;
+        Instant now = Instant.now();
+        List<Long> runs = store.listRuns();
+        settled.keySet().retainAll(new HashSet<>(runs));
+        for (long runId : runs) {
+            Settled done = settled.get(runId);
+            if (done != null && done.holds(store.lastOpened(runId), now)) continue;
+            try {
+                written += rollupRun(runId);
+            } catch (RuntimeException e) {
+                log.warn("Metrics rollup failed for run {}: {}", runId, e.getMessage());
+            }
+        }
+        if (written > 0) {
+            log.info("Metrics rollup wrote {} series", written);
+        }
+    }
+
+    /** Rolls up every settled raw series of a run; returns the number of rollup series written. */
+    int rollupRun(long runId) {
+        Instant now = Instant.now();
+        settled.remove(runId);
+        if (store.isOpen(runId)) return 0;
+        int written = 0;
+        boolean dropped = false;
+        boolean complete = true;
+        Instant retentionDue = Instant.MAX;
+        for (String series : store.listSeries(runId)) {
+            if (Resolution.isRollupName(series)) continue;
+            Optional<Instant> modified = store.lastModified(runId, series);
+            if (modified.isEmpty() || modified.get().isAfter(now.minus(settle))) {
+                complete = false;
+                continue;
+            }
+
+            SeriesData raw = null;
+            for (Resolution resolution : Resolution.ROLLUPS) {
+                String name = resolution.seriesName(series);
+                Optional<Instant> rolledUp = store.lastModified(runId, name);
+                if (rolledUp.isPresent() && !rolledUp.get().isBefore(modified.get())) continue;
+                if (raw == null) raw = store.read(runId, series).orElse(null);
+                if (raw == null || raw.size() == 0) break;
+                Rollups.Extension extension = GATLING_SERIES.equals(series) ? new LatencyExtension() : null;
+                store.write(runId, name, Rollups.aggregate(raw, resolution.stepMs(), extension));
+                written++;
+            }
+            if (applyRetention(runId, series, modified.get(), now)) {
+                dropped = true;
+            } else if (rawRetentionDays > 0) {
+                Instant due = modified.get().plus(Duration.ofDays(rawRetentionDays));
+                // A due date already past means the rollups are missing: only new points change that
+                if (due.isAfter(now) && due.isBefore(retentionDue)) retentionDue = due;
+            }
+        }
+        if (complete) settled.put(runId, new Settled(now, retentionDue));
+        if (written > 0 || dropped) {
+            // Auto-resolution reads now pick different series; run ids are shared by both run kinds
+            finishedRunCache.evictRun(FinishedRunCache.Scope.GATLING, runId);
+            finishedRunCache.evictRun(FinishedRunCache.Scope.SELENIUM, runId);
+        }
+        return written;
+    }
+
+    private boolean applyRetention(long runId, String series, Instant modified, Instant now) {
+        if (rawRetentionDays <= 0 || modified.isAfter(now.minus(Duration.ofDays(rawRetentionDays)))) return false;
+        for (Resolution resolution : Resolution.ROLLUPS) {
+            if (!store.exists(runId, resolution.seriesName(series))) return false;
+        }
+        store.deleteSeries(runId, series);
+        log.info("Dropped raw metrics series {} of run {} (older than {} days)", series, runId, rawRetentionDays);
+        return true;
+    }
+
+    /** A run found with every raw series rolled up at {@code at}; nothing to do before {@code retentionDue}. */
+    private record Settled(Instant at, Instant retentionDue) {
+
+        boolean holds(Optional<Instant> lastOpened, Instant now) {
+            return now.isBefore(retentionDue) && lastOpened.map(opened -> opened.isBefore(at)).orElse(true);
+        }
+    }
+
+    /** Request-weighted mean latency of the Gatling rollups: sum of mean times requests, and requests. */
+    static final class LatencyExtension implements Rollups.Extension {
+
+        @Override
+        public int columns() {
+            return ROLLUP_EXTRA_COLUMNS;
+        }
+
+        @Override
+        public void compute(SeriesData raw, int from, int to, double[] out) {
+            double[][] c = raw.columns();
+            double weightedMeanSum = 0;
+            double requests = 0;
+            for (int i = from; i < to; i++) {
+                double rps = c[COL_RPS][i];
+                if (Double.isNaN(rps) || rps <= 0 || Double.isNaN(c[COL_MEAN][i])) continue;
+                weightedMeanSum += c[COL_MEAN][i] * rps;
+                requests += rps;
+            }
+            out[0] = weightedMeanSum;
+            out[ROLLUP_REQUESTS - ROLLUP_WEIGHTED_MEAN_SUM] = requests;
+        }
+    }
+}
@@ -13,24 +13,32 @@ import java.util.List;
 public class MonitoredServerService {
 
     private final MonitoredServerRepository repository;
+    private final ExporterProfileService profiles;
+    private final ServerHealthService health;
 
-    public MonitoredServerService(MonitoredServerRepository repository) {
+    public MonitoredServerService(MonitoredServerRepository repository, ExporterProfileService profiles,
+                                  ServerHealthService health) {
         this.repository = repository;
+        this.profiles = profiles;
+        this.health = health;
     }
 
+    @Transactional(readOnly = true)
     public List<MonitoredServerDto> findAll() {
         return repository.findAll().stream()
-            .map(MonitoredServerDto::from)
+            .map(this::toDto)
             .toList();
     }
 
+    @Transactional(readOnly = true)
     public List<MonitoredServer> findEnabled() {
         return repository.findByEnabledTrue();
     }
 
+    @Transactional(readOnly = true)
     public MonitoredServerDto findById(Long id) {
         return repository.findById(id)
-            .map(MonitoredServerDto::from)
+            .map(this::toDto)
             .orElseThrow(() -> new IllegalArgumentException("Server not found: " + id));
     }
 
@@ -40,6 +48,7 @@ public class MonitoredServerService {
         server.setName(request.name());
         server.setUrl(request.url());
         server.setServerType(request.serverType());
+        server.setExporterProfile(exporterProfile(request));
         server.setEnabled(true);
         return MonitoredServerDto.from(repository.save(server));
     }
@@ -51,7 +60,12 @@ public class MonitoredServerService {
         server.setName(request.name());
         server.setUrl(request.url());
         server.setServerType(request.serverType());
-        return MonitoredServerDto.from(repository.save(server));
+        server.setExporterProfile(exporterProfile(request));
+        return toDto(repository.save(server));
+    }
+
+    private String exporterProfile(CreateServerRequest request) {
+        return profiles.get(ExporterProfileService.profileOf(request.exporterProfile(), request.serverType())).id();
     }
 
     @Transactional
@@ -59,7 +73,7 @@ public class MonitoredServerService {
         MonitoredServer server = repository.findById(id)
             .orElseThrow(() -> new IllegalArgumentException("Server not found: " + id));
         server.setEnabled(!server.getEnabled());
-        return MonitoredServerDto.from(repository.save(server));
+        return toDto(repository.save(server));
     }
 
     @Transactional
@@ -68,14 +82,11 @@ public class MonitoredServerService {
             throw new IllegalArgumentException("Server not found: " + id);
         }
         repository.deleteById(id);
+        health.forget(id);
     }
 
-    @Transactional
-    public void updateStatus(Long id, java.time.LocalDateTime lastSeenAt, String lastError) {
-        repository.findById(id).ifPresent(server -> {
-            server.setLastSeenAt(lastSeenAt);
-            server.setLastError(lastError);
-            repository.save(server);
-        });
+    /** Status columns are only written now and then: the live health takes precedence. */
+    private MonitoredServerDto toDto(MonitoredServer server) {
+        return MonitoredServerDto.from(server, health.get(server.getId()));
     }
 }
@@ -1,9 +1,11 @@
 package com.gatlingweb.service;
 
 import com.gatlingweb.dto.ComparisonDto;
+import com.gatlingweb.dto.InfraBaselineDto;
 import com.gatlingweb.dto.InfraMetricsSnapshot;
 import com.gatlingweb.dto.MetricsSnapshot;
 import com.gatlingweb.dto.TestRunDto;
+import com.gatlingweb.entity.RunKind;
 import com.itextpdf.html2pdf.HtmlConverter;
 import org.springframework.stereotype.Service;
 
@@ -11,6 +13,7 @@ import java.io.ByteArrayOutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,10 +21,13 @@ public class PdfExportService {
 
     private final TestRunService testRunService;
     private final MetricsPersistenceService metricsPersistenceService;
+    private final InfraBaselineService infraBaselineService;
 
-    public PdfExportService(TestRunService testRunService, MetricsPersistenceService metricsPersistenceService) {
+    public PdfExportService(TestRunService testRunService, MetricsPersistenceService metricsPersistenceService,
+                            InfraBaselineService infraBaselineService) {
         this.testRunService = testRunService;
         this.metricsPersistenceService = metricsPersistenceService;
+        this.infraBaselineService = infraBaselineService;
     }
 
     public byte[] generateSingleTestPdf(Long id) {
@@ -121,6 +127,7 @@ public class PdfExportService {
         if (!infraMetrics.isEmpty()) {
             html.append("<h2>Infrastructure Monitoring</h2>");
             appendInfraMetricsSummary(html, infraMetrics);
+            appendInfraBaseline(html, infraBaselineService.report(RunKind.GATLING, id));
             appendInfraTimeSeries(html, infraMetrics);
         }
 
@@ -330,6 +337,43 @@ public class PdfExportService {
         }
     }
 
+    /** Run means next to the servers' idle baseline, the difference and the cool-down after the run. */
+    private void appendInfraBaseline(StringBuilder html, List<InfraBaselineDto> servers) {
+        List<InfraBaselineDto> withBaseline = servers.stream()
+                .filter(s -> s.baseline() != null || s.cooldown() != null)
+                .toList();
+        if (withBaseline.isEmpty()) return;
+
+        html.append("<h3>Utilization Net of Baseline</h3>");
+        html.append("<table>");
+        html.append("<tr><th>Server</th><th>Metric</th><th>Baseline</th><th>Run</th><th>Net</th><th>Cool-down</th></tr>");
+        for (InfraBaselineDto s : withBaseline) {
+            html.append(baselineRow(s, "CPU (%)", InfraBaselineDto.Usage::cpuPercent, 1));
+            html.append(baselineRow(s, "Memory (%)", InfraBaselineDto.Usage::memoryPercent, 1));
+            html.append(baselineRow(s, "Disk Read (MB/s)", InfraBaselineDto.Usage::diskReadBytesPerSec, 1024 * 1024));
+            html.append(baselineRow(s, "Disk Write (MB/s)", InfraBaselineDto.Usage::diskWriteBytesPerSec, 1024 * 1024));
+            html.append(baselineRow(s, "Network In (MB/s)", InfraBaselineDto.Usage::networkRecvBytesPerSec, 1024 * 1024));
+            html.append(baselineRow(s, "Network Out (MB/s)", InfraBaselineDto.Usage::networkSentBytesPerSec, 1024 * 1024));
+            html.append(baselineRow(s, "SQL Batch/s", InfraBaselineDto.Usage::sqlBatchPerSec, 1));
+        }
+        html.append("</table>");
+    }
+
+    private String baselineRow(InfraBaselineDto s, String label,
+                               Function<InfraBaselineDto.Usage, Double> metric, double divisor) {
+        Double run = s.run() != null ? metric.apply(s.run()) : null;
+        Double baseline = s.baseline() != null ? metric.apply(s.baseline()) : null;
+        if (run == null && baseline == null) return "";
+        Double net = s.net() != null ? metric.apply(s.net()) : null;
+        Double cooldown = s.cooldown() != null ? metric.apply(s.cooldown()) : null;
+        return "<tr><td>" + esc(s.serverName()) + "</td>" +
+                "<td style=\"font-weight:bold;\">" + esc(label) + "</td>" +
+                "<td>" + fmtOpt(baseline != null ? baseline / divisor : null, "%.2f") + "</td>" +
+                "<td>" + fmtOpt(run != null ? run / divisor : null, "%.2f") + "</td>" +
+                "<td>" + fmtOpt(net != null ? net / divisor : null, "%+.2f") + "</td>" +
+                "<td>" + fmtOpt(cooldown != null ? cooldown / divisor : null, "%.2f") + "</td></tr>\n";
+    }
+
     private void appendInfraTimeSeries(StringBuilder html, List<InfraMetricsSnapshot> infraMetrics) {
         Map<String, List<InfraMetricsSnapshot>> byServer = infraMetrics.stream()
                 .filter(s -> s.serverName() != null)
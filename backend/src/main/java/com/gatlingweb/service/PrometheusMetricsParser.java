@@ -1,126 +1,1012 @@
 package com.gatlingweb.service;
 
+import com.gatlingweb.dto.ExporterProfile;
+import com.gatlingweb.dto.ExporterProfile.Breakdown;
+import com.gatlingweb.dto.ExporterProfile.ExtraMetric;
+import com.gatlingweb.dto.ExporterProfile.Fold;
+import com.gatlingweb.dto.ExporterProfile.Selector;
+import com.gatlingweb.dto.ExporterProfile.Signal;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
 
+/**
+ * Reads the families an {@link ExporterProfile} asks for from a Prometheus exposition page, in the
+ * text or the delimited protobuf format, gzip compressed or not.
+ * <p>
+ * The page is scanned once, as its bytes arrive and are inflated, without regex or per-line
+ * strings: the metric name of each line (or family message) is compared with the profile's
+ * families and everything else is skipped. Wanted samples are folded straight into one slot per
+ * selector; labels are only looked at for selectors with label matchers. {@link Reading} then
+ * picks, for each signal and extra metric, the first alternative the page contained. Breakdown
+ * selectors fold into keyed slots instead, one value per distinct value of their label, up to
+ * the breakdown's cap.
+ */
 @Component
 public class PrometheusMetricsParser {
 
-    private static final Pattern METRIC_LINE = Pattern.compile("^([a-zA-Z_:][a-zA-Z0-9_:]*)(?:\\{([^}]*)\\})?\\s+([\\d.eE+-]+|NaN|\\+Inf|-Inf)");
+    /**
+     * Accept header of a scrape: delimited protobuf, which exporters built on the Go client
+     * library serve, then the text format.
+     */
+    public static final String ACCEPT = "application/vnd.google.protobuf;proto=io.prometheus.client.MetricFamily;"
+        + "encoding=delimited;q=0.7,text/plain;version=0.0.4;q=0.3,*/*;q=0.1";
 
-    public Map<String, Map<String, Double>> parse(String prometheusText) {
-        Map<String, Map<String, Double>> metrics = new HashMap<>();
+    // A line longer than this is a label explosion nobody wants; it is skipped
+    private static final int MAX_LINE_BYTES = 64 * 1024;
+    // Same for a protobuf family: thousands of series of one family are skipped whole
+    private static final int MAX_MESSAGE_BYTES = 16 * 1024 * 1024;
 
-        for (String line : prometheusText.split("\n")) {
-            line = line.trim();
-            if (line.isEmpty() || line.startsWith("#")) {
-                continue;
+    // Exactly representable, so one multiplication or division rounds correctly
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final byte[] NAN = bytes("NaN");
+    private static final byte[] PLUS_INF = bytes("+Inf");
+    private static final byte[] MINUS_INF = bytes("-Inf");
+    private static final int SIGNALS = Signal.values().length;
+
+    /**
+     * A sample is folded into {@code slot} when every label of {@code labelNames} equals the
+     * matching value, or differs from it where {@code negated}. With {@code by}, {@code slot} is a
+     * keyed slot and the value of that label is the key.
+     */
+    private record Target(int slot, Fold fold, double scale, byte[][] labelNames, byte[][] labelValues,
+                          boolean[] negated, int required, byte[] by) {}
+
+    private record Family(byte[] name, Target[] targets) {}
+
+    /** A profile compiled for scanning; built once per profile and shared by every scan. */
+    public static final class Plan {
+
+        private final Family[] families;
+        private final Fold[] slotFolds;
+        private final int maxTargets;
+        // Alternative slots of each signal, then of each extra metric
+        private final int[][] outputs;
+        private final List<String> extraNames;
+        // Alternative keyed slots of each breakdown, and the cap of each keyed slot
+        private final int[][] breakdownOutputs;
+        private final int[] keyedMaxSeries;
+        private final List<String> breakdownNames;
+
+        private Plan(Family[] families, Fold[] slotFolds, int[][] outputs, List<String> extraNames,
+                     int[][] breakdownOutputs, int[] keyedMaxSeries, List<String> breakdownNames) {
+            this.families = families;
+            this.slotFolds = slotFolds;
+            this.outputs = outputs;
+            this.extraNames = extraNames;
+            this.breakdownOutputs = breakdownOutputs;
+            this.keyedMaxSeries = keyedMaxSeries;
+            this.breakdownNames = breakdownNames;
+            this.maxTargets = Arrays.stream(families).mapToInt(f -> f.targets().length).max().orElse(0);
+        }
+
+        public List<String> extraNames() {
+            return extraNames;
+        }
+
+        public List<String> breakdownNames() {
+            return breakdownNames;
+        }
+
+        private Family find(ByteBuffer buf, int from, int to) {
+            for (Family family : families) {
+                if (matches(buf, from, to, family.name())) return family;
             }
+            return null;
+        }
 
-            Matcher matcher = METRIC_LINE.matcher(line);
-            if (matcher.find()) {
-                String name = matcher.group(1);
-                String labels = matcher.group(2);
-                String valueStr = matcher.group(3);
+        private Family find(byte[] name) {
+            return find(ByteBuffer.wrap(name), 0, name.length);
+        }
+    }
 
-                try {
-                    double value = parseValue(valueStr);
-                    String key = labels != null ? name + "{" + labels + "}" : name;
-                    metrics.computeIfAbsent(name, k -> new HashMap<>()).put(key, value);
-                } catch (NumberFormatException ignored) {
-                }
+    /** Values read from one page: signals and extra metrics, null when the page lacked them. */
+    public static final class Reading {
+
+        private final double[] values;
+        private final boolean[] available;
+        private final List<String> extraNames;
+        private final Map<String, Map<String, Double>> breakdowns;
+        private final List<String> truncated;
+        private final long payloadBytes;
+
+        private Reading(double[] values, boolean[] available, List<String> extraNames,
+                        Map<String, Map<String, Double>> breakdowns, List<String> truncated, long payloadBytes) {
+            this.values = values;
+            this.available = available;
+            this.extraNames = extraNames;
+            this.breakdowns = breakdowns;
+            this.truncated = truncated;
+            this.payloadBytes = payloadBytes;
+        }
+
+        public Double signal(Signal signal) {
+            return get(signal.ordinal());
+        }
+
+        /** Extra metrics by name, in profile order. */
+        public Map<String, Double> extra() {
+            Map<String, Double> extra = new LinkedHashMap<>();
+            for (int i = 0; i < extraNames.size(); i++) extra.put(extraNames.get(i), get(SIGNALS + i));
+            return extra;
+        }
+
+        /**
+         * Breakdowns the page contained, by name: value per label value, in page order. Absent
+         * breakdowns are missing from the map.
+         */
+        public Map<String, Map<String, Double>> breakdowns() {
+            return breakdowns;
+        }
+
+        /** Breakdowns that had more label values than their cap; the later ones were dropped. */
+        public List<String> truncated() {
+            return truncated;
+        }
+
+        /** Bytes of the body as transferred, before decompression. */
+        public long payloadBytes() {
+            return payloadBytes;
+        }
+
+        private Double get(int output) {
+            return available[output] ? values[output] : null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Reading r && Arrays.equals(values, r.values) && Arrays.equals(available, r.available)
+                && extraNames.equals(r.extraNames) && breakdowns.equals(r.breakdowns) && payloadBytes == r.payloadBytes;
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values) * 31 + Arrays.hashCode(available);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("Reading{");
+            for (Signal s : Signal.values()) {
+                if (available[s.ordinal()]) sb.append(s.key()).append('=').append(values[s.ordinal()]).append(", ");
+            }
+            return sb.append("extra=").append(extra()).append(", breakdowns=").append(breakdowns).append('}').toString();
+        }
+    }
+
+    /** Compiles a profile; throws IllegalArgumentException when a signal key is unknown. */
+    public Plan compile(ExporterProfile profile) {
+        Map<String, List<Target>> byFamily = new LinkedHashMap<>();
+        List<Fold> slotFolds = new ArrayList<>();
+        List<ExtraMetric> extras = profile.extra() != null ? profile.extra() : List.of();
+        int[][] outputs = new int[SIGNALS + extras.size()][];
+        Arrays.fill(outputs, new int[0]);
+        if (profile.signals() != null) {
+            profile.signals().forEach((key, selectors) ->
+                outputs[Signal.fromKey(key).ordinal()] = slots(selectors, byFamily, slotFolds, null));
+        }
+        List<String> extraNames = new ArrayList<>();
+        for (int i = 0; i < extras.size(); i++) {
+            outputs[SIGNALS + i] = slots(extras.get(i).sources(), byFamily, slotFolds, null);
+            extraNames.add(extras.get(i).name());
+        }
+        List<Breakdown> breakdowns = profile.breakdowns() != null ? profile.breakdowns() : List.of();
+        int[][] breakdownOutputs = new int[breakdowns.size()][];
+        List<Fold> keyedFolds = new ArrayList<>();
+        List<Integer> keyedMaxSeries = new ArrayList<>();
+        List<String> breakdownNames = new ArrayList<>();
+        for (int i = 0; i < breakdowns.size(); i++) {
+            Breakdown breakdown = breakdowns.get(i);
+            breakdownOutputs[i] = slots(breakdown.sources(), byFamily, keyedFolds, bytes(breakdown.by()));
+            while (keyedMaxSeries.size() < keyedFolds.size()) keyedMaxSeries.add(breakdown.maxSeriesOrDefault());
+            breakdownNames.add(breakdown.name());
+        }
+        Family[] families = byFamily.entrySet().stream()
+            .map(e -> new Family(bytes(e.getKey()), e.getValue().toArray(Target[]::new)))
+            .toArray(Family[]::new);
+        return new Plan(families, slotFolds.toArray(Fold[]::new), outputs, List.copyOf(extraNames),
+            breakdownOutputs, keyedMaxSeries.stream().mapToInt(Integer::intValue).toArray(), List.copyOf(breakdownNames));
+    }
+
+    /** One slot per selector, in {@code folds}; keyed slots when {@code by} is set. */
+    private static int[] slots(List<Selector> selectors, Map<String, List<Target>> byFamily, List<Fold> folds, byte[] by) {
+        if (selectors == null) return new int[0];
+        int[] slots = new int[selectors.size()];
+        for (int i = 0; i < slots.length; i++) {
+            Selector selector = selectors.get(i);
+            int slot = folds.size();
+            folds.add(selector.foldOrDefault());
+            slots[i] = slot;
+            Map<String, String> match = selector.match() != null ? selector.match() : Map.of();
+            byte[][] names = new byte[match.size()][];
+            byte[][] values = new byte[match.size()][];
+            boolean[] negated = new boolean[match.size()];
+            int required = 0;
+            int m = 0;
+            for (Map.Entry<String, String> e : match.entrySet()) {
+                names[m] = bytes(e.getKey());
+                negated[m] = e.getValue().startsWith("!");
+                values[m] = bytes(negated[m] ? e.getValue().substring(1) : e.getValue());
+                if (!negated[m]) required++;
+                m++;
+            }
+            for (String family : selector.familyNames()) {
+                byFamily.computeIfAbsent(family, f -> new ArrayList<>()).add(new Target(
+                    slot, selector.foldOrDefault(), selector.scaleOrDefault(), names, values, negated, required, by));
+            }
+        }
+        return slots;
+    }
+
+    /** Parses a whole page held in memory. */
+    public Reading parse(Plan plan, byte[] page) {
+        Scan scan = newScan(plan);
+        scan.feed(ByteBuffer.wrap(page));
+        return scan.finish();
+    }
+
+    public Reading parse(Plan plan, String page) {
+        return parse(plan, page.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** A text scan fed chunk by chunk; also usable as the body subscriber of an HTTP response. */
+    public Scan newScan(Plan plan) {
+        return new TextScan(plan, null);
+    }
+
+    /**
+     * A scan for a response with these headers: delimited protobuf or text exposition, gzip
+     * compressed or not. Throws IllegalArgumentException for any other content encoding.
+     */
+    public Scan newScan(Plan plan, String contentType, String contentEncoding) {
+        StreamingGunzip gunzip = null;
+        if (contentEncoding != null && !contentEncoding.isBlank() && !contentEncoding.equalsIgnoreCase("identity")) {
+            if (!contentEncoding.equalsIgnoreCase("gzip") && !contentEncoding.equalsIgnoreCase("x-gzip")) {
+                throw new IllegalArgumentException("Unsupported content encoding: " + contentEncoding);
             }
+            gunzip = new StreamingGunzip();
         }
+        return isProtobuf(contentType) ? new ProtobufScan(plan, gunzip) : new TextScan(plan, gunzip);
+    }
 
-        return metrics;
+    static boolean isProtobuf(String contentType) {
+        return contentType != null && contentType.startsWith("application/vnd.google.protobuf")
+            && contentType.contains("encoding=delimited");
     }
 
-    private double parseValue(String valueStr) {
-        if ("NaN".equals(valueStr)) return Double.NaN;
-        if ("+Inf".equals(valueStr)) return Double.POSITIVE_INFINITY;
-        if ("-Inf".equals(valueStr)) return Double.NEGATIVE_INFINITY;
-        return Double.parseDouble(valueStr);
+    /**
+     * Folds the samples of one page into the plan's slots. Subclasses decode a wire format; the
+     * bytes received, before decompression, are counted as the payload size.
+     */
+    public abstract static class Scan implements HttpResponse.BodySubscriber<Reading> {
+
+        final Plan plan;
+        private final double[] values;
+        private final boolean[] present;
+        private final boolean[] assigned;
+        // Per target of the current sample: positive matchers seen, and whether a negated one failed
+        private final int[] satisfied;
+        private final boolean[] excluded;
+        // Per target of the current sample: bounds of its key label's value in keyBuffer, -1 if absent
+        private final int[] keyFrom;
+        private final int[] keyTo;
+        private ByteBuffer keyBuffer;
+        private final Keyed[] keyed;
+        private final StreamingGunzip gunzip;
+        private final CompletableFuture<Reading> result = new CompletableFuture<>();
+        private long payloadBytes;
+
+        private Scan(Plan plan, StreamingGunzip gunzip) {
+            this.plan = plan;
+            this.gunzip = gunzip;
+            int slots = plan.slotFolds.length;
+            this.values = new double[slots];
+            this.present = new boolean[slots];
+            this.assigned = new boolean[slots];
+            this.satisfied = new int[plan.maxTargets];
+            this.excluded = new boolean[plan.maxTargets];
+            this.keyFrom = new int[plan.maxTargets];
+            this.keyTo = new int[plan.maxTargets];
+            this.keyed = new Keyed[plan.keyedMaxSeries.length];
+            for (int k = 0; k < keyed.length; k++) keyed[k] = new Keyed(plan.keyedMaxSeries[k]);
+        }
+
+        /** Consumes the chunk; a sample cut at its end is completed by the next chunk. */
+        public void feed(ByteBuffer chunk) {
+            payloadBytes += chunk.remaining();
+            if (gunzip != null) {
+                gunzip.feed(chunk, this::decode);
+            } else {
+                decode(chunk);
+            }
+        }
+
+        public Reading finish() {
+            if (gunzip != null) gunzip.finish();
+            end();
+            int[][] outputs = plan.outputs;
+            double[] out = new double[outputs.length];
+            boolean[] available = new boolean[outputs.length];
+            for (int o = 0; o < outputs.length; o++) {
+                for (int slot : outputs[o]) {
+                    boolean found = plan.slotFolds[slot] == Fold.FIRST ? assigned[slot] : present[slot];
+                    if (found) {
+                        out[o] = values[slot];
+                        available[o] = true;
+                        break;
+                    }
+                }
+            }
+            Map<String, Map<String, Double>> breakdowns = new LinkedHashMap<>();
+            List<String> truncated = new ArrayList<>();
+            for (int b = 0; b < plan.breakdownOutputs.length; b++) {
+                for (int slot : plan.breakdownOutputs[b]) {
+                    Keyed k = keyed[slot];
+                    if (!k.present) continue;
+                    breakdowns.put(plan.breakdownNames.get(b), k.values(this::key));
+                    if (k.truncated) truncated.add(plan.breakdownNames.get(b));
+                    break;
+                }
+            }
+            return new Reading(out, available, plan.extraNames, breakdowns, truncated, payloadBytes);
+        }
+
+        /** A label value as text. */
+        String key(byte[] raw) {
+            return new String(raw, StandardCharsets.UTF_8);
+        }
+
+        /** Decodes uncompressed bytes; the buffer is not retained. */
+        abstract void decode(ByteBuffer chunk);
+
+        /** Handles what is left once the body is complete. */
+        abstract void end();
+
+        @Override
+        public CompletionStage<Reading> getBody() {
+            return result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> chunks) {
+            if (result.isDone()) return;
+            try {
+                for (ByteBuffer chunk : chunks) feed(chunk);
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            fail(error);
+        }
+
+        @Override
+        public void onComplete() {
+            if (result.isDone()) return;
+            try {
+                result.complete(finish());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        private void fail(Throwable error) {
+            if (gunzip != null) gunzip.release();
+            result.completeExceptionally(error);
+        }
+
+        void startSample(Target[] targets) {
+            Arrays.fill(satisfied, 0, targets.length, 0);
+            Arrays.fill(excluded, 0, targets.length, false);
+            Arrays.fill(keyFrom, 0, targets.length, -1);
+        }
+
+        /** Checks one label of the current sample against the targets' matchers and key labels. */
+        void label(ByteBuffer buf, int nameFrom, int nameTo, int valueFrom, int valueTo, Target[] targets) {
+            for (int t = 0; t < targets.length; t++) {
+                Target target = targets[t];
+                if (target.by() != null && matches(buf, nameFrom, nameTo, target.by())) {
+                    keyBuffer = buf;
+                    keyFrom[t] = valueFrom;
+                    keyTo[t] = valueTo;
+                }
+                for (int m = 0; m < target.labelNames().length; m++) {
+                    if (!matches(buf, nameFrom, nameTo, target.labelNames()[m])) continue;
+                    boolean equal = matches(buf, valueFrom, valueTo, target.labelValues()[m]);
+                    if (target.negated()[m]) {
+                        if (equal) excluded[t] = true;
+                    } else if (equal) {
+                        satisfied[t]++;
+                    }
+                }
+            }
+        }
+
+        void fold(Target[] targets, double value) {
+            for (int t = 0; t < targets.length; t++) {
+                Target target = targets[t];
+                int slot = target.slot();
+                if (target.by() != null) {
+                    Keyed k = keyed[slot];
+                    k.present = true;
+                    if (excluded[t] || satisfied[t] < target.required() || keyFrom[t] < 0) continue;
+                    k.fold(keyBuffer, keyFrom[t], keyTo[t], target.fold(), value, target.scale());
+                    continue;
+                }
+                present[slot] = true;
+                if (excluded[t] || satisfied[t] < target.required()) continue;
+                if (target.fold() == Fold.FIRST) {
+                    if (!assigned[slot]) values[slot] = value * target.scale();
+                    assigned[slot] = true;
+                } else if (Double.isFinite(value)) {
+                    values[slot] += value * target.scale();
+                }
+            }
+        }
     }
 
-    public Double getCpuIdleTotal(Map<String, Map<String, Double>> metrics) {
-        Map<String, Double> cpuMetrics = metrics.get("windows_cpu_time_total");
-        if (cpuMetrics == null) return null;
+    /** Values of a keyed slot by label value, in the order the values were first seen. */
+    private static final class Keyed {
 
-        double idleTotal = 0;
-        for (Map.Entry<String, Double> entry : cpuMetrics.entrySet()) {
-            if (entry.getKey().contains("mode=\"idle\"")) {
-                idleTotal += entry.getValue();
+        private final int maxSeries;
+        private byte[][] keys = new byte[8][];
+        private double[] values = new double[8];
+        private boolean[] assigned = new boolean[8];
+        private int size;
+        boolean present;
+        boolean truncated;
+
+        Keyed(int maxSeries) {
+            this.maxSeries = maxSeries;
+        }
+
+        void fold(ByteBuffer buf, int from, int to, Fold fold, double value, double scale) {
+            int i = indexOf(buf, from, to);
+            if (i < 0) {
+                if (size == maxSeries) {
+                    truncated = true;
+                    return;
+                }
+                i = add(buf, from, to);
+            }
+            if (fold == Fold.FIRST) {
+                if (!assigned[i]) values[i] = value * scale;
+                assigned[i] = true;
+            } else if (Double.isFinite(value)) {
+                values[i] += value * scale;
             }
         }
-        return idleTotal;
+
+        Map<String, Double> values(java.util.function.Function<byte[], String> key) {
+            Map<String, Double> byKey = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) byKey.put(key.apply(keys[i]), values[i]);
+            return byKey;
+        }
+
+        private int indexOf(ByteBuffer buf, int from, int to) {
+            for (int i = 0; i < size; i++) {
+                if (matches(buf, from, to, keys[i])) return i;
+            }
+            return -1;
+        }
+
+        private int add(ByteBuffer buf, int from, int to) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+                assigned = Arrays.copyOf(assigned, size * 2);
+            }
+            byte[] key = new byte[to - from];
+            buf.get(from, key);
+            keys[size] = key;
+            return size++;
+        }
     }
 
-    public Double getCpuTotal(Map<String, Map<String, Double>> metrics) {
-        Map<String, Double> cpuMetrics = metrics.get("windows_cpu_time_total");
-        if (cpuMetrics == null) return null;
+    /** Text exposition format, line by line. */
+    private static final class TextScan extends Scan {
+
+        // The start of a line cut by the end of the previous chunk
+        private byte[] carry = new byte[256];
+        private int carried;
+        private boolean skippingLongLine;
+
+        private TextScan(Plan plan, StreamingGunzip gunzip) {
+            super(plan, gunzip);
+        }
+
+        /** Label values of the text format escape backslash, double quote and newline. */
+        @Override
+        String key(byte[] raw) {
+            String text = super.key(raw);
+            if (text.indexOf('\\') < 0) return text;
+            StringBuilder sb = new StringBuilder(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '\\' && i + 1 < text.length()) {
+                    char next = text.charAt(++i);
+                    sb.append(next == 'n' ? '\n' : next);
+                } else {
+                    sb.append(c);
+                }
+            }
+            return sb.toString();
+        }
+
+        @Override
+        void decode(ByteBuffer chunk) {
+            int pos = chunk.position();
+            int limit = chunk.limit();
+            if (carried > 0 || skippingLongLine) {
+                int newline = indexOf(chunk, pos, limit, (byte) '\n');
+                int end = newline < 0 ? limit : newline;
+                if (!skippingLongLine) append(chunk, pos, end);
+                if (newline < 0) {
+                    chunk.position(limit);
+                    return;
+                }
+                if (!skippingLongLine) line(ByteBuffer.wrap(carry, 0, carried), 0, carried);
+                carried = 0;
+                skippingLongLine = false;
+                pos = newline + 1;
+            }
+            while (pos < limit) {
+                int newline = indexOf(chunk, pos, limit, (byte) '\n');
+                if (newline < 0) {
+                    append(chunk, pos, limit);
+                    break;
+                }
+                line(chunk, pos, newline);
+                pos = newline + 1;
+            }
+            chunk.position(limit);
+        }
 
-        double total = 0;
-        for (Double value : cpuMetrics.values()) {
-            total += value;
+        @Override
+        void end() {
+            if (carried > 0 && !skippingLongLine) line(ByteBuffer.wrap(carry, 0, carried), 0, carried);
+            carried = 0;
+        }
+
+        private void append(ByteBuffer chunk, int from, int to) {
+            int length = to - from;
+            if (carried + length > MAX_LINE_BYTES) {
+                carried = 0;
+                skippingLongLine = true;
+                return;
+            }
+            if (carried + length > carry.length) {
+                carry = Arrays.copyOf(carry, Math.max(carry.length * 2, carried + length));
+            }
+            chunk.get(from, carry, carried, length);
+            carried += length;
+        }
+
+        private void line(ByteBuffer buf, int from, int to) {
+            int i = skipBlanks(buf, from, to);
+            if (i >= to || buf.get(i) == '#') return;
+            int nameStart = i;
+            while (i < to && !isBlank(buf.get(i)) && buf.get(i) != '{') i++;
+            Family family = plan.find(buf, nameStart, i);
+            if (family == null) return;
+
+            Target[] targets = family.targets();
+            startSample(targets);
+            if (i < to && buf.get(i) == '{') {
+                i = labels(buf, i + 1, to, targets);
+                if (i < 0) return;
+            }
+            i = skipBlanks(buf, i, to);
+            int valueEnd = i;
+            while (valueEnd < to && !isBlank(buf.get(valueEnd))) valueEnd++;
+            if (valueEnd == i) return;
+            double value;
+            try {
+                value = parseValue(buf, i, valueEnd);
+            } catch (NumberFormatException e) {
+                return;
+            }
+            fold(targets, value);
+        }
+
+        /** Checks the label matchers; returns the index after the closing brace, or -1 if malformed. */
+        private int labels(ByteBuffer buf, int i, int to, Target[] targets) {
+            while (true) {
+                while (i < to && (isBlank(buf.get(i)) || buf.get(i) == ',')) i++;
+                if (i >= to) return -1;
+                if (buf.get(i) == '}') return i + 1;
+                int nameStart = i;
+                while (i < to && buf.get(i) != '=' && !isBlank(buf.get(i))) i++;
+                int nameEnd = i;
+                while (i < to && isBlank(buf.get(i))) i++;
+                if (i >= to || buf.get(i) != '=') return -1;
+                i = skipBlanks(buf, i + 1, to);
+                if (i >= to || buf.get(i) != '"') return -1;
+                int valueStart = ++i;
+                while (i < to && buf.get(i) != '"') {
+                    if (buf.get(i) == '\\') i++;
+                    i++;
+                }
+                if (i >= to) return -1;
+                label(buf, nameStart, nameEnd, valueStart, i, targets);
+                i++;
+            }
         }
-        return total;
     }
 
-    public Long getPhysicalMemoryBytes(Map<String, Map<String, Double>> metrics) {
-        // Try new metric name first, then fallback to old one
-        Map<String, Double> mem = metrics.get("windows_memory_physical_total_bytes");
-        if (mem == null || mem.isEmpty()) {
-            mem = metrics.get("windows_cs_physical_memory_bytes");
+    /**
+     * Delimited protobuf exposition ({@code io.prometheus.client.MetricFamily} messages, each
+     * preceded by its varint length). Counters, gauges and untyped samples fold like text lines;
+     * summaries and histograms provide their {@code _sum} and {@code _count} families.
+     */
+    private static final class ProtobufScan extends Scan {
+
+        private static final int TYPE_SUMMARY = 2;
+        private static final int TYPE_HISTOGRAM = 4;
+        private static final int TYPE_GAUGE_HISTOGRAM = 5;
+        private static final byte[] SUM = bytes("_sum");
+        private static final byte[] COUNT = bytes("_count");
+
+        // A message cut by the end of the previous chunk
+        private byte[] carry = new byte[1024];
+        private int carried;
+        private int messageLength = -1;
+        private long lengthPrefix;
+        private int lengthShift;
+        private long skipping;
+        // Start and end of each label name and value of the current metric
+        private int[] labelBounds = new int[16];
+
+        private ProtobufScan(Plan plan, StreamingGunzip gunzip) {
+            super(plan, gunzip);
+        }
+
+        @Override
+        void decode(ByteBuffer chunk) {
+            int pos = chunk.position();
+            int limit = chunk.limit();
+            while (pos < limit) {
+                if (skipping > 0) {
+                    int n = (int) Math.min(skipping, limit - pos);
+                    pos += n;
+                    skipping -= n;
+                } else if (messageLength < 0) {
+                    byte b = chunk.get(pos++);
+                    lengthPrefix |= (long) (b & 0x7F) << lengthShift;
+                    lengthShift += 7;
+                    if (b < 0) {
+                        if (lengthShift > 28) throw new IllegalStateException("Malformed protobuf length");
+                        continue;
+                    }
+                    if (lengthPrefix > MAX_MESSAGE_BYTES) {
+                        skipping = lengthPrefix;
+                    } else if (lengthPrefix > 0) {
+                        messageLength = (int) lengthPrefix;
+                    }
+                    lengthPrefix = 0;
+                    lengthShift = 0;
+                } else if (carried == 0 && limit - pos >= messageLength) {
+                    family(chunk, pos, pos + messageLength);
+                    pos += messageLength;
+                    messageLength = -1;
+                } else {
+                    int n = Math.min(messageLength - carried, limit - pos);
+                    if (carried + n > carry.length) {
+                        carry = Arrays.copyOf(carry, Math.max(carry.length * 2, messageLength));
+                    }
+                    chunk.get(pos, carry, carried, n);
+                    carried += n;
+                    pos += n;
+                    if (carried == messageLength) {
+                        family(ByteBuffer.wrap(carry, 0, carried), 0, carried);
+                        carried = 0;
+                        messageLength = -1;
+                    }
+                }
+            }
+            chunk.position(limit);
+        }
+
+        @Override
+        void end() {
+            // A message cut short by the end of the body is dropped
+            carried = 0;
+        }
+
+        private void family(ByteBuffer buf, int from, int to) {
+            try {
+                int nameFrom = -1;
+                int nameTo = -1;
+                long type = 0;
+                for (int i = from; i < to; ) {
+                    long tag = varint(buf, i, to);
+                    i = varintEnd(buf, i, to);
+                    int field = (int) (tag >>> 3);
+                    if (field == 1 && (tag & 7) == 2) {
+                        int length = (int) varint(buf, i, to);
+                        nameFrom = varintEnd(buf, i, to);
+                        nameTo = checked(nameFrom + length, to);
+                        i = nameTo;
+                    } else if (field == 3 && (tag & 7) == 0) {
+                        type = varint(buf, i, to);
+                        i = varintEnd(buf, i, to);
+                    } else {
+                        i = skip(buf, i, to, (int) (tag & 7));
+                    }
+                }
+                if (nameFrom < 0) return;
+                boolean aggregate = type == TYPE_SUMMARY || type == TYPE_HISTOGRAM || type == TYPE_GAUGE_HISTOGRAM;
+                Family family = aggregate ? null : plan.find(buf, nameFrom, nameTo);
+                Family sum = aggregate ? plan.find(concat(buf, nameFrom, nameTo, SUM)) : null;
+                Family count = aggregate ? plan.find(concat(buf, nameFrom, nameTo, COUNT)) : null;
+                if (family == null && sum == null && count == null) return;
+
+                for (int i = from; i < to; ) {
+                    long tag = varint(buf, i, to);
+                    i = varintEnd(buf, i, to);
+                    if (tag >>> 3 == 4 && (tag & 7) == 2) {
+                        int length = (int) varint(buf, i, to);
+                        int start = varintEnd(buf, i, to);
+                        i = checked(start + length, to);
+                        metric(buf, start, i, family, sum, count);
+                    } else {
+                        i = skip(buf, i, to, (int) (tag & 7));
+                    }
+                }
+            } catch (IllegalStateException e) {
+                // A malformed message is skipped, like a malformed text line
+            }
+        }
+
+        private void metric(ByteBuffer buf, int from, int to, Family family, Family sum, Family count) {
+            int labels = 0;
+            double value = Double.NaN;
+            double sampleSum = Double.NaN;
+            double sampleCount = Double.NaN;
+            boolean hasValue = false;
+            for (int i = from; i < to; ) {
+                long tag = varint(buf, i, to);
+                i = varintEnd(buf, i, to);
+                int field = (int) (tag >>> 3);
+                if ((tag & 7) != 2) {
+                    i = skip(buf, i, to, (int) (tag & 7));
+                    continue;
+                }
+                int length = (int) varint(buf, i, to);
+                int start = varintEnd(buf, i, to);
+                i = checked(start + length, to);
+                if (field == 1) {
+                    if (labels * 4 + 4 > labelBounds.length) labelBounds = Arrays.copyOf(labelBounds, labelBounds.length * 2);
+                    labelPair(buf, start, i, labels * 4);
+                    labels++;
+                } else if (field == 2 || field == 3 || field == 5) {
+                    // Gauge, counter, untyped: the value is field 1
+                    for (int j = start; j < i; ) {
+                        long inner = varint(buf, j, i);
+                        j = varintEnd(buf, j, i);
+                        if (inner == (1 << 3 | 1)) {
+                            value = fixed64(buf, j, i);
+                            hasValue = true;
+                            j += 8;
+                        } else {
+                            j = skip(buf, j, i, (int) (inner & 7));
+                        }
+                    }
+                } else if (field == 4 || field == 7) {
+                    // Summary, histogram: sample_count (1), sample_sum (2), histogram sample_count_float (4)
+                    for (int j = start; j < i; ) {
+                        long inner = varint(buf, j, i);
+                        j = varintEnd(buf, j, i);
+                        if (inner == (1 << 3)) {
+                            sampleCount = varint(buf, j, i);
+                            j = varintEnd(buf, j, i);
+                        } else if (inner == (2 << 3 | 1)) {
+                            sampleSum = fixed64(buf, j, i);
+                            j += 8;
+                        } else if (inner == (4 << 3 | 1) && field == 7) {
+                            sampleCount = fixed64(buf, j, i);
+                            j += 8;
+                        } else {
+                            j = skip(buf, j, i, (int) (inner & 7));
+                        }
+                    }
+                }
+            }
+            if (family != null && hasValue) sample(buf, family, labels, value);
+            if (sum != null && !Double.isNaN(sampleSum)) sample(buf, sum, labels, sampleSum);
+            if (count != null && !Double.isNaN(sampleCount)) sample(buf, count, labels, sampleCount);
+        }
+
+        private void labelPair(ByteBuffer buf, int from, int to, int at) {
+            labelBounds[at] = labelBounds[at + 1] = labelBounds[at + 2] = labelBounds[at + 3] = from;
+            for (int i = from; i < to; ) {
+                long tag = varint(buf, i, to);
+                i = varintEnd(buf, i, to);
+                int field = (int) (tag >>> 3);
+                if ((tag & 7) == 2 && (field == 1 || field == 2)) {
+                    int length = (int) varint(buf, i, to);
+                    int start = varintEnd(buf, i, to);
+                    i = checked(start + length, to);
+                    labelBounds[at + (field - 1) * 2] = start;
+                    labelBounds[at + (field - 1) * 2 + 1] = i;
+                } else {
+                    i = skip(buf, i, to, (int) (tag & 7));
+                }
+            }
+        }
+
+        private void sample(ByteBuffer buf, Family family, int labels, double value) {
+            Target[] targets = family.targets();
+            startSample(targets);
+            for (int l = 0; l < labels * 4; l += 4) {
+                label(buf, labelBounds[l], labelBounds[l + 1], labelBounds[l + 2], labelBounds[l + 3], targets);
+            }
+            fold(targets, value);
+        }
+
+        private static byte[] concat(ByteBuffer buf, int from, int to, byte[] suffix) {
+            byte[] name = new byte[to - from + suffix.length];
+            buf.get(from, name, 0, to - from);
+            System.arraycopy(suffix, 0, name, to - from, suffix.length);
+            return name;
+        }
+
+        private static long varint(ByteBuffer buf, int i, int to) {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (i >= to) throw new IllegalStateException("Truncated varint");
+                byte b = buf.get(i++);
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+            throw new IllegalStateException("Malformed varint");
+        }
+
+        private static int varintEnd(ByteBuffer buf, int i, int to) {
+            while (i < to && buf.get(i) < 0) i++;
+            return checked(i + 1, to);
+        }
+
+        private static double fixed64(ByteBuffer buf, int i, int to) {
+            checked(i + 8, to);
+            long bits = 0;
+            for (int k = 7; k >= 0; k--) bits = bits << 8 | (buf.get(i + k) & 0xFFL);
+            return Double.longBitsToDouble(bits);
+        }
+
+        private static int skip(ByteBuffer buf, int i, int to, int wireType) {
+            return switch (wireType) {
+                case 0 -> varintEnd(buf, i, to);
+                case 1 -> checked(i + 8, to);
+                case 2 -> checked(varintEnd(buf, i, to) + (int) varint(buf, i, to), to);
+                case 5 -> checked(i + 4, to);
+                default -> throw new IllegalStateException("Unsupported wire type " + wireType);
+            };
+        }
+
+        private static int checked(int end, int to) {
+            if (end > to || end < 0) throw new IllegalStateException("Truncated protobuf field");
+            return end;
         }
-        if (mem == null || mem.isEmpty()) return null;
-        return mem.values().iterator().next().longValue();
     }
 
-    public Long getFreeMemoryBytes(Map<String, Map<String, Double>> metrics) {
-        // Try multiple metric names - windows_exporter versions use different names
-        Map<String, Double> mem = metrics.get("windows_memory_physical_free_bytes");
-        if (mem == null || mem.isEmpty()) {
-            mem = metrics.get("windows_memory_available_bytes");
+    /**
+     * Parses a sample value. Decimal values with at most 15 significant digits and a small exponent
+     * are computed exactly from their digits; anything else goes through {@link Double#parseDouble}.
+     */
+    static double parseValue(ByteBuffer buf, int from, int to) {
+        int length = to - from;
+        if (length == 3 && matches(buf, from, to, NAN)) return Double.NaN;
+        if (length == 4 && matches(buf, from, to, PLUS_INF)) return Double.POSITIVE_INFINITY;
+        if (length == 4 && matches(buf, from, to, MINUS_INF)) return Double.NEGATIVE_INFINITY;
+
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buf.get(i) == '-' || buf.get(i) == '+')) negative = buf.get(i++) == '-';
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean any = false;
+        boolean dot = false;
+        for (; i < to; i++) {
+            byte b = buf.get(i);
+            if (b >= '0' && b <= '9') {
+                any = true;
+                if (mantissa == 0 && b == '0') {
+                    if (dot) scale--;
+                    continue;
+                }
+                if (digits >= 15) return slowParse(buf, from, to);
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (dot) scale--;
+            } else if (b == '.' && !dot) {
+                dot = true;
+            } else {
+                break;
+            }
+        }
+        if (!any) return slowParse(buf, from, to);
+        if (i < to) {
+            byte b = buf.get(i);
+            if (b != 'e' && b != 'E') return slowParse(buf, from, to);
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (buf.get(i) == '-' || buf.get(i) == '+')) negativeExponent = buf.get(i++) == '-';
+            if (i >= to) return slowParse(buf, from, to);
+            int exponent = 0;
+            for (; i < to; i++) {
+                byte e = buf.get(i);
+                if (e < '0' || e > '9' || exponent > 1000) return slowParse(buf, from, to);
+                exponent = exponent * 10 + (e - '0');
+            }
+            scale += negativeExponent ? -exponent : exponent;
         }
-        if (mem == null || mem.isEmpty()) {
-            mem = metrics.get("windows_os_physical_memory_free_bytes");
+        double value;
+        if (mantissa == 0) {
+            value = 0;
+        } else if (scale >= 0 && scale <= 22) {
+            value = mantissa * POWERS_OF_TEN[scale];
+        } else if (scale < 0 && scale >= -22) {
+            value = mantissa / POWERS_OF_TEN[-scale];
+        } else {
+            return slowParse(buf, from, to);
         }
-        if (mem == null || mem.isEmpty()) return null;
-        return mem.values().iterator().next().longValue();
+        return negative ? -value : value;
     }
 
-    public Double getDiskReadBytesTotal(Map<String, Map<String, Double>> metrics) {
-        return sumMetric(metrics, "windows_logical_disk_read_bytes_total");
+    private static double slowParse(ByteBuffer buf, int from, int to) {
+        byte[] text = new byte[to - from];
+        buf.get(from, text);
+        return Double.parseDouble(new String(text, StandardCharsets.US_ASCII));
     }
 
-    public Double getDiskWriteBytesTotal(Map<String, Map<String, Double>> metrics) {
-        return sumMetric(metrics, "windows_logical_disk_write_bytes_total");
+    private static boolean matches(ByteBuffer buf, int from, int to, byte[] expected) {
+        if (to - from != expected.length) return false;
+        for (int k = 0; k < expected.length; k++) {
+            if (buf.get(from + k) != expected[k]) return false;
+        }
+        return true;
     }
 
-    public Double getNetworkRecvBytesTotal(Map<String, Map<String, Double>> metrics) {
-        return sumMetric(metrics, "windows_net_bytes_received_total");
+    private static int indexOf(ByteBuffer buf, int from, int to, byte b) {
+        for (int i = from; i < to; i++) {
+            if (buf.get(i) == b) return i;
+        }
+        return -1;
     }
 
-    public Double getNetworkSentBytesTotal(Map<String, Map<String, Double>> metrics) {
-        return sumMetric(metrics, "windows_net_bytes_sent_total");
+    private static int skipBlanks(ByteBuffer buf, int from, int to) {
+        int i = from;
+        while (i < to && isBlank(buf.get(i))) i++;
+        return i;
     }
 
-    public Double getSqlBatchRequestsTotal(Map<String, Map<String, Double>> metrics) {
-        Map<String, Double> sqlMetrics = metrics.get("windows_mssql_sql_batch_requests_total");
-        if (sqlMetrics == null || sqlMetrics.isEmpty()) return null;
-        return sqlMetrics.values().iterator().next();
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
     }
 
-    private Double sumMetric(Map<String, Map<String, Double>> metrics, String metricName) {
-        Map<String, Double> metricMap = metrics.get(metricName);
-        if (metricMap == null || metricMap.isEmpty()) return null;
-        return metricMap.values().stream()
-            .filter(v -> !v.isNaN() && !v.isInfinite())
-            .mapToDouble(Double::doubleValue)
-            .sum();
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
     }
 }
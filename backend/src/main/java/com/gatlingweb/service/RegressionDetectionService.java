@@ -0,0 +1,203 @@
+package com.gatlingweb.service;
+
+import com.gatlingweb.dto.RegressionDto;
+import com.gatlingweb.dto.RunOutcome;
+import com.gatlingweb.entity.PerformanceRegression;
+import com.gatlingweb.entity.RunKind;
+import com.gatlingweb.entity.TestRun;
+import com.gatlingweb.entity.TestStatus;
+import com.gatlingweb.repository.PerformanceRegressionRepository;
+import com.gatlingweb.repository.TestRunRepository;
+import com.gatlingweb.timeseries.ChangePointDetector;
+import com.gatlingweb.timeseries.ChangePointDetector.ChangePoint;
+import com.gatlingweb.timeseries.HistogramSignificance;
+import com.gatlingweb.timeseries.LatencyHistogram;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Looks for lasting regressions in the trend of a simulation each time one of its runs completes.
+ * <p>
+ * The last {@value #WINDOW} completed runs, from the start of the previous regression of the metric
+ * if any, are split into segments by {@link ChangePointDetector}. A regression is reported when the
+ * latest segment is at least {@value #MIN_CHANGE_PERCENT} % above the first one; it started at the
+ * first change point from which the metric stays above that level. When the runs have latency
+ * histograms, the runs after the change must also be slower than the runs before it
+ * (Mann–Whitney probability of superiority). New regressions, at most one per change run, are
+ * stored and published on {@code /topic/regressions}.
+ */
+@Service
+public class RegressionDetectionService {
+
+    private static final Logger log = LoggerFactory.getLogger(RegressionDetectionService.class);
+
+    static final String P95 = "p95ResponseTime";
+    static final String MEAN = "meanResponseTime";
+    static final int WINDOW = 100;
+    static final int MIN_SEGMENT = 4;
+    static final int PERMUTATIONS = 199;
+    static final double ALPHA = 0.01;
+    static final double MIN_CHANGE_PERCENT = 5.0;
+    static final double MIN_EFFECT = 0.05;
+    private static final int MAX_LIST = 500;
+
+    private final TestRunRepository testRunRepository;
+    private final PerformanceRegressionRepository repository;
+    private final RunHistogramService histograms;
+    private final SimpMessagingTemplate messaging;
+    // One detection at a time: runs of a simulation are analysed in completion order
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "regression-detection");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public RegressionDetectionService(TestRunRepository testRunRepository, PerformanceRegressionRepository repository,
+                                      RunHistogramService histograms, SimpMessagingTemplate messaging) {
+        this.testRunRepository = testRunRepository;
+        this.repository = repository;
+        this.histograms = histograms;
+        this.messaging = messaging;
+    }
+
+    /** Analyses the trend of the run's simulation in the background when the run completed. */
+    public void runCompleted(TestRun run) {
+        if (run.getStatus() != TestStatus.COMPLETED || run.getSimulationClass() == null) return;
+        String simulationClass = run.getSimulationClass();
+        Long runId = run.getId();
+        executor.execute(() -> {
+            try {
+                detect(simulationClass, runId);
+            } catch (Exception e) {
+                log.warn("Regression detection failed for {} after run #{}: {}", simulationClass, runId, e.getMessage());
+            }
+        });
+    }
+
+    public List<RegressionDto> list(String simulationClass, int limit) {
+        PageRequest page = PageRequest.of(0, Math.max(1, Math.min(limit, MAX_LIST)));
+        List<PerformanceRegression> rows = simulationClass != null && !simulationClass.isBlank()
+            ? repository.findBySimulationClassOrderByIdDesc(simulationClass, page)
+            : repository.findAllByOrderByIdDesc(page);
+        return rows.stream().map(RegressionDto::from).toList();
+    }
+
+    /** Runs the detection for every metric and returns the regressions it recorded. */
+    List<RegressionDto> detect(String simulationClass, Long triggerRunId) {
+        List<RunOutcome> runs = new ArrayList<>(
+            testRunRepository.findCompletedOutcomes(simulationClass, PageRequest.of(0, WINDOW)));
+        Collections.reverse(runs);
+
+        List<RegressionDto> found = new ArrayList<>();
+        detect(simulationClass, triggerRunId, P95, runs, RunOutcome::p95ResponseTime, found);
+        detect(simulationClass, triggerRunId, MEAN, runs, RunOutcome::meanResponseTime, found);
+        return found;
+    }
+
+    private void detect(String simulationClass, Long triggerRunId, String metric, List<RunOutcome> oldestFirst,
+                        Function<RunOutcome, Double> value, List<RegressionDto> found) {
+        // Only look past the previous regression, whose level is the new baseline
+        LocalDateTime since = repository.findFirstBySimulationClassAndMetricOrderByIdDesc(simulationClass, metric)
+            .map(previous -> changeStart(previous, oldestFirst)).orElse(null);
+        List<RunOutcome> runs = new ArrayList<>();
+        for (RunOutcome run : oldestFirst) {
+            if (value.apply(run) == null) continue;
+            if (since != null && (run.startTime() == null || run.startTime().isBefore(since))) continue;
+            runs.add(run);
+        }
+        if (runs.size() < 2 * MIN_SEGMENT) return;
+
+        double[] values = new double[runs.size()];
+        for (int i = 0; i < values.length; i++) values[i] = value.apply(runs.get(i));
+        long seed = 31L * simulationClass.hashCode() + metric.hashCode();
+        List<ChangePoint> changes = ChangePointDetector.detectAll(values, MIN_SEGMENT, PERMUTATIONS, ALPHA, seed);
+        if (changes.isEmpty()) return;
+
+        int[] bounds = new int[changes.size() + 2];
+        for (int i = 0; i < changes.size(); i++) bounds[i + 1] = changes.get(i).index();
+        bounds[bounds.length - 1] = values.length;
+        double baseline = mean(values, bounds[0], bounds[1]);
+        double threshold = baseline * (1 + MIN_CHANGE_PERCENT / 100);
+        double current = mean(values, bounds[bounds.length - 2], values.length);
+        if (baseline <= 0 || current < threshold) return;
+
+        // The regression starts at the first change after which every segment stays above the threshold
+        int start = changes.size() - 1;
+        while (start > 0 && mean(values, bounds[start], bounds[start + 1]) >= threshold) start--;
+        ChangePoint change = changes.get(start);
+
+        List<Long> beforeIds = runs.subList(0, change.index()).stream().map(RunOutcome::id).toList();
+        List<Long> afterIds = runs.subList(change.index(), runs.size()).stream().map(RunOutcome::id).toList();
+        LatencyHistogram before = histograms.merged(RunKind.GATLING, beforeIds);
+        LatencyHistogram after = histograms.merged(RunKind.GATLING, afterIds);
+        Double probabilitySlower = null;
+        if (before.count() > 0 && after.count() > 0) {
+            probabilitySlower = HistogramSignificance.mannWhitney(before, after).probabilityGreater();
+            if (probabilitySlower < 0.5 + MIN_EFFECT) return;
+        }
+
+        RunOutcome changeRun = runs.get(change.index());
+        if (repository.existsBySimulationClassAndMetricAndChangeRunId(simulationClass, metric, changeRun.id())) return;
+        PerformanceRegression regression = new PerformanceRegression();
+        regression.setSimulationClass(simulationClass);
+        regression.setMetric(metric);
+        regression.setChangeRunId(changeRun.id());
+        regression.setChangeVersion(changeRun.version());
+        regression.setDetectedRunId(triggerRunId);
+        regression.setBaselineValue(baseline);
+        regression.setCurrentValue(current);
+        regression.setChangePercent((current - baseline) / baseline * 100);
+        regression.setPValue(change.pValue());
+        regression.setProbabilitySlower(probabilitySlower);
+        regression.setDetectedAt(System.currentTimeMillis());
+        RegressionDto dto = RegressionDto.from(repository.save(regression));
+        log.info("Regression of {} on {} from run #{} (version {}): {} -> {}", metric, simulationClass,
+            changeRun.id(), changeRun.version(), Math.round(baseline), Math.round(current));
+        messaging.convertAndSend("/topic/regressions", dto);
+        found.add(dto);
+    }
+
+    /**
+     * Start of the previous regression: its change run's start time, looked up outside the window
+     * once that run has left it, or the detection time if the run is gone.
+     */
+    private LocalDateTime changeStart(PerformanceRegression previous, List<RunOutcome> window) {
+        for (RunOutcome run : window) {
+            if (run.id().equals(previous.getChangeRunId()) && run.startTime() != null) return run.startTime();
+        }
+        return testRunRepository.findById(previous.getChangeRunId())
+            .map(TestRun::getStartTime)
+            .orElseGet(() -> LocalDateTime.ofInstant(Instant.ofEpochMilli(previous.getDetectedAt()), ZoneId.systemDefault()));
+    }
+
+    private static double mean(double[] values, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) sum += values[i];
+        return sum / (to - from);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
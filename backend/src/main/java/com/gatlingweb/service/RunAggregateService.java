@@ -0,0 +1,201 @@
+package com.gatlingweb.service;
+
+import com.gatlingweb.dto.RunOutcome;
+import com.gatlingweb.dto.TrendDataDto;
+import com.gatlingweb.dto.TrendPointDto;
+import com.gatlingweb.entity.TestRun;
+import com.gatlingweb.entity.TestStatus;
+import com.gatlingweb.entity.ThresholdVerdict;
+import com.gatlingweb.repository.TestRunRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Trend series and dashboard counters kept in memory and updated as runs finish, change or are
+ * deleted, so that the home page and trend charts do not scan the history.
+ * <p>
+ * The state is loaded from the database on first use. Each simulation keeps its last
+ * {@value #TREND_CAPACITY} completed runs; longer trend requests go to the database. The 24 h
+ * summary keeps the finished runs started in the last 24 hours and drops them as they age out.
+ */
+@Service
+public class RunAggregateService {
+
+    static final int TREND_CAPACITY = 200;
+    private static final Comparator<RunOutcome> BY_START = Comparator
+        .comparing(RunOutcome::startTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+        .thenComparing(RunOutcome::id);
+
+    private final TestRunRepository repository;
+
+    private boolean loaded;
+    private long totalRuns;
+    // Completed runs per simulation, oldest first, capped at TREND_CAPACITY
+    private final Map<String, NavigableSet<RunOutcome>> trends = new HashMap<>();
+    // Simulations whose trend lost runs to the cap; a deletion there needs a reload
+    private final Set<String> truncated = new HashSet<>();
+    // Finished (completed or failed) runs per simulation, for the simulation list
+    private final Map<String, Integer> finishedPerSimulation = new TreeMap<>();
+    private final Map<Long, RunOutcome> finishedById = new HashMap<>();
+    // Finished runs started within the last 24 h, oldest first, and their running totals
+    private final NavigableSet<RunOutcome> lastDay = new TreeSet<>(BY_START);
+    private long completedLastDay;
+    private long failedLastDay;
+    private double meanSumLastDay;
+    private long meanCountLastDay;
+
+    public RunAggregateService(TestRunRepository repository) {
+        this.repository = repository;
+    }
+
+    public synchronized TrendDataDto getTrends(String simulationClass, int limit) {
+        ensureLoaded();
+        List<RunOutcome> recent = new ArrayList<>(Math.min(limit, TREND_CAPACITY));
+        NavigableSet<RunOutcome> trend = trends.get(simulationClass);
+        if (limit > TREND_CAPACITY && truncated.contains(simulationClass)) {
+            recent.addAll(repository.findCompletedOutcomes(simulationClass, PageRequest.of(0, limit)));
+        } else if (trend != null) {
+            Iterator<RunOutcome> newestFirst = trend.descendingIterator();
+            while (newestFirst.hasNext() && recent.size() < limit) recent.add(newestFirst.next());
+        }
+        Collections.reverse(recent);
+
+        List<TrendPointDto> points = new ArrayList<>(recent.size());
+        long passCount = 0;
+        long withVerdict = 0;
+        for (RunOutcome run : recent) {
+            points.add(run.toTrendPoint());
+            if (run.thresholdVerdict() != null) {
+                withVerdict++;
+                if (run.thresholdVerdict() == ThresholdVerdict.PASSED) passCount++;
+            }
+        }
+        double passRate = withVerdict > 0 ? (double) passCount / withVerdict * 100 : 0;
+        return new TrendDataDto(simulationClass, points, passRate);
+    }
+
+    public synchronized List<String> getSimulationClasses() {
+        ensureLoaded();
+        return List.copyOf(finishedPerSimulation.keySet());
+    }
+
+    public synchronized Map<String, Object> getSummary() {
+        ensureLoaded();
+        expireLastDay(LocalDateTime.now().minusHours(24));
+        long total24h = completedLastDay + failedLastDay;
+        double successRate = total24h > 0 ? (double) completedLastDay / total24h * 100 : 0;
+        Double avgRt = meanCountLastDay > 0 ? meanSumLastDay / meanCountLastDay : null;
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("tests24h", total24h);
+        summary.put("successRate24h", Math.round(successRate * 10) / 10.0);
+        summary.put("avgResponseTime24h", avgRt != null ? Math.round(avgRt * 10) / 10.0 : null);
+        summary.put("totalTests", totalRuns);
+        return summary;
+    }
+
+    public synchronized void runCreated() {
+        if (loaded) totalRuns++;
+    }
+
+    /** Records the final state of a run; also used when a finished run is edited. */
+    public synchronized void runChanged(TestRun run) {
+        if (!loaded) return;
+        remove(run.getId());
+        if (run.getStatus() == TestStatus.COMPLETED || run.getStatus() == TestStatus.FAILED) {
+            add(RunOutcome.from(run));
+        }
+    }
+
+    public synchronized void runDeleted(Long id, boolean existed) {
+        if (!loaded) return;
+        if (existed) totalRuns--;
+        RunOutcome removed = remove(id);
+        if (removed != null && truncated.contains(removed.simulationClass())) {
+            reloadTrend(removed.simulationClass());
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        totalRuns = repository.count();
+        for (RunOutcome outcome : repository.findFinishedOutcomes()) {
+            add(outcome);
+        }
+        loaded = true;
+    }
+
+    private void add(RunOutcome run) {
+        finishedById.put(run.id(), run);
+        finishedPerSimulation.merge(run.simulationClass(), 1, Integer::sum);
+        if (run.status() == TestStatus.COMPLETED) {
+            NavigableSet<RunOutcome> trend = trends.computeIfAbsent(run.simulationClass(), s -> new TreeSet<>(BY_START));
+            trend.add(run);
+            if (trend.size() > TREND_CAPACITY) {
+                trend.pollFirst();
+                truncated.add(run.simulationClass());
+            }
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(24);
+        if (run.startTime() != null && run.startTime().isAfter(cutoff)) {
+            lastDay.add(run);
+            count(run, 1);
+        }
+    }
+
+    private RunOutcome remove(Long id) {
+        RunOutcome run = finishedById.remove(id);
+        if (run == null) return null;
+        finishedPerSimulation.computeIfPresent(run.simulationClass(), (s, n) -> n > 1 ? n - 1 : null);
+        NavigableSet<RunOutcome> trend = trends.get(run.simulationClass());
+        if (trend != null) {
+            trend.remove(run);
+            if (trend.isEmpty() && !truncated.contains(run.simulationClass())) trends.remove(run.simulationClass());
+        }
+        if (lastDay.remove(run)) count(run, -1);
+        return run;
+    }
+
+    private void reloadTrend(String simulationClass) {
+        List<RunOutcome> newestFirst = repository.findCompletedOutcomes(simulationClass,
+            PageRequest.of(0, TREND_CAPACITY + 1));
+        NavigableSet<RunOutcome> trend = new TreeSet<>(BY_START);
+        trend.addAll(newestFirst.subList(0, Math.min(newestFirst.size(), TREND_CAPACITY)));
+        if (newestFirst.size() <= TREND_CAPACITY) truncated.remove(simulationClass);
+        if (trend.isEmpty()) trends.remove(simulationClass); else trends.put(simulationClass, trend);
+    }
+
+    private void expireLastDay(LocalDateTime cutoff) {
+        while (!lastDay.isEmpty() && !lastDay.first().startTime().isAfter(cutoff)) {
+            count(lastDay.pollFirst(), -1);
+        }
+    }
+
+    private void count(RunOutcome run, int sign) {
+        if (run.status() == TestStatus.COMPLETED) {
+            completedLastDay += sign;
+            if (run.meanResponseTime() != null) {
+                meanSumLastDay += sign * run.meanResponseTime();
+                meanCountLastDay += sign;
+            }
+        } else {
+            failedLastDay += sign;
+        }
+        if (meanCountLastDay == 0) meanSumLastDay = 0; // no rounding residue once the window empties
+    }
+}
@@ -0,0 +1,176 @@
+package com.gatlingweb.service;
+
+import com.gatlingweb.config.ParallelTasks;
+import com.gatlingweb.dto.ComparedRunDto;
+import com.gatlingweb.dto.DistributionShiftDto;
+import com.gatlingweb.dto.DistributionShiftDto.Verdict;
+import com.gatlingweb.dto.ElapsedPointDto;
+import com.gatlingweb.dto.LatencyDistributionDto;
+import com.gatlingweb.dto.MetricsSnapshot;
+import com.gatlingweb.dto.MultiRunComparisonDto;
+import com.gatlingweb.dto.TestRunDto;
+import com.gatlingweb.entity.RunKind;
+import com.gatlingweb.entity.TestRun;
+import com.gatlingweb.repository.TestRunRepository;
+import com.gatlingweb.timeseries.HistogramSignificance;
+import com.gatlingweb.timeseries.HistogramSignificance.KolmogorovSmirnov;
+import com.gatlingweb.timeseries.HistogramSignificance.MannWhitney;
+import com.gatlingweb.timeseries.LatencyHistogram;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+/**
+ * Compares N Gatling runs with the first one as baseline. Latency distributions are compared
+ * from the stored histograms with Kolmogorov–Smirnov and Mann–Whitney tests, overall and per
+ * request, and time series are put on a shared elapsed-time grid. Each run is loaded and
+ * compared on the comparison executor, so ten long soak tests take about as long as one.
+ * <p>
+ * {@code alpha} is family-wise: it is split (Bonferroni) over the runs compared to the
+ * baseline, and over the requests of each run. A difference is only flagged when it is also at
+ * least {@code minEffect} large, as with millions of samples nearly every p-value is tiny.
+ */
+@Service
+public class RunComparisonService {
+
+    static final int MAX_RUNS = 20;
+    static final int MAX_REQUEST_SHIFTS = 50;
+    private static final List<Double> PERCENTILES = List.of(50.0, 75.0, 90.0, 95.0, 99.0, 99.9);
+
+    private final TestRunRepository repository;
+    private final RunHistogramService histograms;
+    private final MetricsPersistenceService metricsPersistence;
+    private final Executor executor;
+
+    private record RunData(TestRun run, Optional<LatencyHistogram> overall,
+                           Map<String, LatencyHistogram> requests, List<MetricsSnapshot> series) {}
+
+    public RunComparisonService(TestRunRepository repository, RunHistogramService histograms,
+                                MetricsPersistenceService metricsPersistence,
+                                @Qualifier("comparisonExecutor") Executor executor) {
+        this.repository = repository;
+        this.histograms = histograms;
+        this.metricsPersistence = metricsPersistence;
+        this.executor = executor;
+    }
+
+    public MultiRunComparisonDto compare(List<Long> runIds, double alpha, double minEffect, int maxPoints) {
+        List<Long> ids = List.copyOf(new LinkedHashSet<>(runIds));
+        if (ids.size() < 2 || ids.size() > MAX_RUNS) {
+            throw new IllegalArgumentException("Between 2 and " + MAX_RUNS + " runs can be compared");
+        }
+        if (!(alpha > 0 && alpha < 1)) throw new IllegalArgumentException("alpha must be in (0, 1)");
+        if (!(minEffect >= 0 && minEffect <= 1)) throw new IllegalArgumentException("minEffect must be in [0, 1]");
+        if (maxPoints < 10 || maxPoints > 10_000) throw new IllegalArgumentException("maxPoints must be in [10, 10000]");
+
+        List<RunData> data = ParallelTasks.inParallel(executor, ids, id -> load(id, maxPoints));
+        long stepMs = gridStep(data, maxPoints);
+        RunData baseline = data.get(0);
+        double runAlpha = alpha / (ids.size() - 1);
+        List<ComparedRunDto> runs = ParallelTasks.inParallel(executor, data, run -> run == baseline
+            ? compared(run, null, List.of(), stepMs)
+            : compared(run, shift(null, baseline.overall(), run.overall(), runAlpha, minEffect),
+                requestShifts(baseline, run, runAlpha, minEffect), stepMs));
+        return new MultiRunComparisonDto(ids.get(0), alpha, minEffect, stepMs, runs);
+    }
+
+    private RunData load(Long id, int maxPoints) {
+        TestRun run = repository.findById(id)
+            .orElseThrow(() -> new IllegalArgumentException("Test run not found: " + id));
+        return new RunData(run, histograms.overall(RunKind.GATLING, id), histograms.byRequest(RunKind.GATLING, id),
+            metricsPersistence.getMetrics(id, null, null, null, maxPoints));
+    }
+
+    private ComparedRunDto compared(RunData data, DistributionShiftDto shift, List<DistributionShiftDto> requestShifts,
+                                    long stepMs) {
+        LatencyDistributionDto distribution = data.overall()
+            .map(h -> LatencyDistributionDto.of(h, PERCENTILES)).orElse(null);
+        return new ComparedRunDto(TestRunDto.from(data.run()), distribution, shift, requestShifts,
+            align(data.series(), stepMs));
+    }
+
+    private static List<DistributionShiftDto> requestShifts(RunData baseline, RunData run, double alpha, double minEffect) {
+        List<String> common = run.requests().keySet().stream().filter(baseline.requests()::containsKey).sorted().toList();
+        if (common.isEmpty()) return List.of();
+        double requestAlpha = alpha / common.size();
+        List<DistributionShiftDto> shifts = new ArrayList<>(common.size());
+        for (String name : common) {
+            shifts.add(shift(name, Optional.of(baseline.requests().get(name)), Optional.of(run.requests().get(name)),
+                requestAlpha, minEffect));
+        }
+        // Largest changes first; only those are worth listing when a simulation has many requests
+        shifts.sort(Comparator.comparing(DistributionShiftDto::ksStatistic,
+            Comparator.nullsLast(Comparator.reverseOrder())));
+        return List.copyOf(shifts.subList(0, Math.min(shifts.size(), MAX_REQUEST_SHIFTS)));
+    }
+
+    static DistributionShiftDto shift(String requestName, Optional<LatencyHistogram> baseline,
+                                      Optional<LatencyHistogram> run, double alpha, double minEffect) {
+        long baselineCount = baseline.map(LatencyHistogram::count).orElse(0L);
+        long count = run.map(LatencyHistogram::count).orElse(0L);
+        if (baselineCount == 0 || count == 0) {
+            return new DistributionShiftDto(requestName, baselineCount, count, null, null, null, null, null,
+                Verdict.NO_DATA);
+        }
+        LatencyHistogram a = baseline.get();
+        LatencyHistogram b = run.get();
+        KolmogorovSmirnov ks = HistogramSignificance.kolmogorovSmirnov(a, b);
+        MannWhitney mw = HistogramSignificance.mannWhitney(a, b);
+        double p95A = a.quantile(0.95);
+        Double p95Change = p95A > 0 ? (b.quantile(0.95) - p95A) / p95A * 100 : null;
+        return new DistributionShiftDto(requestName, baselineCount, count, ks.statistic(), ks.pValue(), mw.pValue(),
+            mw.probabilityGreater(), p95Change, verdict(ks, mw, alpha, minEffect));
+    }
+
+    static Verdict verdict(KolmogorovSmirnov ks, MannWhitney mw, double alpha, double minEffect) {
+        boolean shifted = mw.pValue() < alpha && Math.abs(mw.probabilityGreater() - 0.5) >= minEffect;
+        if (shifted) return mw.probabilityGreater() > 0.5 ? Verdict.SLOWER : Verdict.FASTER;
+        boolean reshaped = ks.pValue() < alpha && ks.statistic() >= minEffect;
+        return reshaped ? Verdict.CHANGED : Verdict.UNCHANGED;
+    }
+
+    /** Grid step shared by all runs: whole seconds, so that the longest run fits in {@code maxPoints} slots. */
+    static long gridStep(List<RunData> data, int maxPoints) {
+        long longest = 0;
+        for (RunData d : data) {
+            if (d.series().size() > 1) {
+                longest = Math.max(longest, d.series().get(d.series().size() - 1).timestamp() - d.series().get(0).timestamp());
+            }
+        }
+        long step = (longest + maxPoints - 1) / maxPoints;
+        return Math.max(1000, (step + 999) / 1000 * 1000);
+    }
+
+    /** Averages the points of a run into the slots of the grid, elapsed time counted from its first point. */
+    static List<ElapsedPointDto> align(List<MetricsSnapshot> series, long stepMs) {
+        List<ElapsedPointDto> aligned = new ArrayList<>();
+        if (series.isEmpty()) return aligned;
+        long start = series.get(0).timestamp();
+        long slot = -1;
+        int n = 0;
+        double rps = 0, eps = 0, mean = 0, p95 = 0;
+        for (MetricsSnapshot s : series) {
+            long pointSlot = (s.timestamp() - start) / stepMs;
+            if (pointSlot != slot && n > 0) {
+                aligned.add(new ElapsedPointDto(slot * stepMs, rps / n, eps / n, mean / n, p95 / n));
+                n = 0;
+                rps = eps = mean = p95 = 0;
+            }
+            slot = pointSlot;
+            n++;
+            rps += s.requestsPerSecond();
+            eps += s.errorsPerSecond();
+            mean += s.meanResponseTime();
+            p95 += s.p95();
+        }
+        aligned.add(new ElapsedPointDto(slot * stepMs, rps / n, eps / n, mean / n, p95 / n));
+        return aligned;
+    }
+}
@@ -0,0 +1,192 @@
+package com.gatlingweb.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.gatlingweb.dto.InfraMetricsSnapshot;
+import com.gatlingweb.dto.MetricsSnapshot;
+import com.gatlingweb.dto.TestRunDto;
+import com.gatlingweb.entity.TestRun;
+import com.gatlingweb.repository.TestRunRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Writes exports straight to the response stream. Runs are read through a database cursor and
+ * detached once written, metrics block by block from the store, so heap use does not grow with
+ * the size of the history.
+ */
+@Service
+public class RunExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String RUNS_CSV_HEADER = "id,simulationClass,version,status,startTime,endTime,totalRequests,"
+        + "totalErrors,meanResponseTime,p50,p75,p95,p99,errorRate,labels,verdict\n";
+    private static final String METRICS_CSV_HEADER = "timestamp,requestsPerSecond,errorsPerSecond,meanResponseTime,"
+        + "p50,p75,p95,p99,activeUsers,totalRequests,totalErrors\n";
+    private static final String INFRA_CSV_HEADER = "timestamp,serverId,serverName,serverType,cpuPercent,"
+        + "memoryUsedBytes,memoryTotalBytes,memoryPercent,diskReadBytesPerSec,diskWriteBytesPerSec,"
+        + "networkRecvBytesPerSec,networkSentBytesPerSec,sqlBatchPerSec\n";
+
+    private final TestRunRepository repository;
+    private final MetricsPersistenceService metricsPersistence;
+    private final ObjectWriter dtoWriter;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    public RunExportService(TestRunRepository repository, MetricsPersistenceService metricsPersistence,
+                            ObjectMapper objectMapper, EntityManager entityManager) {
+        this.repository = repository;
+        this.metricsPersistence = metricsPersistence;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        // Let the generator buffer; flushing after every run would turn each one into a network write
+        this.dtoWriter = objectMapper.writerFor(TestRunDto.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Transactional(readOnly = true)
+    public void writeRunsCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(RUNS_CSV_HEADER);
+        try (Stream<TestRun> runs = repository.streamAllByOrderByStartTimeDesc()) {
+            Iterator<TestRun> it = runs.iterator();
+            while (it.hasNext()) {
+                TestRun run = it.next();
+                writeRunCsv(writer, run);
+                entityManager.detach(run);
+            }
+        }
+        writer.flush();
+    }
+
+    @Transactional(readOnly = true)
+    public void writeRunsJson(OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+             Stream<TestRun> runs = repository.streamAllByOrderByStartTimeDesc()) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartArray();
+            Iterator<TestRun> it = runs.iterator();
+            while (it.hasNext()) {
+                TestRun run = it.next();
+                dtoWriter.writeValue(json, TestRunDto.from(run));
+                entityManager.detach(run);
+            }
+            json.writeEndArray();
+        }
+    }
+
+    public void writeMetricsCsv(Long testRunId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(METRICS_CSV_HEADER);
+        forEach(consumer -> metricsPersistence.forEachMetric(testRunId, consumer), (MetricsSnapshot s) -> {
+            writer.append(Long.toString(s.timestamp())).append(',')
+                .append(number(s.requestsPerSecond())).append(',')
+                .append(number(s.errorsPerSecond())).append(',')
+                .append(number(s.meanResponseTime())).append(',')
+                .append(number(s.p50())).append(',')
+                .append(number(s.p75())).append(',')
+                .append(number(s.p95())).append(',')
+                .append(number(s.p99())).append(',')
+                .append(Integer.toString(s.activeUsers())).append(',')
+                .append(Long.toString(s.totalRequests())).append(',')
+                .append(Long.toString(s.totalErrors())).append('\n');
+        });
+        writer.flush();
+    }
+
+    public void writeInfraMetricsCsv(Long testRunId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(INFRA_CSV_HEADER);
+        forEach(consumer -> metricsPersistence.forEachInfraMetric(testRunId, consumer), (InfraMetricsSnapshot s) -> {
+            writer.append(Long.toString(s.timestamp())).append(',')
+                .append(s.serverId() != null ? s.serverId().toString() : "").append(',')
+                .append(csvEscape(s.serverName())).append(',')
+                .append(s.serverType() != null ? s.serverType().name() : "").append(',')
+                .append(number(s.cpuPercent())).append(',')
+                .append(number(s.memoryUsedBytes())).append(',')
+                .append(number(s.memoryTotalBytes())).append(',')
+                .append(number(s.memoryPercent())).append(',')
+                .append(number(s.diskReadBytesPerSec())).append(',')
+                .append(number(s.diskWriteBytesPerSec())).append(',')
+                .append(number(s.networkRecvBytesPerSec())).append(',')
+                .append(number(s.networkSentBytesPerSec())).append(',')
+                .append(number(s.sqlBatchPerSec())).append('\n');
+        });
+        writer.flush();
+    }
+
+    private void writeRunCsv(Writer w, TestRun r) throws IOException {
+        long totalReq = r.getTotalRequests() != null ? r.getTotalRequests() : 0;
+        long totalErr = r.getTotalErrors() != null ? r.getTotalErrors() : 0;
+        double errRate = totalReq > 0 ? (double) totalErr / totalReq * 100 : 0;
+        w.append(String.valueOf(r.getId())).append(',');
+        w.append(csvEscape(r.getSimulationClass())).append(',');
+        w.append(csvEscape(r.getVersion())).append(',');
+        w.append(String.valueOf(r.getStatus())).append(',');
+        w.append(r.getStartTime() != null ? r.getStartTime().toString() : "").append(',');
+        w.append(r.getEndTime() != null ? r.getEndTime().toString() : "").append(',');
+        w.append(Long.toString(totalReq)).append(',');
+        w.append(Long.toString(totalErr)).append(',');
+        w.append(oneDecimal(r.getMeanResponseTime())).append(',');
+        w.append(oneDecimal(r.getP50ResponseTime())).append(',');
+        w.append(oneDecimal(r.getP75ResponseTime())).append(',');
+        w.append(oneDecimal(r.getP95ResponseTime())).append(',');
+        w.append(oneDecimal(r.getP99ResponseTime())).append(',');
+        w.append(String.format(Locale.ROOT, "%.2f", errRate)).append(',');
+        w.append(csvEscape(r.getLabels() != null ? String.join(",", r.getLabels()) : "")).append(',');
+        w.append(r.getThresholdVerdict() != null ? r.getThresholdVerdict().name() : "").append('\n');
+    }
+
+    private static String oneDecimal(Double value) {
+        return value != null ? String.format(Locale.ROOT, "%.1f", value) : "";
+    }
+
+    private static String number(Number value) {
+        if (value == null) return "";
+        double d = value.doubleValue();
+        if (Double.isNaN(d)) return "";
+        return d == Math.rint(d) && Math.abs(d) < 1e15 ? Long.toString((long) d) : String.format(Locale.ROOT, "%.3f", d);
+    }
+
+    private static String csvEscape(String val) {
+        if (val == null) return "";
+        if (val.contains(",") || val.contains("\"") || val.contains("\n")) {
+            return "\"" + val.replace("\"", "\"\"") + "\"";
+        }
+        return val;
+    }
+
+    /** Lets a row writer that throws IOException run inside a Consumer-based scan. */
+    private static <T> void forEach(Consumer<Consumer<T>> source, RowWriter<T> rowWriter) throws IOException {
+        try {
+            source.accept(row -> {
+                try {
+                    rowWriter.write(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowWriter<T> {
+        void write(T row) throws IOException;
+    }
+}
@@ -0,0 +1,118 @@
+package com.gatlingweb.service;
+
+import com.gatlingweb.dto.LatencyDistributionDto;
+import com.gatlingweb.dto.RunDistributionDto;
+import com.gatlingweb.entity.RunHistogram;
+import com.gatlingweb.entity.RunKind;
+import com.gatlingweb.repository.RunHistogramRepository;
+import com.gatlingweb.timeseries.LatencyHistogram;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Latency histograms of finished runs, overall and per request. Histograms merge losslessly, so
+ * quantiles of several runs, or at percentiles nobody stored, are read from the merged histogram
+ * instead of averaging per-run or per-second percentiles.
+ */
+@Service
+public class RunHistogramService {
+
+    /** Stored under this request name: the histogram of the whole run. */
+    public static final String OVERALL = "";
+    public static final List<Double> DEFAULT_PERCENTILES = List.of(50.0, 75.0, 90.0, 95.0, 99.0, 99.9);
+    static final int MAX_RUNS = 100;
+
+    private final RunHistogramRepository repository;
+
+    public RunHistogramService(RunHistogramRepository repository) {
+        this.repository = repository;
+    }
+
+    /** Replaces the stored histograms of the run; empty histograms are not stored. */
+    @Transactional
+    public void save(RunKind kind, Long runId, LatencyHistogram overall, Map<String, LatencyHistogram> byRequest) {
+        repository.deleteRun(kind, runId);
+        List<RunHistogram> rows = new ArrayList<>(byRequest.size() + 1);
+        if (overall.count() > 0) {
+            rows.add(new RunHistogram(kind, runId, OVERALL, overall.count(), overall.toBytes()));
+        }
+        byRequest.forEach((name, histogram) -> {
+            if (histogram.count() > 0 && !OVERALL.equals(name)) {
+                rows.add(new RunHistogram(kind, runId, name, histogram.count(), histogram.toBytes()));
+            }
+        });
+        repository.saveAll(rows);
+    }
+
+    public Optional<LatencyHistogram> overall(RunKind kind, Long runId) {
+        List<RunHistogram> rows = repository.findByRunKindAndRunIdInAndRequestName(kind, List.of(runId), OVERALL);
+        return rows.isEmpty() ? Optional.empty() : Optional.of(LatencyHistogram.fromBytes(rows.get(0).getHistogram()));
+    }
+
+    /** Histograms per request of the run, by request name; empty for runs recorded before histograms. */
+    public Map<String, LatencyHistogram> byRequest(RunKind kind, Long runId) {
+        Map<String, LatencyHistogram> histograms = new TreeMap<>();
+        for (RunHistogram row : repository.findByRunKindAndRunId(kind, runId)) {
+            if (!OVERALL.equals(row.getRequestName())) {
+                histograms.put(row.getRequestName(), LatencyHistogram.fromBytes(row.getHistogram()));
+            }
+        }
+        return histograms;
+    }
+
+    /** Overall histograms of the runs merged into one; runs without a histogram are skipped. */
+    public LatencyHistogram merged(RunKind kind, Collection<Long> runIds) {
+        LatencyHistogram merged = new LatencyHistogram();
+        for (RunHistogram row : repository.findByRunKindAndRunIdInAndRequestName(kind, runIds, OVERALL)) {
+            merged.merge(LatencyHistogram.fromBytes(row.getHistogram()));
+        }
+        return merged;
+    }
+
+    public RunDistributionDto distribution(RunKind kind, Collection<Long> runIds, List<Double> percentiles) {
+        List<Long> ids = List.copyOf(new LinkedHashSet<>(runIds));
+        if (ids.isEmpty() || ids.size() > MAX_RUNS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_RUNS + " runs can be merged");
+        }
+        LatencyHistogram overall = new LatencyHistogram();
+        Map<String, LatencyHistogram> requests = new TreeMap<>();
+        for (RunHistogram row : repository.findByRunKindAndRunIdIn(kind, ids)) {
+            LatencyHistogram histogram = LatencyHistogram.fromBytes(row.getHistogram());
+            if (OVERALL.equals(row.getRequestName())) {
+                overall.merge(histogram);
+            } else {
+                requests.computeIfAbsent(row.getRequestName(), n -> new LatencyHistogram()).merge(histogram);
+            }
+        }
+        Map<String, LatencyDistributionDto> requestDistributions = new TreeMap<>();
+        requests.forEach((name, h) -> requestDistributions.put(name, LatencyDistributionDto.of(h, percentiles)));
+        return new RunDistributionDto(ids, LatencyDistributionDto.of(overall, percentiles), requestDistributions);
+    }
+
+    /** Parses a comma-separated list of percentiles such as {@code 50,99,99.9}; null gives the defaults. */
+    public static List<Double> parsePercentiles(String csv) {
+        if (csv == null || csv.isBlank()) return DEFAULT_PERCENTILES;
+        List<Double> percentiles = new ArrayList<>();
+        for (String part : csv.split(",")) {
+            double p;
+            try {
+                p = Double.parseDouble(part.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid percentile: " + part.trim());
+            }
+            if (!(p > 0 && p <= 100)) {
+                throw new IllegalArgumentException("Percentiles must be in (0, 100]: " + part.trim());
+            }
+            percentiles.add(p);
+        }
+        return percentiles;
+    }
+}
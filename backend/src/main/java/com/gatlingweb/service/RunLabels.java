@@ -0,0 +1,28 @@
+package com.gatlingweb.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/** Labels of a page of history rows, fetched in one batch rather than per row. */
+public final class RunLabels {
+
+    private RunLabels() {}
+
+    /**
+     * Labels of each row's run, keyed by run id; runs without labels are absent. {@code findLabels}
+     * returns (run id, label) pairs, as the run repositories' {@code findLabels} queries do.
+     */
+    public static <R> Map<Long, List<String>> of(List<R> rows, Function<R, Long> id,
+                                                 Function<Collection<Long>, List<Object[]>> findLabels) {
+        if (rows.isEmpty()) return Map.of();
+        Map<Long, List<String>> labels = new HashMap<>();
+        for (Object[] row : findLabels.apply(rows.stream().map(id).toList())) {
+            labels.computeIfAbsent((Long) row[0], runId -> new ArrayList<>()).add((String) row[1]);
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,87 @@
+package com.gatlingweb.service;
+
+import com.gatlingweb.entity.TestRun;
+import com.gatlingweb.entity.TestStatus;
+import com.gatlingweb.entity.ThresholdVerdict;
+import com.gatlingweb.repository.TestRunRepository;
+import com.gatlingweb.search.RunIndex;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Faceted search over Gatling runs: simulation, version, label, status and verdict facets, and
+ * free text over the simulation class, version, labels and notes. The index is built from the
+ * database on first use and kept current by {@link TestRunService}.
+ */
+@Service
+public class RunSearchService {
+
+    public static final List<String> FACETS = List.of("simulation", "version", "label", "status", "verdict");
+
+    private final TestRunRepository repository;
+    private final RunIndex index = new RunIndex(FACETS);
+    private volatile boolean loaded;
+
+    public RunSearchService(TestRunRepository repository) {
+        this.repository = repository;
+    }
+
+    /** Newest-first hits; filters map facet names to accepted values. */
+    public RunIndex.Hits search(String text, Map<String, ? extends Collection<String>> filters, int offset, int limit) {
+        ensureLoaded();
+        return index.search(new RunIndex.Query(filters, text, offset, limit));
+    }
+
+    public synchronized void runChanged(TestRun run) {
+        if (!loaded) return;
+        index.put(doc(run.getId(), run.getSimulationClass(), run.getVersion(), run.getStatus(),
+            run.getThresholdVerdict(), run.getNotes(), run.getStartTime(), run.getLabels()));
+    }
+
+    public synchronized void runDeleted(Long id) {
+        if (loaded) index.remove(id);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            Map<Long, List<String>> labels = new HashMap<>();
+            for (Object[] row : repository.findAllLabels()) {
+                labels.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+            }
+            for (Object[] row : repository.findSearchFields()) {
+                Long id = (Long) row[0];
+                index.put(doc(id, (String) row[1], (String) row[2], (TestStatus) row[3], (ThresholdVerdict) row[4],
+                    (String) row[5], (LocalDateTime) row[6], labels.getOrDefault(id, List.of())));
+            }
+            loaded = true;
+        }
+    }
+
+    private static RunIndex.Doc doc(Long id, String simulationClass, String version, TestStatus status,
+                                    ThresholdVerdict verdict, String notes, LocalDateTime startTime,
+                                    Collection<String> labels) {
+        Map<String, Collection<String>> facets = new HashMap<>();
+        facets.put("simulation", single(simulationClass));
+        facets.put("version", single(version));
+        facets.put("label", labels != null ? labels : List.of());
+        facets.put("status", single(status != null ? status.name() : null));
+        facets.put("verdict", single(verdict != null ? verdict.name() : null));
+        String text = String.join(" ", simulationClass != null ? simulationClass : "", version != null ? version : "",
+            labels != null ? String.join(" ", labels) : "", notes != null ? notes : "");
+        long sortKey = startTime != null ? startTime.toInstant(ZoneOffset.UTC).toEpochMilli() : Long.MIN_VALUE;
+        return new RunIndex.Doc(id, sortKey, facets, text);
+    }
+
+    private static List<String> single(String value) {
+        return value != null ? List.of(value) : List.of();
+    }
+}
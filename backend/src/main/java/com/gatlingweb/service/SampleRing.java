@@ -0,0 +1,35 @@
+package com.gatlingweb.service;
+
+import com.gatlingweb.dto.InfraMetricsSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** The latest samples of one server in a fixed-size ring: once full, each sample replaces the oldest. */
+final class SampleRing {
+
+    private final InfraMetricsSnapshot[] samples;
+    private int next;
+    private int size;
+
+    SampleRing(int capacity) {
+        this.samples = new InfraMetricsSnapshot[Math.max(1, capacity)];
+    }
+
+    synchronized void add(InfraMetricsSnapshot sample) {
+        samples[next] = sample;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+    }
+
+    /** Samples stamped at or after {@code from}, oldest first. */
+    synchronized List<InfraMetricsSnapshot> since(long from) {
+        List<InfraMetricsSnapshot> result = new ArrayList<>(size);
+        int oldest = (next - size + samples.length) % samples.length;
+        for (int i = 0; i < size; i++) {
+            InfraMetricsSnapshot sample = samples[(oldest + i) % samples.length];
+            if (sample.timestamp() >= from) result.add(sample);
+        }
+        return result;
+    }
+}
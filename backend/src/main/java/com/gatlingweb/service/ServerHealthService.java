@@ -0,0 +1,151 @@
+package com.gatlingweb.service;
+
+import com.gatlingweb.dto.ServerHealthDto;
+import com.gatlingweb.entity.MonitoredServer;
+import com.gatlingweb.repository.MonitoredServerRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Health of the monitored servers, updated in memory by every scrape and pushed on
+ * {@code /topic/server-health}. The status columns of {@code monitored_servers} are written when a
+ * server goes up or down, and otherwise every {@code health-persist-interval-ms} for the servers
+ * scraped meanwhile: scraping no longer costs a write per server and tick on the SQLite connection.
+ */
+@Service
+public class ServerHealthService {
+
+    private static final Logger log = LoggerFactory.getLogger(ServerHealthService.class);
+    static final String TOPIC = "/topic/server-health";
+
+    private final MonitoredServerRepository repository;
+    private final SimpMessagingTemplate messaging;
+    private final ConcurrentHashMap<Long, Health> servers = new ConcurrentHashMap<>();
+
+    public ServerHealthService(MonitoredServerRepository repository, SimpMessagingTemplate messaging) {
+        this.repository = repository;
+        this.messaging = messaging;
+    }
+
+    public void recordSuccess(MonitoredServer server, LocalDateTime at, Long scrapeMs) {
+        record(server, true, at, scrapeMs, null);
+    }
+
+    public void recordFailure(MonitoredServer server, LocalDateTime at, String error) {
+        record(server, false, at, null, error);
+    }
+
+    /** Servers scraped since startup, by id. */
+    public List<ServerHealthDto> list() {
+        return servers.values().stream()
+            .map(Health::toDto)
+            .sorted(Comparator.comparing(ServerHealthDto::serverId))
+            .toList();
+    }
+
+    /** The server's health, null when it has not been scraped since startup. */
+    public ServerHealthDto get(Long serverId) {
+        Health health = servers.get(serverId);
+        return health != null ? health.toDto() : null;
+    }
+
+    public void forget(Long serverId) {
+        servers.remove(serverId);
+    }
+
+    /** Writes the status of the servers scraped since it was last written. */
+    @Scheduled(fixedDelayString = "${app.monitoring.health-persist-interval-ms:60000}",
+               initialDelayString = "${app.monitoring.health-persist-interval-ms:60000}")
+    public void flush() {
+        for (Health health : servers.values()) {
+            if (health.dirty) persist(health);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private void record(MonitoredServer server, boolean up, LocalDateTime at, Long scrapeMs, String error) {
+        Health health = servers.computeIfAbsent(server.getId(), Health::new);
+        boolean transition;
+        ServerHealthDto dto;
+        synchronized (health) {
+            transition = health.record(server.getName(), up, at, scrapeMs, error);
+            dto = health.toDto();
+        }
+        // First scrape since startup counts: the stored status may be from before a restart
+        if (transition) persist(health);
+        messaging.convertAndSend(TOPIC, dto);
+    }
+
+    private void persist(Health health) {
+        LocalDateTime lastSeenAt;
+        String lastError;
+        synchronized (health) {
+            lastSeenAt = health.lastSeenAt;
+            lastError = health.lastError;
+            health.dirty = false;
+        }
+        try {
+            if (repository.updateStatus(health.serverId, lastSeenAt, lastError) == 0) {
+                // Deleted while being scraped
+                servers.remove(health.serverId, health);
+            }
+        } catch (RuntimeException e) {
+            health.dirty = true;
+            log.warn("Could not store the status of server {}: {}", health.serverId, e.getMessage());
+        }
+    }
+
+    private static final class Health {
+        final Long serverId;
+        String serverName;
+        // Null until the first scrape
+        Boolean up;
+        LocalDateTime since;
+        LocalDateTime lastSeenAt;
+        String lastError;
+        Long lastScrapeMs;
+        int consecutiveFailures;
+        volatile boolean dirty;
+
+        Health(Long serverId) {
+            this.serverId = serverId;
+        }
+
+        /** Applies a scrape; true when the server went up or down. */
+        boolean record(String name, boolean up, LocalDateTime at, Long scrapeMs, String error) {
+            boolean transition = this.up == null || this.up != up;
+            if (transition) since = at;
+            serverName = name;
+            this.up = up;
+            if (up) {
+                lastSeenAt = at;
+                lastError = null;
+                lastScrapeMs = scrapeMs;
+                consecutiveFailures = 0;
+            } else {
+                lastError = error;
+                consecutiveFailures++;
+            }
+            dirty = true;
+            return transition;
+        }
+
+        synchronized ServerHealthDto toDto() {
+            return new ServerHealthDto(serverId, serverName, Boolean.TRUE.equals(up), since, lastSeenAt, lastError,
+                lastScrapeMs, consecutiveFailures);
+        }
+    }
+}
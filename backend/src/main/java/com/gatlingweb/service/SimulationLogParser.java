@@ -1,7 +1,11 @@
 package com.gatlingweb.service;
 
 import com.gatlingweb.dto.MetricsSnapshot;
+import com.gatlingweb.entity.RunKind;
 import com.gatlingweb.entity.TestRun;
+import com.gatlingweb.live.LiveChannel;
+import com.gatlingweb.live.LiveRecord;
+import com.gatlingweb.timeseries.LatencyHistogram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
@@ -18,18 +22,19 @@ import java.util.stream.Stream;
 public class SimulationLogParser {
 
     private static final Logger log = LoggerFactory.getLogger(SimulationLogParser.class);
-    private static final int RESERVOIR_SIZE = 10000;
+    static final int MAX_REQUEST_NAMES = 500;
+    static final String OTHER_REQUESTS = "(other)";
 
     private final SimpMessagingTemplate messaging;
     private final MetricsPersistenceService metricsPersistence;
+    private final LiveChannel liveChannel;
     private final AtomicBoolean running = new AtomicBoolean(false);
     private Thread parserThread;
     private volatile Long currentTestRunId;
 
-    // Reservoir sampling for memory-efficient percentile calculation
-    private final List<Long> reservoir = new ArrayList<>(RESERVOIR_SIZE);
-    private final Random random = new Random();
-    private long sampleCount = 0;
+    // Whole-run latency histograms, overall and per request; kept with the run once it finishes
+    private final LatencyHistogram overallHistogram = new LatencyHistogram();
+    private final Map<String, LatencyHistogram> requestHistograms = new HashMap<>();
 
     // Aggregation state
     private long totalRequests = 0;
@@ -42,9 +47,15 @@ public class SimulationLogParser {
     private long windowRequests = 0;
     private long windowErrors = 0;
 
-    public SimulationLogParser(SimpMessagingTemplate messaging, MetricsPersistenceService metricsPersistence) {
+    // Responses of the current rollup window, stored as a histogram when the window closes
+    private final LatencyHistogram latencyWindow = new LatencyHistogram();
+    private long latencyWindowStart = Long.MIN_VALUE;
+
+    public SimulationLogParser(SimpMessagingTemplate messaging, MetricsPersistenceService metricsPersistence,
+                               LiveChannel liveChannel) {
         this.messaging = messaging;
         this.metricsPersistence = metricsPersistence;
+        this.liveChannel = liveChannel;
     }
 
     public void startParsing(Long testRunId, Path gatlingDir, Set<String> existingDirs) {
@@ -89,8 +100,8 @@ public class SimulationLogParser {
     }
 
     private void resetState() {
-        reservoir.clear();
-        sampleCount = 0;
+        overallHistogram.reset();
+        requestHistograms.clear();
         totalRequests = 0;
         totalErrors = 0;
         totalResponseTimeSum = 0;
@@ -98,6 +109,8 @@ public class SimulationLogParser {
         windowResponseTimes.clear();
         windowRequests = 0;
         windowErrors = 0;
+        latencyWindow.reset();
+        latencyWindowStart = Long.MIN_VALUE;
     }
 
     private Path waitForSimulationLog(Path gatlingDir, Set<String> existingDirs) throws InterruptedException {
@@ -152,7 +165,8 @@ public class SimulationLogParser {
             }
             // Push final snapshot with accurate totals
             pushSnapshot(testRunId);
-            metricsPersistence.flush();
+            flushLatencyWindow(testRunId);
+            metricsPersistence.flush(testRunId);
             log.info("Final metrics - Total requests: {}, Total errors: {}", totalRequests, totalErrors);
         }
     }
@@ -179,8 +193,8 @@ public class SimulationLogParser {
                 windowRequests++;
                 windowResponseTimes.add(responseTime);
 
-                // Reservoir sampling: maintain a fixed-size sample
-                addToReservoir(responseTime);
+                overallHistogram.record(responseTime);
+                requestHistogram(parts[1].trim(), parts[2].trim()).record(responseTime);
 
                 if ("KO".equals(status)) {
                     totalErrors++;
@@ -197,16 +211,25 @@ public class SimulationLogParser {
         }
     }
 
-    void addToReservoir(long responseTime) {
-        sampleCount++;
-        if (reservoir.size() < RESERVOIR_SIZE) {
-            reservoir.add(responseTime);
-        } else {
-            int j = random.nextInt((int) sampleCount);
-            if (j < RESERVOIR_SIZE) {
-                reservoir.set(j, responseTime);
-            }
+    private LatencyHistogram requestHistogram(String group, String name) {
+        String key = group.isEmpty() ? name : group + " / " + name;
+        LatencyHistogram histogram = requestHistograms.get(key);
+        if (histogram == null) {
+            // Generated request names (ids in URLs) would otherwise grow without bound
+            if (requestHistograms.size() >= MAX_REQUEST_NAMES) key = OTHER_REQUESTS;
+            histogram = requestHistograms.computeIfAbsent(key, k -> new LatencyHistogram());
         }
+        return histogram;
+    }
+
+    /** Histogram of every response time of the current run; read once parsing has stopped. */
+    public LatencyHistogram overallHistogram() {
+        return overallHistogram;
+    }
+
+    /** Histograms per request ({@code group / name} when the request is in a group). */
+    public Map<String, LatencyHistogram> requestHistograms() {
+        return requestHistograms;
     }
 
     private void pushSnapshot(Long testRunId) {
@@ -233,13 +256,34 @@ public class SimulationLogParser {
         );
 
         messaging.convertAndSend("/topic/metrics/" + testRunId, snapshot);
+        if (liveChannel.isWatched(RunKind.GATLING, testRunId)) {
+            liveChannel.publish(RunKind.GATLING, testRunId, LiveRecord.of(snapshot));
+        }
         metricsPersistence.buffer(testRunId, snapshot);
+        recordLatencyWindow(testRunId, snapshot.timestamp(), windowResponseTimes);
 
         windowResponseTimes.clear();
         windowRequests = 0;
         windowErrors = 0;
     }
 
+    /** Adds the responses of a snapshot to the window it falls in, storing the previous window first. */
+    void recordLatencyWindow(Long testRunId, long timestamp, List<Long> responseTimes) {
+        long windowStart = Math.floorDiv(timestamp, MetricsPersistenceService.LATENCY_WINDOW_MS)
+            * MetricsPersistenceService.LATENCY_WINDOW_MS;
+        if (windowStart != latencyWindowStart) {
+            flushLatencyWindow(testRunId);
+            latencyWindowStart = windowStart;
+        }
+        for (long responseTime : responseTimes) latencyWindow.record(responseTime);
+    }
+
+    void flushLatencyWindow(Long testRunId) {
+        if (latencyWindow.count() == 0) return;
+        metricsPersistence.bufferLatency(testRunId, latencyWindowStart, latencyWindow);
+        latencyWindow.reset();
+    }
+
     double percentile(List<Long> sorted, double p) {
         if (sorted.isEmpty()) return 0;
         int index = (int) Math.ceil(p * sorted.size()) - 1;
@@ -254,13 +298,11 @@ public class SimulationLogParser {
             run.setMeanResponseTime((double) totalResponseTimeSum / totalRequests);
         }
 
-        if (!reservoir.isEmpty()) {
-            List<Long> sorted = new ArrayList<>(reservoir);
-            Collections.sort(sorted);
-            run.setP50ResponseTime(percentile(sorted, 0.50));
-            run.setP75ResponseTime(percentile(sorted, 0.75));
-            run.setP95ResponseTime(percentile(sorted, 0.95));
-            run.setP99ResponseTime(percentile(sorted, 0.99));
+        if (overallHistogram.count() > 0) {
+            run.setP50ResponseTime(overallHistogram.quantile(0.50));
+            run.setP75ResponseTime(overallHistogram.quantile(0.75));
+            run.setP95ResponseTime(overallHistogram.quantile(0.95));
+            run.setP99ResponseTime(overallHistogram.quantile(0.99));
         }
     }
 }
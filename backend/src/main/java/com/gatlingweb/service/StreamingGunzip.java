@@ -0,0 +1,138 @@
+package com.gatlingweb.service;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Push-style gzip decoder: compressed chunks go in as they arrive and inflated chunks come out,
+ * so a compressed body is parsed without being buffered. {@code GZIPInputStream} pulls from a
+ * stream and does not fit the HTTP client's body subscribers. Only the first member is decoded;
+ * its CRC and length are checked.
+ */
+final class StreamingGunzip {
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    private static final int MAX_HEADER_BYTES = 64 * 1024;
+    private static final int TRAILER_BYTES = 8;
+
+    private final Inflater inflater = new Inflater(true);
+    private final CRC32 crc = new CRC32();
+    private final byte[] out = new byte[32 * 1024];
+    // Header, then trailer bytes, as they trickle in
+    private byte[] pending = new byte[16];
+    private int pendingLength;
+    private boolean inBody;
+    private boolean done;
+
+    /**
+     * Inflates the chunk and passes the output to {@code sink}. The buffers handed to the sink are
+     * reused: the sink must consume them before returning.
+     */
+    void feed(ByteBuffer chunk, Consumer<ByteBuffer> sink) {
+        while (chunk.hasRemaining() && !done) {
+            if (!inBody) {
+                readHeader(chunk);
+            } else if (!inflater.finished()) {
+                inflate(chunk, sink);
+            } else {
+                readTrailer(chunk);
+            }
+        }
+        chunk.position(chunk.limit());
+    }
+
+    /** Checks that the whole member arrived. */
+    void finish() {
+        try {
+            if (!done) throw new IllegalStateException("Truncated gzip body");
+        } finally {
+            inflater.end();
+        }
+    }
+
+    void release() {
+        inflater.end();
+    }
+
+    private void readHeader(ByteBuffer chunk) {
+        int take = Math.min(chunk.remaining(), MAX_HEADER_BYTES - pendingLength);
+        if (take == 0) throw new IllegalStateException("Gzip header too long");
+        keep(chunk, take);
+        int header = headerLength(pending, pendingLength);
+        if (header < 0) return;
+        inBody = true;
+        // Bytes read past the header are the start of the deflate stream: hand them back
+        int extra = pendingLength - header;
+        chunk.position(chunk.position() - extra);
+        pendingLength = 0;
+    }
+
+    private void inflate(ByteBuffer chunk, Consumer<ByteBuffer> sink) {
+        inflater.setInput(chunk);
+        try {
+            int n;
+            while ((n = inflater.inflate(out)) > 0) {
+                crc.update(out, 0, n);
+                sink.accept(ByteBuffer.wrap(out, 0, n));
+            }
+            if (inflater.needsDictionary()) throw new IllegalStateException("Gzip body needs a preset dictionary");
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt gzip body: " + e.getMessage(), e);
+        }
+    }
+
+    private void readTrailer(ByteBuffer chunk) {
+        keep(chunk, Math.min(chunk.remaining(), TRAILER_BYTES - pendingLength));
+        if (pendingLength < TRAILER_BYTES) return;
+        long expectedCrc = littleEndian(pending, 0);
+        long expectedSize = littleEndian(pending, 4);
+        if (expectedCrc != crc.getValue() || expectedSize != (inflater.getBytesWritten() & 0xFFFFFFFFL)) {
+            throw new IllegalStateException("Gzip checksum mismatch");
+        }
+        done = true;
+    }
+
+    private void keep(ByteBuffer chunk, int length) {
+        if (pendingLength + length > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingLength + length));
+        }
+        chunk.get(pending, pendingLength, length);
+        pendingLength += length;
+    }
+
+    /** Length of the gzip header at the start of {@code b}, or -1 while it is incomplete. */
+    private static int headerLength(byte[] b, int length) {
+        if (length < 10) return -1;
+        if ((b[0] & 0xFF) != 0x1F || (b[1] & 0xFF) != 0x8B || b[2] != 8) {
+            throw new IllegalStateException("Not a gzip body");
+        }
+        int flags = b[3];
+        int pos = 10;
+        if ((flags & FEXTRA) != 0) {
+            if (length < pos + 2) return -1;
+            pos += 2 + ((b[pos] & 0xFF) | (b[pos + 1] & 0xFF) << 8);
+        }
+        if ((flags & FNAME) != 0) pos = afterZero(b, pos, length);
+        if (pos >= 0 && (flags & FCOMMENT) != 0) pos = afterZero(b, pos, length);
+        if (pos >= 0 && (flags & FHCRC) != 0) pos += 2;
+        return pos >= 0 && pos <= length ? pos : -1;
+    }
+
+    private static int afterZero(byte[] b, int from, int length) {
+        for (int i = from; i < length; i++) {
+            if (b[i] == 0) return i + 1;
+        }
+        return -1;
+    }
+
+    private static long littleEndian(byte[] b, int from) {
+        return (b[from] & 0xFFL) | (b[from + 1] & 0xFFL) << 8 | (b[from + 2] & 0xFFL) << 16 | (b[from + 3] & 0xFFL) << 24;
+    }
+}
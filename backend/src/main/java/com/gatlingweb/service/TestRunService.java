@@ -3,13 +3,16 @@ package com.gatlingweb.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gatlingweb.dto.ComparisonDto;
+import com.gatlingweb.dto.KeysetPage;
 import com.gatlingweb.dto.LaunchRequest;
+import com.gatlingweb.dto.RunSearchResult;
 import com.gatlingweb.dto.TestRunDto;
+import com.gatlingweb.dto.TestRunRowDto;
 import com.gatlingweb.dto.TrendDataDto;
-import com.gatlingweb.dto.TrendPointDto;
 import com.gatlingweb.entity.TestRun;
 import com.gatlingweb.entity.TestStatus;
 import com.gatlingweb.repository.TestRunRepository;
+import com.gatlingweb.search.RunIndex;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,7 +21,9 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -27,26 +32,40 @@ public class TestRunService {
 
     private static final Logger log = LoggerFactory.getLogger(TestRunService.class);
     private static final int MAX_QUEUE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 500;
 
     private final TestRunRepository repository;
     private final GatlingExecutionService executionService;
     private final MetricsPersistenceService metricsPersistence;
     private final ObjectMapper objectMapper;
     private final SimpMessagingTemplate messaging;
+    private final FinishedRunCache finishedRunCache;
+    private final RunAggregateService aggregates;
+    private final RunSearchService search;
+    private final RegressionDetectionService regressions;
+    private final BottleneckAnalysisService bottlenecks;
 
     public TestRunService(TestRunRepository repository, GatlingExecutionService executionService,
                           MetricsPersistenceService metricsPersistence,
-                          ObjectMapper objectMapper, SimpMessagingTemplate messaging) {
+                          ObjectMapper objectMapper, SimpMessagingTemplate messaging,
+                          FinishedRunCache finishedRunCache, RunAggregateService aggregates,
+                          RunSearchService search, RegressionDetectionService regressions,
+                          BottleneckAnalysisService bottlenecks) {
         this.repository = repository;
         this.executionService = executionService;
         this.metricsPersistence = metricsPersistence;
         this.objectMapper = objectMapper;
         this.messaging = messaging;
+        this.finishedRunCache = finishedRunCache;
+        this.aggregates = aggregates;
+        this.search = search;
+        this.regressions = regressions;
+        this.bottlenecks = bottlenecks;
     }
 
     @PostConstruct
     void init() {
-        executionService.setOnTestComplete(this::processNextQueued);
+        executionService.setOnTestComplete(this::onTestComplete);
         recoverOrphanedTests();
     }
 
@@ -76,6 +95,8 @@ public class TestRunService {
                 run.setBandwidthLimitMbps(request.bandwidthLimitMbps());
                 repository.save(run);
             }
+            aggregates.runCreated();
+            search.runChanged(run);
             executionService.executeAsync(run.getId(), request);
             return TestRunDto.from(run);
         } catch (IllegalStateException e) {
@@ -95,11 +116,23 @@ public class TestRunService {
                 throw new RuntimeException("Failed to serialize launch params", ex);
             }
             run = repository.save(run);
+            aggregates.runCreated();
+            search.runChanged(run);
             broadcastQueue();
             return TestRunDto.from(run);
         }
     }
 
+    private void onTestComplete(Long testRunId) {
+        repository.findById(testRunId).ifPresent(run -> {
+            aggregates.runChanged(run);
+            search.runChanged(run);
+            regressions.runCompleted(run);
+            bottlenecks.runCompleted(run);
+        });
+        processNextQueued();
+    }
+
     void processNextQueued() {
         while (true) {
             List<TestRun> queued = repository.findByStatusOrderByStartTimeAsc(TestStatus.QUEUED);
@@ -116,11 +149,14 @@ public class TestRunService {
                 next.setStatus(TestStatus.FAILED);
                 next.setEndTime(LocalDateTime.now());
                 repository.save(next);
+                aggregates.runChanged(next);
+                search.runChanged(next);
                 broadcastQueue();
                 continue;
             }
 
             executionService.launchExisting(next);
+            search.runChanged(next);
             messaging.convertAndSend("/topic/test-status/" + next.getId(), "RUNNING");
             broadcastQueue();
             executionService.executeAsync(next.getId(), request);
@@ -128,6 +164,7 @@ public class TestRunService {
         }
     }
 
+    @Transactional(readOnly = true)
     public List<TestRunDto> getQueue() {
         return repository.findByStatusOrderByStartTimeAsc(TestStatus.QUEUED)
                 .stream().map(TestRunDto::from).toList();
@@ -139,46 +176,18 @@ public class TestRunService {
                 run.setStatus(TestStatus.CANCELLED);
                 run.setEndTime(LocalDateTime.now());
                 repository.save(run);
+                search.runChanged(run);
                 broadcastQueue();
             }
         });
     }
 
     public List<String> getCompletedSimulationClasses() {
-        return repository.findDistinctSimulationClassCompleted();
+        return aggregates.getSimulationClasses();
     }
 
     public TrendDataDto getTrends(String simulationClass, int limit) {
-        List<TestRun> runs = repository.findBySimulationClassAndStatusOrderByStartTimeDesc(
-                simulationClass, TestStatus.COMPLETED, PageRequest.of(0, limit));
-        // Reverse to have chronological order
-        List<TestRun> chronological = new ArrayList<>(runs);
-        Collections.reverse(chronological);
-
-        List<TrendPointDto> points = chronological.stream().map(run -> {
-            double errRate = errorRate(run);
-            return new TrendPointDto(
-                run.getId(),
-                run.getStartTime() != null ? run.getStartTime().toString() : null,
-                run.getVersion(),
-                run.getTotalRequests(),
-                run.getTotalErrors(),
-                run.getMeanResponseTime(),
-                run.getP95ResponseTime(),
-                errRate,
-                run.getThresholdVerdict() != null ? run.getThresholdVerdict().name() : null
-            );
-        }).toList();
-
-        long passCount = chronological.stream()
-            .filter(r -> r.getThresholdVerdict() != null && r.getThresholdVerdict().name().equals("PASSED"))
-            .count();
-        long withVerdict = chronological.stream()
-            .filter(r -> r.getThresholdVerdict() != null)
-            .count();
-        double passRate = withVerdict > 0 ? (double) passCount / withVerdict * 100 : 0;
-
-        return new TrendDataDto(simulationClass, points, passRate);
+        return aggregates.getTrends(simulationClass, limit);
     }
 
     private void broadcastQueue() {
@@ -190,39 +199,135 @@ public class TestRunService {
         executionService.cancel(id);
     }
 
-    public Page<TestRunDto> findAll(Pageable pageable) {
-        return repository.findAll(pageable).map(TestRunDto::from);
+    /** History rows in any sort order, optionally restricted to a label ({@code null} for all). */
+    @Transactional(readOnly = true)
+    public Page<TestRunRowDto> findRows(String label, Pageable pageable) {
+        Page<TestRunRowDto> rows = repository.findRows(label, pageable);
+        Map<Long, List<String>> labels = labelsOf(rows.getContent());
+        return rows.map(row -> row.withLabels(labels.getOrDefault(row.id(), List.of())));
+    }
+
+    /**
+     * Newest-first history rows after {@code cursor} (from the start when null). Seeks on
+     * (startTime, id) instead of skipping rows, so deep pages cost the same as the first one.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<TestRunRowDto> findRowsBefore(String label, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<TestRunRowDto> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = repository.findFirstRows(label, limit);
+        } else {
+            Cursor last = decodeCursor(cursor);
+            rows = repository.findRowsBefore(last.startTime(), last.id(), label, limit);
+        }
+        String next = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            next = encodeCursor(rows.get(size - 1));
+        }
+        Map<Long, List<String>> labels = labelsOf(rows);
+        return new KeysetPage<>(rows.stream()
+            .map(row -> row.withLabels(labels.getOrDefault(row.id(), List.of())))
+            .toList(), next);
+    }
+
+    private Map<Long, List<String>> labelsOf(List<TestRunRowDto> rows) {
+        return RunLabels.of(rows, TestRunRowDto::id, repository::findLabels);
     }
 
-    public Page<TestRunDto> findByLabel(String label, Pageable pageable) {
-        return repository.findByLabel(label, pageable).map(TestRunDto::from);
+    private static String encodeCursor(TestRunRowDto row) {
+        String raw = row.startTime() + "," + row.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int comma = raw.indexOf(',');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, comma)), Long.parseLong(raw.substring(comma + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
     }
 
+    /** Position of the last row of a history page: rows before it come next. */
+    private record Cursor(LocalDateTime startTime, long id) {}
+
+    /**
+     * Runs matching {@code text} and the facet filters, newest first, with per-facet counts.
+     * Filters map a facet of {@link RunSearchService#FACETS} to the values to accept.
+     */
+    @Transactional(readOnly = true)
+    public RunSearchResult<TestRunRowDto> search(String text, Map<String, List<String>> filters, int page, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (page < 0) {
+            throw new IllegalArgumentException("page must not be negative");
+        }
+        RunIndex.Hits hits = search.search(text, filters, page * size, size);
+        Map<Long, TestRunRowDto> rows = new HashMap<>();
+        if (!hits.ids().isEmpty()) {
+            for (TestRunRowDto row : repository.findRowsByIds(hits.ids())) rows.put(row.id(), row);
+        }
+        List<TestRunRowDto> ordered = hits.ids().stream().map(rows::get).filter(Objects::nonNull).toList();
+        Map<Long, List<String>> labels = labelsOf(ordered);
+        return new RunSearchResult<>(ordered.stream()
+            .map(row -> row.withLabels(labels.getOrDefault(row.id(), List.of())))
+            .toList(), hits.total(), page, size, hits.facets());
+    }
+
+    @Transactional(readOnly = true)
     public Optional<TestRunDto> findById(Long id) {
         return repository.findById(id).map(TestRunDto::from);
     }
 
+    @Transactional(readOnly = true)
     public Optional<TestRunDto> findRunning() {
         return repository.findByStatus(TestStatus.RUNNING).map(TestRunDto::from);
     }
 
+    /**
+     * True if nothing about the run can change any more short of an edit: it has ended, its
+     * execution is over and its metrics are on disk.
+     */
+    @Transactional(readOnly = true)
+    public boolean isFinished(Long id) {
+        if (executionService.isExecuting(id)) return false;
+        return repository.findById(id).map(run -> run.getStatus().isFinished()).orElse(false)
+            && metricsPersistence.isSettled(id);
+    }
+
     public void delete(Long id) {
+        boolean existed = repository.existsById(id);
         metricsPersistence.deleteMetricsForTest(id);
         repository.deleteById(id);
+        aggregates.runDeleted(id, existed);
+        search.runDeleted(id);
+        finishedRunCache.evictRun(FinishedRunCache.Scope.GATLING, id);
     }
 
     public void updateVersion(Long id, String version) {
         repository.findById(id).ifPresent(run -> {
             run.setVersion(version);
             repository.save(run);
+            aggregates.runChanged(run);
+            search.runChanged(run);
         });
+        finishedRunCache.evictRun(FinishedRunCache.Scope.GATLING, id);
     }
 
     public void updateNotes(Long id, String notes) {
         repository.findById(id).ifPresent(run -> {
             run.setNotes(notes);
             repository.save(run);
+            search.runChanged(run);
         });
+        finishedRunCache.evictRun(FinishedRunCache.Scope.GATLING, id);
     }
 
     public void updateLabels(Long id, List<String> labels) {
@@ -234,9 +339,12 @@ public class TestRunService {
             }
             run.setLabels(labelSet);
             repository.save(run);
+            search.runChanged(run);
         });
+        finishedRunCache.evictRun(FinishedRunCache.Scope.GATLING, id);
     }
 
+    @Transactional(readOnly = true)
     public ComparisonDto compare(Long idA, Long idB) {
         TestRun runA = repository.findById(idA)
             .orElseThrow(() -> new IllegalArgumentException("Test run not found: " + idA));
@@ -258,62 +366,14 @@ public class TestRunService {
     }
 
     public Map<String, Object> getSummary() {
-        LocalDateTime last24h = LocalDateTime.now().minusHours(24);
-        long completed24h = repository.countByStatusAndStartTimeAfter(TestStatus.COMPLETED, last24h);
-        long failed24h = repository.countByStatusAndStartTimeAfter(TestStatus.FAILED, last24h);
-        long total24h = completed24h + failed24h;
-        double successRate = total24h > 0 ? (double) completed24h / total24h * 100 : 0;
-        Double avgRt = repository.avgMeanResponseTimeAfter(last24h);
-        long totalAll = repository.count();
-
-        Map<String, Object> summary = new LinkedHashMap<>();
-        summary.put("tests24h", total24h);
-        summary.put("successRate24h", Math.round(successRate * 10) / 10.0);
-        summary.put("avgResponseTime24h", avgRt != null ? Math.round(avgRt * 10) / 10.0 : null);
-        summary.put("totalTests", totalAll);
-        return summary;
+        return aggregates.getSummary();
     }
 
+    @Transactional(readOnly = true)
     public List<String> getAllLabels() {
         return repository.findAllDistinctLabels();
     }
 
-    public String exportCsv() {
-        List<TestRun> all = repository.findAllByOrderByStartTimeDesc();
-        StringBuilder sb = new StringBuilder();
-        sb.append("id,simulationClass,version,status,startTime,endTime,totalRequests,totalErrors,meanResponseTime,p50,p75,p95,p99,errorRate,labels,verdict\n");
-        for (TestRun r : all) {
-            long totalReq = r.getTotalRequests() != null ? r.getTotalRequests() : 0;
-            long totalErr = r.getTotalErrors() != null ? r.getTotalErrors() : 0;
-            double errRate = totalReq > 0 ? (double) totalErr / totalReq * 100 : 0;
-            sb.append(r.getId()).append(',');
-            sb.append(csvEscape(r.getSimulationClass())).append(',');
-            sb.append(csvEscape(r.getVersion())).append(',');
-            sb.append(r.getStatus()).append(',');
-            sb.append(r.getStartTime() != null ? r.getStartTime() : "").append(',');
-            sb.append(r.getEndTime() != null ? r.getEndTime() : "").append(',');
-            sb.append(totalReq).append(',');
-            sb.append(totalErr).append(',');
-            sb.append(r.getMeanResponseTime() != null ? String.format("%.1f", r.getMeanResponseTime()) : "").append(',');
-            sb.append(r.getP50ResponseTime() != null ? String.format("%.1f", r.getP50ResponseTime()) : "").append(',');
-            sb.append(r.getP75ResponseTime() != null ? String.format("%.1f", r.getP75ResponseTime()) : "").append(',');
-            sb.append(r.getP95ResponseTime() != null ? String.format("%.1f", r.getP95ResponseTime()) : "").append(',');
-            sb.append(r.getP99ResponseTime() != null ? String.format("%.1f", r.getP99ResponseTime()) : "").append(',');
-            sb.append(String.format("%.2f", errRate)).append(',');
-            sb.append(csvEscape(r.getLabels() != null ? String.join(",", r.getLabels()) : "")).append(',');
-            sb.append(r.getThresholdVerdict() != null ? r.getThresholdVerdict().name() : "").append('\n');
-        }
-        return sb.toString();
-    }
-
-    private String csvEscape(String val) {
-        if (val == null) return "";
-        if (val.contains(",") || val.contains("\"") || val.contains("\n")) {
-            return "\"" + val.replace("\"", "\"\"") + "\"";
-        }
-        return val;
-    }
-
     Double calcDiff(Double a, Double b) {
         if (a == null || b == null || a == 0) return null;
         return ((b - a) / a) * 100;
@@ -3,11 +3,13 @@ package com.gatlingweb.service;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gatlingweb.dto.*;
+import com.gatlingweb.entity.RunKind;
 import com.gatlingweb.entity.TestRun;
 import com.gatlingweb.entity.ThresholdProfile;
 import com.gatlingweb.entity.ThresholdVerdict;
 import com.gatlingweb.repository.TestRunRepository;
 import com.gatlingweb.repository.ThresholdProfileRepository;
+import com.gatlingweb.timeseries.LatencyHistogram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -16,30 +18,43 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
 public class ThresholdService {
 
     private static final Logger log = LoggerFactory.getLogger(ThresholdService.class);
+    // Percentiles stored on the run itself, read without its histogram
+    private static final Set<String> STORED_PERCENTILES =
+        Set.of("p50ResponseTime", "p75ResponseTime", "p95ResponseTime", "p99ResponseTime");
+    // Any percentile, e.g. p90ResponseTime or p99.9ResponseTime, read from the run histogram
+    private static final Pattern PERCENTILE_METRIC = Pattern.compile("p(\\d{1,2}(?:\\.\\d+)?)ResponseTime");
 
     private final ThresholdProfileRepository profileRepository;
     private final TestRunRepository testRunRepository;
     private final ObjectMapper objectMapper;
+    private final RunHistogramService histograms;
 
     public ThresholdService(ThresholdProfileRepository profileRepository,
                            TestRunRepository testRunRepository,
-                           ObjectMapper objectMapper) {
+                           ObjectMapper objectMapper,
+                           RunHistogramService histograms) {
         this.profileRepository = profileRepository;
         this.testRunRepository = testRunRepository;
         this.objectMapper = objectMapper;
+        this.histograms = histograms;
     }
 
+    @Transactional(readOnly = true)
     public List<ThresholdProfileDto> findAll() {
         return profileRepository.findAllByOrderByNameAsc().stream()
             .map(ThresholdProfileDto::from)
             .toList();
     }
 
+    @Transactional(readOnly = true)
     public ThresholdProfileDto findById(Long id) {
         return profileRepository.findById(id)
             .map(ThresholdProfileDto::from)
@@ -105,9 +120,12 @@ public class ThresholdService {
 
         List<ThresholdEvaluationResult> results = new ArrayList<>();
         boolean allPassed = true;
+        Optional<LatencyHistogram> histogram = rules.stream().anyMatch(r -> isHistogramMetric(r.metric()))
+            ? histograms.overall(RunKind.GATLING, run.getId())
+            : Optional.empty();
 
         for (ThresholdRuleDto rule : rules) {
-            double actual = getMetricValue(run, rule.metric());
+            double actual = getMetricValue(run, rule.metric(), histogram);
             boolean passed = evaluate(actual, rule.operator(), rule.value());
             results.add(new ThresholdEvaluationResult(
                 rule.metric(), rule.operator(), rule.value(), actual, passed
@@ -127,6 +145,10 @@ public class ThresholdService {
     }
 
     double getMetricValue(TestRun run, String metric) {
+        return getMetricValue(run, metric, Optional.empty());
+    }
+
+    double getMetricValue(TestRun run, String metric, Optional<LatencyHistogram> histogram) {
         return switch (metric) {
             case "meanResponseTime" -> run.getMeanResponseTime() != null ? run.getMeanResponseTime() : 0;
             case "p50ResponseTime" -> run.getP50ResponseTime() != null ? run.getP50ResponseTime() : 0;
@@ -138,10 +160,19 @@ public class ThresholdService {
                 long errors = run.getTotalErrors() != null ? run.getTotalErrors() : 0;
                 yield total > 0 ? (double) errors / total * 100 : 0;
             }
-            default -> 0;
+            default -> {
+                Matcher m = PERCENTILE_METRIC.matcher(metric);
+                if (!m.matches() || histogram.isEmpty()) yield 0;
+                double value = histogram.get().quantile(Double.parseDouble(m.group(1)) / 100);
+                yield Double.isNaN(value) ? 0 : value;
+            }
         };
     }
 
+    private static boolean isHistogramMetric(String metric) {
+        return metric != null && !STORED_PERCENTILES.contains(metric) && PERCENTILE_METRIC.matcher(metric).matches();
+    }
+
     boolean evaluate(double actual, String operator, double threshold) {
         return switch (operator) {
             case "LT" -> actual < threshold;
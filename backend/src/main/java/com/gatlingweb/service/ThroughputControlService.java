@@ -0,0 +1,168 @@
+package com.gatlingweb.service;
+
+import com.gatlingweb.dto.RunAnnotationDto;
+import com.gatlingweb.dto.ThroughputControlRequest;
+import com.gatlingweb.dto.ThroughputControlState;
+import com.gatlingweb.entity.RunAnnotation;
+import com.gatlingweb.repository.RunAnnotationRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Live control channel between the backend and the running Gatling JVM.
+ * <p>
+ * The channel is a 32-byte memory-mapped file guarded by a sequence counter (odd while a
+ * write is in progress). Simulations read it through the {@code gatlingweb.ThroughputControl}
+ * helper installed in the workspace; the file path is passed with {@code -Dgatlingweb.controlFile}.
+ */
+@Service
+public class ThroughputControlService {
+
+    private static final Logger log = LoggerFactory.getLogger(ThroughputControlService.class);
+
+    static final int MAGIC = 0x47574354; // "GWCT"
+    static final int FORMAT_VERSION = 1;
+    static final int FILE_SIZE = 32;
+    static final int OFFSET_SEQUENCE = 8;
+    static final int OFFSET_MULTIPLIER = 16;
+    static final int OFFSET_PAUSED = 24;
+
+    static final String ANNOTATION_TYPE = "THROUGHPUT";
+    private static final String HELPER_RESOURCE = "templates/simulations/helpers/ThroughputControl.scala";
+
+    private final RunAnnotationRepository annotationRepository;
+    private final SimpMessagingTemplate messaging;
+    private final Path workspacePath;
+    private final Path controlFile;
+
+    // Mapped once and reused: Windows refuses to delete or truncate a file that is still mapped
+    private MappedByteBuffer buffer;
+    private volatile ThroughputControlState state;
+
+    public ThroughputControlService(
+            RunAnnotationRepository annotationRepository,
+            SimpMessagingTemplate messaging,
+            @Value("${gatling.workspace}") String workspace) {
+        this.annotationRepository = annotationRepository;
+        this.messaging = messaging;
+        this.workspacePath = Path.of(workspace).toAbsolutePath().normalize();
+        this.controlFile = workspacePath.resolve(".gatlingweb").resolve("throughput.ctl");
+    }
+
+    @PostConstruct
+    void installHelper() {
+        Path target = workspacePath.resolve("simulations").resolve("gatlingweb").resolve("ThroughputControl.scala");
+        try (InputStream is = new ClassPathResource(HELPER_RESOURCE).getInputStream()) {
+            byte[] content = is.readAllBytes();
+            if (Files.exists(target) && Arrays.equals(Files.readAllBytes(target), content)) {
+                return;
+            }
+            Files.createDirectories(target.getParent());
+            Files.write(target, content);
+            log.info("Installed throughput control helper: {}", target);
+        } catch (IOException e) {
+            log.warn("Could not install throughput control helper in workspace: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Resets the channel for a new run and returns the file the simulation must map.
+     */
+    public synchronized Path open(Long testRunId) throws IOException {
+        if (buffer == null) {
+            Files.createDirectories(controlFile.getParent());
+            try (FileChannel channel = FileChannel.open(controlFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+            }
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, FORMAT_VERSION);
+        }
+        write(1.0, false);
+        state = new ThroughputControlState(testRunId, 1.0, false, System.currentTimeMillis());
+        return controlFile;
+    }
+
+    public synchronized void close(Long testRunId) {
+        if (state == null || !Objects.equals(state.testRunId(), testRunId)) return;
+        if (buffer != null) {
+            write(1.0, false);
+            buffer.force();
+        }
+        state = null;
+    }
+
+    public ThroughputControlState getState(Long testRunId) {
+        ThroughputControlState current = state;
+        if (current == null || !Objects.equals(current.testRunId(), testRunId)) {
+            throw new IllegalStateException("Test " + testRunId + " is not running");
+        }
+        return current;
+    }
+
+    public synchronized ThroughputControlState apply(Long testRunId, ThroughputControlRequest request) {
+        ThroughputControlState current = getState(testRunId);
+        double multiplier = request.rateMultiplier() != null ? request.rateMultiplier() : current.rateMultiplier();
+        boolean paused = request.paused() != null ? request.paused() : current.paused();
+        if (Double.isNaN(multiplier) || multiplier < 0.01 || multiplier > 100) {
+            throw new IllegalArgumentException("rateMultiplier must be between 0.01 and 100");
+        }
+        if (multiplier == current.rateMultiplier() && paused == current.paused()) {
+            return current;
+        }
+
+        write(multiplier, paused);
+        long now = System.currentTimeMillis();
+        ThroughputControlState updated = new ThroughputControlState(testRunId, multiplier, paused, now);
+        state = updated;
+
+        RunAnnotation annotation = annotationRepository.save(
+            new RunAnnotation(testRunId, now, ANNOTATION_TYPE, describe(current, updated)));
+        messaging.convertAndSend("/topic/control/" + testRunId, updated);
+        messaging.convertAndSend("/topic/annotations/" + testRunId, RunAnnotationDto.from(annotation));
+        log.info("Throughput control for test {}: {}", testRunId, annotation.getMessage());
+        return updated;
+    }
+
+    public List<RunAnnotationDto> getAnnotations(Long testRunId) {
+        return annotationRepository.findByTestRunIdOrderByTimestampAsc(testRunId)
+            .stream()
+            .map(RunAnnotationDto::from)
+            .toList();
+    }
+
+    private void write(double multiplier, boolean paused) {
+        long sequence = buffer.getLong(OFFSET_SEQUENCE);
+        if ((sequence & 1) == 1) sequence++;
+        buffer.putLong(OFFSET_SEQUENCE, sequence + 1);
+        VarHandle.storeStoreFence();
+        buffer.putDouble(OFFSET_MULTIPLIER, multiplier);
+        buffer.putInt(OFFSET_PAUSED, paused ? 1 : 0);
+        VarHandle.storeStoreFence();
+        buffer.putLong(OFFSET_SEQUENCE, sequence + 2);
+    }
+
+    private String describe(ThroughputControlState before, ThroughputControlState after) {
+        if (after.paused() != before.paused()) {
+            return after.paused() ? "Paused" : String.format("Resumed at rate x%.2f", after.rateMultiplier());
+        }
+        return String.format("Rate x%.2f -> x%.2f", before.rateMultiplier(), after.rateMultiplier());
+    }
+}
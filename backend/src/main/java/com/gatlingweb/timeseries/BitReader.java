@@ -0,0 +1,32 @@
+package com.gatlingweb.timeseries;
+
+/**
+ * Reads a stream produced by {@link BitWriter}.
+ */
+final class BitReader {
+
+    private final byte[] buffer;
+    private long bitPosition;
+
+    BitReader(byte[] buffer) {
+        this.buffer = buffer;
+    }
+
+    boolean readBit() {
+        int byteIndex = (int) (bitPosition >>> 3);
+        if (byteIndex >= buffer.length) {
+            throw new IllegalStateException("Corrupted time-series block: unexpected end of data");
+        }
+        boolean bit = (buffer[byteIndex] & (0x80 >>> (bitPosition & 7))) != 0;
+        bitPosition++;
+        return bit;
+    }
+
+    long readBits(int count) {
+        long value = 0;
+        for (int i = 0; i < count; i++) {
+            value = (value << 1) | (readBit() ? 1L : 0L);
+        }
+        return value;
+    }
+}
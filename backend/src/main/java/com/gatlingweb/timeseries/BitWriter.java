@@ -0,0 +1,37 @@
+package com.gatlingweb.timeseries;
+
+import java.util.Arrays;
+
+/**
+ * Append-only bit stream, most significant bit first.
+ */
+final class BitWriter {
+
+    private byte[] buffer;
+    private long bitLength;
+
+    BitWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    void writeBit(boolean bit) {
+        int byteIndex = (int) (bitLength >>> 3);
+        if (byteIndex >= buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        if (bit) {
+            buffer[byteIndex] |= (byte) (0x80 >>> (bitLength & 7));
+        }
+        bitLength++;
+    }
+
+    void writeBits(long value, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            writeBit(((value >>> i) & 1L) != 0);
+        }
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, (int) ((bitLength + 7) >>> 3));
+    }
+}
@@ -0,0 +1,114 @@
+package com.gatlingweb.timeseries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Single change point by E-divisive means (Matteson &amp; James, 2014) with a permutation test.
+ * <p>
+ * For every split of the series into a left and a right segment of at least {@code minSegment}
+ * values, the divergence is the mean distance between the segments minus the mean distances
+ * within each, scaled by {@code l * r / n}; the split with the largest divergence is the change
+ * point. Its p-value is the share of random permutations of the series whose best divergence is
+ * at least as large. Works on any distribution (no normality assumption) and finds gradual drifts
+ * as well as steps. Each evaluation is O(n²).
+ * <p>
+ * {@link #detectAll} bisects recursively, which splits a gradual drift into several steps whose
+ * first one marks where it started.
+ */
+public final class ChangePointDetector {
+
+    /** {@code index} is the first value of the right segment. */
+    public record ChangePoint(int index, double divergence, double pValue) {}
+
+    private ChangePointDetector() {}
+
+    /** The most likely change point, or null when the series is shorter than two segments. */
+    public static ChangePoint detect(double[] values, int minSegment, int permutations, long seed) {
+        int n = values.length;
+        if (minSegment < 2) throw new IllegalArgumentException("minSegment must be at least 2");
+        if (n < 2 * minSegment) return null;
+
+        double[] best = new double[1];
+        int index = bestSplit(values, minSegment, best);
+        double observed = best[0];
+
+        Random random = new Random(seed);
+        double[] shuffled = values.clone();
+        int atLeast = 0;
+        for (int p = 0; p < permutations; p++) {
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                double t = shuffled[i];
+                shuffled[i] = shuffled[j];
+                shuffled[j] = t;
+            }
+            double[] permuted = new double[1];
+            bestSplit(shuffled, minSegment, permuted);
+            if (permuted[0] >= observed) atLeast++;
+        }
+        return new ChangePoint(index, observed, (atLeast + 1.0) / (permutations + 1.0));
+    }
+
+    /** Every significant change point, found by bisecting the series recursively, in increasing order. */
+    public static List<ChangePoint> detectAll(double[] values, int minSegment, int permutations, double alpha, long seed) {
+        List<ChangePoint> found = new ArrayList<>();
+        bisect(values, 0, values.length, minSegment, permutations, alpha, seed, found);
+        found.sort(Comparator.comparingInt(ChangePoint::index));
+        return found;
+    }
+
+    private static void bisect(double[] values, int from, int to, int minSegment, int permutations, double alpha,
+                               long seed, List<ChangePoint> found) {
+        ChangePoint cp = detect(Arrays.copyOfRange(values, from, to), minSegment, permutations, seed + from);
+        if (cp == null || cp.pValue() > alpha) return;
+        int index = from + cp.index();
+        found.add(new ChangePoint(index, cp.divergence(), cp.pValue()));
+        bisect(values, from, index, minSegment, permutations, alpha, seed, found);
+        bisect(values, index, to, minSegment, permutations, alpha, seed, found);
+    }
+
+    /** Index of the best split; its divergence goes to {@code divergence[0]}. */
+    static int bestSplit(double[] x, int minSegment, double[] divergence) {
+        int n = x.length;
+        // Sum of |xi - xj| over all pairs, and per value over the values before it
+        double total = 0;
+        double[] toPrevious = new double[n];
+        for (int j = 0; j < n; j++) {
+            double s = 0;
+            for (int i = 0; i < j; i++) s += Math.abs(x[i] - x[j]);
+            toPrevious[j] = s;
+            total += s;
+        }
+        // Pairs within the right segment [tau, n): accumulate from the end
+        double[] withinRight = new double[n + 1];
+        for (int tau = n - 1; tau >= 0; tau--) {
+            double s = 0;
+            for (int j = tau + 1; j < n; j++) s += Math.abs(x[tau] - x[j]);
+            withinRight[tau] = withinRight[tau + 1] + s;
+        }
+
+        int bestIndex = -1;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        double withinLeft = 0;
+        for (int tau = 1; tau < n; tau++) {
+            withinLeft += toPrevious[tau - 1];
+            int l = tau;
+            int r = n - tau;
+            if (l < minSegment || r < minSegment) continue;
+            double between = total - withinLeft - withinRight[tau];
+            double q = (double) l * r / n * (2.0 * between / ((double) l * r)
+                - withinLeft / (l * (l - 1) / 2.0)
+                - withinRight[tau] / (r * (r - 1) / 2.0));
+            if (q > bestValue) {
+                bestValue = q;
+                bestIndex = tau;
+            }
+        }
+        divergence[0] = bestValue;
+        return bestIndex;
+    }
+}
@@ -0,0 +1,137 @@
+package com.gatlingweb.timeseries;
+
+/**
+ * Gorilla-style block codec (Pelkonen et al., VLDB 2015), laid out column by column.
+ * <p>
+ * Timestamps are stored as delta-of-delta with variable-width buckets, each value column
+ * as the XOR of consecutive IEEE-754 bit patterns reusing the previous leading/trailing
+ * zero window when possible. Missing values are encoded as NaN.
+ */
+final class GorillaCodec {
+
+    private GorillaCodec() {}
+
+    static byte[] encode(long[] timestamps, double[][] columns, int count) {
+        BitWriter out = new BitWriter(count * (columns.length + 1) * 2);
+        encodeTimestamps(out, timestamps, count);
+        for (double[] column : columns) {
+            encodeValues(out, column, count);
+        }
+        return out.toByteArray();
+    }
+
+    static void decode(byte[] payload, int count, long[] timestamps, double[][] columns) {
+        BitReader in = new BitReader(payload);
+        decodeTimestamps(in, timestamps, count);
+        for (double[] column : columns) {
+            decodeValues(in, column, count);
+        }
+    }
+
+    private static void encodeTimestamps(BitWriter out, long[] timestamps, int count) {
+        if (count == 0) return;
+        out.writeBits(timestamps[0], 64);
+        long previous = timestamps[0];
+        long previousDelta = 0;
+        for (int i = 1; i < count; i++) {
+            long delta = timestamps[i] - previous;
+            long dod = delta - previousDelta;
+            if (dod == 0) {
+                out.writeBit(false);
+            } else if (dod >= -64 && dod <= 63) {
+                out.writeBits(0b10, 2);
+                out.writeBits(dod, 7);
+            } else if (dod >= -256 && dod <= 255) {
+                out.writeBits(0b110, 3);
+                out.writeBits(dod, 9);
+            } else if (dod >= -2048 && dod <= 2047) {
+                out.writeBits(0b1110, 4);
+                out.writeBits(dod, 12);
+            } else {
+                out.writeBits(0b1111, 4);
+                out.writeBits(dod, 64);
+            }
+            previousDelta = delta;
+            previous = timestamps[i];
+        }
+    }
+
+    private static void decodeTimestamps(BitReader in, long[] timestamps, int count) {
+        if (count == 0) return;
+        timestamps[0] = in.readBits(64);
+        long previousDelta = 0;
+        for (int i = 1; i < count; i++) {
+            long dod;
+            if (!in.readBit()) {
+                dod = 0;
+            } else if (!in.readBit()) {
+                dod = signExtend(in.readBits(7), 7);
+            } else if (!in.readBit()) {
+                dod = signExtend(in.readBits(9), 9);
+            } else if (!in.readBit()) {
+                dod = signExtend(in.readBits(12), 12);
+            } else {
+                dod = in.readBits(64);
+            }
+            previousDelta += dod;
+            timestamps[i] = timestamps[i - 1] + previousDelta;
+        }
+    }
+
+    private static void encodeValues(BitWriter out, double[] values, int count) {
+        if (count == 0) return;
+        long previous = Double.doubleToRawLongBits(values[0]);
+        out.writeBits(previous, 64);
+        int previousLeading = -1;
+        int previousTrailing = 0;
+        for (int i = 1; i < count; i++) {
+            long current = Double.doubleToRawLongBits(values[i]);
+            long xor = current ^ previous;
+            if (xor == 0) {
+                out.writeBit(false);
+            } else {
+                out.writeBit(true);
+                int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+                int trailing = Long.numberOfTrailingZeros(xor);
+                if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                    out.writeBit(false);
+                    out.writeBits(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+                } else {
+                    int significant = 64 - leading - trailing;
+                    out.writeBit(true);
+                    out.writeBits(leading, 5);
+                    out.writeBits(significant - 1, 6);
+                    out.writeBits(xor >>> trailing, significant);
+                    previousLeading = leading;
+                    previousTrailing = trailing;
+                }
+            }
+            previous = current;
+        }
+    }
+
+    private static void decodeValues(BitReader in, double[] values, int count) {
+        if (count == 0) return;
+        long previous = in.readBits(64);
+        values[0] = Double.longBitsToDouble(previous);
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < count; i++) {
+            if (in.readBit()) {
+                if (in.readBit()) {
+                    leading = (int) in.readBits(5);
+                    int significant = (int) in.readBits(6) + 1;
+                    trailing = 64 - leading - significant;
+                }
+                long xor = in.readBits(64 - leading - trailing) << trailing;
+                previous ^= xor;
+            }
+            values[i] = Double.longBitsToDouble(previous);
+        }
+    }
+
+    private static long signExtend(long value, int bits) {
+        int shift = 64 - bits;
+        return (value << shift) >> shift;
+    }
+}
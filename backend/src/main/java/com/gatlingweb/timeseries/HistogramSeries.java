@@ -0,0 +1,25 @@
+package com.gatlingweb.timeseries;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Latency histograms of consecutive windows of a series, in time order; each timestamp is the
+ * start of its window.
+ */
+public record HistogramSeries(long[] timestamps, List<LatencyHistogram> histograms) {
+
+    public int size() {
+        return timestamps.length;
+    }
+
+    /** The windows starting in {@code [from, to)} merged into one histogram, empty if there are none. */
+    public LatencyHistogram merge(long from, long to) {
+        LatencyHistogram merged = new LatencyHistogram();
+        int i = Arrays.binarySearch(timestamps, from);
+        if (i < 0) i = -i - 1;
+        while (i > 0 && timestamps[i - 1] >= from) i--;
+        for (; i < timestamps.length && timestamps[i] < to; i++) merged.merge(histograms.get(i));
+        return merged;
+    }
+}
@@ -0,0 +1,95 @@
+package com.gatlingweb.timeseries;
+
+/**
+ * Two-sample tests on {@link LatencyHistogram}s: Kolmogorov–Smirnov on the cumulative
+ * distributions and Mann–Whitney U with tie correction, values in the same bucket counting as
+ * ties. Both work from bucket counts, so comparing runs of millions of requests costs one pass
+ * over the buckets.
+ * <p>
+ * With that many samples almost any difference has a tiny p-value, and consecutive requests of a
+ * load test are not independent; callers should also require a minimum effect size (the KS
+ * statistic, or how far the probability of superiority is from 0.5) before calling a change real.
+ */
+public final class HistogramSignificance {
+
+    /** KS statistic (largest gap between the two CDFs) and its asymptotic p-value. */
+    public record KolmogorovSmirnov(double statistic, double pValue) {}
+
+    /**
+     * Mann–Whitney result; {@code probabilityGreater} is P(b &gt; a) + P(b = a) / 2, above 0.5
+     * when values of {@code b} tend to be larger (slower).
+     */
+    public record MannWhitney(double u, double z, double pValue, double probabilityGreater) {}
+
+    private HistogramSignificance() {}
+
+    public static KolmogorovSmirnov kolmogorovSmirnov(LatencyHistogram a, LatencyHistogram b) {
+        long n = a.count();
+        long m = b.count();
+        if (n == 0 || m == 0) return new KolmogorovSmirnov(Double.NaN, Double.NaN);
+        long cumA = 0;
+        long cumB = 0;
+        double d = 0;
+        for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+            long ca = a.countAt(i);
+            long cb = b.countAt(i);
+            if (ca == 0 && cb == 0) continue;
+            cumA += ca;
+            cumB += cb;
+            d = Math.max(d, Math.abs((double) cumA / n - (double) cumB / m));
+        }
+        double en = Math.sqrt((double) n * m / (n + m));
+        return new KolmogorovSmirnov(d, kolmogorovTail((en + 0.12 + 0.11 / en) * d));
+    }
+
+    public static MannWhitney mannWhitney(LatencyHistogram a, LatencyHistogram b) {
+        long n = a.count();
+        long m = b.count();
+        if (n == 0 || m == 0) return new MannWhitney(Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+        double total = (double) n + m;
+        double belowA = 0;
+        double uB = 0;
+        double tieTerm = 0;
+        for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+            double ca = a.countAt(i);
+            double cb = b.countAt(i);
+            if (ca == 0 && cb == 0) continue;
+            // Each b value beats every smaller a value and ties with the a values of its bucket
+            uB += cb * (belowA + ca / 2);
+            belowA += ca;
+            double t = ca + cb;
+            tieTerm += t * t * t - t;
+        }
+        double mean = (double) n * m / 2;
+        double variance = (double) n * m / 12 * ((total + 1) - tieTerm / (total * (total - 1)));
+        double z = variance > 0 ? (uB - mean) / Math.sqrt(variance) : 0;
+        double p = variance > 0 ? erfc(Math.abs(z) / Math.sqrt(2)) : 1;
+        return new MannWhitney(uB, z, Math.min(1, p), uB / ((double) n * m));
+    }
+
+    /** Q_KS(λ) = 2 Σ (-1)^(j-1) exp(-2 j² λ²). */
+    static double kolmogorovTail(double lambda) {
+        if (lambda < 1e-3) return 1;
+        double sum = 0;
+        double previous = 0;
+        for (int j = 1; j <= 100; j++) {
+            double term = (j % 2 == 1 ? 2 : -2) * Math.exp(-2.0 * j * j * lambda * lambda);
+            sum += term;
+            if (Math.abs(term) <= 1e-10 * Math.abs(previous) || Math.abs(term) <= 1e-16 * sum) {
+                return Math.min(1, Math.max(0, sum));
+            }
+            previous = term;
+        }
+        return 1; // no convergence: λ is so small that the distributions are indistinguishable
+    }
+
+    /** Complementary error function, fractional error below 1.2e-7 (Chebyshev fit). */
+    static double erfc(double x) {
+        double z = Math.abs(x);
+        double t = 1 / (1 + 0.5 * z);
+        double r = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+            + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+            + t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0 ? r : 2 - r;
+    }
+}
@@ -0,0 +1,238 @@
+package com.gatlingweb.timeseries;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Mergeable log-linear histogram for latencies in milliseconds.
+ * <p>
+ * Values below 1 ms share bucket 0; above that each power of two is split into
+ * {@value #SUB_BUCKETS} linear sub-buckets, which bounds the relative error of a quantile to
+ * about 1.6%. Two histograms merge by adding counts, so per-window histograms can be combined
+ * into per-run ones without keeping raw samples. The serialized form only stores non-empty buckets.
+ */
+public final class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40; // ~35 years in ms; larger values are clamped
+    static final int BUCKETS = 1 + (MAX_EXPONENT + 1) * SUB_BUCKETS;
+    private static final byte FORMAT_VERSION = 1;
+
+    private final long[] counts = new long[BUCKETS];
+    private long totalCount;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private double sum;
+
+    public void record(double valueMs) {
+        record(valueMs, 1);
+    }
+
+    public void record(double valueMs, long count) {
+        if (count <= 0 || Double.isNaN(valueMs)) return;
+        double v = Math.max(0, valueMs);
+        counts[bucketOf(v)] += count;
+        totalCount += count;
+        sum += v * count;
+        min = Double.isNaN(min) ? v : Math.min(min, v);
+        max = Double.isNaN(max) ? v : Math.max(max, v);
+    }
+
+    public void merge(LatencyHistogram other) {
+        if (other.totalCount == 0) return;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        min = Double.isNaN(min) ? other.min : Math.min(min, other.min);
+        max = Double.isNaN(max) ? other.max : Math.max(max, other.max);
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        sum = 0;
+        min = Double.NaN;
+        max = Double.NaN;
+    }
+
+    public long count() {
+        return totalCount;
+    }
+
+    public double min() {
+        return min;
+    }
+
+    public double max() {
+        return max;
+    }
+
+    public double mean() {
+        return totalCount > 0 ? sum / totalCount : Double.NaN;
+    }
+
+    /**
+     * Value at quantile {@code q} (0..1), or NaN when empty. Returns the middle of the bucket
+     * holding the target rank, clamped to the observed min/max.
+     */
+    public double quantile(double q) {
+        if (totalCount == 0) return Double.NaN;
+        long rank = Math.max(1, (long) Math.ceil(Math.min(1.0, Math.max(0.0, q)) * totalCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                double mid = (lowerBound(i) + upperBound(i)) / 2;
+                return Math.min(max, Math.max(min, mid));
+            }
+        }
+        return max;
+    }
+
+    /** Fraction of recorded values that are {@code <= valueMs}, at bucket granularity. */
+    public double cdf(double valueMs) {
+        if (totalCount == 0) return Double.NaN;
+        if (valueMs >= max) return 1.0;
+        if (valueMs < min) return 0.0;
+        int bucket = bucketOf(Math.max(0, valueMs));
+        long below = 0;
+        for (int i = 0; i < bucket; i++) below += counts[i];
+        // Linear interpolation inside the bucket containing the value
+        double lo = lowerBound(bucket);
+        double hi = upperBound(bucket);
+        double fraction = hi > lo ? (valueMs - lo) / (hi - lo) : 1.0;
+        return (below + counts[bucket] * Math.min(1.0, Math.max(0.0, fraction))) / totalCount;
+    }
+
+    /**
+     * Visits non-empty buckets in increasing order with their bounds.
+     */
+    public void forEachBucket(BucketVisitor visitor) {
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] > 0) {
+                visitor.bucket(lowerBound(i), upperBound(i), counts[i]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface BucketVisitor {
+        void bucket(double lowerBound, double upperBound, long count);
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(FORMAT_VERSION);
+        writeDouble(out, min);
+        writeDouble(out, max);
+        writeDouble(out, sum);
+        int previous = -1;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] == 0) continue;
+            writeVarLong(out, i - previous); // gap to previous non-empty bucket
+            writeVarLong(out, counts[i]);
+            previous = i;
+        }
+        return out.toByteArray();
+    }
+
+    public static LatencyHistogram fromBytes(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        byte version = in.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported histogram format: " + version);
+        }
+        LatencyHistogram h = new LatencyHistogram();
+        h.min = in.getDouble();
+        h.max = in.getDouble();
+        h.sum = in.getDouble();
+        int index = -1;
+        while (in.hasRemaining()) {
+            index += (int) readVarLong(in);
+            if (index < 0 || index >= BUCKETS) {
+                throw new IllegalArgumentException("Corrupted histogram: bucket " + index);
+            }
+            long count = readVarLong(in);
+            h.counts[index] = count;
+            h.totalCount += count;
+        }
+        return h;
+    }
+
+    public LatencyHistogram copy() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.merge(this);
+        return h;
+    }
+
+    long countAt(int bucket) {
+        return counts[bucket];
+    }
+
+    static int bucketOf(double v) {
+        if (v < 1) return 0;
+        int exponent = Math.getExponent(v);
+        if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+        double scaled = v / Math.scalb(1.0, exponent); // in [1, 2)
+        int sub = Math.min(SUB_BUCKETS - 1, (int) ((scaled - 1) * SUB_BUCKETS));
+        return 1 + exponent * SUB_BUCKETS + sub;
+    }
+
+    static double lowerBound(int bucket) {
+        if (bucket == 0) return 0;
+        int exponent = (bucket - 1) / SUB_BUCKETS;
+        int sub = (bucket - 1) % SUB_BUCKETS;
+        return Math.scalb(1.0 + (double) sub / SUB_BUCKETS, exponent);
+    }
+
+    static double upperBound(int bucket) {
+        if (bucket == 0) return 1;
+        int exponent = (bucket - 1) / SUB_BUCKETS;
+        int sub = (bucket - 1) % SUB_BUCKETS;
+        return Math.scalb(1.0 + (double) (sub + 1) / SUB_BUCKETS, exponent);
+    }
+
+    private static void writeDouble(ByteArrayOutputStream out, double v) {
+        out.writeBytes(ByteBuffer.allocate(8).putDouble(v).array());
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            byte b = in.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+            shift += 7;
+            if (shift > 63) throw new IllegalArgumentException("Corrupted histogram: varint too long");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram[count=" + totalCount + ", min=" + min + ", max=" + max
+            + ", p50=" + quantile(0.5) + ", p99=" + quantile(0.99) + "]";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof LatencyHistogram h && totalCount == h.totalCount && Arrays.equals(counts, h.counts);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(counts);
+    }
+}
@@ -0,0 +1,79 @@
+package com.gatlingweb.timeseries;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling (Steinarsson, 2013).
+ * <p>
+ * Keeps the first and last points; the points in between are split into {@code threshold - 2}
+ * equal buckets and each bucket keeps the point forming the largest triangle with the point kept
+ * before it and the average of the next bucket. Peaks survive, flat stretches collapse.
+ * NaN values count as zero when choosing points.
+ */
+public final class Lttb {
+
+    private Lttb() {}
+
+    /** Indices of the points to keep, in increasing order; every index when {@code count <= threshold}. */
+    public static int[] select(long[] x, double[] y, int count, int threshold) {
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("threshold must be positive");
+        }
+        if (count <= threshold) {
+            int[] all = new int[count];
+            for (int i = 0; i < count; i++) all[i] = i;
+            return all;
+        }
+        if (threshold == 1) return new int[] {0};
+        if (threshold == 2) return new int[] {0, count - 1};
+
+        int[] kept = new int[threshold];
+        int a = 0;
+        for (int bucket = 1; bucket < threshold - 1; bucket++) {
+            int start = bucketStart(bucket, count, threshold);
+            int end = bucketStart(bucket + 1, count, threshold);
+            int nextEnd = bucket + 2 < threshold ? bucketStart(bucket + 2, count, threshold) : count;
+
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = end; i < nextEnd; i++) {
+                avgX += x[i] - x[0];
+                avgY += valueAt(y, i);
+            }
+            avgX /= nextEnd - end;
+            avgY /= nextEnd - end;
+
+            double ax = x[a] - x[0];
+            double ay = valueAt(y, a);
+            int best = start;
+            double maxArea = -1;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((ax - avgX) * (valueAt(y, i) - ay) - (ax - (x[i] - x[0])) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    best = i;
+                }
+            }
+            kept[bucket] = best;
+            a = best;
+        }
+        kept[threshold - 1] = count - 1;
+        return kept;
+    }
+
+    /**
+     * First index of {@code bucket} as used by {@link #select}: bucket 0 is the first point, bucket
+     * {@code threshold - 1} the last one. Meant for {@code count > threshold}; below three buckets
+     * there is no middle one, so a single bucket holds every point and with two the points after
+     * the first go with the last.
+     */
+    public static int bucketStart(int bucket, int count, int threshold) {
+        if (bucket <= 0) return 0;
+        if (bucket >= threshold) return count;
+        if (threshold == 2) return 1;
+        return (int) ((long) (bucket - 1) * (count - 2) / (threshold - 2)) + 1;
+    }
+
+    private static double valueAt(double[] y, int i) {
+        double v = y[i];
+        return Double.isNaN(v) ? 0 : v;
+    }
+}
@@ -0,0 +1,74 @@
+package com.gatlingweb.timeseries;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Resolutions a series can be stored at. Rollups live next to the raw series under a suffixed
+ * name ({@code gatling_10s}, {@code infra-3_1m}).
+ */
+public enum Resolution {
+
+    RAW(0, "", "raw"),
+    TEN_SECONDS(10_000, "_10s", "10s"),
+    ONE_MINUTE(60_000, "_1m", "1m");
+
+    /** Rollups only; ordered finest first. */
+    public static final List<Resolution> ROLLUPS = List.of(TEN_SECONDS, ONE_MINUTE);
+
+    private final long stepMs;
+    private final String suffix;
+    private final String label;
+
+    Resolution(long stepMs, String suffix, String label) {
+        this.stepMs = stepMs;
+        this.suffix = suffix;
+        this.label = label;
+    }
+
+    /** Name accepted by {@link #parse}. */
+    public String label() {
+        return label;
+    }
+
+    public long stepMs() {
+        return stepMs;
+    }
+
+    public String seriesName(String baseSeries) {
+        return baseSeries + suffix;
+    }
+
+    public static boolean isRollupName(String series) {
+        return series.indexOf('_') >= 0;
+    }
+
+    /**
+     * Parses {@code raw}, {@code 10s}, {@code 1m}; returns null for {@code auto} or an empty value.
+     */
+    public static Resolution parse(String value) {
+        if (value == null || value.isBlank() || value.equalsIgnoreCase("auto")) return null;
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "raw", "1s" -> RAW;
+            case "10s" -> TEN_SECONDS;
+            case "1m", "60s" -> ONE_MINUTE;
+            default -> throw new IllegalArgumentException("Unknown resolution: " + value + " (expected raw, 10s, 1m or auto)");
+        };
+    }
+
+    /**
+     * Picks the finest resolution among {@code available} that returns at most {@code maxPoints}
+     * points over {@code spanMs}, or the coarsest available if none does.
+     * Raw points are assumed to be about {@code rawIntervalMs} apart.
+     */
+    public static Resolution select(long spanMs, int maxPoints, long rawIntervalMs, List<Resolution> available) {
+        Resolution coarsest = null;
+        for (Resolution r : values()) {
+            if (!available.contains(r)) continue;
+            long step = r == RAW ? Math.max(1, rawIntervalMs) : r.stepMs;
+            if (spanMs / step <= maxPoints) return r;
+            coarsest = r;
+        }
+        return coarsest;
+    }
+}
@@ -0,0 +1,168 @@
+package com.gatlingweb.timeseries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * How a latency series follows a resource series sampled on the same time grid. Missing samples
+ * are NaN and skipped pairwise.
+ * <p>
+ * {@link #bestLag} is the lagged cross-correlation: Pearson's r between the latency at step t and
+ * the resource at step t - lag, for every lag up to {@code maxLag} steps either way; a positive lag
+ * means the resource moves first. {@link #trackingLag} picks the lag on step-to-step changes
+ * instead, so that two series that merely ramp up together do not favour the longest lag.
+ * <p>
+ * {@link #knee} looks for saturation: latency flat up to a resource level and rising linearly
+ * above it. The hinge {@code y = a + b * max(0, x - level)} is fitted by least squares at candidate
+ * levels spread over the resource's range, and kept when it fits clearly better than a straight
+ * line through all the points and latency above the level is clearly higher than below it.
+ */
+public final class ResourceCorrelation {
+
+    /** Lag in grid steps and the correlation at that lag. */
+    public record Lag(int steps, double r, int pairs) {}
+
+    /**
+     * A saturation level: mean latency at or below it and above it, and how much better the hinge
+     * fits than a straight line ({@code 1 - SSE_hinge / SSE_line}).
+     */
+    public record Knee(double level, double latencyBelow, double latencyAbove, int samplesAbove, double fitGain) {}
+
+    static final int MAX_CANDIDATES = 50;
+
+    private ResourceCorrelation() {}
+
+    /** The lag with the highest correlation, or null when no lag has {@code minPairs} pairs with variance. */
+    public static Lag bestLag(double[] resource, double[] latency, int maxLag, int minPairs) {
+        Lag best = null;
+        for (int lag = -maxLag; lag <= maxLag; lag++) {
+            Lag candidate = correlation(resource, latency, lag);
+            if (candidate == null || candidate.pairs() < minPairs) continue;
+            if (best == null || candidate.r() > best.r()
+                    || candidate.r() == best.r() && Math.abs(lag) < Math.abs(best.steps())) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The lag at which changes in latency follow changes in the resource, with the correlation of
+     * the levels at that lag; falls back to {@link #bestLag} on the levels when the changes have no
+     * variance. Null when the lag has fewer than {@code minPairs} pairs.
+     */
+    public static Lag trackingLag(double[] resource, double[] latency, int maxLag, int minPairs) {
+        Lag changes = bestLag(differences(resource), differences(latency), maxLag, minPairs);
+        if (changes == null) return bestLag(resource, latency, maxLag, minPairs);
+        Lag levels = correlation(resource, latency, changes.steps());
+        return levels != null && levels.pairs() >= minPairs ? levels : null;
+    }
+
+    /** Pearson's r between latency[t] and resource[t - lag]; null without variance on either side. */
+    static Lag correlation(double[] resource, double[] latency, int lag) {
+        int n = 0;
+        double sx = 0, sy = 0, sxx = 0, syy = 0, sxy = 0;
+        for (int t = Math.max(0, lag); t < latency.length && t - lag < resource.length; t++) {
+            double x = resource[t - lag];
+            double y = latency[t];
+            if (Double.isNaN(x) || Double.isNaN(y)) continue;
+            n++;
+            sx += x;
+            sy += y;
+            sxx += x * x;
+            syy += y * y;
+            sxy += x * y;
+        }
+        if (n < 2) return null;
+        double vx = sxx - sx * sx / n;
+        double vy = syy - sy * sy / n;
+        if (vx <= 0 || vy <= 0) return null;
+        double r = (sxy - sx * sy / n) / Math.sqrt(vx * vy);
+        return new Lag(lag, Math.max(-1, Math.min(1, r)), n);
+    }
+
+    /**
+     * The saturation level of latency against the resource, or null when there is none: the hinge
+     * must cut the straight line's squared error by at least {@code minFitGain} and latency above
+     * the level must exceed latency below it by {@code minLift} (0.2 = 20 %). Each side needs
+     * {@code minSide} samples.
+     */
+    public static Knee knee(double[] resource, double[] latency, int minSide, double minFitGain, double minLift) {
+        List<double[]> pairs = new ArrayList<>();
+        for (int i = 0; i < Math.min(resource.length, latency.length); i++) {
+            if (!Double.isNaN(resource[i]) && !Double.isNaN(latency[i])) pairs.add(new double[] {resource[i], latency[i]});
+        }
+        int n = pairs.size();
+        if (n < 2 * minSide) return null;
+        pairs.sort((p, q) -> Double.compare(p[0], q[0]));
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = pairs.get(i)[0];
+            y[i] = pairs.get(i)[1];
+        }
+
+        double lineSse = fit(x, y, Double.NEGATIVE_INFINITY);
+        if (!(lineSse > 0)) return null;
+
+        double bestSse = Double.POSITIVE_INFINITY;
+        int bestIndex = -1;
+        int span = n - 2 * minSide;
+        int candidates = Math.min(MAX_CANDIDATES, span + 1);
+        for (int c = 0; c < candidates; c++) {
+            // Level between the last sample below it and the first above it
+            int i = minSide - 1 + (candidates > 1 ? (int) Math.round((double) c * span / (candidates - 1)) : 0);
+            if (x[i] == x[i + 1]) continue;
+            double sse = fit(x, y, x[i]);
+            if (sse < bestSse) {
+                bestSse = sse;
+                bestIndex = i;
+            }
+        }
+        if (bestIndex < 0) return null;
+
+        double level = x[bestIndex];
+        double below = mean(y, 0, bestIndex + 1);
+        double above = mean(y, bestIndex + 1, n);
+        double gain = 1 - bestSse / lineSse;
+        if (gain < minFitGain || below <= 0 || above < below * (1 + minLift)) return null;
+        return new Knee(level, below, above, n - bestIndex - 1, gain);
+    }
+
+    /**
+     * Residual squared error of {@code y = a + b * max(0, x - level)}, b forced to be non-negative;
+     * with a level of -infinity it is the straight line through all points.
+     */
+    private static double fit(double[] x, double[] y, double level) {
+        int n = x.length;
+        double[] h = new double[n];
+        for (int i = 0; i < n; i++) h[i] = Double.isInfinite(level) ? x[i] : Math.max(0, x[i] - level);
+        double mh = mean(h, 0, n);
+        double my = mean(y, 0, n);
+        double shh = 0, shy = 0;
+        for (int i = 0; i < n; i++) {
+            shh += (h[i] - mh) * (h[i] - mh);
+            shy += (h[i] - mh) * (y[i] - my);
+        }
+        double b = shh > 0 ? Math.max(0, shy / shh) : 0;
+        double a = my - b * mh;
+        double sse = 0;
+        for (int i = 0; i < n; i++) {
+            double e = y[i] - a - b * h[i];
+            sse += e * e;
+        }
+        return sse;
+    }
+
+    /** x[t] - x[t - 1], NaN at t = 0 and next to missing samples. */
+    static double[] differences(double[] x) {
+        double[] d = new double[x.length];
+        for (int t = 0; t < x.length; t++) d[t] = t > 0 ? x[t] - x[t - 1] : Double.NaN;
+        return d;
+    }
+
+    private static double mean(double[] values, int from, int to) {
+        return to > from ? Arrays.stream(values, from, to).sum() / (to - from) : 0;
+    }
+}
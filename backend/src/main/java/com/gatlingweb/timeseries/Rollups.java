@@ -0,0 +1,95 @@
+package com.gatlingweb.timeseries;
+
+/**
+ * Builds fixed-window aggregates of a raw series.
+ * <p>
+ * Every source column {@code c} becomes four rollup columns (min, max, sum, count) so that
+ * windows can be merged again later and averages stay exact. NaN values are ignored; a window
+ * where a column has no value gets NaN min/max and a zero count. Window timestamps are the
+ * window start, aligned on the epoch; points are expected in time order.
+ */
+public final class Rollups {
+
+    public static final int COLUMNS_PER_SOURCE = 4;
+
+    private Rollups() {}
+
+    /** Optional domain-specific columns appended after the generic ones. */
+    public interface Extension {
+
+        int columns();
+
+        /** Computes the extra columns for raw points {@code [from, to)} into {@code out}. */
+        void compute(SeriesData raw, int from, int to, double[] out);
+    }
+
+    public static int min(int column) { return column * COLUMNS_PER_SOURCE; }
+    public static int max(int column) { return column * COLUMNS_PER_SOURCE + 1; }
+    public static int sum(int column) { return column * COLUMNS_PER_SOURCE + 2; }
+    public static int count(int column) { return column * COLUMNS_PER_SOURCE + 3; }
+
+    /** Window average of a source column, or null when the window had no value for it. */
+    public static Double average(SeriesData rollup, int column, int index) {
+        double n = rollup.columns()[count(column)][index];
+        return n > 0 ? rollup.columns()[sum(column)][index] / n : null;
+    }
+
+    public static SeriesData aggregate(SeriesData raw, long stepMs, Extension extension) {
+        int sourceColumns = raw.columns().length;
+        int extra = extension != null ? extension.columns() : 0;
+        int windows = countWindows(raw.timestamps(), stepMs);
+        long[] timestamps = new long[windows];
+        double[][] columns = new double[sourceColumns * COLUMNS_PER_SOURCE + extra][windows];
+        double[] extraValues = new double[extra];
+
+        int window = 0;
+        int start = 0;
+        while (start < raw.size()) {
+            long windowIndex = Math.floorDiv(raw.timestamps()[start], stepMs);
+            long windowStart = windowIndex * stepMs;
+            int end = start;
+            while (end < raw.size() && Math.floorDiv(raw.timestamps()[end], stepMs) == windowIndex) end++;
+
+            timestamps[window] = windowStart;
+            for (int c = 0; c < sourceColumns; c++) {
+                double min = Double.NaN, max = Double.NaN, sum = 0;
+                int n = 0;
+                double[] values = raw.columns()[c];
+                for (int i = start; i < end; i++) {
+                    double v = values[i];
+                    if (Double.isNaN(v)) continue;
+                    min = n == 0 ? v : Math.min(min, v);
+                    max = n == 0 ? v : Math.max(max, v);
+                    sum += v;
+                    n++;
+                }
+                columns[min(c)][window] = min;
+                columns[max(c)][window] = max;
+                columns[sum(c)][window] = sum;
+                columns[count(c)][window] = n;
+            }
+            if (extension != null) {
+                extension.compute(raw, start, end, extraValues);
+                for (int e = 0; e < extra; e++) {
+                    columns[sourceColumns * COLUMNS_PER_SOURCE + e][window] = extraValues[e];
+                }
+            }
+            window++;
+            start = end;
+        }
+        return new SeriesData(raw.meta(), timestamps, columns);
+    }
+
+    private static int countWindows(long[] timestamps, long stepMs) {
+        int windows = 0;
+        long current = Long.MIN_VALUE;
+        for (long t : timestamps) {
+            long w = Math.floorDiv(t, stepMs);
+            if (windows == 0 || w != current) {
+                windows++;
+                current = w;
+            }
+        }
+        return windows;
+    }
+}
@@ -0,0 +1,17 @@
+package com.gatlingweb.timeseries;
+
+/**
+ * A decoded series: one timestamp array and one array per value column, all of {@link #size()} points.
+ */
+public record SeriesData(String meta, long[] timestamps, double[][] columns) {
+
+    public int size() {
+        return timestamps.length;
+    }
+
+    /** Value at {@code index} in {@code column}, or {@code null} when it was recorded as missing. */
+    public Double value(int column, int index) {
+        double v = columns[column][index];
+        return Double.isNaN(v) ? null : v;
+    }
+}
@@ -0,0 +1,11 @@
+package com.gatlingweb.timeseries;
+
+/**
+ * Receives a series block by block; arrays are reused between calls and only the first
+ * {@code count} entries are valid.
+ */
+@FunctionalInterface
+public interface SeriesVisitor {
+
+    void block(long[] timestamps, double[][] columns, int count);
+}
@@ -0,0 +1,666 @@
+package com.gatlingweb.timeseries;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Append-only columnar store for per-run metric series.
+ * <p>
+ * Each run gets a directory holding one file per series ({@code <root>/<runId>/<series>.tsc}).
+ * A file is a small header followed by sealed blocks of up to {@link #BLOCK_SIZE} points encoded
+ * with {@link GorillaCodec}; each block records its time span so range reads can skip it.
+ * Points are kept in memory until their block is full or the series is flushed, so a crash loses
+ * at most one unsealed block per series. Sealed blocks are fsynced in groups by {@link #sync()}.
+ * <p>
+ * A series may also have a histogram file ({@code <series>.tsh}): a small header followed by one
+ * record per window (start timestamp, length, {@link LatencyHistogram#toBytes()}), appended as
+ * each window closes.
+ * <p>
+ * Appends are expected from a single writer ({@link TimeSeriesWriter}); reads may run concurrently.
+ */
+@Service
+public class TimeSeriesStore {
+
+    private static final Logger log = LoggerFactory.getLogger(TimeSeriesStore.class);
+
+    static final int MAGIC = 0x47575453; // "GWTS"
+    static final int FORMAT_VERSION = 1;
+    static final int BLOCK_SIZE = 120;
+    static final String FILE_EXTENSION = ".tsc";
+    static final int HISTOGRAM_MAGIC = 0x47574853; // "GWHS"
+    static final String HISTOGRAM_EXTENSION = ".tsh";
+    private static final int BLOCK_HEADER_SIZE = 24;
+
+    private static final Pattern SERIES_NAME = Pattern.compile("[a-z0-9][a-z0-9_-]*");
+
+    private final Path root;
+    private final Map<Path, OpenSeries> openSeries = new ConcurrentHashMap<>();
+    private final Set<Path> unsynced = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Instant> lastOpened = new ConcurrentHashMap<>();
+
+    public TimeSeriesStore(@Value("${gatling.metrics-dir:${user.home}/gatlingweb-metrics}") String directory) {
+        this.root = Path.of(directory).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Appends one point to a series, creating it with the given metadata on first use.
+     * Missing values must be passed as {@link Double#NaN}.
+     */
+    public void append(long runId, String series, String meta, long timestamp, double[] values) {
+        Path file = seriesFile(runId, series);
+        while (true) {
+            OpenSeries open = openSeries.computeIfAbsent(file, f -> {
+                lastOpened.put(runId, Instant.now());
+                return new OpenSeries(f, meta, values.length);
+            });
+            synchronized (open) {
+                if (open.closed) continue;
+                if (open.add(timestamp, values)) unsynced.add(file);
+                return;
+            }
+        }
+    }
+
+    public Optional<SeriesData> read(long runId, String series) {
+        return read(runId, series, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Reads the points of a series whose timestamp lies in {@code [from, to]}. Blocks entirely
+     * outside the range are skipped without being decoded.
+     */
+    public Optional<SeriesData> read(long runId, String series, long from, long to) {
+        Path file = seriesFile(runId, series);
+        OpenSeries open = openSeries.get(file);
+        if (open != null) {
+            synchronized (open) {
+                if (!open.closed) return readLocked(file, open, from, to);
+            }
+        }
+        return Files.exists(file) ? readLocked(file, null, from, to) : Optional.empty();
+    }
+
+    /**
+     * Streams a series block by block without materialising it; returns the series metadata,
+     * or empty if the series does not exist.
+     */
+    public Optional<String> scan(long runId, String series, SeriesVisitor visitor) {
+        return scan(runId, series, Long.MIN_VALUE, Long.MAX_VALUE, visitor);
+    }
+
+    /**
+     * Streams the blocks that overlap {@code [from, to]}; blocks are passed whole, so the
+     * visitor still has to filter points at the edges of the range.
+     */
+    public Optional<String> scan(long runId, String series, long from, long to, SeriesVisitor visitor) {
+        Path file = seriesFile(runId, series);
+        OpenSeries open = openSeries.get(file);
+        if (open != null) {
+            synchronized (open) {
+                if (!open.closed) {
+                    if (Files.exists(file)) readBlocks(file, from, to, visitor);
+                    open.visitPending(from, to, visitor);
+                    return Optional.of(open.meta);
+                }
+            }
+        }
+        return Files.exists(file) ? Optional.ofNullable(readBlocks(file, from, to, visitor)).map(Header::meta) : Optional.empty();
+    }
+
+    /**
+     * Writes a complete series in one go, replacing any previous version atomically.
+     * Used for derived series such as rollups; must not target a series that is being appended to.
+     */
+    public void write(long runId, String series, SeriesData data) {
+        Path file = seriesFile(runId, series);
+        if (openSeries.containsKey(file)) {
+            throw new IllegalStateException("Series " + series + " of run " + runId + " is still being written");
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                write(channel, ByteBuffer.wrap(new Header(data.columns().length, data.meta() != null ? data.meta() : "").toBytes()));
+                int columnCount = data.columns().length;
+                long[] timestamps = new long[BLOCK_SIZE];
+                double[][] columns = new double[columnCount][BLOCK_SIZE];
+                for (int start = 0; start < data.size(); start += BLOCK_SIZE) {
+                    int count = Math.min(BLOCK_SIZE, data.size() - start);
+                    System.arraycopy(data.timestamps(), start, timestamps, 0, count);
+                    for (int c = 0; c < columnCount; c++) {
+                        System.arraycopy(data.columns()[c], start, columns[c], 0, count);
+                    }
+                    write(channel, encodeBlock(timestamps, columns, count));
+                }
+                channel.force(false);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Appends the histogram of the window starting at {@code timestamp}; windows must come in time order. */
+    public void appendHistogram(long runId, String series, long timestamp, LatencyHistogram histogram) {
+        Path file = histogramFile(runId, series);
+        byte[] bytes = histogram.toBytes();
+        lastOpened.put(runId, Instant.now());
+        try {
+            boolean created = !Files.exists(file);
+            if (created) Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                if (created) {
+                    write(channel, ByteBuffer.allocate(6).putInt(HISTOGRAM_MAGIC).putShort((short) FORMAT_VERSION).flip());
+                }
+                write(channel, ByteBuffer.allocate(12 + bytes.length).putLong(timestamp).putInt(bytes.length).put(bytes).flip());
+            }
+            unsynced.add(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Histograms of the windows starting in {@code [from, to]}, or empty if the series has none. */
+    public Optional<HistogramSeries> readHistograms(long runId, String series, long from, long to) {
+        Path file = histogramFile(runId, series);
+        LongArray timestamps = new LongArray();
+        List<LatencyHistogram> histograms = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != HISTOGRAM_MAGIC) {
+                throw new IllegalStateException("Not a histogram file: " + file);
+            }
+            int version = in.readUnsignedShort();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported histogram format " + version + ": " + file);
+            }
+            while (true) {
+                long timestamp;
+                try {
+                    timestamp = in.readLong();
+                } catch (EOFException e) {
+                    break;
+                }
+                int length = in.readInt();
+                if (length <= 0) throw new IllegalStateException("Corrupted histogram record in " + file);
+                if (timestamp < from || timestamp > to) {
+                    in.skipNBytes(length);
+                    continue;
+                }
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                timestamps.add(timestamp);
+                histograms.add(LatencyHistogram.fromBytes(bytes));
+            }
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (EOFException e) {
+            // Record torn by a crash or still being appended: keep the complete ones
+            log.debug("Truncated histogram file {}, ignoring incomplete tail record", file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Optional.of(new HistogramSeries(timestamps.toArray(), histograms));
+    }
+
+    public boolean exists(long runId, String series) {
+        Path file = seriesFile(runId, series);
+        return openSeries.containsKey(file) || Files.exists(file);
+    }
+
+    public void deleteSeries(long runId, String series) {
+        Path file = seriesFile(runId, series);
+        if (openSeries.containsKey(file)) {
+            throw new IllegalStateException("Series " + series + " of run " + runId + " is still being written");
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Metadata recorded with the series, or empty if the series does not exist. */
+    public Optional<String> meta(long runId, String series) {
+        Path file = seriesFile(runId, series);
+        OpenSeries open = openSeries.get(file);
+        if (open != null) return Optional.of(open.meta);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return Optional.of(Header.read(in, file).meta);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Last time a sealed block was written to the series, or empty if it has no file yet. */
+    public Optional<Instant> lastModified(long runId, String series) {
+        try {
+            return Optional.of(Files.getLastModifiedTime(seriesFile(runId, series)).toInstant());
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Last time a series of the run was opened for appending or received a histogram, or empty if
+     * nothing was appended to the run since the store started.
+     */
+    public Optional<Instant> lastOpened(long runId) {
+        return Optional.ofNullable(lastOpened.get(runId));
+    }
+
+    /** True while any series of the run still has points buffered in memory. */
+    public boolean isOpen(long runId) {
+        Path dir = runDirectory(runId);
+        return openSeries.keySet().stream().anyMatch(file -> file.getParent().equals(dir));
+    }
+
+    public List<Long> listRuns() {
+        if (!Files.isDirectory(root)) return List.of();
+        try (Stream<Path> dirs = Files.list(root)) {
+            return dirs.map(p -> p.getFileName().toString())
+                .filter(n -> n.chars().allMatch(Character::isDigit) && !n.isEmpty())
+                .map(Long::valueOf)
+                .sorted()
+                .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public List<String> listSeries(long runId) {
+        List<String> names = new ArrayList<>();
+        Path dir = runDirectory(runId);
+        if (Files.isDirectory(dir)) {
+            try (Stream<Path> files = Files.list(dir)) {
+                files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.endsWith(FILE_EXTENSION))
+                    .map(n -> n.substring(0, n.length() - FILE_EXTENSION.length()))
+                    .forEach(names::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        // Series whose first block has not been sealed yet have no file on disk
+        openSeries.forEach((file, open) -> {
+            if (file.getParent().equals(dir)) {
+                String name = file.getFileName().toString();
+                name = name.substring(0, name.length() - FILE_EXTENSION.length());
+                if (!names.contains(name)) names.add(name);
+            }
+        });
+        names.sort(Comparator.naturalOrder());
+        return names;
+    }
+
+    /**
+     * Seals every open block to disk, fsyncs and releases the in-memory buffers.
+     */
+    public void flush() {
+        for (Path file : List.copyOf(openSeries.keySet())) {
+            closeSeries(file);
+        }
+        sync();
+    }
+
+    /** Same as {@link #flush()} restricted to one run. */
+    public void flush(long runId) {
+        Path dir = runDirectory(runId);
+        for (Path file : List.copyOf(openSeries.keySet())) {
+            if (file.getParent().equals(dir)) closeSeries(file);
+        }
+        sync();
+    }
+
+    /**
+     * Fsyncs every file that received full blocks since the last call, so a group of
+     * appends costs one fsync per file instead of one per block.
+     */
+    public void sync() {
+        for (Path file : List.copyOf(unsynced)) {
+            unsynced.remove(file);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.force(false);
+            } catch (NoSuchFileException e) {
+                // run deleted in the meantime
+            } catch (IOException e) {
+                log.warn("Failed to sync time series {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    public void deleteRun(long runId) {
+        Path dir = runDirectory(runId);
+        openSeries.keySet().removeIf(file -> {
+            if (!file.getParent().equals(dir)) return false;
+            OpenSeries open = openSeries.get(file);
+            if (open != null) {
+                synchronized (open) { open.closed = true; }
+            }
+            return true;
+        });
+        unsynced.removeIf(file -> file.getParent().equals(dir));
+        lastOpened.remove(runId);
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete metrics for run {}: {}", runId, e.getMessage());
+        }
+    }
+
+    /** Bytes on disk used by a run, excluding points not yet sealed. */
+    public long diskUsage(long runId) {
+        Path dir = runDirectory(runId);
+        if (!Files.isDirectory(dir)) return 0;
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.mapToLong(p -> {
+                try {
+                    return Files.size(p);
+                } catch (IOException e) {
+                    return 0;
+                }
+            }).sum();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private void closeSeries(Path file) {
+        OpenSeries open = openSeries.remove(file);
+        if (open == null) return;
+        synchronized (open) {
+            if (open.closed) return;
+            open.closed = true;
+            try {
+                open.seal();
+                unsynced.add(file);
+            } catch (IOException e) {
+                log.error("Failed to flush time series {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private Optional<SeriesData> readLocked(Path file, OpenSeries open, long from, long to) {
+        LongArray timestamps = new LongArray();
+        List<DoubleArray> columns = new ArrayList<>();
+        SeriesVisitor collect = (ts, cols, count) -> {
+            if (columns.isEmpty()) {
+                for (int c = 0; c < cols.length; c++) columns.add(new DoubleArray());
+            }
+            int start = 0;
+            while (start < count && ts[start] < from) start++;
+            int end = count;
+            while (end > start && ts[end - 1] > to) end--;
+            if (end <= start) return;
+            timestamps.addAll(ts, start, end - start);
+            for (int c = 0; c < cols.length; c++) columns.get(c).addAll(cols[c], start, end - start);
+        };
+        Header header = Files.exists(file) ? readBlocks(file, from, to, collect) : null;
+        if (header == null && open == null) return Optional.empty();
+        String meta = header != null ? header.meta : open.meta;
+        // The header fixes the width even when no block overlaps the range
+        int columnCount = header != null ? header.columnCount : open.columns.length;
+        if (open != null) {
+            open.visitPending(from, to, collect);
+        }
+        while (columns.size() < columnCount) columns.add(new DoubleArray());
+        double[][] values = new double[columns.size()][];
+        for (int c = 0; c < values.length; c++) values[c] = columns.get(c).toArray();
+        return Optional.of(new SeriesData(meta, timestamps.toArray(), values));
+    }
+
+    /** Visits the blocks overlapping {@code [from, to]}; returns the file header, or null if it is missing. */
+    private Header readBlocks(Path file, long from, long to, SeriesVisitor visitor) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            Header header;
+            try {
+                header = Header.read(in, file);
+            } catch (EOFException e) {
+                log.warn("Truncated time-series header in {}", file);
+                return null;
+            }
+            long[] timestamps = new long[BLOCK_SIZE];
+            double[][] columns = new double[header.columnCount][BLOCK_SIZE];
+            try {
+                while (true) {
+                    int count;
+                    try {
+                        count = in.readInt();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    int length = in.readInt();
+                    long firstTimestamp = in.readLong();
+                    long lastTimestamp = in.readLong();
+                    if (count <= 0 || count > BLOCK_SIZE || length < 0) {
+                        throw new IllegalStateException("Corrupted time-series block in " + file);
+                    }
+                    if (lastTimestamp < from || firstTimestamp > to) {
+                        in.skipNBytes(length);
+                        continue;
+                    }
+                    byte[] payload = new byte[length];
+                    in.readFully(payload);
+                    GorillaCodec.decode(payload, count, timestamps, columns);
+                    visitor.block(timestamps, columns, count);
+                }
+            } catch (EOFException e) {
+                // Torn tail block after a crash: keep what was fully written
+                log.warn("Truncated time-series file {}, ignoring incomplete tail block", file);
+            }
+            return header;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Block layout: point count, payload length, first and last timestamp, Gorilla payload. */
+    private static ByteBuffer encodeBlock(long[] timestamps, double[][] columns, int count) {
+        byte[] payload = GorillaCodec.encode(timestamps, columns, count);
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            first = Math.min(first, timestamps[i]);
+            last = Math.max(last, timestamps[i]);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(BLOCK_HEADER_SIZE + payload.length);
+        buffer.putInt(count).putInt(payload.length).putLong(first).putLong(last).put(payload).flip();
+        return buffer;
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+
+    private Path runDirectory(long runId) {
+        return root.resolve(Long.toString(runId));
+    }
+
+    private Path seriesFile(long runId, String series) {
+        return runDirectory(runId).resolve(checkName(series) + FILE_EXTENSION);
+    }
+
+    private Path histogramFile(long runId, String series) {
+        return runDirectory(runId).resolve(checkName(series) + HISTOGRAM_EXTENSION);
+    }
+
+    private static String checkName(String series) {
+        if (!SERIES_NAME.matcher(series).matches()) {
+            throw new IllegalArgumentException("Invalid series name: " + series);
+        }
+        return series;
+    }
+
+    private record Header(int columnCount, String meta) {
+
+        static Header read(DataInputStream in, Path file) throws IOException {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalStateException("Not a time-series file: " + file);
+            }
+            int version = in.readUnsignedShort();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported time-series format " + version + ": " + file);
+            }
+            int columnCount = in.readUnsignedShort();
+            String meta = in.readUTF();
+            return new Header(columnCount, meta);
+        }
+
+        byte[] toBytes() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeShort(FORMAT_VERSION);
+            out.writeShort(columnCount);
+            out.writeUTF(meta);
+            return bytes.toByteArray();
+        }
+    }
+
+    private static final class OpenSeries {
+
+        final Path file;
+        final String meta;
+        final long[] timestamps = new long[BLOCK_SIZE];
+        final double[][] columns;
+        int count;
+        boolean closed;
+
+        OpenSeries(Path file, String meta, int columnCount) {
+            this.file = file;
+            String existingMeta = meta;
+            if (Files.exists(file)) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                    Header header = Header.read(in, file);
+                    if (header.columnCount != columnCount) {
+                        throw new IllegalStateException("Series " + file + " has " + header.columnCount
+                            + " columns, got " + columnCount);
+                    }
+                    existingMeta = header.meta;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            this.meta = existingMeta != null ? existingMeta : "";
+            this.columns = new double[columnCount][BLOCK_SIZE];
+        }
+
+        /** Returns true when the point completed a block that was written to disk. */
+        boolean add(long timestamp, double[] values) {
+            if (values.length != columns.length) {
+                throw new IllegalArgumentException("Expected " + columns.length + " values, got " + values.length);
+            }
+            timestamps[count] = timestamp;
+            for (int c = 0; c < values.length; c++) {
+                columns[c][count] = values[c];
+            }
+            count++;
+            if (count < BLOCK_SIZE) return false;
+            try {
+                seal();
+                return true;
+            } catch (IOException e) {
+                count--;
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void visitPending(long from, long to, SeriesVisitor visitor) {
+            if (count > 0 && timestamps[count - 1] >= from && timestamps[0] <= to) {
+                visitor.block(timestamps, columns, count);
+            }
+        }
+
+        void seal() throws IOException {
+            if (count == 0) return;
+            ByteBuffer block = encodeBlock(timestamps, columns, count);
+            boolean created = !Files.exists(file);
+            if (created) Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                if (created) write(channel, ByteBuffer.wrap(new Header(columns.length, meta).toBytes()));
+                write(channel, block);
+            }
+            count = 0;
+        }
+    }
+
+    private static final class LongArray {
+        private long[] data = new long[BLOCK_SIZE];
+        private int size;
+
+        void add(long value) {
+            if (size == data.length) data = Arrays.copyOf(data, data.length * 2);
+            data[size++] = value;
+        }
+
+        void addAll(long[] values, int offset, int count) {
+            if (size + count > data.length) data = Arrays.copyOf(data, Math.max(data.length * 2, size + count));
+            System.arraycopy(values, offset, data, size, count);
+            size += count;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+
+    private static final class DoubleArray {
+        private double[] data = new double[BLOCK_SIZE];
+        private int size;
+
+        void addAll(double[] values, int offset, int count) {
+            if (size + count > data.length) data = Arrays.copyOf(data, Math.max(data.length * 2, size + count));
+            System.arraycopy(values, offset, data, size, count);
+            size += count;
+        }
+
+        double[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
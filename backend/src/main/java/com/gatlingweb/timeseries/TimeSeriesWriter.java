@@ -0,0 +1,223 @@
+package com.gatlingweb.timeseries;
+
+import com.gatlingweb.dto.MetricsWriterStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind pipeline in front of {@link TimeSeriesStore}.
+ * <p>
+ * Producers (log parser, infra scraper) enqueue points into a bounded lock-free queue and return
+ * immediately; when the queue is full the point is dropped and counted rather than blocking the
+ * producer. A single writer thread drains the queue and group-commits: points are applied to the
+ * store once {@code batch-size} of them are pending or {@code commit-interval-ms} has elapsed since
+ * the first one, followed by one fsync per touched file.
+ */
+@Service
+public class TimeSeriesWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(TimeSeriesWriter.class);
+
+    private final TimeSeriesStore store;
+    private final int capacity;
+    private final int batchSize;
+    private final long commitIntervalNanos;
+
+    private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicInteger maxDepth = new AtomicInteger();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong commits = new AtomicLong();
+    private volatile long lastCommitMicros;
+    private volatile long lastCommitAt;
+    private volatile int uncommitted;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public TimeSeriesWriter(
+            TimeSeriesStore store,
+            @Value("${gatling.metrics-writer.queue-capacity:20000}") int capacity,
+            @Value("${gatling.metrics-writer.batch-size:500}") int batchSize,
+            @Value("${gatling.metrics-writer.commit-interval-ms:1000}") long commitIntervalMs) {
+        if (capacity <= 0 || batchSize <= 0 || commitIntervalMs <= 0) {
+            throw new IllegalArgumentException("metrics-writer settings must be positive");
+        }
+        this.store = store;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.commitIntervalNanos = TimeUnit.MILLISECONDS.toNanos(commitIntervalMs);
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        writerThread = new Thread(this::runLoop, "metrics-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread;
+        synchronized (this) {
+            if (!running) return;
+            running = false;
+            thread = writerThread;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            log.warn("Metrics writer did not stop in time, {} points still queued", depth.get());
+        }
+    }
+
+    /**
+     * Enqueues a point without blocking. Returns false if the queue is full and the point was dropped.
+     */
+    public boolean offer(long runId, String series, String meta, long timestamp, double[] values) {
+        return enqueue(new Entry(runId, series, meta, timestamp, values, null, null, false));
+    }
+
+    /**
+     * Enqueues the latency histogram of the window starting at {@code timestamp}, copied so the
+     * caller can reuse it. Same queue and drop policy as {@link #offer}.
+     */
+    public boolean offerHistogram(long runId, String series, long timestamp, LatencyHistogram histogram) {
+        return enqueue(new Entry(runId, series, null, timestamp, null, histogram.copy(), null, false));
+    }
+
+    private boolean enqueue(Entry entry) {
+        int size = depth.incrementAndGet();
+        if (size > capacity || !running) {
+            depth.decrementAndGet();
+            long total = dropped.incrementAndGet();
+            if (total == 1 || total % 1000 == 0) {
+                log.warn("Metrics writer {} ({} points), {} points dropped so far",
+                    running ? "queue full" : "stopped", capacity, total);
+            }
+            return false;
+        }
+        queue.offer(entry);
+        enqueued.incrementAndGet();
+        maxDepth.accumulateAndGet(size, Math::max);
+        if (size == 1) LockSupport.unpark(writerThread);
+        return true;
+    }
+
+    /**
+     * Completes once every point enqueued before this call has been applied to the store.
+     * When {@code seal} is true, open blocks of {@code runId} (or of every run when null) are
+     * also written out and fsynced.
+     */
+    public CompletableFuture<Void> barrier(Long runId, boolean seal) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        if (!running) {
+            if (seal) {
+                if (runId != null) store.flush(runId); else store.flush();
+            }
+            done.complete(null);
+            return done;
+        }
+        // Barriers bypass the capacity limit: they are rare and must never be lost
+        depth.incrementAndGet();
+        queue.offer(new Entry(runId != null ? runId : -1, null, null, 0, null, null, done, seal));
+        LockSupport.unpark(writerThread);
+        return done;
+    }
+
+    /** True if every enqueued point has been applied to the store. */
+    public boolean isIdle() {
+        return depth.get() == 0 && uncommitted == 0;
+    }
+
+    public MetricsWriterStats stats() {
+        return new MetricsWriterStats(depth.get(), capacity, maxDepth.get(),
+            enqueued.get(), written.get(), dropped.get(), commits.get(), lastCommitMicros, lastCommitAt);
+    }
+
+    private void runLoop() {
+        List<Entry> pending = new ArrayList<>(batchSize);
+        long firstPendingAt = 0;
+        while (running || depth.get() > 0) {
+            Entry entry = queue.poll();
+            if (entry == null) {
+                if (!pending.isEmpty() && System.nanoTime() - firstPendingAt >= commitIntervalNanos) {
+                    commit(pending);
+                }
+                LockSupport.parkNanos(pending.isEmpty() ? commitIntervalNanos : commitIntervalNanos / 4);
+                continue;
+            }
+            if (entry.done == null) {
+                if (pending.isEmpty()) firstPendingAt = System.nanoTime();
+                pending.add(entry);
+                // Publish the pending count before the queue depth drops so isIdle() never sees a gap
+                uncommitted = pending.size();
+                depth.decrementAndGet();
+                if (pending.size() >= batchSize) commit(pending);
+                continue;
+            }
+            depth.decrementAndGet();
+            commit(pending);
+            try {
+                if (entry.seal) {
+                    if (entry.runId >= 0) store.flush(entry.runId); else store.flush();
+                }
+                entry.done.complete(null);
+            } catch (RuntimeException e) {
+                entry.done.completeExceptionally(e);
+            }
+        }
+        commit(pending);
+        store.flush();
+    }
+
+    private void commit(List<Entry> pending) {
+        if (pending.isEmpty()) return;
+        long start = System.nanoTime();
+        int applied = 0;
+        for (Entry e : pending) {
+            try {
+                if (e.histogram != null) {
+                    store.appendHistogram(e.runId, e.series, e.timestamp, e.histogram);
+                } else {
+                    store.append(e.runId, e.series, e.meta, e.timestamp, e.values);
+                }
+                applied++;
+            } catch (RuntimeException ex) {
+                log.error("Failed to write metrics point for run {} ({}): {}", e.runId, e.series, ex.getMessage());
+            }
+        }
+        store.sync();
+        pending.clear();
+        uncommitted = 0;
+        written.addAndGet(applied);
+        commits.incrementAndGet();
+        lastCommitMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        lastCommitAt = System.currentTimeMillis();
+    }
+
+    private record Entry(long runId, String series, String meta, long timestamp, double[] values,
+                         LatencyHistogram histogram, CompletableFuture<Void> done, boolean seal) {}
+}
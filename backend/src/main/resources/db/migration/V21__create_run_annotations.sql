@@ -0,0 +1,11 @@
+-- Annotations horodatées sur la timeline d'un run (ajustements de débit, pauses...)
+CREATE TABLE run_annotations (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    test_run_id INTEGER NOT NULL,
+    timestamp BIGINT NOT NULL,
+    type TEXT NOT NULL,
+    message TEXT,
+    FOREIGN KEY (test_run_id) REFERENCES test_runs(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_run_annotations_test_run ON run_annotations(test_run_id, timestamp);
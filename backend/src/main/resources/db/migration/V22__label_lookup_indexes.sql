@@ -0,0 +1,6 @@
+-- Index pour filtrer l'historique par label (la cle primaire commence par test_run_id)
+CREATE INDEX IF NOT EXISTS idx_test_run_labels_label
+    ON test_run_labels(label, test_run_id);
+
+CREATE INDEX IF NOT EXISTS idx_selenium_run_labels_label
+    ON selenium_test_run_labels(label, test_run_id);
@@ -0,0 +1,23 @@
+-- Histogrammes de latence mergeables par run termine : global (request_name = '')
+-- et par requete Gatling / etape Selenium
+CREATE TABLE run_histograms (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    run_kind TEXT NOT NULL,
+    run_id INTEGER NOT NULL,
+    request_name TEXT NOT NULL,
+    sample_count BIGINT NOT NULL,
+    histogram BLOB NOT NULL
+);
+
+CREATE UNIQUE INDEX idx_run_histograms_run ON run_histograms(run_kind, run_id, request_name);
+
+-- Pas de cle etrangere possible (deux tables de runs) : suppression en cascade par triggers
+CREATE TRIGGER trg_test_runs_delete_histograms AFTER DELETE ON test_runs
+BEGIN
+    DELETE FROM run_histograms WHERE run_kind = 'GATLING' AND run_id = OLD.id;
+END;
+
+CREATE TRIGGER trg_selenium_test_runs_delete_histograms AFTER DELETE ON selenium_test_runs
+BEGIN
+    DELETE FROM run_histograms WHERE run_kind = 'SELENIUM' AND run_id = OLD.id;
+END;
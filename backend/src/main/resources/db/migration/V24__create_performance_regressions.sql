@@ -0,0 +1,19 @@
+-- Régressions détectées automatiquement sur l'historique d'une simulation (point de rupture E-divisive)
+CREATE TABLE performance_regressions (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    simulation_class TEXT NOT NULL,
+    metric TEXT NOT NULL,
+    change_run_id INTEGER NOT NULL,
+    change_version TEXT,
+    detected_run_id INTEGER,
+    baseline_value DOUBLE NOT NULL,
+    current_value DOUBLE NOT NULL,
+    change_percent DOUBLE NOT NULL,
+    p_value DOUBLE NOT NULL,
+    probability_slower DOUBLE,
+    detected_at BIGINT NOT NULL,
+    FOREIGN KEY (change_run_id) REFERENCES test_runs(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_performance_regressions_simulation ON performance_regressions(simulation_class, metric, id);
+CREATE INDEX idx_performance_regressions_detected ON performance_regressions(detected_at);
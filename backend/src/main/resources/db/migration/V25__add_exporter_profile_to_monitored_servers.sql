@@ -0,0 +1,2 @@
+-- Profil d'exporter Prometheus lu par le scraper (voir exporter-profiles.json)
+ALTER TABLE monitored_servers ADD COLUMN exporter_profile TEXT NOT NULL DEFAULT 'windows_exporter';
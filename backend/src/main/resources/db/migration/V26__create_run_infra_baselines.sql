@@ -0,0 +1,34 @@
+-- Utilisation moyenne des serveurs surveillés avant un run (ligne de base au repos)
+-- et pendant le refroidissement qui le suit
+CREATE TABLE run_infra_baselines (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    run_kind TEXT NOT NULL,
+    run_id INTEGER NOT NULL,
+    phase TEXT NOT NULL,
+    server_id INTEGER NOT NULL,
+    server_name TEXT,
+    server_type TEXT,
+    samples INTEGER NOT NULL,
+    from_timestamp BIGINT NOT NULL,
+    to_timestamp BIGINT NOT NULL,
+    cpu_percent REAL,
+    memory_percent REAL,
+    disk_read_bytes_per_sec REAL,
+    disk_write_bytes_per_sec REAL,
+    network_recv_bytes_per_sec REAL,
+    network_sent_bytes_per_sec REAL,
+    sql_batch_per_sec REAL
+);
+
+CREATE INDEX idx_run_infra_baselines_run ON run_infra_baselines(run_kind, run_id, phase);
+
+-- Pas de clé étrangère possible (deux tables de runs) : suppression en cascade par triggers
+CREATE TRIGGER trg_test_runs_delete_infra_baselines AFTER DELETE ON test_runs
+BEGIN
+    DELETE FROM run_infra_baselines WHERE run_kind = 'GATLING' AND run_id = OLD.id;
+END;
+
+CREATE TRIGGER trg_selenium_test_runs_delete_infra_baselines AFTER DELETE ON selenium_test_runs
+BEGIN
+    DELETE FROM run_infra_baselines WHERE run_kind = 'SELENIUM' AND run_id = OLD.id;
+END;
@@ -0,0 +1,23 @@
+-- Corrélation latence / ressources d'un run : une ligne par serveur et ressource, classées
+-- de la plus à la moins probable comme goulet d'étranglement
+CREATE TABLE run_bottleneck_findings (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    test_run_id INTEGER NOT NULL,
+    ranking INTEGER NOT NULL,
+    server_id INTEGER NOT NULL,
+    server_name TEXT,
+    resource TEXT NOT NULL,
+    correlation REAL NOT NULL,
+    lag_ms BIGINT NOT NULL,
+    peak REAL,
+    knee_level REAL,
+    latency_below_knee REAL,
+    latency_above_knee REAL,
+    score REAL NOT NULL,
+    step_ms BIGINT NOT NULL,
+    points INTEGER NOT NULL,
+    analyzed_at BIGINT NOT NULL,
+    FOREIGN KEY (test_run_id) REFERENCES test_runs(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_run_bottleneck_findings_run ON run_bottleneck_findings(test_run_id, ranking);
@@ -0,0 +1,98 @@
+package gatlingweb
+
+import io.gatling.commons.validation._
+import io.gatling.core.Predef._
+import io.gatling.core.session.Expression
+import io.gatling.core.structure.ChainBuilder
+
+import java.lang.invoke.VarHandle
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.{Files, Path, StandardOpenOption}
+import scala.concurrent.duration._
+
+// Fichier installe automatiquement par Gatling-Web : ne pas modifier, il est reecrit au demarrage.
+//
+// Lit le multiplicateur de debit et le drapeau de pause pilotes depuis l'interface pendant le run.
+// Usage dans une simulation :
+//
+//   import gatlingweb.ThroughputControl
+//
+//   scenario("...")
+//     .exec(ThroughputControl.gate)            // attend tant que le run est en pause
+//     .exec(http("GET Home").get("/"))
+//     .exec(ThroughputControl.pace(1.second))  // pause de 1 s divisee par le multiplicateur
+//
+// gate et pace n'agissent que sur les pauses des utilisateurs deja presents : ils pilotent un
+// modele ferme (constantConcurrentUsers, rampConcurrentUsers, boucles dans le scenario). En
+// injection ouverte (constantUsersPerSec, rampUsersPerSec...), le multiplicateur ne change pas le
+// rythme d'arrivee, et les utilisateurs arrives pendant une pause s'accumuleraient dans gate puis
+// partiraient tous ensemble a la reprise. Commencer alors le scenario par admit, qui les renvoie :
+//
+//   scenario("...")
+//     .exec(ThroughputControl.admit)           // un utilisateur arrive pendant la pause sort aussitot
+//     .exec(http("GET Home").get("/"))
+//
+// Sans -Dgatlingweb.controlFile (lancement hors Gatling-Web), multiplicateur = 1 et jamais en pause.
+object ThroughputControl {
+
+  private val Magic = 0x47574354
+  private val OffsetSequence = 8
+  private val OffsetMultiplier = 16
+  private val OffsetPaused = 24
+  private val PollInterval = 250.milliseconds
+
+  private val buffer: Option[MappedByteBuffer] =
+    Option(System.getProperty("gatlingweb.controlFile"))
+      .map(Path.of(_))
+      .filter(Files.exists(_))
+      .flatMap { path =>
+        val channel = FileChannel.open(path, StandardOpenOption.READ)
+        try {
+          val mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, 32)
+          if (mapped.getInt(0) == Magic) Some(mapped) else None
+        } finally channel.close()
+      }
+
+  private def read(): (Double, Boolean) = buffer match {
+    case None => (1.0, false)
+    case Some(b) =>
+      var result: (Double, Boolean) = null
+      while (result == null) {
+        val before = b.getLong(OffsetSequence)
+        VarHandle.loadLoadFence()
+        val multiplier = b.getDouble(OffsetMultiplier)
+        val paused = b.getInt(OffsetPaused) != 0
+        VarHandle.loadLoadFence()
+        val after = b.getLong(OffsetSequence)
+        if (before == after && (before & 1L) == 0L) result = (multiplier, paused)
+        else Thread.onSpinWait()
+      }
+      result
+  }
+
+  def rateMultiplier: Double = read()._1
+
+  def paused: Boolean = read()._2
+
+  /** Duree de pause ajustee : x2 divise les pauses par deux, x0.5 les double. */
+  def scaled(base: FiniteDuration): FiniteDuration = {
+    val multiplier = rateMultiplier
+    if (multiplier <= 0) base else (base.toNanos / multiplier).toLong.nanos
+  }
+
+  private val isPaused: Expression[Boolean] = _ => paused.success
+
+  /** Boucle sans bloquer les threads Gatling tant que le run est en pause (modele ferme). */
+  val gate: ChainBuilder = asLongAs(isPaused) {
+    pause(PollInterval)
+  }
+
+  /** Porte d'entree de l'injection ouverte : l'utilisateur quitte le scenario si le run est en pause. */
+  val admit: ChainBuilder = exitHereIf(isPaused)
+
+  def pace(base: FiniteDuration): ChainBuilder = {
+    val scaledPause: Expression[FiniteDuration] = _ => scaled(base).success
+    exec(gate).pause(scaledPause)
+  }
+}
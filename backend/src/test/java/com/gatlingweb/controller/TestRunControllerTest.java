@@ -1,11 +1,23 @@
 package com.gatlingweb.controller;
 
 import com.gatlingweb.config.SecurityConfig;
+import com.gatlingweb.dto.KeysetPage;
 import com.gatlingweb.dto.LaunchRequest;
+import com.gatlingweb.dto.LatencyDistributionDto;
+import com.gatlingweb.dto.MetricsSnapshot;
+import com.gatlingweb.dto.MultiRunComparisonDto;
+import com.gatlingweb.dto.RunDistributionDto;
 import com.gatlingweb.dto.TestRunDto;
+import com.gatlingweb.entity.RunKind;
 import com.gatlingweb.entity.TestStatus;
+import com.gatlingweb.service.BottleneckAnalysisService;
+import com.gatlingweb.service.FinishedRunCache;
+import com.gatlingweb.service.InfraBaselineService;
 import com.gatlingweb.service.MetricsPersistenceService;
 import com.gatlingweb.service.PdfExportService;
+import com.gatlingweb.service.RunComparisonService;
+import com.gatlingweb.service.RunExportService;
+import com.gatlingweb.service.RunHistogramService;
 import com.gatlingweb.service.TestRunService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,24 +25,38 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(TestRunController.class)
-@Import(SecurityConfig.class)
+@Import({SecurityConfig.class, FinishedRunCache.class})
 @ActiveProfiles("test")
 class TestRunControllerTest {
 
@@ -46,6 +72,21 @@ class TestRunControllerTest {
     @MockBean
     private PdfExportService pdfExportService;
 
+    @MockBean
+    private RunExportService runExportService;
+
+    @MockBean
+    private RunHistogramService runHistogramService;
+
+    @MockBean
+    private RunComparisonService runComparisonService;
+
+    @MockBean
+    private InfraBaselineService infraBaselineService;
+
+    @MockBean
+    private BottleneckAnalysisService bottleneckAnalysisService;
+
     private static final String USER = "test";
     private static final String PASS = "test";
 
@@ -57,12 +98,30 @@ class TestRunControllerTest {
 
     @Test
     void list_withAuth_returns200() throws Exception {
-        when(testRunService.findAll(any())).thenReturn(new PageImpl<>(List.of()));
+        when(testRunService.findRows(any(), any())).thenReturn(new PageImpl<>(List.of()));
 
         mockMvc.perform(get("/api/tests").with(httpBasic(USER, PASS)))
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void seek_passesTrimmedLabelAndCursor() throws Exception {
+        when(testRunService.findRowsBefore("nightly", "abc", 50)).thenReturn(new KeysetPage<>(List.of(), "next"));
+
+        mockMvc.perform(get("/api/tests/seek").param("label", " nightly ").param("cursor", "abc").param("size", "50")
+                        .with(httpBasic(USER, PASS)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void seek_invalidCursor_returns400() throws Exception {
+        when(testRunService.findRowsBefore(null, "bad", 20)).thenThrow(new IllegalArgumentException("Invalid cursor: bad"));
+
+        mockMvc.perform(get("/api/tests/seek").param("cursor", "bad").with(httpBasic(USER, PASS)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void list_noAuth_returns401() throws Exception {
         mockMvc.perform(get("/api/tests"))
@@ -135,4 +194,124 @@ class TestRunControllerTest {
         mockMvc.perform(get("/api/tests/summary").with(httpBasic(USER, PASS)))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    void exportCsv_streamsBody() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write("id\n1\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(runExportService).writeRunsCsv(any());
+
+        MvcResult result = mockMvc.perform(get("/api/tests/export/csv").with(httpBasic(USER, PASS)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=test-results.csv"))
+                .andExpect(content().string("id\n1\n"));
+    }
+
+    @Test
+    void exportJson_gzip_compressesBody() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write("[]".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(runExportService).writeRunsJson(any());
+
+        MvcResult result = mockMvc.perform(get("/api/tests/export/json").param("gzip", "true").with(httpBasic(USER, PASS)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("[]");
+        }
+    }
+
+    @Test
+    void exportMetrics_unknownRun_returns404() throws Exception {
+        when(testRunService.findById(99L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/tests/99/export/metrics").with(httpBasic(USER, PASS)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getMetrics_finishedRun_isCachedAndRevalidated() throws Exception {
+        when(testRunService.isFinished(41L)).thenReturn(true);
+        when(metricsPersistenceService.getMetrics(eq(41L), any(), any(), any(), eq(2000)))
+                .thenReturn(List.of(new MetricsSnapshot(1000L, 10.0, 0.0, 120.0, 100.0, 110.0, 200.0, 300.0, 5, 10L, 0L)));
+
+        String etag = mockMvc.perform(get("/api/tests/41/metrics").with(httpBasic(USER, PASS)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"");
+
+        mockMvc.perform(get("/api/tests/41/metrics").header(HttpHeaders.IF_NONE_MATCH, etag).with(httpBasic(USER, PASS)))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/tests/41/metrics").with(httpBasic(USER, PASS)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        verify(metricsPersistenceService, times(1)).getMetrics(eq(41L), any(), any(), any(), eq(2000));
+    }
+
+    @Test
+    void getMetrics_runningRun_isNotCached() throws Exception {
+        when(testRunService.isFinished(42L)).thenReturn(false);
+        when(metricsPersistenceService.getMetrics(eq(42L), any(), any(), any(), eq(2000))).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/tests/42/metrics").with(httpBasic(USER, PASS)))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+        mockMvc.perform(get("/api/tests/42/metrics").with(httpBasic(USER, PASS)))
+                .andExpect(status().isOk());
+
+        verify(metricsPersistenceService, times(2)).getMetrics(eq(42L), any(), any(), any(), eq(2000));
+    }
+
+    @Test
+    void getMergedDistribution_mergesRequestedRuns() throws Exception {
+        when(testRunService.isFinished(any())).thenReturn(true);
+        when(runHistogramService.distribution(RunKind.GATLING, List.of(3L, 5L), List.of(90.0, 99.9)))
+                .thenReturn(new RunDistributionDto(List.of(3L, 5L),
+                        new LatencyDistributionDto(20, 1.0, 800.0, 120.0, Map.of("p90", 300.0, "p99.9", 790.0)),
+                        Map.of()));
+
+        mockMvc.perform(get("/api/tests/distribution?ids=3,5&percentiles=90,99.9").with(httpBasic(USER, PASS)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.overall.count").value(20))
+                .andExpect(jsonPath("$.overall.quantiles['p99.9']").value(790.0));
+    }
+
+    @Test
+    void getDistribution_invalidPercentile_returns400() throws Exception {
+        mockMvc.perform(get("/api/tests/7/distribution?percentiles=150").with(httpBasic(USER, PASS)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void compareRuns_passesParsedIdsAndParameters() throws Exception {
+        when(testRunService.isFinished(any())).thenReturn(true);
+        when(runComparisonService.compare(List.of(4L, 5L, 6L), 0.05, 0.1, 500))
+                .thenReturn(new MultiRunComparisonDto(4L, 0.05, 0.1, 1000, List.of()));
+
+        mockMvc.perform(get("/api/tests/compare/runs?ids=4,5,6&alpha=0.05&minEffect=0.1").with(httpBasic(USER, PASS)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.baselineId").value(4))
+                .andExpect(jsonPath("$.stepMs").value(1000));
+    }
+
+    @Test
+    void analyzeBottlenecks_unfinishedRun_returns409() throws Exception {
+        when(bottleneckAnalysisService.analyze(3L)).thenThrow(new IllegalStateException("Test run #3 has not finished yet"));
+
+        mockMvc.perform(post("/api/tests/3/bottlenecks/analyze").with(httpBasic(USER, PASS)))
+                .andExpect(status().isConflict());
+    }
 }
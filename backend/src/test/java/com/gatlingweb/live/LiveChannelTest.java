@@ -0,0 +1,80 @@
+package com.gatlingweb.live;
+
+import com.gatlingweb.dto.MetricsSnapshot;
+import com.gatlingweb.entity.RunKind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LiveChannelTest {
+
+    private final LiveChannel channel = new LiveChannel(5_000, 4_096);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        channel.shutdown();
+    }
+
+    @Test
+    void publish_stalledClientIsClosedWithoutHoldingUpThePublisherOrOtherClients() throws Exception {
+        WebSocketSession stalled = session("stalled");
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(stalled).sendMessage(any());
+        WebSocketSession healthy = session("healthy");
+        channel.afterConnectionEstablished(stalled);
+        channel.afterConnectionEstablished(healthy);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 0; i < 500; i++) {
+                channel.publish(RunKind.GATLING, 7L, LiveRecord.of(snapshot(i)));
+            }
+        });
+
+        verify(stalled, timeout(2_000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+        verify(healthy, timeout(2_000).times(500)).sendMessage(any());
+        verify(healthy, never()).close(any());
+    }
+
+    @Test
+    void publish_skipsRunsNobodyWatches() throws Exception {
+        WebSocketSession session = session("watcher");
+        channel.afterConnectionEstablished(session);
+
+        assertThat(channel.isWatched(RunKind.GATLING, 7L)).isTrue();
+        assertThat(channel.isWatched(RunKind.GATLING, 8L)).isFalse();
+        channel.publish(RunKind.GATLING, 8L, LiveRecord.of(snapshot(0)));
+
+        channel.afterConnectionClosed(session, CloseStatus.NORMAL);
+        assertThat(channel.isWatched(RunKind.GATLING, 7L)).isFalse();
+        verify(session, never()).sendMessage(any());
+    }
+
+    private static WebSocketSession session(String id) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.getUri()).thenReturn(URI.create("ws://localhost/ws-live?kind=GATLING&run=7"));
+        when(session.getAttributes()).thenReturn(new HashMap<>());
+        when(session.isOpen()).thenReturn(true);
+        return session;
+    }
+
+    private static MetricsSnapshot snapshot(int i) {
+        return new MetricsSnapshot(1_700_000_000_000L + 1_000L * i, 250.5 + i, 0.25, 120 + i % 7,
+                100, 110, 180.5, 250, 50 + i, 1_000L * i, i / 4);
+    }
+}
@@ -0,0 +1,184 @@
+package com.gatlingweb.live;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gatlingweb.dto.InfraMetricsSnapshot;
+import com.gatlingweb.dto.MetricsSnapshot;
+import com.gatlingweb.entity.ServerType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LiveFrameEncoderTest {
+
+    private final LiveFrameEncoder encoder = new LiveFrameEncoder();
+    private final Decoder decoder = new Decoder();
+
+    @Test
+    void encode_deltasAfterTheKeyframeRoundTrip() throws Exception {
+        List<MetricsSnapshot> snapshots = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            snapshots.add(new MetricsSnapshot(1_700_000_000_000L + 1_000L * i, 250.5 + i, 0.25, 120.125 + i % 3,
+                    100, 110, 180.5, 250, 50 + i, 1_000L * i, i / 4));
+        }
+
+        List<byte[]> frames = snapshots.stream().map(s -> encoder.encode(List.of(LiveRecord.of(s)))).toList();
+        List<Decoded> decoded = frames.stream().flatMap(f -> decoder.decode(f).stream()).toList();
+
+        assertThat(decoded).extracting(Decoded::keyframe).containsExactly(
+                true, false, false, false, false, false, false, false, false, false,
+                false, false, false, false, false, false, false, false, false, false);
+        Decoded last = decoded.get(19);
+        assertThat(last.timestamp()).isEqualTo(1_700_000_019_000L);
+        assertThat(last.values()).containsEntry("requestsPerSecond", 269.5)
+                .containsEntry("meanResponseTime", 120.125 + 19 % 3)
+                .containsEntry("activeUsers", 69.0)
+                .containsEntry("totalErrors", 4.0);
+        // Small deltas take a byte or two each, far below the JSON message
+        int json = new ObjectMapper().writeValueAsBytes(snapshots.get(19)).length;
+        assertThat(frames.get(19).length).isLessThan(json / 5);
+        assertThat(frames.get(19).length).isLessThan(frames.get(0).length / 4);
+    }
+
+    @Test
+    void encode_multiplexesServersAndRestartsWhenTheSchemaChanges() {
+        decoder.decode(encoder.encode(List.of(infra(1L, 10.0, Map.of(), null), infra(2L, 20.0, Map.of(), null))));
+        decoder.decode(encoder.encode(List.of(infra(1L, 10.0, Map.of(), null), infra(2L, 20.0, Map.of(), null))));
+
+        List<Decoded> records = decoder.decode(encoder.encode(List.of(
+                infra(1L, 12.5, Map.of(), null),
+                infra(2L, 20.0, Map.of("gcTimePercent", 3.0), null),
+                LiveRecord.of(InfraMetricsSnapshot.error(3L, "server-3", ServerType.SQL, "HTTP 503")))));
+
+        assertThat(records).extracting(Decoded::key).containsExactly(1L, 2L, 3L);
+        assertThat(records).extracting(Decoded::keyframe).containsExactly(false, true, true);
+        assertThat(records.get(0).values()).containsEntry("cpuPercent", 12.5).containsEntry("memoryPercent", null);
+        assertThat(records.get(1).values()).containsEntry("extra.gcTimePercent", 3.0);
+        assertThat(records.get(2).labels()).containsExactly("server-3", "SQL", "HTTP 503");
+    }
+
+    @Test
+    void encode_missingValuesKeepTheColumnReference() {
+        Map<String, Double> extra = new LinkedHashMap<>();
+        extra.put("threads", 42.0);
+        decoder.decode(encoder.encode(List.of(infra(1L, 10.0, extra, null))));
+        extra.put("threads", Double.NaN);
+        List<Decoded> gap = decoder.decode(encoder.encode(List.of(infra(1L, null, extra, null))));
+        extra.put("threads", 43.0);
+        List<Decoded> after = decoder.decode(encoder.encode(List.of(infra(1L, 11.0, extra, null))));
+
+        assertThat(gap.get(0).keyframe()).isFalse();
+        assertThat(gap.get(0).values()).containsEntry("cpuPercent", null).containsEntry("extra.threads", null);
+        assertThat(after.get(0).values()).containsEntry("cpuPercent", 11.0).containsEntry("extra.threads", 43.0);
+    }
+
+    @Test
+    void encode_repeatsTheKeyframePeriodically() {
+        List<Boolean> keyframes = new ArrayList<>();
+        for (int i = 0; i <= 2 * (LiveFrameEncoder.KEYFRAME_INTERVAL + 1); i++) {
+            MetricsSnapshot s = new MetricsSnapshot(1_000L * i, 1, 0, 1, 1, 1, 1, 1, 1, i, 0);
+            keyframes.add(decoder.decode(encoder.encode(List.of(LiveRecord.of(s)))).get(0).keyframe());
+        }
+
+        assertThat(keyframes).filteredOn(k -> k).hasSize(3);
+        assertThat(keyframes.get(LiveFrameEncoder.KEYFRAME_INTERVAL + 1)).isTrue();
+    }
+
+    private static LiveRecord infra(Long id, Double cpu, Map<String, Double> extra, String error) {
+        return LiveRecord.of(new InfraMetricsSnapshot(5_000L, id, "server-" + id, ServerType.API, cpu, 1L << 32,
+                1L << 33, null, null, null, null, null, null, new LinkedHashMap<>(extra), Map.of(), 12L, 2_048L, error));
+    }
+
+    private record Decoded(int stream, long key, boolean keyframe, long timestamp, List<String> labels,
+                           Map<String, Double> values) {}
+
+    /** Reads the frames as a client of the channel would. */
+    private static final class Decoder {
+        private final Map<String, State> states = new HashMap<>();
+
+        List<Decoded> decode(byte[] frame) {
+            ByteArrayInputStream in = new ByteArrayInputStream(frame);
+            assertThat(in.read()).isEqualTo(LiveFrameEncoder.VERSION);
+            int count = (int) varint(in);
+            List<Decoded> records = new ArrayList<>(count);
+            for (int r = 0; r < count; r++) {
+                int stream = in.read();
+                long key = varint(in);
+                boolean keyframe = (in.read() & LiveFrameEncoder.KEYFRAME) != 0;
+                State state;
+                if (keyframe) {
+                    state = new State(strings(in), strings(in));
+                    states.put(stream + ":" + key, state);
+                    state.timestamp = unzigzag(varint(in));
+                } else {
+                    state = states.get(stream + ":" + key);
+                    state.timestamp += unzigzag(varint(in));
+                }
+                int columns = state.columns.size();
+                byte[] present = new byte[(columns + 7) / 8];
+                in.read(present, 0, present.length);
+                Map<String, Double> values = new LinkedHashMap<>();
+                for (int i = 0; i < columns; i++) {
+                    if ((present[i / 8] & (1 << (i % 8))) == 0) {
+                        values.put(state.columns.get(i), null);
+                        continue;
+                    }
+                    state.last[i] += unzigzag(varint(in));
+                    values.put(state.columns.get(i), state.last[i] / LiveFrameEncoder.SCALE);
+                }
+                records.add(new Decoded(stream, key, keyframe, state.timestamp, state.labels, values));
+            }
+            assertThat(in.available()).isZero();
+            return records;
+        }
+
+        private static List<String> strings(ByteArrayInputStream in) {
+            int count = (int) varint(in);
+            List<String> strings = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = (int) varint(in);
+                if (length == 0) {
+                    strings.add(null);
+                    continue;
+                }
+                byte[] bytes = new byte[length - 1];
+                in.read(bytes, 0, bytes.length);
+                strings.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+            return strings;
+        }
+
+        private static long varint(ByteArrayInputStream in) {
+            long result = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = in.read();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return result;
+            }
+        }
+
+        private static long unzigzag(long v) {
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        private static final class State {
+            final List<String> labels;
+            final List<String> columns;
+            final long[] last;
+            long timestamp;
+
+            State(List<String> labels, List<String> columns) {
+                this.labels = labels;
+                this.columns = columns;
+                this.last = new long[columns.size()];
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.gatlingweb.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RunIndexTest {
+
+    private RunIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RunIndex(List.of("simulation", "label", "status"));
+        index.put(doc(1, 100, "sim.CheckoutSimulation", List.of("nightly"), "COMPLETED", "baseline before cache"));
+        index.put(doc(2, 200, "sim.CheckoutSimulation", List.of("nightly", "release"), "FAILED", "pool exhausted"));
+        index.put(doc(3, 300, "sim.SearchSimulation", List.of("release"), "COMPLETED", null));
+        index.put(doc(4, 300, "sim.SearchSimulation", List.of(), "COMPLETED", "cache warm"));
+    }
+
+    @Test
+    void search_combinesFacetsAndListsNewestFirst() {
+        RunIndex.Hits all = index.search(query(Map.of(), null, 0, 10));
+        RunIndex.Hits completedReleases = index.search(query(
+                Map.of("status", List.of("COMPLETED"), "label", List.of("release", "nightly")), null, 0, 10));
+
+        assertThat(all.ids()).containsExactly(4L, 3L, 2L, 1L);
+        assertThat(completedReleases.total()).isEqualTo(2);
+        assertThat(completedReleases.ids()).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void facetCounts_ignoreTheirOwnFilter() {
+        RunIndex.Hits hits = index.search(query(Map.of("status", List.of("FAILED")), null, 0, 10));
+
+        assertThat(hits.facets().get("status")).containsExactly(Map.entry("COMPLETED", 3), Map.entry("FAILED", 1));
+        assertThat(hits.facets().get("simulation")).containsExactly(Map.entry("sim.CheckoutSimulation", 1));
+        assertThat(hits.facets().get("label")).containsOnly(Map.entry("nightly", 1), Map.entry("release", 1));
+    }
+
+    @Test
+    void text_matchesWordPrefixesAndCamelCaseParts() {
+        assertThat(index.search(query(Map.of(), "cache", 0, 10)).ids()).containsExactly(4L, 1L);
+        assertThat(index.search(query(Map.of(), "checkout POOL", 0, 10)).ids()).containsExactly(2L);
+        assertThat(index.search(query(Map.of(), "simul", 0, 10)).total()).isEqualTo(4);
+        assertThat(index.search(query(Map.of(), "missing", 0, 10)).ids()).isEmpty();
+    }
+
+    @Test
+    void putAndRemove_keepPostingsCurrent() {
+        index.put(doc(2, 200, "sim.CheckoutSimulation", List.of("nightly"), "COMPLETED", null));
+        index.remove(4);
+
+        RunIndex.Hits hits = index.search(query(Map.of(), "pool", 0, 10));
+        RunIndex.Hits failed = index.search(query(Map.of("status", List.of("FAILED")), null, 0, 10));
+
+        assertThat(hits.total()).isZero();
+        assertThat(failed.total()).isZero();
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(failed.facets().get("status")).containsOnly(Map.entry("COMPLETED", 3));
+    }
+
+    @Test
+    void window_pagesThroughHits() {
+        assertThat(index.search(query(Map.of(), null, 1, 2)).ids()).containsExactly(3L, 2L);
+        assertThat(index.search(query(Map.of(), null, 4, 2)).ids()).isEmpty();
+        assertThatThrownBy(() -> index.search(query(Map.of("unknown", List.of("x")), null, 0, 10)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static RunIndex.Doc doc(long id, long sortKey, String simulation, List<String> labels, String status,
+                                    String notes) {
+        return new RunIndex.Doc(id, sortKey, Map.of("simulation", List.of(simulation), "label", labels,
+                "status", List.of(status)), simulation + " " + String.join(" ", labels) + " " + (notes != null ? notes : ""));
+    }
+
+    private static RunIndex.Query query(Map<String, List<String>> filters, String text, int offset, int limit) {
+        return new RunIndex.Query(filters, text, offset, limit);
+    }
+}
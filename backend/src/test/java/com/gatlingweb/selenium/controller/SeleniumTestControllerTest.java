@@ -1,14 +1,20 @@
 package com.gatlingweb.selenium.controller;
 
 import com.gatlingweb.config.SecurityConfig;
+import com.gatlingweb.dto.KeysetPage;
+import com.gatlingweb.entity.TestStatus;
 import com.gatlingweb.selenium.entity.SeleniumTestRun;
 import com.gatlingweb.selenium.repository.SeleniumBrowserResultRepository;
 import com.gatlingweb.selenium.repository.SeleniumTestRunRepository;
 import com.gatlingweb.selenium.service.SeleniumCompilerService;
 import com.gatlingweb.selenium.service.SeleniumExecutionService;
+import com.gatlingweb.selenium.service.SeleniumHistoryService;
 import com.gatlingweb.selenium.service.SeleniumMetricsCollector;
 import com.gatlingweb.selenium.service.SeleniumPdfExportService;
+import com.gatlingweb.selenium.service.SeleniumSearchService;
+import com.gatlingweb.service.FinishedRunCache;
 import com.gatlingweb.service.MetricsPersistenceService;
+import com.gatlingweb.service.RunHistogramService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -24,13 +30,14 @@ import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(SeleniumTestController.class)
-@Import(SecurityConfig.class)
+@Import({SecurityConfig.class, FinishedRunCache.class})
 @ActiveProfiles("test")
 class SeleniumTestControllerTest {
 
@@ -58,18 +65,39 @@ class SeleniumTestControllerTest {
     @MockBean
     private SeleniumPdfExportService pdfExportService;
 
+    @MockBean
+    private SeleniumHistoryService historyService;
+
+    @MockBean
+    private SeleniumSearchService searchService;
+
+    @MockBean
+    private RunHistogramService runHistogramService;
+
     private static final String USER = "test";
     private static final String PASS = "test";
 
     @Test
     void listTests_withAuth_returns200() throws Exception {
-        when(testRunRepository.findAll(any(org.springframework.data.domain.Pageable.class)))
+        when(historyService.findRows(any(), any(), any(), any()))
                 .thenReturn(new PageImpl<>(List.of()));
 
         mockMvc.perform(get("/api/selenium/tests").with(httpBasic(USER, PASS)))
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void seekTests_mapsEmptyFiltersToNull() throws Exception {
+        when(historyService.findRowsBefore(null, TestStatus.COMPLETED, null, "42", 20))
+                .thenReturn(new KeysetPage<>(List.of(), null));
+
+        mockMvc.perform(get("/api/selenium/tests/seek").param("browser", "").param("status", "COMPLETED")
+                        .param("cursor", "42").with(httpBasic(USER, PASS)))
+                .andExpect(status().isOk());
+
+        verify(historyService).findRowsBefore(null, TestStatus.COMPLETED, null, "42", 20);
+    }
+
     @Test
     void listTests_noAuth_returns401() throws Exception {
         mockMvc.perform(get("/api/selenium/tests"))
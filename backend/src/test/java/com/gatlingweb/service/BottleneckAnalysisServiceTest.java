@@ -0,0 +1,143 @@
+package com.gatlingweb.service;
+
+import com.gatlingweb.dto.BottleneckReportDto;
+import com.gatlingweb.dto.InfraMetricsSnapshot;
+import com.gatlingweb.dto.MetricsSnapshot;
+import com.gatlingweb.entity.BottleneckFinding;
+import com.gatlingweb.entity.ServerType;
+import com.gatlingweb.entity.TestRun;
+import com.gatlingweb.entity.TestStatus;
+import com.gatlingweb.repository.BottleneckFindingRepository;
+import com.gatlingweb.repository.TestRunRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BottleneckAnalysisServiceTest {
+
+    @Mock
+    private TestRunRepository testRunRepository;
+    @Mock
+    private BottleneckFindingRepository repository;
+    @Mock
+    private MetricsPersistenceService metricsPersistence;
+
+    private BottleneckAnalysisService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BottleneckAnalysisService(testRunRepository, repository, metricsPersistence, Runnable::run);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void analyze_ranksTheSaturatedResourceFirst() {
+        when(testRunRepository.findById(5L)).thenReturn(Optional.of(run(TestStatus.COMPLETED)));
+        Random random = new Random(1);
+        List<MetricsSnapshot> gatling = new ArrayList<>();
+        List<InfraMetricsSnapshot> infra = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            long t = 2_000L * i;
+            // CPU of the app server climbs with the load and p95 takes off past 80 %
+            double cpu = 20 + 0.6 * i + random.nextGaussian();
+            double p95 = 150 + Math.max(0, cpu - 80) * 40 + random.nextGaussian() * 3;
+            gatling.add(new MetricsSnapshot(t, 100, 0, p95 / 2, p95 / 3, p95 / 2, p95, p95 * 1.2, 10, 100L * i, 0L));
+            infra.add(sample(t, 1L, "app", cpu, 40 + random.nextGaussian()));
+            infra.add(sample(t, 2L, "db", 30 + random.nextGaussian() * 5, 60 + random.nextGaussian()));
+        }
+        when(metricsPersistence.getMetrics(5L)).thenReturn(gatling);
+        when(metricsPersistence.getInfraMetrics(5L)).thenReturn(infra);
+
+        BottleneckReportDto report = service.analyze(5L);
+
+        assertThat(report.stepMs()).isEqualTo(2_000L);
+        assertThat(report.points()).isEqualTo(120);
+        assertThat(report.bottleneck()).isNotNull();
+        assertThat(report.bottleneck().serverName()).isEqualTo("app");
+        assertThat(report.bottleneck().resource()).isEqualTo(BottleneckAnalysisService.CPU);
+        assertThat(report.bottleneck().lagMs()).isZero();
+        assertThat(report.bottleneck().kneeLevel()).isBetween(70.0, 90.0);
+        assertThat(report.findings()).extracting(BottleneckReportDto.Finding::ranking)
+                .startsWith(1, 2);
+        assertThat(report.findings().get(report.findings().size() - 1).score()).isLessThan(0.5);
+
+        InOrder order = inOrder(repository);
+        order.verify(repository).deleteByTestRunId(5L);
+        ArgumentCaptor<List<BottleneckFinding>> rows = ArgumentCaptor.forClass(List.class);
+        order.verify(repository).saveAll(rows.capture());
+        assertThat(rows.getValue()).hasSize(report.findings().size());
+        assertThat(rows.getValue().get(0).getServerId()).isEqualTo(1L);
+    }
+
+    @Test
+    void analyze_runWithoutInfraMetricsHasNoFindings() {
+        when(testRunRepository.findById(5L)).thenReturn(Optional.of(run(TestStatus.COMPLETED)));
+        when(metricsPersistence.getMetrics(5L)).thenReturn(List.of(
+                new MetricsSnapshot(0L, 10, 0, 100, 90, 95, 120, 150, 5, 10L, 0L)));
+        when(metricsPersistence.getInfraMetrics(5L)).thenReturn(List.of());
+
+        BottleneckReportDto report = service.analyze(5L);
+
+        assertThat(report.findings()).isEmpty();
+        assertThat(report.bottleneck()).isNull();
+        verify(repository, never()).deleteByTestRunId(any());
+    }
+
+    @Test
+    void analyze_unfinishedRunIsRejected() {
+        when(testRunRepository.findById(5L)).thenReturn(Optional.of(run(TestStatus.RUNNING)));
+
+        assertThatThrownBy(() -> service.analyze(5L)).isInstanceOf(IllegalStateException.class);
+        verifyNoInteractions(metricsPersistence);
+    }
+
+    @Test
+    void report_returnsStoredFindingsWithoutRecomputing() {
+        BottleneckFinding row = new BottleneckFinding();
+        row.setTestRunId(5L);
+        row.setRanking(1);
+        row.setServerId(2L);
+        row.setServerName("db");
+        row.setResource(BottleneckAnalysisService.SQL_BATCH);
+        row.setCorrelation(0.4);
+        row.setScore(0.4);
+        row.setStepMs(2_000L);
+        row.setPoints(60);
+        row.setAnalyzedAt(1_000L);
+        when(repository.findByTestRunIdOrderByRankingAsc(5L)).thenReturn(List.of(row));
+
+        BottleneckReportDto report = service.report(5L);
+
+        assertThat(report.analyzedAt()).isEqualTo(1_000L);
+        assertThat(report.findings()).singleElement().extracting(BottleneckReportDto.Finding::serverName).isEqualTo("db");
+        // Too weak to be named the bottleneck
+        assertThat(report.bottleneck()).isNull();
+        verifyNoInteractions(testRunRepository, metricsPersistence);
+    }
+
+    private static TestRun run(TestStatus status) {
+        TestRun run = new TestRun();
+        run.setId(5L);
+        run.setStatus(status);
+        return run;
+    }
+
+    private static InfraMetricsSnapshot sample(long timestamp, Long serverId, String name, double cpu, double memory) {
+        return new InfraMetricsSnapshot(timestamp, serverId, name, ServerType.API,
+                cpu, null, null, memory, null, null, null, null, null, Map.of(), Map.of(), null, null, null);
+    }
+}
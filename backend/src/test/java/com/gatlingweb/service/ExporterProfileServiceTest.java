@@ -0,0 +1,104 @@
+package com.gatlingweb.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gatlingweb.dto.ExporterProfile;
+import com.gatlingweb.entity.ServerType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExporterProfileServiceTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void load_builtInProfiles() throws IOException {
+        ExporterProfileService service = service("");
+
+        assertThat(service.list()).extracting(ExporterProfile::id).containsExactly(
+                "windows_exporter", "node_exporter", "cadvisor", "jmx_exporter", "jvm", "postgres_exporter");
+        assertThat(service.plan("windows_exporter").extraNames()).isEmpty();
+        assertThat(service.plan("postgres_exporter").extraNames())
+                .containsExactly("connections", "deadlocks", "cacheHitBlocks");
+        assertThatThrownBy(() -> service.get("snmp")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(ExporterProfileService.defaultProfile(ServerType.JVM)).isEqualTo(ExporterProfileService.JVM_PROFILE);
+        assertThat(ExporterProfileService.defaultProfile(ServerType.API)).isEqualTo(ExporterProfileService.DEFAULT_PROFILE);
+        assertThat(ExporterProfileService.profileOf(null, ServerType.JVM)).isEqualTo("jvm");
+        assertThat(ExporterProfileService.profileOf(" ", ServerType.SQL)).isEqualTo("windows_exporter");
+        assertThat(ExporterProfileService.profileOf("node_exporter", ServerType.JVM)).isEqualTo("node_exporter");
+        assertThatThrownBy(() -> service.plan(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void load_externalFileAddsAndReplacesProfiles() throws IOException {
+        Path file = dir.resolve("profiles.json");
+        Files.writeString(file, """
+                [{"id": "node_exporter", "label": "Custom node", "signals": {
+                    "cpuUsageRatio": [{"family": "custom_cpu_ratio", "fold": "FIRST"}]}},
+                 {"id": "redis", "label": "Redis", "extra": [{"name": "clients", "kind": "GAUGE",
+                    "sources": [{"family": "redis_connected_clients"}]}]}]
+                """);
+
+        ExporterProfileService service = service(file.toString());
+
+        assertThat(service.get("node_exporter").label()).isEqualTo("Custom node");
+        assertThat(service.plan("redis").extraNames()).containsExactly("clients");
+    }
+
+    @Test
+    void load_rejectsUnknownSignalsAndBadExtraNames() throws IOException {
+        Path file = dir.resolve("profiles.json");
+        Files.writeString(file, """
+                [{"id": "bad", "signals": {"cpuMagic": [{"family": "x"}]}}]
+                """);
+        assertThatThrownBy(() -> service(file.toString()))
+                .isInstanceOf(IllegalStateException.class).hasMessageContaining("cpuMagic");
+
+        Files.writeString(file, """
+                [{"id": "bad", "extra": [{"name": "a,b", "kind": "GAUGE", "sources": [{"family": "x"}]}]}]
+                """);
+        assertThatThrownBy(() -> service(file.toString()))
+                .isInstanceOf(IllegalStateException.class).hasMessageContaining("a,b");
+    }
+
+    @Test
+    void load_validatesBreakdowns() throws IOException {
+        assertThat(service("").plan("node_exporter").breakdownNames())
+                .containsExactly("cpuCore", "diskRead", "diskWrite", "networkReceived", "networkSent");
+
+        Path file = dir.resolve("profiles.json");
+        Files.writeString(file, """
+                [{"id": "bad", "breakdowns": [{"name": "per_core", "kind": "GAUGE", "by": "core",
+                    "sources": [{"family": "x"}]}]}]
+                """);
+        assertThatThrownBy(() -> service(file.toString()))
+                .isInstanceOf(IllegalStateException.class).hasMessageContaining("per_core");
+
+        Files.writeString(file, """
+                [{"id": "bad", "breakdowns": [{"name": "perCore", "kind": "GAUGE", "sources": [{"family": "x"}]}]}]
+                """);
+        assertThatThrownBy(() -> service(file.toString()))
+                .isInstanceOf(IllegalStateException.class).hasMessageContaining("no label");
+
+        Files.writeString(file, """
+                [{"id": "bad", "breakdowns": [{"name": "perCore", "kind": "GAUGE", "by": "core", "maxSeries": 5000,
+                    "sources": [{"family": "x"}]}]}]
+                """);
+        assertThatThrownBy(() -> service(file.toString()))
+                .isInstanceOf(IllegalStateException.class).hasMessageContaining("maxSeries");
+    }
+
+    private static ExporterProfileService service(String externalFile) throws IOException {
+        ExporterProfileService service = new ExporterProfileService(new ObjectMapper(), new PrometheusMetricsParser(),
+                externalFile);
+        service.load();
+        return service;
+    }
+}
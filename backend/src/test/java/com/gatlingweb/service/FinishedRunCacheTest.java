@@ -0,0 +1,87 @@
+package com.gatlingweb.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gatlingweb.service.FinishedRunCache.Key;
+import com.gatlingweb.service.FinishedRunCache.Scope;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FinishedRunCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void serve_finishedRun_loadsOnceWithStableEtag() {
+        FinishedRunCache cache = new FinishedRunCache(objectMapper, 1_000_000);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<?> loader = () -> List.of(loads.incrementAndGet());
+        Key key = Key.of(Scope.GATLING, "metrics", 1L, "auto");
+
+        ResponseEntity<byte[]> first = cache.serve(key, () -> true, loader);
+        ResponseEntity<byte[]> second = cache.serve(key, () -> true, loader);
+
+        assertThat(loads).hasValue(1);
+        assertThat(new String(second.getBody(), StandardCharsets.UTF_8)).isEqualTo("[1]");
+        assertThat(second.getHeaders().getETag()).isEqualTo(first.getHeaders().getETag()).startsWith("\"");
+        assertThat(cache.stats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void serve_unfinishedRun_isNeitherCachedNorTagged() {
+        FinishedRunCache cache = new FinishedRunCache(objectMapper, 1_000_000);
+        AtomicInteger loads = new AtomicInteger();
+        Key key = Key.of(Scope.GATLING, "metrics", 1L);
+
+        ResponseEntity<byte[]> response = cache.serve(key, () -> false, loads::incrementAndGet);
+        cache.serve(key, () -> false, loads::incrementAndGet);
+
+        assertThat(loads).hasValue(2);
+        assertThat(response.getHeaders().containsKey(HttpHeaders.ETAG)).isFalse();
+        assertThat(cache.stats().entries()).isZero();
+    }
+
+    @Test
+    void evictRun_dropsEveryViewInvolvingTheRun() {
+        FinishedRunCache cache = new FinishedRunCache(objectMapper, 1_000_000);
+        cache.serve(Key.of(Scope.GATLING, "metrics", 1L), () -> true, () -> "a");
+        cache.serve(Key.of(Scope.GATLING, "compare", List.of(2L, 1L)), () -> true, () -> "b");
+        cache.serve(Key.of(Scope.GATLING, "metrics", 2L), () -> true, () -> "c");
+        cache.serve(Key.of(Scope.SELENIUM, "metrics", 1L), () -> true, () -> "d");
+
+        cache.evictRun(Scope.GATLING, 1L);
+
+        assertThat(cache.stats().entries()).isEqualTo(2);
+        AtomicInteger loads = new AtomicInteger();
+        cache.serve(Key.of(Scope.GATLING, "metrics", 2L), () -> true, loads::incrementAndGet);
+        cache.serve(Key.of(Scope.SELENIUM, "metrics", 1L), () -> true, loads::incrementAndGet);
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void put_evictsLeastRecentlyUsedBeyondMaxBytes() {
+        // Each body is "xxxxxxxx" with quotes: 10 bytes
+        FinishedRunCache cache = new FinishedRunCache(objectMapper, 25);
+        for (long id = 1; id <= 2; id++) {
+            cache.serve(Key.of(Scope.GATLING, "metrics", id), () -> true, () -> "xxxxxxxx");
+        }
+        cache.serve(Key.of(Scope.GATLING, "metrics", 1L), () -> true, () -> "unused");
+        cache.serve(Key.of(Scope.GATLING, "metrics", 3L), () -> true, () -> "xxxxxxxx");
+
+        assertThat(cache.stats().entries()).isEqualTo(2);
+        assertThat(cache.stats().bytes()).isEqualTo(20);
+        AtomicInteger loads = new AtomicInteger();
+        cache.serve(Key.of(Scope.GATLING, "metrics", 1L), () -> true, () -> loads.incrementAndGet());
+        assertThat(loads).hasValue(0);
+
+        cache.serve(Key.of(Scope.GATLING, "metrics", 4L), () -> true, () -> "x".repeat(40));
+        assertThat(cache.stats().bytes()).isEqualTo(20);
+    }
+}
@@ -27,6 +27,8 @@ class GatlingExecutionServiceShutdownTest {
                 mock(InfraMetricsScraperService.class),
                 mock(ThresholdService.class),
                 mock(BandwidthLimiterService.class),
+                mock(ThroughputControlService.class),
+                mock(RunHistogramService.class),
                 System.getProperty("java.io.tmpdir"),
                 1
         );
@@ -46,6 +48,8 @@ class GatlingExecutionServiceShutdownTest {
                 mock(InfraMetricsScraperService.class),
                 mock(ThresholdService.class),
                 mock(BandwidthLimiterService.class),
+                mock(ThroughputControlService.class),
+                mock(RunHistogramService.class),
                 System.getProperty("java.io.tmpdir"),
                 1
         );
@@ -0,0 +1,107 @@
+package com.gatlingweb.service;
+
+import com.gatlingweb.dto.InfraBaselineDto;
+import com.gatlingweb.dto.InfraMetricsSnapshot;
+import com.gatlingweb.entity.InfraBaseline;
+import com.gatlingweb.entity.InfraBaseline.Phase;
+import com.gatlingweb.entity.RunKind;
+import com.gatlingweb.entity.ServerType;
+import com.gatlingweb.repository.InfraBaselineRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InfraBaselineServiceTest {
+
+    @Mock
+    private InfraBaselineRepository repository;
+    @Mock
+    private MetricsPersistenceService metricsPersistence;
+
+    private InfraBaselineService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new InfraBaselineService(repository, metricsPersistence);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void save_replacesThePhaseWithMeansPerServer() {
+        service.save(RunKind.GATLING, 7L, Phase.BASELINE, List.of(
+                sample(1_000L, 1L, 10.0, null),
+                sample(1_000L, 2L, 40.0, 5.0),
+                sample(2_000L, 1L, 20.0, 100.0),
+                InfraMetricsSnapshot.error(2L, "server-2", ServerType.SQL, "timeout")));
+
+        InOrder order = inOrder(repository);
+        order.verify(repository).deletePhase(RunKind.GATLING, 7L, Phase.BASELINE);
+        ArgumentCaptor<List<InfraBaseline>> rows = ArgumentCaptor.forClass(List.class);
+        order.verify(repository).saveAll(rows.capture());
+        assertThat(rows.getValue()).extracting(InfraBaseline::getServerId).containsExactly(1L, 2L);
+        InfraBaseline first = rows.getValue().get(0);
+        assertThat(first.getSamples()).isEqualTo(2);
+        assertThat(first.getFromTimestamp()).isEqualTo(1_000L);
+        assertThat(first.getToTimestamp()).isEqualTo(2_000L);
+        assertThat(first.getCpuPercent()).isEqualTo(15.0);
+        assertThat(first.getSqlBatchPerSec()).isEqualTo(100.0);
+        assertThat(first.getMemoryPercent()).isNull();
+        assertThat(rows.getValue().get(1).getSamples()).isEqualTo(1);
+    }
+
+    @Test
+    void report_subtractsTheBaselineFromTheRun() {
+        when(repository.findByRunKindAndRunIdOrderByServerIdAsc(RunKind.GATLING, 7L)).thenReturn(List.of(
+                row(Phase.BASELINE, 1L, 10.0),
+                row(Phase.COOLDOWN, 1L, 20.0),
+                row(Phase.BASELINE, 3L, 5.0)));
+        when(metricsPersistence.getInfraMetrics(7L)).thenReturn(List.of(
+                sample(10_000L, 1L, 50.0, null),
+                sample(10_000L, 2L, 30.0, null),
+                sample(12_000L, 1L, 70.0, null)));
+
+        List<InfraBaselineDto> report = service.report(RunKind.GATLING, 7L);
+
+        assertThat(report).extracting(InfraBaselineDto::serverId).containsExactly(1L, 2L, 3L);
+        InfraBaselineDto busy = report.get(0);
+        assertThat(busy.baseline().cpuPercent()).isEqualTo(10.0);
+        assertThat(busy.run().cpuPercent()).isEqualTo(60.0);
+        assertThat(busy.net().cpuPercent()).isEqualTo(50.0);
+        assertThat(busy.net().samples()).isEqualTo(2);
+        assertThat(busy.cooldown().cpuPercent()).isEqualTo(20.0);
+        // No baseline: nothing to subtract
+        assertThat(report.get(1).net()).isNull();
+        // Sampled at rest but silent during the run
+        assertThat(report.get(2).serverName()).isEqualTo("server-3");
+        assertThat(report.get(2).run()).isNull();
+    }
+
+    private static InfraMetricsSnapshot sample(long timestamp, Long serverId, Double cpu, Double sqlBatch) {
+        return new InfraMetricsSnapshot(timestamp, serverId, "server-" + serverId, ServerType.API,
+                cpu, null, null, null, null, null, null, null, sqlBatch, Map.of(), Map.of(), null, null, null);
+    }
+
+    private static InfraBaseline row(Phase phase, Long serverId, Double cpu) {
+        InfraBaseline row = new InfraBaseline();
+        row.setRunKind(RunKind.GATLING);
+        row.setRunId(7L);
+        row.setPhase(phase);
+        row.setServerId(serverId);
+        row.setServerName("server-" + serverId);
+        row.setServerType(ServerType.API);
+        row.setSamples(3);
+        row.setCpuPercent(cpu);
+        return row;
+    }
+}
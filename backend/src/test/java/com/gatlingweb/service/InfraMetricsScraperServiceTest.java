@@ -0,0 +1,329 @@
+package com.gatlingweb.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gatlingweb.dto.InfraMetricsSnapshot;
+import com.gatlingweb.entity.InfraBaseline.Phase;
+import com.gatlingweb.entity.MonitoredServer;
+import com.gatlingweb.entity.RunAnnotation;
+import com.gatlingweb.entity.RunKind;
+import com.gatlingweb.entity.ServerType;
+import com.gatlingweb.live.LiveChannel;
+import com.gatlingweb.repository.RunAnnotationRepository;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InfraMetricsScraperServiceTest {
+
+    private static final String METRICS = """
+            windows_memory_physical_total_bytes 8.0e9
+            windows_memory_physical_free_bytes 2.0e9
+            """;
+    private static final String JVM_METRICS = """
+            java_lang_OperatingSystem_SystemCpuLoad 0.25
+            java_lang_OperatingSystem_TotalPhysicalMemorySize 4.0e9
+            java_lang_OperatingSystem_FreePhysicalMemorySize 3.0e9
+            jvm_memory_bytes_used{area="heap"} 5.0e8
+            jvm_memory_bytes_used{area="nonheap"} 1.0e8
+            jvm_threads_current 42
+            """;
+
+    @Mock
+    private MonitoredServerService serverService;
+    @Mock
+    private ServerHealthService health;
+    @Mock
+    private SimpMessagingTemplate messaging;
+    @Mock
+    private MetricsPersistenceService metricsPersistence;
+    @Mock
+    private InfraBaselineService baselines;
+    @Mock
+    private RunAnnotationRepository annotations;
+    @Mock
+    private LiveChannel liveChannel;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private HttpServer http;
+    private InfraMetricsScraperService service;
+    private volatile int gzipBytes;
+    private final AtomicInteger coreScrapes = new AtomicInteger();
+    private final AtomicInteger gcScrapes = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        http = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        http.setExecutor(Executors.newCachedThreadPool());
+        http.createContext("/ok/metrics", exchange -> {
+            byte[] body = METRICS.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        http.createContext("/gzip/metrics", exchange -> {
+            byte[] body = METRICS.getBytes(StandardCharsets.UTF_8);
+            if ("gzip".equals(exchange.getRequestHeaders().getFirst("Accept-Encoding"))) {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (GZIPOutputStream gz = new GZIPOutputStream(compressed)) {
+                    gz.write(body);
+                }
+                body = compressed.toByteArray();
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4");
+            gzipBytes = body.length;
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        http.createContext("/jvm/metrics", exchange -> {
+            byte[] body = JVM_METRICS.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        http.createContext("/cores/metrics", exchange -> {
+            // Core 0,0 never idles, core 0,1 idles far more than a second per second of the test
+            byte[] body = (METRICS
+                    + "windows_cpu_time_total{core=\"0,0\",mode=\"idle\"} 100\n"
+                    + "windows_cpu_time_total{core=\"0,1\",mode=\"idle\"} " + 1e6 * coreScrapes.incrementAndGet() + "\n")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        http.createContext("/gc/actuator/prometheus", exchange -> {
+            // Micrometer: every scrape finds the JVM paused far longer than the time between scrapes
+            int n = gcScrapes.incrementAndGet();
+            byte[] body = ("jvm_gc_pause_seconds_count{action=\"end of minor GC\",cause=\"G1 Evacuation Pause\"} " + 3 * n + "\n"
+                    + "jvm_gc_pause_seconds_sum{action=\"end of minor GC\",cause=\"G1 Evacuation Pause\"} " + 100.0 * n + "\n"
+                    + "jvm_memory_used_bytes{area=\"heap\",id=\"G1 Eden Space\"} 1.0e8\n"
+                    + "jvm_memory_used_bytes{area=\"heap\",id=\"G1 Old Gen\"} 3.0e8\n"
+                    + "jvm_threads_live_threads 42\n")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        http.createContext("/dead/metrics", exchange -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        http.start();
+        PrometheusMetricsParser parser = new PrometheusMetricsParser();
+        ExporterProfileService profiles = new ExporterProfileService(new ObjectMapper(), parser, "");
+        profiles.load();
+        service = new InfraMetricsScraperService(serverService, health, parser, profiles, messaging, metricsPersistence,
+                baselines, annotations, liveChannel, 10, 10_000, 60, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        http.stop(0);
+    }
+
+    @Test
+    void scheduledTick_deadServerDoesNotDelayTheOthers() {
+        List<MonitoredServer> servers = new ArrayList<>();
+        servers.add(server(1L, "dead"));
+        for (long id = 2; id <= 50; id++) servers.add(server(id, "ok"));
+        when(serverService.findEnabled()).thenReturn(servers);
+
+        service.startScraping(RunKind.GATLING, 7L);
+        long start = System.nanoTime();
+        service.scheduledTick(4_000L);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(elapsedMs).isLessThan(InfraMetricsScraperService.SCRAPE_INTERVAL_MS);
+        ArgumentCaptor<InfraMetricsSnapshot> buffered = ArgumentCaptor.forClass(InfraMetricsSnapshot.class);
+        verify(metricsPersistence, times(49)).bufferInfra(eq(7L), buffered.capture());
+        assertThat(buffered.getAllValues()).allSatisfy(s -> {
+            assertThat(s.timestamp()).isEqualTo(4_000L);
+            assertThat(s.memoryPercent()).isEqualTo(75.0);
+        });
+        verify(health).recordFailure(eq(servers.get(0)), any(), eq("No response within 1500 ms"));
+        verify(health, times(49)).recordSuccess(any(), any(), any());
+    }
+
+    @Test
+    void scheduledTick_readsTheServersExporterProfile() {
+        MonitoredServer jvm = server(1L, "jvm");
+        jvm.setExporterProfile("jmx_exporter");
+        when(serverService.findEnabled()).thenReturn(List.of(jvm));
+
+        service.startScraping(RunKind.GATLING, 7L);
+        service.scheduledTick(2_000L);
+
+        ArgumentCaptor<InfraMetricsSnapshot> buffered = ArgumentCaptor.forClass(InfraMetricsSnapshot.class);
+        verify(metricsPersistence).bufferInfra(eq(7L), buffered.capture());
+        InfraMetricsSnapshot s = buffered.getValue();
+        assertThat(s.cpuPercent()).isEqualTo(25.0);
+        assertThat(s.memoryUsedBytes()).isEqualTo(1_000_000_000L);
+        assertThat(s.memoryPercent()).isEqualTo(25.0);
+        assertThat(s.extra()).containsOnlyKeys("heapUsedBytes", "gcSeconds", "threads");
+        assertThat(s.extra().get("heapUsedBytes")).isEqualTo(5.0e8);
+        assertThat(s.extra().get("threads")).isEqualTo(42.0);
+        assertThat(s.extra().get("gcSeconds")).isNull();
+    }
+
+    @Test
+    void scheduledTick_negotiatesGzipAndReportsPayloadSize() {
+        when(serverService.findEnabled()).thenReturn(List.of(server(1L, "gzip")));
+
+        service.startScraping(RunKind.GATLING, 7L);
+        service.scheduledTick(2_000L);
+
+        ArgumentCaptor<InfraMetricsSnapshot> buffered = ArgumentCaptor.forClass(InfraMetricsSnapshot.class);
+        verify(metricsPersistence).bufferInfra(eq(7L), buffered.capture());
+        InfraMetricsSnapshot s = buffered.getValue();
+        assertThat(s.memoryPercent()).isEqualTo(75.0);
+        assertThat(s.payloadBytes()).isEqualTo((long) gzipBytes);
+        assertThat(s.scrapeDurationMs()).isNotNull().isLessThan(InfraMetricsScraperService.SCRAPE_DEADLINE_MS);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void scheduledTick_keepsABaselineAtRestAndACooldownAfterTheRun() {
+        when(serverService.findEnabled()).thenReturn(List.of(server(1L, "ok")));
+        long now = System.currentTimeMillis() / 10_000 * 10_000;
+
+        // At rest only every fifth tick is scraped, and nothing is published or recorded
+        service.scheduledTick(now - 20_000);
+        service.scheduledTick(now - 18_000);
+        service.scheduledTick(now - 10_000);
+        verify(serverService, times(2)).findEnabled();
+        verify(messaging, never()).convertAndSend(any(String.class), any(Object.class));
+
+        service.startScraping(RunKind.GATLING, 7L);
+        ArgumentCaptor<List<InfraMetricsSnapshot>> baseline = ArgumentCaptor.forClass(List.class);
+        verify(baselines).save(eq(RunKind.GATLING), eq(7L), eq(Phase.BASELINE), baseline.capture());
+        assertThat(baseline.getValue()).extracting(InfraMetricsSnapshot::timestamp)
+                .containsExactly(now - 20_000, now - 10_000);
+
+        service.scheduledTick(now + 2_000);
+        verify(metricsPersistence).bufferInfra(eq(7L), any());
+
+        service.stopScraping();
+        service.scheduledTick(now + 4_000);
+        service.scheduledTick(now + 6_000);
+        verify(metricsPersistence).bufferInfra(eq(7L), any());
+        verify(baselines, never()).save(any(), any(), eq(Phase.COOLDOWN), any());
+
+        // Past the cool-down: the tail is stored and the next baseline starts from scratch
+        service.scheduledTick(now + 120_000);
+        ArgumentCaptor<List<InfraMetricsSnapshot>> cooldown = ArgumentCaptor.forClass(List.class);
+        verify(baselines).save(eq(RunKind.GATLING), eq(7L), eq(Phase.COOLDOWN), cooldown.capture());
+        assertThat(cooldown.getValue()).extracting(InfraMetricsSnapshot::timestamp)
+                .containsExactly(now + 4_000, now + 6_000);
+    }
+
+    @Test
+    void scheduledTick_followsTheRunIntervalAndRecordsBreakdowns() {
+        when(serverService.findEnabled()).thenReturn(List.of(server(1L, "cores")));
+        long now = System.currentTimeMillis() / 10_000 * 10_000;
+
+        service.startScraping(RunKind.GATLING, 7L, 1_000, true);
+        service.scheduledTick(now + 500);
+        service.scheduledTick(now + 1_000);
+        service.scheduledTick(now + 1_500);
+        service.scheduledTick(now + 2_000);
+
+        ArgumentCaptor<InfraMetricsSnapshot> buffered = ArgumentCaptor.forClass(InfraMetricsSnapshot.class);
+        verify(metricsPersistence, times(2)).bufferInfra(eq(7L), buffered.capture());
+        assertThat(buffered.getAllValues()).extracting(InfraMetricsSnapshot::timestamp).containsExactly(now + 1_000, now + 2_000);
+        // The first sample only fixes the cores; busy shares need two of them
+        Map<String, Double> first = buffered.getAllValues().get(0).breakdowns().get("cpuCore");
+        assertThat(first).containsOnlyKeys("0,0", "0,1");
+        assertThat(first.values()).containsOnlyNulls();
+        assertThat(buffered.getAllValues().get(1).breakdowns().get("cpuCore"))
+                .containsExactly(entry("0,0", 100.0), entry("0,1", 0.0));
+    }
+
+    @Test
+    void scheduledTick_leavesBreakdownsOutByDefault() {
+        when(serverService.findEnabled()).thenReturn(List.of(server(1L, "cores")));
+
+        service.startScraping(RunKind.GATLING, 7L);
+        service.scheduledTick(2_000L);
+
+        ArgumentCaptor<InfraMetricsSnapshot> buffered = ArgumentCaptor.forClass(InfraMetricsSnapshot.class);
+        verify(metricsPersistence).bufferInfra(eq(7L), buffered.capture());
+        assertThat(buffered.getValue().breakdowns()).isEmpty();
+    }
+
+    @Test
+    void scheduledTick_annotatesGcPausesOfJvmServers() {
+        MonitoredServer jvm = server(1L, "gc/actuator/prometheus");
+        jvm.setServerType(ServerType.JVM);
+        jvm.setExporterProfile(ExporterProfileService.JVM_PROFILE);
+        when(serverService.findEnabled()).thenReturn(List.of(jvm));
+        when(annotations.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        long now = System.currentTimeMillis() / 10_000 * 10_000;
+
+        service.startScraping(RunKind.GATLING, 7L);
+        service.scheduledTick(now + 2_000);
+        verify(annotations, never()).save(any());
+        service.scheduledTick(now + 4_000);
+
+        ArgumentCaptor<InfraMetricsSnapshot> buffered = ArgumentCaptor.forClass(InfraMetricsSnapshot.class);
+        verify(metricsPersistence, times(2)).bufferInfra(eq(7L), buffered.capture());
+        InfraMetricsSnapshot s = buffered.getAllValues().get(1);
+        assertThat(s.extra().get("heapUsedBytes")).isEqualTo(4.0e8);
+        assertThat(s.extra().get(InfraMetricsScraperService.GC_TIME_PERCENT)).isEqualTo(100.0);
+        assertThat(s.extra().get(InfraMetricsScraperService.GC_PAUSES_PER_SEC)).isPositive();
+        ArgumentCaptor<RunAnnotation> annotation = ArgumentCaptor.forClass(RunAnnotation.class);
+        verify(annotations).save(annotation.capture());
+        assertThat(annotation.getValue().getTestRunId()).isEqualTo(7L);
+        assertThat(annotation.getValue().getType()).isEqualTo(InfraMetricsScraperService.GC_ANNOTATION_TYPE);
+        assertThat(annotation.getValue().getTimestamp()).isEqualTo(now + 2_000);
+        assertThat(annotation.getValue().getMessage()).startsWith("server-1: 2000 ms of GC pauses in 2000 ms");
+        verify(messaging).convertAndSend(eq("/topic/annotations/7"), any(Object.class));
+    }
+
+    private MonitoredServer server(Long id, String path) {
+        MonitoredServer server = new MonitoredServer();
+        server.setId(id);
+        server.setName("server-" + id);
+        server.setServerType(ServerType.API);
+        server.setUrl("http://127.0.0.1:" + http.getAddress().getPort() + "/" + path);
+        return server;
+    }
+}
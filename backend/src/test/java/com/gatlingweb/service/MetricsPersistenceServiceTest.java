@@ -1,14 +1,32 @@
 package com.gatlingweb.service;
 
+import com.gatlingweb.dto.InfraBreakdownDto;
+import com.gatlingweb.dto.InfraMetricsSnapshot;
+import com.gatlingweb.dto.MetricsEnvelope;
+import com.gatlingweb.dto.MetricsSeriesDto;
 import com.gatlingweb.dto.MetricsSnapshot;
+import com.gatlingweb.entity.MetricsPoint;
+import com.gatlingweb.entity.ServerType;
 import com.gatlingweb.repository.InfraMetricsPointRepository;
 import com.gatlingweb.repository.MetricsPointRepository;
+import com.gatlingweb.timeseries.Resolution;
+import com.gatlingweb.timeseries.TimeSeriesStore;
+import com.gatlingweb.timeseries.TimeSeriesWriter;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
@@ -20,60 +38,187 @@ class MetricsPersistenceServiceTest {
     @Mock
     private InfraMetricsPointRepository infraRepo;
 
+    @TempDir
+    Path metricsDir;
+
+    private TimeSeriesWriter writer;
     private MetricsPersistenceService service;
 
     @BeforeEach
     void setUp() {
-        service = new MetricsPersistenceService(metricsRepo, infraRepo);
+        TimeSeriesStore store = new TimeSeriesStore(metricsDir.toString());
+        writer = new TimeSeriesWriter(store, 1000, 50, 100);
+        writer.start();
+        service = new MetricsPersistenceService(metricsRepo, infraRepo, store, writer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.stop();
     }
 
     @Test
-    void buffer_belowBatchSize_doesNotFlush() {
-        for (int i = 0; i < 4; i++) {
-            service.buffer(1L, createSnapshot());
+    void buffer_writesToStoreNotSqlite() {
+        for (int i = 0; i < 12; i++) {
+            service.buffer(1L, createSnapshot(1000L * i));
         }
+        service.flush().join();
+
         verify(metricsRepo, never()).saveAll(anyList());
+        assertThat(service.getMetrics(1L)).hasSize(12);
+        verify(metricsRepo, never()).findByTestRunIdOrderByTimestampAsc(any());
     }
 
     @Test
-    void buffer_atBatchSize_flushes() {
-        for (int i = 0; i < 5; i++) {
-            service.buffer(1L, createSnapshot());
-        }
-        verify(metricsRepo, times(1)).saveAll(anyList());
+    void buffer_returnsBeforeWriterCommits() {
+        service.buffer(1L, createSnapshot(0L));
+
+        // Producer only enqueues; the point reaches the store through the writer thread
+        assertThat(writer.stats().enqueued()).isEqualTo(1);
+        assertThat(service.getMetrics(1L)).hasSize(1);
+        assertThat(writer.stats().written()).isEqualTo(1);
     }
 
     @Test
-    void buffer_multipleBatches_flushesEachTime() {
-        for (int i = 0; i < 12; i++) {
-            service.buffer(1L, createSnapshot());
+    void getMetrics_beforeFlush_includesBufferedPoints() {
+        for (int i = 0; i < 3; i++) {
+            service.buffer(1L, createSnapshot(1000L * i));
         }
-        verify(metricsRepo, times(2)).saveAll(anyList());
+
+        assertThat(service.getMetrics(1L)).extracting(MetricsSnapshot::timestamp)
+                .containsExactly(0L, 1000L, 2000L);
     }
 
     @Test
-    void flush_manualFlush_savesRemainingBuffer() {
-        // Add 3 (less than batch size)
-        for (int i = 0; i < 3; i++) {
-            service.buffer(1L, createSnapshot());
+    void flush_persistsAcrossInstances() {
+        MetricsSnapshot snapshot = createSnapshot(1_700_000_000_000L);
+        service.buffer(1L, snapshot);
+        service.flush().join();
+
+        TimeSeriesStore reopenedStore = new TimeSeriesStore(metricsDir.toString());
+        MetricsPersistenceService reopened = new MetricsPersistenceService(metricsRepo, infraRepo,
+                reopenedStore, new TimeSeriesWriter(reopenedStore, 10, 10, 100));
+        assertThat(reopened.getMetrics(1L)).containsExactly(snapshot);
+    }
+
+    @Test
+    void getDownsampledMetrics_boundsPointsAndKeepsExtremes() {
+        for (int i = 0; i < 900; i++) {
+            MetricsSnapshot s = createSnapshot(1000L * i);
+            service.buffer(1L, i == 450
+                    ? new MetricsSnapshot(s.timestamp(), 10.0, 0.0, 150.0, 100.0, 120.0, 4_000.0, 5_000.0, 5, 100L, 0L)
+                    : s);
         }
-        verify(metricsRepo, never()).saveAll(anyList());
+        service.flush().join();
+
+        MetricsSeriesDto series = service.getDownsampledMetrics(1L, null, null, 100);
 
-        service.flush();
-        verify(metricsRepo, times(1)).saveAll(anyList());
+        assertThat(series.resolution()).isEqualTo("raw");
+        assertThat(series.sourcePoints()).isEqualTo(900);
+        assertThat(series.points()).hasSize(100);
+        assertThat(series.points()).extracting(MetricsSnapshot::p95).contains(4_000.0);
+        assertThat(series.envelopes()).hasSize(100);
+        assertThat(series.envelopes().stream().mapToInt(MetricsEnvelope::sourcePoints).sum()).isEqualTo(900);
+        assertThat(series.envelopes()).extracting(MetricsEnvelope::maxP99).contains(5_000.0);
+        assertThat(service.getMetrics(1L, 0L, 99_000L, Resolution.RAW, 10)).hasSize(10)
+                .first().extracting(MetricsSnapshot::timestamp).isEqualTo(0L);
+        // Two points: the spike falls in the envelope of the last one
+        MetricsSeriesDto ends = service.getDownsampledMetrics(1L, null, null, 2);
+        assertThat(ends.points()).extracting(MetricsSnapshot::timestamp).containsExactly(0L, 899_000L);
+        assertThat(ends.envelopes()).extracting(MetricsEnvelope::sourcePoints).containsExactly(1, 899);
+        assertThat(ends.envelopes().get(1).maxP99()).isEqualTo(5_000.0);
+        assertThat(service.getDownsampledMetrics(1L, null, null, 1).envelopes())
+                .singleElement().extracting(MetricsEnvelope::sourcePoints).isEqualTo(900);
     }
 
     @Test
-    void flush_emptyBuffer_doesNotCallSaveAll() {
-        service.flush();
-        verify(metricsRepo, never()).saveAll(anyList());
+    void getMetrics_legacyRun_readsSqliteRows() {
+        MetricsSnapshot legacy = createSnapshot(42L);
+        when(metricsRepo.findByTestRunIdOrderByTimestampAsc(7L)).thenReturn(List.of(MetricsPoint.from(7L, legacy)));
+
+        assertThat(service.getMetrics(7L)).containsExactly(legacy);
+    }
+
+    @Test
+    void bufferInfra_roundTripsNullsAndMergesServersByTimestamp() {
+        service.bufferInfra(1L, infra(2000L, 2L, "db", ServerType.SQL, null));
+        service.bufferInfra(1L, infra(1000L, 1L, "api", ServerType.API, 12.5));
+        service.bufferInfra(1L, infra(3000L, 1L, "api", ServerType.API, 13.0));
+        service.bufferInfra(1L, InfraMetricsSnapshot.error(3L, "down", ServerType.WEB, "timeout"));
+        service.flush().join();
+
+        List<InfraMetricsSnapshot> result = service.getInfraMetrics(1L);
+
+        assertThat(result).extracting(InfraMetricsSnapshot::timestamp).containsExactly(1000L, 2000L, 3000L);
+        assertThat(result.get(0)).isEqualTo(infra(1000L, 1L, "api", ServerType.API, 12.5));
+        assertThat(result.get(1).cpuPercent()).isNull();
+        assertThat(result.get(1).serverName()).isEqualTo("db");
+        assertThat(result.get(1).serverType()).isEqualTo(ServerType.SQL);
         verify(infraRepo, never()).saveAll(anyList());
     }
 
-    private MetricsSnapshot createSnapshot() {
+    @Test
+    void bufferInfra_roundTripsExtraMetricsByName() {
+        Map<String, Double> extra = new LinkedHashMap<>();
+        extra.put("load1", 0.5);
+        extra.put("contextSwitches", null);
+        service.bufferInfra(1L, new InfraMetricsSnapshot(1000L, 4L, "linux", ServerType.WEB,
+                20.0, null, null, null, null, null, null, null, null, extra, Map.of(), null, null, null));
+        service.flush().join();
+
+        assertThat(service.getInfraMetrics(1L)).singleElement()
+                .extracting(InfraMetricsSnapshot::extra).isEqualTo(extra);
+    }
+
+    @Test
+    void bufferInfra_storesBreakdownsAsTheirOwnSeries() {
+        for (int i = 1; i <= 3; i++) {
+            Map<String, Double> cores = new LinkedHashMap<>();
+            cores.put("0,0", 10.0 * i);
+            cores.put("0,1", i == 2 ? null : 90.0);
+            service.bufferInfra(1L, new InfraMetricsSnapshot(1000L * i, 4L, "win", ServerType.API,
+                    50.0, null, null, null, null, null, null, null, null, Map.of(), Map.of("cpuCore", cores), null, null, null));
+        }
+        service.flush().join();
+
+        assertThat(service.getInfraMetrics(1L)).hasSize(3).allSatisfy(s -> assertThat(s.breakdowns()).isEmpty());
+        List<InfraBreakdownDto> breakdowns = service.getInfraBreakdowns(1L, 4L, null, null, Resolution.RAW, 100);
+        assertThat(breakdowns).singleElement().satisfies(b -> {
+            assertThat(b.name()).isEqualTo("cpuCore");
+            assertThat(b.serverName()).isEqualTo("win");
+            assertThat(b.keys()).containsExactly("0,0", "0,1");
+            assertThat(b.timestamps()).containsExactly(1000L, 2000L, 3000L);
+            assertThat(b.values().get(0)).containsExactly(10.0, 20.0, 30.0);
+            assertThat(b.values().get(1)).containsExactly(90.0, null, 90.0);
+        });
+        assertThat(service.getInfraBreakdowns(1L, 5L, null, null, null, 100)).isEmpty();
+        // A range past the end of the sealed series reads no block but keeps its columns
+        assertThat(service.getInfraMetrics(1L, 10_000L, 20_000L, Resolution.RAW, 100)).isEmpty();
+        assertThat(service.getInfraBreakdowns(1L, 4L, 10_000L, 20_000L, Resolution.RAW, 100)).singleElement()
+                .satisfies(b -> assertThat(b.timestamps()).isEmpty());
+    }
+
+    @Test
+    void deleteMetricsForTest_removesStoreAndLegacyRows() {
+        service.buffer(1L, createSnapshot(0L));
+        service.flush().join();
+
+        service.deleteMetricsForTest(1L);
+
+        assertThat(service.getMetrics(1L)).isEmpty();
+        verify(metricsRepo).deleteByTestRunId(1L);
+        verify(infraRepo).deleteByTestRunId(1L);
+    }
+
+    private MetricsSnapshot createSnapshot(long timestamp) {
         return new MetricsSnapshot(
-                System.currentTimeMillis(), 10.0, 0.0, 150.0,
+                timestamp, 10.0, 0.0, 150.0,
                 100.0, 120.0, 200.0, 300.0, 5, 100L, 0L
         );
     }
+
+    private InfraMetricsSnapshot infra(long timestamp, Long serverId, String name, ServerType type, Double cpu) {
+        return new InfraMetricsSnapshot(timestamp, serverId, name, type,
+                cpu, 4_000_000_000L, 8_000_000_000L, 50.0, 1024.0, 2048.0, null, null, null, Map.of(), Map.of(), null, null, null);
+    }
 }
@@ -0,0 +1,195 @@
+package com.gatlingweb.service;
+
+import com.gatlingweb.dto.InfraMetricsSnapshot;
+import com.gatlingweb.dto.MetricsSnapshot;
+import com.gatlingweb.entity.ServerType;
+import com.gatlingweb.repository.InfraMetricsPointRepository;
+import com.gatlingweb.repository.MetricsPointRepository;
+import com.gatlingweb.timeseries.LatencyHistogram;
+import com.gatlingweb.timeseries.Resolution;
+import com.gatlingweb.timeseries.TimeSeriesStore;
+import com.gatlingweb.timeseries.TimeSeriesWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+class MetricsRollupServiceTest {
+
+    // Aligned on a minute so that 120 one-second points give exactly two 1 min windows
+    private static final long T0 = 1_700_000_040_000L;
+
+    @TempDir
+    Path metricsDir;
+
+    private TimeSeriesStore store;
+    private MetricsPersistenceService persistence;
+    private FinishedRunCache cache;
+
+    @BeforeEach
+    void setUp() {
+        store = new TimeSeriesStore(metricsDir.toString());
+        persistence = new MetricsPersistenceService(mock(MetricsPointRepository.class),
+                mock(InfraMetricsPointRepository.class), store, new TimeSeriesWriter(store, 10, 10, 100));
+        cache = mock(FinishedRunCache.class);
+    }
+
+    @Test
+    void rollupRun_buildsTenSecondAndMinuteSeries() {
+        writeRawRun(1L);
+
+        assertThat(new MetricsRollupService(store, cache, 0, 0).rollupRun(1L)).isEqualTo(4);
+        verify(cache).evictRun(FinishedRunCache.Scope.GATLING, 1L);
+
+        assertThat(store.listSeries(1L)).containsExactlyInAnyOrder(
+                "gatling", "gatling_10s", "gatling_1m", "infra-3", "infra-3_10s", "infra-3_1m");
+        List<MetricsSnapshot> minutes = persistence.getMetrics(1L, null, null, Resolution.ONE_MINUTE, 2000);
+        assertThat(minutes).extracting(MetricsSnapshot::timestamp).containsExactly(T0, T0 + 60_000);
+        MetricsSnapshot first = minutes.get(0);
+        assertThat(first.requestsPerSecond()).isEqualTo(10.5);
+        assertThat(first.meanResponseTime()).isCloseTo(150.0, within(1e-9));
+        assertThat(first.p50()).isCloseTo(100.0, within(2.0));
+        assertThat(first.p95()).isCloseTo(200.0, within(4.0));
+        assertThat(first.p99()).isEqualTo(300.0);
+        assertThat(first.activeUsers()).isEqualTo(59);
+        assertThat(first.totalRequests()).isEqualTo(5900L);
+
+        List<InfraMetricsSnapshot> infra = persistence.getInfraMetrics(1L, null, null, Resolution.TEN_SECONDS, 2000);
+        assertThat(infra).hasSize(12);
+        assertThat(infra.get(0).serverName()).isEqualTo("db");
+        assertThat(infra.get(0).cpuPercent()).isEqualTo(50.0);
+        assertThat(infra.get(0).networkRecvBytesPerSec()).isNull();
+    }
+
+    @Test
+    void getMetrics_rollupQuantilesMergeTheWindowHistograms() {
+        writeRawRun(1L);
+        // Ten fast responses per 10 s window, plus a slow tail in the second one only
+        LatencyHistogram minute = new LatencyHistogram();
+        for (int w = 0; w < 6; w++) {
+            LatencyHistogram window = new LatencyHistogram();
+            window.record(20, 10);
+            if (w == 1) window.record(900, 2);
+            store.appendHistogram(1L, "gatling_10s", T0 + 10_000L * w, window);
+            minute.merge(window);
+        }
+        new MetricsRollupService(store, cache, 0, 0).rollupRun(1L);
+
+        List<MetricsSnapshot> tens = persistence.getMetrics(1L, null, null, Resolution.TEN_SECONDS, 2000);
+        assertThat(tens.get(0).p99()).isCloseTo(20.0, within(1.0));
+        assertThat(tens.get(1).p99()).isCloseTo(900.0, within(15.0));
+        // Without histograms the window keeps the average of its per-second percentiles
+        assertThat(tens.get(6).p99()).isEqualTo(300.0);
+
+        MetricsSnapshot first = persistence.getMetrics(1L, null, null, Resolution.ONE_MINUTE, 2000).get(0);
+        assertThat(first.p50()).isEqualTo(minute.quantile(0.50));
+        assertThat(first.p95()).isEqualTo(minute.quantile(0.95));
+        assertThat(first.p99()).isEqualTo(minute.quantile(0.99));
+        assertThat(first.p99()).isCloseTo(900.0, within(15.0));
+    }
+
+    @Test
+    void rollupRun_skipsUpToDateAndUnsettledSeries() {
+        writeRawRun(1L);
+        MetricsRollupService service = new MetricsRollupService(store, cache, 0, 0);
+        service.rollupRun(1L);
+
+        assertThat(service.rollupRun(1L)).isZero();
+
+        writeRawRun(2L);
+        assertThat(new MetricsRollupService(store, cache, Duration.ofHours(1).toMillis(), 0).rollupRun(2L)).isZero();
+        assertThat(store.listSeries(2L)).containsExactlyInAnyOrder("gatling", "infra-3");
+    }
+
+    @Test
+    void rollupAll_skipsSettledRunsUntilTheyAreAppendedToAgain() {
+        writeRawRun(1L);
+        TimeSeriesStore spied = spy(store);
+        MetricsRollupService service = new MetricsRollupService(spied, cache, 0, 0);
+        service.rollupAll();
+        assertThat(store.exists(1L, "gatling_1m")).isTrue();
+
+        clearInvocations(spied);
+        service.rollupAll();
+        verify(spied, never()).listSeries(1L);
+        verify(spied, never()).lastModified(eq(1L), anyString());
+
+        spied.append(1L, "gatling", "", T0 + 120_000, MetricsPersistenceService.toRow(
+                new MetricsSnapshot(T0 + 120_000, 10, 0.0, 150.0, 100.0, 120.0, 200.0, 300.0, 1, 100L, 0L)));
+        spied.flush();
+        service.rollupAll();
+        verify(spied).listSeries(1L);
+    }
+
+    @Test
+    void getMetrics_autoResolution_respectsMaxPoints() {
+        writeRawRun(1L);
+        new MetricsRollupService(store, cache, 0, 0).rollupRun(1L);
+
+        assertThat(persistence.getMetrics(1L, null, null, null, 2000)).hasSize(120);
+        assertThat(persistence.getMetrics(1L, null, null, null, 20)).hasSize(12);
+        assertThat(persistence.getMetrics(1L, null, null, null, 10)).hasSize(2);
+        assertThat(persistence.getMetrics(1L, T0 + 10_000, T0 + 29_000, Resolution.TEN_SECONDS, 2000))
+                .extracting(MetricsSnapshot::timestamp).containsExactly(T0 + 10_000, T0 + 20_000);
+    }
+
+    @Test
+    void retention_dropsOldRawSeriesOnceRolledUp() throws IOException {
+        writeRawRun(1L);
+        MetricsRollupService service = new MetricsRollupService(store, cache, 0, 1);
+        service.rollupRun(1L);
+        assertThat(store.exists(1L, "gatling")).isTrue();
+
+        FileTime old = FileTime.fromMillis(System.currentTimeMillis() - Duration.ofDays(3).toMillis());
+        try (var files = Files.list(metricsDir.resolve("1"))) {
+            for (Path file : files.toList()) Files.setLastModifiedTime(file, old);
+        }
+        service.rollupRun(1L);
+
+        assertThat(store.listSeries(1L)).containsExactlyInAnyOrder(
+                "gatling_10s", "gatling_1m", "infra-3_10s", "infra-3_1m");
+        // Full-detail reads fall back to the finest remaining rollup
+        assertThat(persistence.getMetrics(1L)).hasSize(12);
+        assertThat(persistence.getInfraMetrics(1L)).hasSize(12);
+    }
+
+    @Test
+    void parseResolution_rejectsUnknownValues() {
+        assertThat(Resolution.parse("auto")).isNull();
+        assertThat(Resolution.parse("10s")).isEqualTo(Resolution.TEN_SECONDS);
+        assertThatThrownBy(() -> Resolution.parse("5m")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void writeRawRun(long runId) {
+        for (int i = 0; i < 120; i++) {
+            long t = T0 + 1000L * i;
+            store.append(runId, "gatling", "", t, MetricsPersistenceService.toRow(
+                    new MetricsSnapshot(t, 10 + (i % 2), 0.0, 150.0, 100.0, 120.0, 200.0, 300.0, i, 100L * i, 0L)));
+        }
+        for (int i = 0; i < 60; i++) {
+            long t = T0 + 2000L * i;
+            store.append(runId, "infra-3", "db\tSQL", t, MetricsPersistenceService.toRow(
+                    new InfraMetricsSnapshot(t, 3L, "db", ServerType.SQL, 50.0, 4_000L, 8_000L, 50.0,
+                            1.0, 2.0, null, null, null, Map.of(), Map.of(), null, null, null)));
+        }
+        store.flush();
+    }
+}
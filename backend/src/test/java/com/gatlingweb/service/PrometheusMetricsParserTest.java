@@ -0,0 +1,340 @@
+package com.gatlingweb.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gatlingweb.dto.ExporterProfile.Signal;
+import com.gatlingweb.service.PrometheusMetricsParser.Plan;
+import com.gatlingweb.service.PrometheusMetricsParser.Reading;
+import com.gatlingweb.service.PrometheusMetricsParser.Scan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PrometheusMetricsParserTest {
+
+    private static final String PAGE = """
+            # HELP windows_cpu_time_total Time that processor spent in different modes (dpc, idle, interrupt, privileged, user)
+            # TYPE windows_cpu_time_total counter
+            windows_cpu_time_total{core="0,0",mode="dpc"} 10.5
+            windows_cpu_time_total{core="0,0",mode="idle"} 1.5e+03
+            windows_cpu_time_total{core="0,1",mode="idle"} 500
+            windows_cpu_time_total{core="0,1",mode="user"} 200 1700000000000
+            windows_cpu_time_total{core="0,1",mode="idle_like",note="say \\"idle\\""} 7
+            windows_cs_physical_memory_bytes 1.6e+10
+            windows_memory_available_bytes 4.0e9
+            windows_logical_disk_read_bytes_total{volume="C:"} 1000
+            windows_logical_disk_read_bytes_total{volume="HarddiskVolume1"} NaN
+            windows_logical_disk_read_bytes_total{volume="D:"} 24
+            windows_logical_disk_write_bytes_total{volume="C:"} +Inf
+            windows_net_bytes_received_total{nic="eth0"} 12345.678
+            windows_net_bytes_sent_total{nic="eth0"} 0.001
+            windows_net_bytes_sent_total_extra{nic="eth0"} 99
+            windows_service_state{name="a very long service list",state="running"} 1
+            """;
+
+    private static final String PROTOBUF =
+            "application/vnd.google.protobuf; proto=io.prometheus.client.MetricFamily; encoding=delimited";
+
+    private final PrometheusMetricsParser parser = new PrometheusMetricsParser();
+    private final ExporterProfileService profiles = new ExporterProfileService(new ObjectMapper(), parser, "");
+    private Plan windows;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        profiles.load();
+        windows = profiles.plan("windows_exporter");
+    }
+
+    @Test
+    void parse_foldsWantedFamiliesOnly() {
+        Reading m = parser.parse(windows, PAGE);
+
+        assertThat(m.signal(Signal.CPU_IDLE_SECONDS)).isEqualTo(2000.0);
+        assertThat(m.signal(Signal.CPU_TOTAL_SECONDS)).isEqualTo(2217.5);
+        assertThat(m.signal(Signal.MEMORY_TOTAL_BYTES)).isEqualTo(16e9);
+        assertThat(m.signal(Signal.MEMORY_FREE_BYTES)).isEqualTo(4e9);
+        assertThat(m.signal(Signal.DISK_READ_BYTES)).isEqualTo(1024.0);
+        assertThat(m.signal(Signal.DISK_WRITE_BYTES)).isEqualTo(0.0);
+        assertThat(m.signal(Signal.NETWORK_RECEIVED_BYTES)).isEqualTo(12345.678);
+        assertThat(m.signal(Signal.NETWORK_SENT_BYTES)).isEqualTo(0.001);
+        assertThat(m.signal(Signal.DB_OPERATIONS)).isNull();
+        assertThat(m.signal(Signal.CPU_USAGE_RATIO)).isNull();
+    }
+
+    @Test
+    void parse_prefersNewerMemoryNames() {
+        Reading m = parser.parse(windows, """
+                windows_os_physical_memory_free_bytes 1
+                windows_memory_physical_free_bytes 2
+                windows_cs_physical_memory_bytes 3
+                windows_memory_physical_total_bytes 4
+                windows_mssql_sql_batch_requests_total{mssql_instance="A"} 42
+                """);
+
+        assertThat(m.signal(Signal.MEMORY_TOTAL_BYTES)).isEqualTo(4.0);
+        assertThat(m.signal(Signal.MEMORY_FREE_BYTES)).isEqualTo(2.0);
+        assertThat(m.signal(Signal.DB_OPERATIONS)).isEqualTo(42.0);
+        assertThat(m.signal(Signal.CPU_TOTAL_SECONDS)).isNull();
+    }
+
+    @Test
+    void parse_nodeExporterExcludesLoopbackAndReadsExtras() {
+        Reading m = parser.parse(profiles.plan("node_exporter"), """
+                node_cpu_seconds_total{cpu="0",mode="idle"} 100
+                node_cpu_seconds_total{cpu="0",mode="user"} 20
+                node_memory_MemTotal_bytes 8e9
+                node_memory_MemFree_bytes 1e9
+                node_memory_MemAvailable_bytes 3e9
+                node_network_receive_bytes_total{device="lo"} 1000
+                node_network_receive_bytes_total{device="eth0"} 50
+                node_network_receive_bytes_total{device="eth1"} 25
+                node_load1 0.75
+                """);
+
+        assertThat(m.signal(Signal.CPU_IDLE_SECONDS)).isEqualTo(100.0);
+        assertThat(m.signal(Signal.CPU_TOTAL_SECONDS)).isEqualTo(120.0);
+        assertThat(m.signal(Signal.MEMORY_FREE_BYTES)).isEqualTo(3e9);
+        assertThat(m.signal(Signal.NETWORK_RECEIVED_BYTES)).isEqualTo(75.0);
+        assertThat(m.signal(Signal.NETWORK_SENT_BYTES)).isNull();
+        Map<String, Double> extra = new LinkedHashMap<>();
+        extra.put("load1", 0.75);
+        extra.put("contextSwitches", null);
+        assertThat(m.extra()).containsExactlyEntriesOf(extra);
+    }
+
+    @Test
+    void parse_splitsBreakdownsByLabel() {
+        Reading m = parser.parse(windows, PAGE);
+
+        assertThat(m.breakdowns().get("cpuCore")).containsExactly(Map.entry("0,0", 1500.0), Map.entry("0,1", 500.0));
+        assertThat(m.breakdowns().get("diskRead"))
+                .containsExactly(Map.entry("C:", 1000.0), Map.entry("HarddiskVolume1", 0.0), Map.entry("D:", 24.0));
+        assertThat(m.breakdowns().get("networkSent")).containsExactly(Map.entry("eth0", 0.001));
+        assertThat(m.truncated()).isEmpty();
+    }
+
+    @Test
+    void parse_breakdownsSkipExcludedLabelsAndStopAtTheirCap() {
+        StringBuilder page = new StringBuilder("node_network_receive_bytes_total{device=\"lo\"} 1000\n");
+        for (int i = 0; i < 70; i++) page.append("node_cpu_seconds_total{cpu=\"").append(i).append("\",mode=\"idle\"} ").append(i).append('\n');
+        page.append("node_network_receive_bytes_total{device=\"eth0\"} 50\n");
+
+        Reading m = parser.parse(profiles.plan("node_exporter"), page.toString());
+
+        assertThat(m.breakdowns().get("cpuCore")).hasSize(64).containsEntry("63", 63.0).doesNotContainKey("64");
+        assertThat(m.truncated()).containsExactly("cpuCore");
+        assertThat(m.breakdowns().get("networkReceived")).containsExactly(Map.entry("eth0", 50.0));
+        assertThat(m.breakdowns()).doesNotContainKey("diskRead");
+        // The totals still cover every core
+        assertThat(m.signal(Signal.CPU_IDLE_SECONDS)).isEqualTo(69 * 70 / 2.0);
+    }
+
+    @Test
+    void parse_jvmGcPausesLeaveConcurrentCyclesOut() {
+        Reading m = parser.parse(profiles.plan("jvm"), """
+                jvm_gc_collection_seconds_count{gc="G1 Young Generation"} 40
+                jvm_gc_collection_seconds_sum{gc="G1 Young Generation"} 1.5
+                jvm_gc_collection_seconds_count{gc="G1 Concurrent GC"} 10
+                jvm_gc_collection_seconds_sum{gc="G1 Concurrent GC"} 30
+                jvm_gc_collection_seconds_count{gc="G1 Old Generation"} 1
+                jvm_gc_collection_seconds_sum{gc="G1 Old Generation"} 0.5
+                jvm_threads_current 42
+                hikaricp_connections_active{pool="main"} 8
+                hikaricp_connections_active{pool="batch"} 2
+                """);
+
+        assertThat(m.signal(Signal.GC_PAUSES)).isEqualTo(41.0);
+        assertThat(m.signal(Signal.GC_PAUSE_SECONDS)).isEqualTo(2.0);
+        assertThat(m.extra()).containsEntry("threads", 42.0).containsEntry("poolActive", 10.0);
+    }
+
+    @Test
+    void parse_postgresSumsFamiliesAndScales() {
+        Reading m = parser.parse(profiles.plan("postgres_exporter"), """
+                pg_stat_database_xact_commit{datname="app"} 900
+                pg_stat_database_xact_rollback{datname="app"} 100
+                pg_stat_database_xact_commit{datname="postgres"} 5
+                pg_stat_database_blks_read{datname="app"} 2
+                """);
+
+        assertThat(m.signal(Signal.DB_OPERATIONS)).isEqualTo(1005.0);
+        assertThat(m.signal(Signal.DISK_READ_BYTES)).isEqualTo(16384.0);
+    }
+
+    @Test
+    void scan_givesSameResultWhateverTheChunkBoundaries() {
+        byte[] page = PAGE.getBytes(StandardCharsets.UTF_8);
+        Reading whole = parser.parse(windows, page);
+
+        for (int size = 1; size <= 64; size++) {
+            Scan scan = parser.newScan(windows);
+            for (int from = 0; from < page.length; from += size) {
+                scan.feed(ByteBuffer.wrap(page, from, Math.min(size, page.length - from)));
+            }
+            assertThat(scan.finish()).as("chunks of %d bytes", size).isEqualTo(whole);
+        }
+    }
+
+    @Test
+    void scan_inflatesGzipWhateverTheChunkBoundaries() {
+        byte[] page = gzip(PAGE.getBytes(StandardCharsets.UTF_8));
+        Reading plain = parser.parse(windows, PAGE);
+
+        for (int size = 1; size <= 64; size++) {
+            Reading r = feed(parser.newScan(windows, "text/plain; version=0.0.4", "gzip"), page, size);
+            assertThat(r.toString()).as("chunks of %d bytes", size).isEqualTo(plain.toString());
+            assertThat(r.payloadBytes()).isEqualTo(page.length);
+        }
+    }
+
+    @Test
+    void scan_rejectsTruncatedGzipAndUnknownEncodings() {
+        byte[] page = gzip(PAGE.getBytes(StandardCharsets.UTF_8));
+        Scan scan = parser.newScan(windows, "text/plain", "gzip");
+        scan.feed(ByteBuffer.wrap(page, 0, page.length - 4));
+
+        assertThatThrownBy(scan::finish).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> parser.newScan(windows, "text/plain", "br"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void scan_readsDelimitedProtobufWhateverTheChunkBoundaries() {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.writeBytes(family("windows_cpu_time_total", 0,
+                metric(3, 1500, "core", "0,0", "mode", "idle"), metric(3, 200, "core", "0,1", "mode", "user")));
+        body.writeBytes(family("windows_service_state", 1, metric(2, 1, "name", "spooler")));
+        body.writeBytes(family("windows_memory_physical_total_bytes", 1, metric(2, 8e9)));
+        body.writeBytes(family("windows_memory_physical_free_bytes", 1, metric(2, 2e9)));
+        byte[] page = body.toByteArray();
+        Reading text = parser.parse(windows, """
+                windows_cpu_time_total{core="0,0",mode="idle"} 1500
+                windows_cpu_time_total{core="0,1",mode="user"} 200
+                windows_memory_physical_total_bytes 8e9
+                windows_memory_physical_free_bytes 2e9
+                """);
+
+        for (int size = 1; size <= 64; size++) {
+            assertThat(feed(parser.newScan(windows, PROTOBUF, null), page, size).toString())
+                    .as("chunks of %d bytes", size).isEqualTo(text.toString());
+        }
+    }
+
+    @Test
+    void scan_readsProtobufSummarySum() {
+        ByteArrayOutputStream summary = new ByteArrayOutputStream();
+        writeVarint(summary, 1 << 3);
+        writeVarint(summary, 12);
+        writeDouble(summary, 2, 0.75);
+        ByteArrayOutputStream metric = new ByteArrayOutputStream();
+        writeBytes(metric, 1, label("gc", "G1 Young Generation"));
+        writeBytes(metric, 4, summary.toByteArray());
+        byte[] page = family("jvm_gc_collection_seconds", 2, metric.toByteArray());
+
+        Reading r = feed(parser.newScan(profiles.plan("jmx_exporter"), PROTOBUF, null), page, page.length);
+
+        assertThat(r.extra()).containsEntry("gcSeconds", 0.75);
+    }
+
+    @Test
+    void parse_skipsMalformedLinesAndKeepsLastLineWithoutNewline() {
+        Reading m = parser.parse(windows, """
+                windows_net_bytes_received_total{nic="eth0" 5
+                windows_net_bytes_received_total{nic="eth1"} abc
+                windows_net_bytes_received_total{nic="eth2"}
+                windows_net_bytes_received_total{nic="eth3"} 1e400
+                windows_net_bytes_received_total{nic="eth4"} 7\r
+                windows_net_bytes_received_total 3""");
+
+        assertThat(m.signal(Signal.NETWORK_RECEIVED_BYTES)).isEqualTo(10.0);
+    }
+
+    @Test
+    void parseValue_matchesDoubleParsing() {
+        String[] values = {"0", "-0.5", "1.5e+03", "123456789.123456", "0.000123", "9007199254740993",
+                "1.7976931348623157e308", "4.9e-324", "12345678901234567890", "3.14159E-2", "+12"};
+        for (String v : values) {
+            byte[] bytes = v.getBytes(StandardCharsets.US_ASCII);
+            assertThat(PrometheusMetricsParser.parseValue(ByteBuffer.wrap(bytes), 0, bytes.length))
+                    .as(v).isEqualTo(Double.parseDouble(v));
+        }
+    }
+
+    private static Reading feed(Scan scan, byte[] page, int chunkSize) {
+        for (int from = 0; from < page.length; from += chunkSize) {
+            scan.feed(ByteBuffer.wrap(page, from, Math.min(chunkSize, page.length - from)));
+        }
+        return scan.finish();
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /** A length-delimited MetricFamily message. */
+    private static byte[] family(String name, int type, byte[]... metrics) {
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        writeBytes(message, 1, name.getBytes(StandardCharsets.UTF_8));
+        writeBytes(message, 2, "help".getBytes(StandardCharsets.UTF_8));
+        writeVarint(message, 3 << 3);
+        writeVarint(message, type);
+        for (byte[] metric : metrics) writeBytes(message, 4, metric);
+        ByteArrayOutputStream delimited = new ByteArrayOutputStream();
+        writeVarint(delimited, message.size());
+        delimited.writeBytes(message.toByteArray());
+        return delimited.toByteArray();
+    }
+
+    /** A Metric whose value message (gauge 2, counter 3, untyped 5) holds {@code value}. */
+    private static byte[] metric(int valueField, double value, String... labels) {
+        ByteArrayOutputStream metric = new ByteArrayOutputStream();
+        for (int i = 0; i < labels.length; i += 2) writeBytes(metric, 1, label(labels[i], labels[i + 1]));
+        ByteArrayOutputStream valueMessage = new ByteArrayOutputStream();
+        writeDouble(valueMessage, 1, value);
+        writeBytes(metric, valueField, valueMessage.toByteArray());
+        return metric.toByteArray();
+    }
+
+    private static byte[] label(String name, String value) {
+        ByteArrayOutputStream pair = new ByteArrayOutputStream();
+        writeBytes(pair, 1, name.getBytes(StandardCharsets.UTF_8));
+        writeBytes(pair, 2, value.getBytes(StandardCharsets.UTF_8));
+        return pair.toByteArray();
+    }
+
+    private static void writeBytes(ByteArrayOutputStream out, int field, byte[] bytes) {
+        writeVarint(out, field << 3 | 2);
+        writeVarint(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static void writeDouble(ByteArrayOutputStream out, int field, double value) {
+        writeVarint(out, field << 3 | 1);
+        long bits = Double.doubleToLongBits(value);
+        for (int k = 0; k < 8; k++) out.write((int) (bits >>> (8 * k)));
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,160 @@
+package com.gatlingweb.service;
+
+import com.gatlingweb.dto.RegressionDto;
+import com.gatlingweb.dto.RunOutcome;
+import com.gatlingweb.entity.PerformanceRegression;
+import com.gatlingweb.entity.RunKind;
+import com.gatlingweb.entity.TestRun;
+import com.gatlingweb.entity.TestStatus;
+import com.gatlingweb.repository.PerformanceRegressionRepository;
+import com.gatlingweb.repository.TestRunRepository;
+import com.gatlingweb.timeseries.LatencyHistogram;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RegressionDetectionServiceTest {
+
+    private static final String SIMULATION = "simulations.CheckoutSimulation";
+
+    @Mock
+    private TestRunRepository testRunRepository;
+    @Mock
+    private PerformanceRegressionRepository repository;
+    @Mock
+    private RunHistogramService histograms;
+    @Mock
+    private SimpMessagingTemplate messaging;
+
+    private RegressionDetectionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RegressionDetectionService(testRunRepository, repository, histograms, messaging);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void detect_marksRunAndVersionWhereRegressionStarted() {
+        stubHistory(30, 18, 200, 260);
+        when(repository.findFirstBySimulationClassAndMetricOrderByIdDesc(eq(SIMULATION), anyString()))
+                .thenReturn(Optional.empty());
+        when(histograms.merged(eq(RunKind.GATLING), anyCollection())).thenReturn(new LatencyHistogram());
+        when(repository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        List<RegressionDto> found = service.detect(SIMULATION, 30L);
+
+        assertThat(found).extracting(RegressionDto::metric)
+                .containsExactly(RegressionDetectionService.P95, RegressionDetectionService.MEAN);
+        RegressionDto p95 = found.get(0);
+        assertThat(p95.changeRunId()).isEqualTo(19L);
+        assertThat(p95.changeVersion()).isEqualTo("1.19");
+        assertThat(p95.detectedRunId()).isEqualTo(30L);
+        assertThat(p95.changePercent()).isBetween(25.0, 35.0);
+        assertThat(p95.probabilitySlower()).isNull();
+        verify(messaging).convertAndSend("/topic/regressions", p95);
+    }
+
+    @Test
+    void detect_ignoresStableHistoryAndImprovements() {
+        stubHistory(30, 18, 200, 150);
+        when(repository.findFirstBySimulationClassAndMetricOrderByIdDesc(eq(SIMULATION), anyString()))
+                .thenReturn(Optional.empty());
+
+        assertThat(service.detect(SIMULATION, 30L)).isEmpty();
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void detect_startsAfterPreviousRegression() {
+        stubHistory(30, 18, 200, 260);
+        PerformanceRegression previous = new PerformanceRegression();
+        previous.setChangeRunId(19L);
+        when(repository.findFirstBySimulationClassAndMetricOrderByIdDesc(eq(SIMULATION), anyString()))
+                .thenReturn(Optional.of(previous));
+
+        assertThat(service.detect(SIMULATION, 30L)).isEmpty();
+    }
+
+    @Test
+    void detect_startsAfterPreviousRegressionOutsideTheWindow() {
+        List<RunOutcome> window = stubHistory(30, 18, 200, 260);
+        // The change run is no longer among the completed runs the window returns
+        window.removeIf(run -> run.id() == 19L);
+        PerformanceRegression previous = new PerformanceRegression();
+        previous.setChangeRunId(19L);
+        when(repository.findFirstBySimulationClassAndMetricOrderByIdDesc(eq(SIMULATION), anyString()))
+                .thenReturn(Optional.of(previous));
+        TestRun changeRun = new TestRun();
+        changeRun.setStartTime(LocalDateTime.of(2026, 1, 1, 0, 0).plusHours(19));
+        when(testRunRepository.findById(19L)).thenReturn(Optional.of(changeRun));
+
+        assertThat(service.detect(SIMULATION, 30L)).isEmpty();
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void detect_skipsAChangeRunAlreadyRecorded() {
+        stubHistory(30, 18, 200, 260);
+        when(repository.findFirstBySimulationClassAndMetricOrderByIdDesc(eq(SIMULATION), anyString()))
+                .thenReturn(Optional.empty());
+        when(histograms.merged(eq(RunKind.GATLING), anyCollection())).thenReturn(new LatencyHistogram());
+        when(repository.existsBySimulationClassAndMetricAndChangeRunId(eq(SIMULATION), anyString(), eq(19L)))
+                .thenReturn(true);
+
+        assertThat(service.detect(SIMULATION, 30L)).isEmpty();
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void detect_requiresHistogramsToAgreeWhenPresent() {
+        stubHistory(30, 18, 200, 260);
+        when(repository.findFirstBySimulationClassAndMetricOrderByIdDesc(eq(SIMULATION), anyString()))
+                .thenReturn(Optional.empty());
+        LatencyHistogram same = new LatencyHistogram();
+        same.record(200, 1_000);
+        when(histograms.merged(eq(RunKind.GATLING), anyCollection())).thenReturn(same);
+
+        assertThat(service.detect(SIMULATION, 30L)).isEmpty();
+        verify(repository, never()).save(any());
+    }
+
+    /** Runs 1..n, newest first as the repository returns them, stepping from {@code before} to {@code after}. */
+    private List<RunOutcome> stubHistory(int n, int step, double before, double after) {
+        Random random = new Random(3);
+        List<RunOutcome> newestFirst = new ArrayList<>();
+        for (long id = n; id >= 1; id--) {
+            double level = id <= step ? before : after;
+            double p95 = level * (1 + random.nextGaussian() * 0.02);
+            newestFirst.add(new RunOutcome(id, SIMULATION, "1." + id, TestStatus.COMPLETED,
+                    LocalDateTime.of(2026, 1, 1, 0, 0).plusHours(id), 10_000L, 0L, p95 / 2, p95, null));
+        }
+        when(testRunRepository.findCompletedOutcomes(eq(SIMULATION), any(Pageable.class))).thenReturn(newestFirst);
+        return newestFirst;
+    }
+}
@@ -0,0 +1,129 @@
+package com.gatlingweb.service;
+
+import com.gatlingweb.dto.RunOutcome;
+import com.gatlingweb.dto.TrendDataDto;
+import com.gatlingweb.dto.TrendPointDto;
+import com.gatlingweb.entity.TestRun;
+import com.gatlingweb.entity.TestStatus;
+import com.gatlingweb.entity.ThresholdVerdict;
+import com.gatlingweb.repository.TestRunRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RunAggregateServiceTest {
+
+    private static final String SIM = "sim.Basic";
+
+    private TestRunRepository repository;
+    private RunAggregateService aggregates;
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TestRunRepository.class);
+        aggregates = new RunAggregateService(repository);
+    }
+
+    @Test
+    void getTrends_servesLastRunsChronologicallyFromMemory() {
+        when(repository.findFinishedOutcomes()).thenReturn(List.of(
+                outcome(1L, SIM, TestStatus.COMPLETED, now.minusDays(3), 100.0, ThresholdVerdict.PASSED),
+                outcome(2L, SIM, TestStatus.FAILED, now.minusDays(2), 500.0, null),
+                outcome(3L, SIM, TestStatus.COMPLETED, now.minusDays(1), 120.0, ThresholdVerdict.FAILED),
+                outcome(4L, "sim.Other", TestStatus.COMPLETED, now.minusDays(1), 80.0, null)));
+
+        TrendDataDto trend = aggregates.getTrends(SIM, 20);
+        aggregates.getTrends(SIM, 1);
+
+        assertThat(trend.points()).extracting(TrendPointDto::testRunId).containsExactly(1L, 3L);
+        assertThat(trend.thresholdPassRate()).isEqualTo(50.0);
+        assertThat(aggregates.getTrends(SIM, 1).points()).extracting(TrendPointDto::testRunId).containsExactly(3L);
+        assertThat(aggregates.getSimulationClasses()).containsExactly(SIM, "sim.Other");
+        verify(repository, times(1)).findFinishedOutcomes();
+    }
+
+    @Test
+    void getSummary_countsLastDayAndFollowsRunChanges() {
+        when(repository.count()).thenReturn(5L);
+        when(repository.findFinishedOutcomes()).thenReturn(List.of(
+                outcome(1L, SIM, TestStatus.COMPLETED, now.minusDays(2), 999.0, null),
+                outcome(2L, SIM, TestStatus.COMPLETED, now.minusHours(2), 100.0, null),
+                outcome(3L, SIM, TestStatus.FAILED, now.minusHours(1), null, null)));
+
+        Map<String, Object> summary = aggregates.getSummary();
+        assertThat(summary).containsEntry("tests24h", 2L)
+                .containsEntry("successRate24h", 50.0)
+                .containsEntry("avgResponseTime24h", 100.0)
+                .containsEntry("totalTests", 5L);
+
+        aggregates.runCreated();
+        aggregates.runChanged(run(6L, TestStatus.COMPLETED, now.minusMinutes(5), 200.0));
+        aggregates.runDeleted(3L, true);
+
+        summary = aggregates.getSummary();
+        assertThat(summary).containsEntry("tests24h", 2L)
+                .containsEntry("successRate24h", 100.0)
+                .containsEntry("avgResponseTime24h", 150.0)
+                .containsEntry("totalTests", 5L);
+        assertThat(aggregates.getTrends(SIM, 20).points()).extracting(TrendPointDto::testRunId)
+                .containsExactly(1L, 2L, 6L);
+    }
+
+    @Test
+    void getTrends_beyondCapacity_keepsNewestAndReloadsAfterDelete() {
+        List<RunOutcome> all = new ArrayList<>();
+        for (long id = 1; id <= RunAggregateService.TREND_CAPACITY + 5; id++) {
+            all.add(outcome(id, SIM, TestStatus.COMPLETED, now.minusDays(10).plusMinutes(id), 100.0, null));
+        }
+        when(repository.findFinishedOutcomes()).thenReturn(all);
+        List<RunOutcome> remaining = new ArrayList<>(all);
+        when(repository.findCompletedOutcomes(eq(SIM), any())).thenAnswer(invocation -> {
+            List<RunOutcome> newestFirst = new ArrayList<>(remaining);
+            Collections.reverse(newestFirst);
+            int size = invocation.<Pageable>getArgument(1).getPageSize();
+            return newestFirst.subList(0, Math.min(size, newestFirst.size()));
+        });
+
+        List<TrendPointDto> points = aggregates.getTrends(SIM, RunAggregateService.TREND_CAPACITY).points();
+        assertThat(points).hasSize(RunAggregateService.TREND_CAPACITY);
+        assertThat(points.get(0).testRunId()).isEqualTo(6L);
+
+        remaining.remove(remaining.size() - 1);
+        aggregates.runDeleted(205L, true);
+        verify(repository).findCompletedOutcomes(eq(SIM), any());
+        points = aggregates.getTrends(SIM, RunAggregateService.TREND_CAPACITY).points();
+        assertThat(points).hasSize(RunAggregateService.TREND_CAPACITY);
+        assertThat(points.get(0).testRunId()).isEqualTo(5L);
+        assertThat(aggregates.getTrends(SIM, 500).points()).hasSize(204);
+    }
+
+    private static RunOutcome outcome(Long id, String sim, TestStatus status, LocalDateTime start, Double mean,
+                                      ThresholdVerdict verdict) {
+        return new RunOutcome(id, sim, "v" + id, status, start, 100L, 1L, mean, mean, verdict);
+    }
+
+    private static TestRun run(Long id, TestStatus status, LocalDateTime start, Double mean) {
+        TestRun run = new TestRun();
+        run.setId(id);
+        run.setSimulationClass(SIM);
+        run.setStatus(status);
+        run.setStartTime(start);
+        run.setMeanResponseTime(mean);
+        return run;
+    }
+}
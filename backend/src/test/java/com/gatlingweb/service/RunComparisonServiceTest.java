@@ -0,0 +1,133 @@
+package com.gatlingweb.service;
+
+import com.gatlingweb.dto.DistributionShiftDto;
+import com.gatlingweb.dto.DistributionShiftDto.Verdict;
+import com.gatlingweb.dto.ElapsedPointDto;
+import com.gatlingweb.dto.MetricsSnapshot;
+import com.gatlingweb.dto.MultiRunComparisonDto;
+import com.gatlingweb.entity.RunKind;
+import com.gatlingweb.entity.TestRun;
+import com.gatlingweb.entity.TestStatus;
+import com.gatlingweb.repository.TestRunRepository;
+import com.gatlingweb.timeseries.LatencyHistogram;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RunComparisonServiceTest {
+
+    @Mock
+    private TestRunRepository repository;
+    @Mock
+    private RunHistogramService histograms;
+    @Mock
+    private MetricsPersistenceService metricsPersistence;
+
+    private RunComparisonService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RunComparisonService(repository, histograms, metricsPersistence, Runnable::run);
+    }
+
+    @Test
+    void compare_flagsOnlyTheSlowerRun() {
+        stubRun(1L, 4.0);
+        stubRun(2L, 4.0);
+        stubRun(3L, 4.4);
+
+        MultiRunComparisonDto result = service.compare(List.of(1L, 2L, 3L), 0.01, 0.05, 500);
+
+        assertThat(result.baselineId()).isEqualTo(1L);
+        assertThat(result.runs()).hasSize(3);
+        assertThat(result.runs().get(0).shift()).isNull();
+        assertThat(result.runs().get(1).shift().verdict()).isEqualTo(Verdict.UNCHANGED);
+        assertThat(result.runs().get(2).shift().verdict()).isEqualTo(Verdict.SLOWER);
+        assertThat(result.runs().get(2).shift().p95ChangePercent()).isGreaterThan(20.0);
+        assertThat(result.runs().get(2).requestShifts()).extracting(DistributionShiftDto::requestName)
+                .containsExactly("home");
+    }
+
+    @Test
+    void compare_runWithoutHistogram_hasNoData() {
+        stubRun(1L, 4.0);
+        TestRun legacy = run(2L);
+        when(repository.findById(2L)).thenReturn(Optional.of(legacy));
+        when(histograms.overall(RunKind.GATLING, 2L)).thenReturn(Optional.empty());
+        when(histograms.byRequest(RunKind.GATLING, 2L)).thenReturn(Map.of());
+        when(metricsPersistence.getMetrics(eq(2L), any(), any(), any(), eq(500))).thenReturn(List.of());
+
+        MultiRunComparisonDto result = service.compare(List.of(1L, 2L), 0.01, 0.05, 500);
+
+        assertThat(result.runs().get(1).shift().verdict()).isEqualTo(Verdict.NO_DATA);
+        assertThat(result.runs().get(1).distribution()).isNull();
+        assertThat(result.runs().get(1).requestShifts()).isEmpty();
+    }
+
+    @Test
+    void compare_invalidArguments_throw() {
+        assertThatThrownBy(() -> service.compare(List.of(1L, 1L), 0.01, 0.05, 500))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.compare(List.of(1L, 2L), 0, 0.05, 500))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void compare_unknownRun_throws() {
+        stubRun(1L, 4.0);
+        when(repository.findById(9L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.compare(List.of(1L, 9L), 0.01, 0.05, 500))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("9");
+    }
+
+    @Test
+    void align_averagesPointsIntoSharedSlots() {
+        List<MetricsSnapshot> series = List.of(
+                point(10_000, 10, 100), point(11_000, 20, 200), point(12_000, 30, 300), point(14_500, 40, 400));
+
+        List<ElapsedPointDto> aligned = RunComparisonService.align(series, 2_000);
+
+        assertThat(aligned).extracting(ElapsedPointDto::elapsedMs).containsExactly(0L, 2_000L, 4_000L);
+        assertThat(aligned.get(0).requestsPerSecond()).isEqualTo(15.0);
+        assertThat(aligned.get(0).p95()).isEqualTo(150.0);
+        assertThat(aligned.get(2).p95()).isEqualTo(400.0);
+    }
+
+    private void stubRun(Long id, double mu) {
+        LatencyHistogram h = new LatencyHistogram();
+        Random random = new Random(id);
+        for (int i = 0; i < 3_000; i++) h.record(Math.exp(random.nextGaussian() * 0.5 + mu));
+        when(repository.findById(id)).thenReturn(Optional.of(run(id)));
+        when(histograms.overall(RunKind.GATLING, id)).thenReturn(Optional.of(h));
+        when(histograms.byRequest(RunKind.GATLING, id)).thenReturn(Map.of("home", h));
+        when(metricsPersistence.getMetrics(eq(id), any(), any(), any(), eq(500)))
+                .thenReturn(List.of(point(1_000, 10, 100), point(2_000, 12, 110)));
+    }
+
+    private static TestRun run(Long id) {
+        TestRun run = new TestRun();
+        run.setId(id);
+        run.setSimulationClass("sim.Soak");
+        run.setStatus(TestStatus.COMPLETED);
+        return run;
+    }
+
+    private static MetricsSnapshot point(long timestamp, double rps, double p95) {
+        return new MetricsSnapshot(timestamp, rps, 0, p95 / 2, p95 / 3, p95 / 2, p95, p95, 10, 0, 0);
+    }
+}
@@ -0,0 +1,163 @@
+package com.gatlingweb.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gatlingweb.dto.InfraMetricsSnapshot;
+import com.gatlingweb.dto.MetricsSnapshot;
+import com.gatlingweb.entity.ServerType;
+import com.gatlingweb.entity.TestRun;
+import com.gatlingweb.entity.TestStatus;
+import com.gatlingweb.repository.TestRunRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RunExportServiceTest {
+
+    @Mock
+    private TestRunRepository repository;
+    @Mock
+    private MetricsPersistenceService metricsPersistence;
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private RunExportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RunExportService(repository, metricsPersistence, objectMapper, entityManager);
+    }
+
+    @Test
+    void writeRunsCsv_streamsEveryRunAndDetachesIt() throws IOException {
+        when(repository.streamAllByOrderByStartTimeDesc()).thenReturn(IntStream.range(0, 3).mapToObj(this::run));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.writeRunsCsv(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).startsWith("id,simulationClass,");
+        assertThat(lines[1]).startsWith("0,sim.Basic,,COMPLETED,2026-01-01T10:00,,100,1,")
+                .endsWith("\"a,b\",");
+        verify(entityManager, times(3)).detach(any(TestRun.class));
+    }
+
+    @Test
+    void writeRunsCsv_writesDecimalPointsWhateverTheDefaultLocale() throws IOException {
+        TestRun run = run(1);
+        run.setMeanResponseTime(12.54);
+        when(repository.streamAllByOrderByStartTimeDesc()).thenReturn(Stream.of(run));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.FRANCE);
+        try {
+            service.writeRunsCsv(out);
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines[1]).contains(",100,1,12.5,,,,,1.00,");
+    }
+
+    @Test
+    void writeRunsJson_writesOneArray() throws IOException {
+        when(repository.streamAllByOrderByStartTimeDesc()).thenReturn(Stream.of(run(7), run(8)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.writeRunsJson(out);
+
+        JsonNode json = objectMapper.readTree(out.toByteArray());
+        assertThat(json.isArray()).isTrue();
+        assertThat(json).extracting(node -> node.get("id").asLong()).containsExactly(7L, 8L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writeMetricsCsv_writesRowsAsTheyArrive() throws IOException {
+        doAnswer(invocation -> {
+            Consumer<MetricsSnapshot> sink = invocation.getArgument(1);
+            sink.accept(new MetricsSnapshot(1000L, 10.5, 0.0, 150.0, 100.0, 120.0, 200.0, 300.25, 5, 10L, 0L));
+            return null;
+        }).when(metricsPersistence).forEachMetric(eq(1L), any(Consumer.class));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.writeMetricsCsv(1L, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).endsWith("\n1000,10.500,0,150,100,120,200,300.250,5,10,0\n");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writeInfraMetricsCsv_leavesMissingValuesEmpty() throws IOException {
+        doAnswer(invocation -> {
+            Consumer<InfraMetricsSnapshot> sink = invocation.getArgument(1);
+            sink.accept(new InfraMetricsSnapshot(2000L, 3L, "db, main", ServerType.SQL, 50.0, 4_000_000_000L, null,
+                    null, null, null, null, null, 12.0, Map.of(), Map.of(), null, null, null));
+            return null;
+        }).when(metricsPersistence).forEachInfraMetric(eq(1L), any(Consumer.class));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.writeInfraMetricsCsv(1L, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).endsWith("\n2000,3,\"db, main\",SQL,50,4000000000,,,,,,,12\n");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writeMetricsCsv_clientDisconnect_propagatesIOException() {
+        doAnswer(invocation -> {
+            Consumer<MetricsSnapshot> sink = invocation.getArgument(1);
+            for (int i = 0; i < 100_000; i++) {
+                sink.accept(new MetricsSnapshot(i, 1, 0, 1, 1, 1, 1, 1, 1, i, 0));
+            }
+            return null;
+        }).when(metricsPersistence).forEachMetric(eq(1L), any(Consumer.class));
+        OutputStream closed = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThatThrownBy(() -> service.writeMetricsCsv(1L, closed))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Broken pipe");
+    }
+
+    private TestRun run(int id) {
+        TestRun run = new TestRun();
+        run.setId((long) id);
+        run.setSimulationClass("sim.Basic");
+        run.setStatus(TestStatus.COMPLETED);
+        run.setStartTime(LocalDateTime.of(2026, 1, 1, 10, 0));
+        run.setTotalRequests(100L);
+        run.setTotalErrors(1L);
+        run.setLabels(Set.of("a,b"));
+        return run;
+    }
+}
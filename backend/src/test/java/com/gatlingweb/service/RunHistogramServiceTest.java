@@ -0,0 +1,96 @@
+package com.gatlingweb.service;
+
+import com.gatlingweb.dto.RunDistributionDto;
+import com.gatlingweb.entity.RunHistogram;
+import com.gatlingweb.entity.RunKind;
+import com.gatlingweb.repository.RunHistogramRepository;
+import com.gatlingweb.timeseries.LatencyHistogram;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RunHistogramServiceTest {
+
+    @Mock
+    private RunHistogramRepository repository;
+
+    private RunHistogramService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RunHistogramService(repository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void save_replacesRowsAndSkipsEmptyHistograms() {
+        LatencyHistogram overall = histogram(1, 100);
+        LatencyHistogram home = histogram(1, 100);
+
+        service.save(RunKind.GATLING, 7L, overall, Map.of("home", home, "unused", new LatencyHistogram()));
+
+        verify(repository).deleteRun(RunKind.GATLING, 7L);
+        ArgumentCaptor<List<RunHistogram>> rows = ArgumentCaptor.forClass(List.class);
+        verify(repository).saveAll(rows.capture());
+        assertThat(rows.getValue()).extracting(RunHistogram::getRequestName)
+                .containsExactlyInAnyOrder(RunHistogramService.OVERALL, "home");
+        assertThat(rows.getValue()).allMatch(r -> r.getSampleCount() == 100);
+    }
+
+    @Test
+    void distribution_mergesRunsInsteadOfAveragingPercentiles() {
+        // Run 1: 1000 fast requests; run 2: 10 slow ones. Averaging per-run p99 would give ~500 ms.
+        when(repository.findByRunKindAndRunIdIn(RunKind.GATLING, List.of(1L, 2L))).thenReturn(List.of(
+                row(1L, RunHistogramService.OVERALL, histogram(10, 1000)),
+                row(1L, "home", histogram(10, 1000)),
+                row(2L, RunHistogramService.OVERALL, histogram(1000, 10)),
+                row(2L, "home", histogram(1000, 10))));
+
+        RunDistributionDto dto = service.distribution(RunKind.GATLING, List.of(1L, 2L, 1L), List.of(50.0, 99.0, 99.9));
+
+        assertThat(dto.runIds()).containsExactly(1L, 2L);
+        assertThat(dto.overall().count()).isEqualTo(1010);
+        assertThat(dto.overall().quantiles()).containsOnlyKeys("p50", "p99", "p99.9");
+        assertThat(dto.overall().quantiles().get("p99")).isCloseTo(10.0, within(0.5));
+        assertThat(dto.overall().quantiles().get("p99.9")).isCloseTo(1000.0, within(20.0));
+        assertThat(dto.requests().get("home").count()).isEqualTo(1010);
+    }
+
+    @Test
+    void distribution_tooManyRuns_throws() {
+        List<Long> ids = java.util.stream.LongStream.rangeClosed(1, RunHistogramService.MAX_RUNS + 1).boxed().toList();
+
+        assertThatThrownBy(() -> service.distribution(RunKind.GATLING, ids, List.of(50.0)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void parsePercentiles_validatesRange() {
+        assertThat(RunHistogramService.parsePercentiles(null)).isEqualTo(RunHistogramService.DEFAULT_PERCENTILES);
+        assertThat(RunHistogramService.parsePercentiles("50, 99.9")).containsExactly(50.0, 99.9);
+        assertThatThrownBy(() -> RunHistogramService.parsePercentiles("0"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RunHistogramService.parsePercentiles("p99"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static LatencyHistogram histogram(double value, long count) {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(value, count);
+        return h;
+    }
+
+    private static RunHistogram row(Long runId, String requestName, LatencyHistogram h) {
+        return new RunHistogram(RunKind.GATLING, runId, requestName, h.count(), h.toBytes());
+    }
+}
@@ -0,0 +1,112 @@
+package com.gatlingweb.service;
+
+import com.gatlingweb.dto.ServerHealthDto;
+import com.gatlingweb.entity.MonitoredServer;
+import com.gatlingweb.repository.MonitoredServerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ServerHealthServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @Mock
+    private MonitoredServerRepository repository;
+    @Mock
+    private SimpMessagingTemplate messaging;
+
+    private ServerHealthService service;
+    private final MonitoredServer server = server(1L, "app");
+
+    @BeforeEach
+    void setUp() {
+        service = new ServerHealthService(repository, messaging);
+    }
+
+    @Test
+    void record_writesOnlyWhenTheServerGoesUpOrDown() {
+        when(repository.updateStatus(any(), any(), any())).thenReturn(1);
+
+        for (int i = 0; i < 30; i++) service.recordSuccess(server, T0.plusSeconds(2 * i), 40L);
+        service.recordFailure(server, T0.plusSeconds(60), "HTTP 503");
+        service.recordFailure(server, T0.plusSeconds(62), "HTTP 503");
+        service.recordSuccess(server, T0.plusSeconds(64), 35L);
+
+        verify(repository).updateStatus(1L, T0, null);
+        verify(repository).updateStatus(1L, T0.plusSeconds(58), "HTTP 503");
+        verify(repository).updateStatus(1L, T0.plusSeconds(64), null);
+        verifyNoMoreInteractions(repository);
+        verify(messaging, times(33)).convertAndSend(eq(ServerHealthService.TOPIC), any(ServerHealthDto.class));
+    }
+
+    @Test
+    void get_keepsTheLastSuccessThroughFailures() {
+        when(repository.updateStatus(any(), any(), any())).thenReturn(1);
+
+        service.recordSuccess(server, T0, 40L);
+        service.recordFailure(server, T0.plusSeconds(2), "No response within 1500 ms");
+        service.recordFailure(server, T0.plusSeconds(4), "Connection refused");
+
+        ServerHealthDto health = service.get(1L);
+        assertThat(health.up()).isFalse();
+        assertThat(health.since()).isEqualTo(T0.plusSeconds(2));
+        assertThat(health.lastSeenAt()).isEqualTo(T0);
+        assertThat(health.lastScrapeMs()).isEqualTo(40L);
+        assertThat(health.lastError()).isEqualTo("Connection refused");
+        assertThat(health.consecutiveFailures()).isEqualTo(2);
+        assertThat(service.get(2L)).isNull();
+    }
+
+    @Test
+    void flush_writesTheServersScrapedSinceTheLastWrite() {
+        when(repository.updateStatus(any(), any(), any())).thenReturn(1);
+        MonitoredServer db = server(2L, "db");
+        service.recordSuccess(server, T0, 40L);
+        service.recordSuccess(db, T0, 12L);
+        service.recordSuccess(server, T0.plusSeconds(2), 41L);
+        clearInvocations(repository);
+
+        service.flush();
+        service.flush();
+
+        verify(repository).updateStatus(1L, T0.plusSeconds(2), null);
+        verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    void flush_dropsDeletedServersAndRetriesFailedWrites() {
+        when(repository.updateStatus(eq(1L), any(), any())).thenReturn(1, 0);
+        when(repository.updateStatus(eq(2L), any(), any()))
+                .thenReturn(1)
+                .thenThrow(new IllegalStateException("database is locked"))
+                .thenReturn(1);
+        MonitoredServer db = server(2L, "db");
+        service.recordSuccess(server, T0, 40L);
+        service.recordSuccess(db, T0, 12L);
+        service.recordSuccess(server, T0.plusSeconds(2), 41L);
+        service.recordSuccess(db, T0.plusSeconds(2), 13L);
+
+        service.flush();
+        assertThat(service.list()).extracting(ServerHealthDto::serverId).containsExactly(2L);
+
+        service.flush();
+        verify(repository, times(3)).updateStatus(eq(2L), any(), any());
+    }
+
+    private static MonitoredServer server(Long id, String name) {
+        MonitoredServer server = new MonitoredServer();
+        server.setId(id);
+        server.setName(name);
+        return server;
+    }
+}
@@ -1,25 +1,35 @@
 package com.gatlingweb.service;
 
 import com.gatlingweb.entity.TestRun;
+import com.gatlingweb.timeseries.LatencyHistogram;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 
 class SimulationLogParserLogicTest {
 
     private SimulationLogParser parser;
+    private MetricsPersistenceService metricsPersistence;
 
     @BeforeEach
     void setUp() {
+        metricsPersistence = mock(MetricsPersistenceService.class);
         parser = new SimulationLogParser(
                 mock(org.springframework.messaging.simp.SimpMessagingTemplate.class),
-                mock(MetricsPersistenceService.class)
+                metricsPersistence,
+                mock(com.gatlingweb.live.LiveChannel.class)
         );
     }
 
@@ -111,27 +121,48 @@ class SimulationLogParserLogicTest {
         assertThat(run.getMeanResponseTime()).isCloseTo(300.0, within(0.01));
     }
 
-    // --- addToReservoir() tests ---
+    // --- histogram tests ---
 
     @Test
-    void addToReservoir_belowCapacity_addsAll() {
-        for (int i = 0; i < 100; i++) {
-            parser.addToReservoir(i * 10L);
-        }
-        TestRun run = new TestRun();
-        // We can't directly check reservoir, but we set totalRequests via parseLine
-        // Instead verify via applyFinalMetrics percentiles when reservoir is populated
-        // The reservoir is populated but totalRequests=0, so mean won't be set
-        // Just verify no exception
+    void parseLine_recordsOverallAndPerRequestHistograms() {
+        parser.parseLine("REQUEST\t\thome\t1000\t1100\tOK\t");
+        parser.parseLine("REQUEST\t\thome\t1000\t1300\tOK\t");
+        parser.parseLine("REQUEST\tcheckout\tpay\t1000\t1500\tKO\terr");
+
+        assertThat(parser.overallHistogram().count()).isEqualTo(3);
+        assertThat(parser.requestHistograms()).containsOnlyKeys("home", "checkout / pay");
+        assertThat(parser.requestHistograms().get("home").count()).isEqualTo(2);
+        assertThat(parser.requestHistograms().get("checkout / pay").max()).isEqualTo(500.0);
     }
 
     @Test
-    void addToReservoir_atCapacity_usesReservoirSampling() {
-        // Add more than RESERVOIR_SIZE (10000) items
-        for (int i = 0; i < 15000; i++) {
-            parser.addToReservoir(i);
+    void parseLine_tooManyRequestNames_foldsIntoOther() {
+        for (int i = 0; i < SimulationLogParser.MAX_REQUEST_NAMES + 10; i++) {
+            parser.parseLine("REQUEST\t\tget /items/" + i + "\t1000\t1010\tOK\t");
         }
-        // No exception, sampling should work
+
+        assertThat(parser.requestHistograms()).hasSize(SimulationLogParser.MAX_REQUEST_NAMES + 1);
+        assertThat(parser.requestHistograms().get(SimulationLogParser.OTHER_REQUESTS).count()).isEqualTo(10);
+        assertThat(parser.overallHistogram().count()).isEqualTo(SimulationLogParser.MAX_REQUEST_NAMES + 10);
+    }
+
+    @Test
+    void recordLatencyWindow_storesOneHistogramPerRollupWindow() {
+        Map<Long, LatencyHistogram> stored = new LinkedHashMap<>();
+        doAnswer(invocation -> stored.put(invocation.getArgument(1), invocation.<LatencyHistogram>getArgument(2).copy()))
+                .when(metricsPersistence).bufferLatency(eq(7L), anyLong(), any());
+        long t0 = 1_700_000_000_000L;
+
+        parser.recordLatencyWindow(7L, t0 + 1_000, List.of(10L, 20L));
+        parser.recordLatencyWindow(7L, t0 + 9_999, List.of(30L));
+        assertThat(stored).isEmpty();
+        parser.recordLatencyWindow(7L, t0 + 10_000, List.of(500L));
+        parser.recordLatencyWindow(7L, t0 + 31_000, List.of());
+        parser.flushLatencyWindow(7L);
+
+        assertThat(stored).containsOnlyKeys(t0, t0 + 10_000);
+        assertThat(stored.get(t0).count()).isEqualTo(3);
+        assertThat(stored.get(t0 + 10_000).max()).isEqualTo(500.0);
     }
 
     // --- percentile() tests ---
@@ -179,4 +210,17 @@ class SimulationLogParserLogicTest {
         assertThat(run.getP95ResponseTime()).isNotNull();
         assertThat(run.getP99ResponseTime()).isNotNull();
     }
+
+    @Test
+    void applyFinalMetrics_readsPercentilesFromWholeRun() {
+        for (int i = 1; i <= 20_000; i++) {
+            parser.parseLine("REQUEST\t\treq\t0\t" + i + "\tOK\t");
+        }
+
+        TestRun run = new TestRun();
+        parser.applyFinalMetrics(run);
+
+        assertThat(run.getP50ResponseTime()).isCloseTo(10_000.0, within(10_000 * 0.02));
+        assertThat(run.getP99ResponseTime()).isCloseTo(19_800.0, within(19_800 * 0.02));
+    }
 }
@@ -18,7 +18,12 @@ class TestRunServiceLogicTest {
                 mock(GatlingExecutionService.class),
                 mock(MetricsPersistenceService.class),
                 new com.fasterxml.jackson.databind.ObjectMapper(),
-                mock(org.springframework.messaging.simp.SimpMessagingTemplate.class)
+                mock(org.springframework.messaging.simp.SimpMessagingTemplate.class),
+                mock(FinishedRunCache.class),
+                mock(RunAggregateService.class),
+                mock(RunSearchService.class),
+                mock(RegressionDetectionService.class),
+                mock(BottleneckAnalysisService.class)
         );
     }
 
@@ -31,13 +31,24 @@ class TestRunServiceQueueTest {
     private MetricsPersistenceService metricsPersistence;
     @Mock
     private SimpMessagingTemplate messaging;
+    @Mock
+    private FinishedRunCache finishedRunCache;
+    @Mock
+    private RunAggregateService aggregates;
+    @Mock
+    private RunSearchService search;
+    @Mock
+    private RegressionDetectionService regressions;
+    @Mock
+    private BottleneckAnalysisService bottlenecks;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
     private TestRunService service;
 
     @BeforeEach
     void setUp() {
-        service = new TestRunService(repository, executionService, metricsPersistence, objectMapper, messaging);
+        service = new TestRunService(repository, executionService, metricsPersistence, objectMapper, messaging,
+                finishedRunCache, aggregates, search, regressions, bottlenecks);
     }
 
     @Test
@@ -87,7 +98,7 @@ class TestRunServiceQueueTest {
         goodTest.setSimulationClass("com.example.Sim");
         goodTest.setStatus(TestStatus.QUEUED);
         goodTest.setLaunchParams(objectMapper.writeValueAsString(
-                new LaunchRequest("com.example.Sim", "v1", 5, true, 10, 30, true, null)
+                new LaunchRequest("com.example.Sim", "v1", 5, true, 10, 30, true, null, null, null)
         ));
 
         when(repository.findByStatusOrderByStartTimeAsc(TestStatus.QUEUED))
@@ -109,7 +120,7 @@ class TestRunServiceQueueTest {
                 .thenThrow(new IllegalStateException("A test is already running"));
         when(repository.countByStatus(TestStatus.QUEUED)).thenReturn(20L);
 
-        LaunchRequest request = new LaunchRequest("com.example.Sim", "v1", 5, true, 10, 30, true, null);
+        LaunchRequest request = new LaunchRequest("com.example.Sim", "v1", 5, true, 10, 30, true, null, null, null);
 
         assertThatThrownBy(() -> service.launch(request))
                 .isInstanceOf(IllegalStateException.class)
@@ -128,7 +139,7 @@ class TestRunServiceQueueTest {
         });
         when(repository.findByStatusOrderByStartTimeAsc(TestStatus.QUEUED)).thenReturn(Collections.emptyList());
 
-        LaunchRequest request = new LaunchRequest("com.example.Sim", "v1", 5, true, 10, 30, true, null);
+        LaunchRequest request = new LaunchRequest("com.example.Sim", "v1", 5, true, 10, 30, true, null, null, null);
         var result = service.launch(request);
 
         assertThat(result.id()).isEqualTo(1L);
@@ -1,11 +1,15 @@
 package com.gatlingweb.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gatlingweb.dto.KeysetPage;
 import com.gatlingweb.dto.LaunchRequest;
+import com.gatlingweb.dto.RunSearchResult;
 import com.gatlingweb.dto.TestRunDto;
+import com.gatlingweb.dto.TestRunRowDto;
 import com.gatlingweb.entity.TestRun;
 import com.gatlingweb.entity.TestStatus;
 import com.gatlingweb.repository.TestRunRepository;
+import com.gatlingweb.search.RunIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,8 +18,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -33,13 +39,24 @@ class TestRunServiceTest {
     private MetricsPersistenceService metricsPersistence;
     @Mock
     private SimpMessagingTemplate messaging;
+    @Mock
+    private FinishedRunCache finishedRunCache;
+    @Mock
+    private RunAggregateService aggregates;
+    @Mock
+    private RunSearchService search;
+    @Mock
+    private RegressionDetectionService regressions;
+    @Mock
+    private BottleneckAnalysisService bottlenecks;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
     private TestRunService service;
 
     @BeforeEach
     void setUp() {
-        service = new TestRunService(repository, executionService, metricsPersistence, objectMapper, messaging);
+        service = new TestRunService(repository, executionService, metricsPersistence, objectMapper, messaging,
+                finishedRunCache, aggregates, search, regressions, bottlenecks);
     }
 
     @Test
@@ -50,7 +67,7 @@ class TestRunServiceTest {
         created.setStatus(TestStatus.RUNNING);
         when(executionService.launch("com.example.Sim", "v1")).thenReturn(created);
 
-        LaunchRequest request = new LaunchRequest("com.example.Sim", "v1", 10, true, 10, 60, true, null);
+        LaunchRequest request = new LaunchRequest("com.example.Sim", "v1", 10, true, 10, 60, true, null, null, null);
         TestRunDto result = service.launch(request);
 
         assertThat(result.id()).isEqualTo(1L);
@@ -70,7 +87,7 @@ class TestRunServiceTest {
         });
         when(repository.findByStatusOrderByStartTimeAsc(TestStatus.QUEUED)).thenReturn(Collections.emptyList());
 
-        LaunchRequest request = new LaunchRequest("com.example.Sim", "v1", 10, true, 10, 60, true, null);
+        LaunchRequest request = new LaunchRequest("com.example.Sim", "v1", 10, true, 10, 60, true, null, null, null);
         TestRunDto result = service.launch(request);
 
         assertThat(result.id()).isEqualTo(2L);
@@ -116,7 +133,7 @@ class TestRunServiceTest {
         queued.setSimulationClass("com.example.Sim");
         queued.setStatus(TestStatus.QUEUED);
         queued.setLaunchParams(objectMapper.writeValueAsString(
-                new LaunchRequest("com.example.Sim", "v1", 5, true, 10, 30, true, null)
+                new LaunchRequest("com.example.Sim", "v1", 5, true, 10, 30, true, null, null, null)
         ));
 
         // First call: returns queued test; subsequent calls (from broadcastQueue): return empty
@@ -156,4 +173,54 @@ class TestRunServiceTest {
         assertThat(running.getStatus()).isEqualTo(TestStatus.RUNNING);
         verify(repository, never()).save(any());
     }
+
+    @Test
+    void findRowsBefore_returnsCursorThatSeeksPastLastRow() {
+        LocalDateTime t = LocalDateTime.of(2024, 5, 1, 12, 0);
+        when(repository.findFirstRows(eq("nightly"), any())).thenReturn(List.of(row(9L, t), row(8L, t), row(7L, t.minusHours(1))));
+        when(repository.findLabels(List.of(9L, 8L))).thenReturn(List.<Object[]>of(new Object[] {9L, "nightly"}, new Object[] {8L, "nightly"}));
+
+        KeysetPage<TestRunRowDto> first = service.findRowsBefore("nightly", null, 2);
+
+        assertThat(first.content()).extracting(TestRunRowDto::id).containsExactly(9L, 8L);
+        assertThat(first.content().get(0).labels()).containsExactly("nightly");
+        assertThat(first.nextCursor()).isNotNull();
+
+        when(repository.findRowsBefore(eq(t), eq(8L), eq("nightly"), any())).thenReturn(List.of(row(7L, t.minusHours(1))));
+        KeysetPage<TestRunRowDto> second = service.findRowsBefore("nightly", first.nextCursor(), 2);
+
+        assertThat(second.content()).extracting(TestRunRowDto::id).containsExactly(7L);
+        assertThat(second.content().get(0).labels()).isEmpty();
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    void findRowsBefore_invalidCursorOrSize_throws() {
+        assertThatThrownBy(() -> service.findRowsBefore(null, "not-a-cursor", 20))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.findRowsBefore(null, null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void search_returnsRowsInHitOrderWithFacets() {
+        LocalDateTime t = LocalDateTime.of(2024, 5, 1, 12, 0);
+        Map<String, List<String>> filters = Map.of("status", List.of("COMPLETED"));
+        Map<String, Map<String, Integer>> facets = Map.of("status", Map.of("COMPLETED", 2, "FAILED", 1));
+        when(search.search("checkout", filters, 0, 10)).thenReturn(new RunIndex.Hits(2, List.of(5L, 3L), facets));
+        when(repository.findRowsByIds(List.of(5L, 3L))).thenReturn(List.of(row(3L, t), row(5L, t.plusHours(1))));
+        when(repository.findLabels(List.of(5L, 3L))).thenReturn(List.<Object[]>of(new Object[] {3L, "nightly"}));
+
+        RunSearchResult<TestRunRowDto> result = service.search("checkout", filters, 0, 10);
+
+        assertThat(result.content()).extracting(TestRunRowDto::id).containsExactly(5L, 3L);
+        assertThat(result.content().get(1).labels()).containsExactly("nightly");
+        assertThat(result.totalElements()).isEqualTo(2);
+        assertThat(result.facets()).isEqualTo(facets);
+    }
+
+    private static TestRunRowDto row(Long id, LocalDateTime startTime) {
+        return new TestRunRowDto(id, "com.example.Sim", null, TestStatus.COMPLETED, startTime, null, null,
+                0L, 0L, null, null, null, null, null, null, null, null);
+    }
 }
@@ -1,11 +1,14 @@
 package com.gatlingweb.service;
 
 import com.gatlingweb.entity.TestRun;
+import com.gatlingweb.timeseries.LatencyHistogram;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
+import java.util.Optional;
+
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.mock;
 
@@ -18,7 +21,8 @@ class ThresholdServiceLogicTest {
         service = new ThresholdService(
                 mock(com.gatlingweb.repository.ThresholdProfileRepository.class),
                 mock(com.gatlingweb.repository.TestRunRepository.class),
-                new com.fasterxml.jackson.databind.ObjectMapper()
+                new com.fasterxml.jackson.databind.ObjectMapper(),
+                mock(RunHistogramService.class)
         );
     }
 
@@ -68,6 +72,19 @@ class ThresholdServiceLogicTest {
         assertThat(service.getMetricValue(run, "p99ResponseTime")).isEqualTo(400.0);
     }
 
+    @Test
+    void getMetricValue_anyPercentile_readsHistogram() {
+        TestRun run = new TestRun();
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int v = 1; v <= 1000; v++) histogram.record(v);
+
+        assertThat(service.getMetricValue(run, "p90ResponseTime", Optional.of(histogram)))
+                .isCloseTo(900.0, within(900 * 0.02));
+        assertThat(service.getMetricValue(run, "p99.9ResponseTime", Optional.of(histogram)))
+                .isCloseTo(999.0, within(999 * 0.02));
+        assertThat(service.getMetricValue(run, "p99.9ResponseTime", Optional.empty())).isEqualTo(0.0);
+    }
+
     @Test
     void getMetricValue_errorRate_calculatesCorrectly() {
         TestRun run = new TestRun();
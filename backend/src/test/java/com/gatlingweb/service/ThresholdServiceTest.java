@@ -1,12 +1,14 @@
 package com.gatlingweb.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gatlingweb.entity.RunKind;
 import com.gatlingweb.entity.TestRun;
 import com.gatlingweb.entity.TestStatus;
 import com.gatlingweb.entity.ThresholdProfile;
 import com.gatlingweb.entity.ThresholdVerdict;
 import com.gatlingweb.repository.TestRunRepository;
 import com.gatlingweb.repository.ThresholdProfileRepository;
+import com.gatlingweb.timeseries.LatencyHistogram;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -26,13 +28,15 @@ class ThresholdServiceTest {
     private ThresholdProfileRepository profileRepository;
     @Mock
     private TestRunRepository testRunRepository;
+    @Mock
+    private RunHistogramService histograms;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
     private ThresholdService service;
 
     @BeforeEach
     void setUp() {
-        service = new ThresholdService(profileRepository, testRunRepository, objectMapper);
+        service = new ThresholdService(profileRepository, testRunRepository, objectMapper, histograms);
     }
 
     @Test
@@ -112,6 +116,38 @@ class ThresholdServiceTest {
         assertThat(run.getThresholdDetails()).contains("true"); // passed
     }
 
+    @Test
+    void evaluateThresholds_unstoredPercentile_readsRunHistogram() {
+        TestRun run = createTestRun();
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int v = 1; v <= 1000; v++) histogram.record(v);
+
+        ThresholdProfile profile = createProfile(
+                "[{\"metric\":\"p99.9ResponseTime\",\"operator\":\"LT\",\"value\":900}]"
+        );
+        when(profileRepository.findBySimulationClass("com.example.Sim")).thenReturn(Optional.of(profile));
+        when(histograms.overall(RunKind.GATLING, 1L)).thenReturn(Optional.of(histogram));
+
+        service.evaluateThresholds(run);
+
+        assertThat(run.getThresholdVerdict()).isEqualTo(ThresholdVerdict.FAILED);
+    }
+
+    @Test
+    void evaluateThresholds_storedPercentilesOnly_skipsHistogram() {
+        TestRun run = createTestRun();
+        run.setP95ResponseTime(200.0);
+
+        ThresholdProfile profile = createProfile(
+                "[{\"metric\":\"p95ResponseTime\",\"operator\":\"LT\",\"value\":1000}]"
+        );
+        when(profileRepository.findBySimulationClass("com.example.Sim")).thenReturn(Optional.of(profile));
+
+        service.evaluateThresholds(run);
+
+        verifyNoInteractions(histograms);
+    }
+
     private TestRun createTestRun() {
         TestRun run = new TestRun();
         run.setId(1L);
@@ -0,0 +1,91 @@
+package com.gatlingweb.service;
+
+import com.gatlingweb.dto.ThroughputControlRequest;
+import com.gatlingweb.dto.ThroughputControlState;
+import com.gatlingweb.entity.RunAnnotation;
+import com.gatlingweb.repository.RunAnnotationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ThroughputControlServiceTest {
+
+    @TempDir
+    Path workspace;
+
+    private RunAnnotationRepository annotationRepository;
+    private ThroughputControlService service;
+
+    @BeforeEach
+    void setUp() {
+        annotationRepository = mock(RunAnnotationRepository.class);
+        when(annotationRepository.save(any(RunAnnotation.class))).thenAnswer(inv -> inv.getArgument(0));
+        service = new ThroughputControlService(annotationRepository, mock(SimpMessagingTemplate.class),
+                workspace.toString());
+    }
+
+    @Test
+    void open_writesDefaultsWithMagicHeader() throws Exception {
+        Path file = service.open(1L);
+
+        ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(file));
+        assertThat(content.getInt(0)).isEqualTo(ThroughputControlService.MAGIC);
+        assertThat(content.getLong(ThroughputControlService.OFFSET_SEQUENCE) % 2).isZero();
+        assertThat(content.getDouble(ThroughputControlService.OFFSET_MULTIPLIER)).isEqualTo(1.0);
+        assertThat(content.getInt(ThroughputControlService.OFFSET_PAUSED)).isZero();
+    }
+
+    @Test
+    void apply_updatesFileAndRecordsAnnotation() throws Exception {
+        Path file = service.open(1L);
+
+        ThroughputControlState state = service.apply(1L, new ThroughputControlRequest(2.5, true));
+
+        assertThat(state.rateMultiplier()).isEqualTo(2.5);
+        assertThat(state.paused()).isTrue();
+        ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(file));
+        assertThat(content.getDouble(ThroughputControlService.OFFSET_MULTIPLIER)).isEqualTo(2.5);
+        assertThat(content.getInt(ThroughputControlService.OFFSET_PAUSED)).isEqualTo(1);
+
+        ArgumentCaptor<RunAnnotation> captor = ArgumentCaptor.forClass(RunAnnotation.class);
+        verify(annotationRepository).save(captor.capture());
+        assertThat(captor.getValue().getTestRunId()).isEqualTo(1L);
+        assertThat(captor.getValue().getType()).isEqualTo("THROUGHPUT");
+    }
+
+    @Test
+    void apply_unchangedState_doesNotAnnotate() throws Exception {
+        service.open(1L);
+
+        service.apply(1L, new ThroughputControlRequest(1.0, false));
+
+        verify(annotationRepository, never()).save(any());
+    }
+
+    @Test
+    void apply_outOfRangeMultiplier_throws() throws Exception {
+        service.open(1L);
+
+        assertThatThrownBy(() -> service.apply(1L, new ThroughputControlRequest(500.0, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void apply_notRunning_throwsIllegalState() throws Exception {
+        service.open(1L);
+        service.close(1L);
+
+        assertThatThrownBy(() -> service.apply(1L, new ThroughputControlRequest(2.0, null)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
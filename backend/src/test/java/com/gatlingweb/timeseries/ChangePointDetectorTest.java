@@ -0,0 +1,58 @@
+package com.gatlingweb.timeseries;
+
+import com.gatlingweb.timeseries.ChangePointDetector.ChangePoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChangePointDetectorTest {
+
+    @Test
+    void detect_findsStepInNoisySeries() {
+        double[] values = series(50, 25, 100, 130);
+
+        ChangePoint cp = ChangePointDetector.detect(values, 4, 199, 1);
+
+        assertThat(cp.index()).isEqualTo(25);
+        assertThat(cp.pValue()).isLessThan(0.01);
+    }
+
+    @Test
+    void detectAll_flatSeriesHasNoChange() {
+        double[] values = series(60, 60, 100, 100);
+
+        assertThat(ChangePointDetector.detectAll(values, 4, 199, 0.01, 1)).isEmpty();
+    }
+
+    @Test
+    void detectAll_findsEachStepInOrder() {
+        double[] values = series(60, 20, 100, 130);
+        for (int i = 40; i < 60; i++) values[i] += 40;
+
+        List<ChangePoint> changes = ChangePointDetector.detectAll(values, 4, 199, 0.01, 1);
+
+        assertThat(changes).extracting(ChangePoint::index).containsExactly(20, 40);
+    }
+
+    @Test
+    void detect_shortSeriesOrBadSegment() {
+        assertThat(ChangePointDetector.detect(new double[] {1, 2, 3, 4, 5}, 3, 99, 1)).isNull();
+        assertThatThrownBy(() -> ChangePointDetector.detect(new double[10], 1, 99, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /** {@code n} values around {@code before} then, from {@code step}, around {@code after}; ±2 % noise. */
+    private static double[] series(int n, int step, double before, double after) {
+        Random random = new Random(7);
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            double level = i < step ? before : after;
+            values[i] = level * (1 + random.nextGaussian() * 0.02);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,72 @@
+package com.gatlingweb.timeseries;
+
+import com.gatlingweb.timeseries.HistogramSignificance.KolmogorovSmirnov;
+import com.gatlingweb.timeseries.HistogramSignificance.MannWhitney;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HistogramSignificanceTest {
+
+    @Test
+    void sameDistribution_isNotSignificant() {
+        Random random = new Random(1);
+        LatencyHistogram a = logNormal(random, 4.0, 2_000);
+        LatencyHistogram b = logNormal(random, 4.0, 2_000);
+
+        KolmogorovSmirnov ks = HistogramSignificance.kolmogorovSmirnov(a, b);
+        MannWhitney mw = HistogramSignificance.mannWhitney(a, b);
+
+        assertThat(ks.pValue()).isGreaterThan(0.05);
+        assertThat(mw.pValue()).isGreaterThan(0.05);
+        assertThat(mw.probabilityGreater()).isCloseTo(0.5, within(0.03));
+    }
+
+    @Test
+    void shiftedDistribution_isSignificantAndSlower() {
+        Random random = new Random(1);
+        LatencyHistogram a = logNormal(random, 4.0, 2_000);
+        LatencyHistogram b = logNormal(random, 4.2, 2_000);
+
+        KolmogorovSmirnov ks = HistogramSignificance.kolmogorovSmirnov(a, b);
+        MannWhitney mw = HistogramSignificance.mannWhitney(a, b);
+
+        assertThat(ks.statistic()).isGreaterThan(0.1);
+        assertThat(ks.pValue()).isLessThan(1e-6);
+        assertThat(mw.pValue()).isLessThan(1e-6);
+        assertThat(mw.probabilityGreater()).isGreaterThan(0.55);
+    }
+
+    @Test
+    void identicalHistograms_giveNoDifference() {
+        LatencyHistogram a = logNormal(new Random(3), 5.0, 500);
+
+        assertThat(HistogramSignificance.kolmogorovSmirnov(a, a)).isEqualTo(new KolmogorovSmirnov(0.0, 1.0));
+        assertThat(HistogramSignificance.mannWhitney(a, a).probabilityGreater()).isEqualTo(0.5);
+        assertThat(HistogramSignificance.mannWhitney(a, a).pValue()).isEqualTo(1.0);
+    }
+
+    @Test
+    void emptyHistogram_returnsNaN() {
+        LatencyHistogram a = logNormal(new Random(3), 5.0, 10);
+
+        assertThat(HistogramSignificance.kolmogorovSmirnov(a, new LatencyHistogram()).pValue()).isNaN();
+        assertThat(HistogramSignificance.mannWhitney(new LatencyHistogram(), a).pValue()).isNaN();
+    }
+
+    @Test
+    void erfc_matchesKnownValues() {
+        assertThat(HistogramSignificance.erfc(0)).isCloseTo(1.0, within(1e-7));
+        assertThat(HistogramSignificance.erfc(1)).isCloseTo(0.157299207, within(1e-7));
+        assertThat(HistogramSignificance.erfc(-1)).isCloseTo(1.842700793, within(1e-7));
+    }
+
+    private static LatencyHistogram logNormal(Random random, double mu, int count) {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 0; i < count; i++) h.record(Math.exp(random.nextGaussian() * 0.5 + mu));
+        return h;
+    }
+}
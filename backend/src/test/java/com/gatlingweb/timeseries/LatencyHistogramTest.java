@@ -0,0 +1,70 @@
+package com.gatlingweb.timeseries;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+    @Test
+    void quantile_staysWithinBucketError() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int v = 1; v <= 10_000; v++) h.record(v);
+
+        assertThat(h.count()).isEqualTo(10_000);
+        assertThat(h.min()).isEqualTo(1.0);
+        assertThat(h.max()).isEqualTo(10_000.0);
+        assertThat(h.quantile(0.5)).isCloseTo(5_000, within(5_000 * 0.02));
+        assertThat(h.quantile(0.99)).isCloseTo(9_900, within(9_900 * 0.02));
+        assertThat(h.quantile(1.0)).isEqualTo(10_000.0);
+        assertThat(h.cdf(5_000)).isCloseTo(0.5, within(0.01));
+    }
+
+    @Test
+    void merge_equalsRecordingEverything() {
+        Random random = new Random(42);
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        LatencyHistogram all = new LatencyHistogram();
+        for (int i = 0; i < 5_000; i++) {
+            double v = Math.exp(random.nextGaussian() * 1.5 + 4);
+            (i % 2 == 0 ? a : b).record(v);
+            all.record(v);
+        }
+
+        a.merge(b);
+
+        assertThat(a).isEqualTo(all);
+        assertThat(a.quantile(0.95)).isEqualTo(all.quantile(0.95));
+    }
+
+    @Test
+    void bytes_roundTrip() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(0.4);
+        h.record(12.0, 300);
+        h.record(4_000.0, 2);
+
+        LatencyHistogram decoded = LatencyHistogram.fromBytes(h.toBytes());
+
+        assertThat(decoded).isEqualTo(h);
+        assertThat(decoded.min()).isEqualTo(0.4);
+        assertThat(decoded.max()).isEqualTo(4_000.0);
+        assertThat(decoded.mean()).isEqualTo(h.mean());
+        assertThat(h.toBytes().length).isLessThan(40);
+    }
+
+    @Test
+    void empty_returnsNaN() {
+        LatencyHistogram h = new LatencyHistogram();
+
+        assertThat(h.quantile(0.5)).isNaN();
+        assertThat(LatencyHistogram.fromBytes(h.toBytes()).count()).isZero();
+        assertThatThrownBy(() -> LatencyHistogram.fromBytes(new byte[] {9}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
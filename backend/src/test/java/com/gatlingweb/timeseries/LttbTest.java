@@ -0,0 +1,60 @@
+package com.gatlingweb.timeseries;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LttbTest {
+
+    @Test
+    void select_keepsEndpointsAndSpikes() {
+        long[] x = new long[10_000];
+        double[] y = new double[10_000];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = 1000L * i;
+            y[i] = i == 5_000 ? 1_000 : Math.sin(i / 100.0);
+        }
+
+        int[] kept = Lttb.select(x, y, x.length, 100);
+
+        assertThat(kept).hasSize(100).startsWith(0).endsWith(9_999).contains(5_000);
+        assertThat(kept).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void select_returnsEverythingUnderThreshold() {
+        long[] x = {0, 1, 2};
+        double[] y = {1, Double.NaN, 3};
+
+        assertThat(Lttb.select(x, y, 3, 10)).containsExactly(0, 1, 2);
+        assertThat(Lttb.select(x, y, 3, 2)).containsExactly(0, 2);
+        assertThat(Lttb.select(x, y, 0, 10)).isEmpty();
+        assertThatThrownBy(() -> Lttb.select(x, y, 3, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void bucketStart_coversEveryPointOnce() {
+        int count = 1_001;
+        int threshold = 37;
+
+        assertThat(Lttb.bucketStart(0, count, threshold)).isZero();
+        assertThat(Lttb.bucketStart(1, count, threshold)).isEqualTo(1);
+        assertThat(Lttb.bucketStart(threshold - 1, count, threshold)).isEqualTo(count - 1);
+        assertThat(Lttb.bucketStart(threshold, count, threshold)).isEqualTo(count);
+        for (int b = 0; b < threshold; b++) {
+            assertThat(Lttb.bucketStart(b + 1, count, threshold)).isGreaterThan(Lttb.bucketStart(b, count, threshold));
+        }
+    }
+
+    @Test
+    void bucketStart_belowThreeBuckets_coversEveryPoint() {
+        int count = 50;
+
+        assertThat(Lttb.select(new long[count], new double[count], count, 2)).containsExactly(0, count - 1);
+        assertThat(Lttb.bucketStart(1, count, 2)).isEqualTo(1);
+        assertThat(Lttb.bucketStart(2, count, 2)).isEqualTo(count);
+        assertThat(Lttb.select(new long[count], new double[count], count, 1)).containsExactly(0);
+        assertThat(Lttb.bucketStart(1, count, 1)).isEqualTo(count);
+    }
+}
@@ -0,0 +1,86 @@
+package com.gatlingweb.timeseries;
+
+import com.gatlingweb.timeseries.ResourceCorrelation.Knee;
+import com.gatlingweb.timeseries.ResourceCorrelation.Lag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ResourceCorrelationTest {
+
+    @Test
+    void bestLag_findsHowFarLatencyTrailsTheResource() {
+        Random random = new Random(1);
+        double[] resource = new double[120];
+        for (int i = 0; i < resource.length; i++) resource[i] = 50 + 40 * Math.sin(i / 5.0) + random.nextGaussian();
+        double[] latency = new double[120];
+        for (int t = 0; t < latency.length; t++) latency[t] = t >= 3 ? 100 + 2 * resource[t - 3] : Double.NaN;
+
+        Lag lag = ResourceCorrelation.bestLag(resource, latency, 10, 10);
+
+        assertThat(lag.steps()).isEqualTo(3);
+        assertThat(lag.r()).isCloseTo(1.0, within(1e-9));
+        assertThat(lag.pairs()).isEqualTo(117);
+    }
+
+    @Test
+    void bestLag_constantSeriesHasNoCorrelation() {
+        double[] flat = new double[30];
+        Arrays.fill(flat, 40);
+        double[] latency = new double[30];
+        for (int i = 0; i < latency.length; i++) latency[i] = i;
+
+        assertThat(ResourceCorrelation.bestLag(flat, latency, 5, 10)).isNull();
+    }
+
+    @Test
+    void trackingLag_sharedRampDoesNotPullTheLag() {
+        Random random = new Random(4);
+        double[] cpu = new double[120];
+        double[] latency = new double[120];
+        for (int i = 0; i < cpu.length; i++) {
+            cpu[i] = 20 + 0.6 * i + random.nextGaussian();
+            latency[i] = 150 + Math.max(0, cpu[i] - 80) * 40 + random.nextGaussian() * 3;
+        }
+
+        Lag lag = ResourceCorrelation.trackingLag(cpu, latency, 15, 10);
+
+        assertThat(lag.steps()).isZero();
+        assertThat(lag.r()).isEqualTo(ResourceCorrelation.correlation(cpu, latency, 0).r());
+    }
+
+    @Test
+    void knee_findsTheLevelWhereLatencyStartsRising() {
+        Random random = new Random(2);
+        double[] cpu = new double[100];
+        double[] latency = new double[100];
+        for (int i = 0; i < cpu.length; i++) {
+            cpu[i] = i;
+            latency[i] = 200 + Math.max(0, cpu[i] - 70) * 30 + random.nextGaussian() * 5;
+        }
+
+        Knee knee = ResourceCorrelation.knee(cpu, latency, 5, 0.2, 0.2);
+
+        assertThat(knee.level()).isBetween(65.0, 75.0);
+        assertThat(knee.latencyBelow()).isCloseTo(200, within(10.0));
+        assertThat(knee.latencyAbove()).isGreaterThan(500);
+        assertThat(knee.fitGain()).isGreaterThan(0.5);
+    }
+
+    @Test
+    void knee_linearGrowthHasNoKnee() {
+        Random random = new Random(3);
+        double[] cpu = new double[100];
+        double[] latency = new double[100];
+        for (int i = 0; i < cpu.length; i++) {
+            cpu[i] = i;
+            latency[i] = 200 + 3 * i + random.nextGaussian() * 5;
+        }
+
+        assertThat(ResourceCorrelation.knee(cpu, latency, 5, 0.2, 0.2)).isNull();
+    }
+}
@@ -0,0 +1,154 @@
+package com.gatlingweb.timeseries;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TimeSeriesStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private TimeSeriesStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new TimeSeriesStore(dir.toString());
+    }
+
+    @Test
+    void codec_roundTripsEdgeValuesAndIrregularTimestamps() {
+        long[] timestamps = {0, 5, 5, 1_000_000_000_000L, 1_000_000_000_100L, 10, Long.MAX_VALUE / 2, 3};
+        double[] values = {0.0, -0.0, Double.MAX_VALUE, Double.MIN_VALUE, Double.NaN,
+                Double.POSITIVE_INFINITY, -1e300, 42};
+
+        byte[] payload = GorillaCodec.encode(timestamps, new double[][] {values}, values.length);
+        long[] decodedTimestamps = new long[values.length];
+        double[][] decoded = new double[1][values.length];
+        GorillaCodec.decode(payload, values.length, decodedTimestamps, decoded);
+
+        assertThat(decodedTimestamps).containsExactly(timestamps);
+        for (int i = 0; i < values.length; i++) {
+            assertThat(Double.doubleToRawLongBits(decoded[0][i])).isEqualTo(Double.doubleToRawLongBits(values[i]));
+        }
+    }
+
+    @Test
+    void appendAndRead_spanningSeveralBlocks() {
+        int count = TimeSeriesStore.BLOCK_SIZE * 3 + 7;
+        for (int i = 0; i < count; i++) {
+            store.append(1, "gatling", "meta", 1000L * i, new double[] {i, i * 0.5});
+        }
+
+        SeriesData data = store.read(1, "gatling").orElseThrow();
+
+        assertThat(data.size()).isEqualTo(count);
+        assertThat(data.meta()).isEqualTo("meta");
+        assertThat(data.timestamps()[count - 1]).isEqualTo(1000L * (count - 1));
+        assertThat(data.columns()[1][count - 1]).isEqualTo((count - 1) * 0.5);
+    }
+
+    @Test
+    void flush_thenAppendMore_reopensExistingFile() {
+        store.append(1, "infra-3", "api", 1L, new double[] {1, Double.NaN});
+        store.flush();
+        store.append(1, "infra-3", "ignored", 2L, new double[] {2, 3});
+        store.flush();
+
+        SeriesData data = new TimeSeriesStore(dir.toString()).read(1, "infra-3").orElseThrow();
+
+        assertThat(data.timestamps()).containsExactly(1L, 2L);
+        assertThat(data.meta()).isEqualTo("api");
+        assertThat(data.value(1, 0)).isNull();
+        assertThat(data.value(1, 1)).isEqualTo(3.0);
+    }
+
+    @Test
+    void read_rangeWithoutOverlappingBlock_keepsTheColumns() {
+        for (int i = 0; i < TimeSeriesStore.BLOCK_SIZE; i++) {
+            store.append(1, "infra-3", "api", 1000L * i, new double[] {i, i, i});
+        }
+        store.flush();
+
+        SeriesData sealed = new TimeSeriesStore(dir.toString()).read(1, "infra-3", 500_000L, 600_000L).orElseThrow();
+
+        assertThat(sealed.size()).isZero();
+        assertThat(sealed.meta()).isEqualTo("api");
+        assertThat(sealed.columns().length).isEqualTo(3);
+        assertThat(sealed.columns()[0]).isEmpty();
+    }
+
+    @Test
+    void appendHistogram_readsWindowsInRangeAndSkipsTornTail() throws Exception {
+        for (int w = 0; w < 3; w++) {
+            LatencyHistogram h = new LatencyHistogram();
+            h.record(100 * (w + 1), w + 1);
+            store.appendHistogram(1, "gatling_10s", 10_000L * w, h);
+        }
+        Path file = dir.resolve("1").resolve("gatling_10s" + TimeSeriesStore.HISTOGRAM_EXTENSION);
+        Files.write(file, new byte[] {0, 0, 0}, java.nio.file.StandardOpenOption.APPEND);
+
+        HistogramSeries series = store.readHistograms(1, "gatling_10s", 10_000L, Long.MAX_VALUE).orElseThrow();
+
+        assertThat(series.timestamps()).containsExactly(10_000L, 20_000L);
+        assertThat(series.histograms()).extracting(LatencyHistogram::count).containsExactly(2L, 3L);
+        assertThat(series.merge(10_000L, 30_000L).count()).isEqualTo(5);
+        assertThat(series.merge(0L, 10_000L).count()).isZero();
+        assertThat(store.readHistograms(1, "gatling", Long.MIN_VALUE, Long.MAX_VALUE)).isEmpty();
+    }
+
+    @Test
+    void append_columnCountMismatch_throws() {
+        store.append(1, "gatling", "", 1L, new double[] {1, 2});
+
+        assertThatThrownBy(() -> store.append(1, "gatling", "", 2L, new double[] {1}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void append_invalidSeriesName_throws() {
+        assertThatThrownBy(() -> store.append(1, "../escape", "", 1L, new double[] {1}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void soakRun_staysCompact() {
+        Random random = new Random(42);
+        long timestamp = 1_700_000_000_000L;
+        long total = 0;
+        int seconds = 3600;
+        for (int i = 0; i < seconds; i++) {
+            timestamp += 1000 + random.nextInt(5) - 2;
+            int rps = 100 + random.nextInt(20);
+            total += rps;
+            double p50 = 100 + random.nextInt(30);
+            store.append(1, "gatling", "", timestamp, new double[] {
+                rps, 0, p50 + 5, p50, p50 + 10, p50 + 60, p50 + 120, 50, total, 0
+            });
+        }
+        store.flush();
+
+        // Same data as SQLite rows would take well over 100 bytes per point
+        assertThat(store.diskUsage(1)).isLessThan(seconds * 20L);
+        assertThat(store.read(1, "gatling").orElseThrow().size()).isEqualTo(seconds);
+    }
+
+    @Test
+    void deleteRun_removesFilesAndPendingPoints() {
+        store.append(1, "gatling", "", 1L, new double[] {1});
+        store.flush();
+        store.append(1, "gatling", "", 2L, new double[] {2});
+
+        store.deleteRun(1);
+
+        assertThat(store.read(1, "gatling")).isEmpty();
+        assertThat(store.listSeries(1)).isEmpty();
+        assertThat(Files.exists(dir.resolve("1"))).isFalse();
+    }
+}
@@ -0,0 +1,96 @@
+package com.gatlingweb.timeseries;
+
+import com.gatlingweb.dto.MetricsWriterStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TimeSeriesWriterTest {
+
+    @TempDir
+    Path dir;
+
+    private TimeSeriesStore store;
+    private TimeSeriesWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        store = new TimeSeriesStore(dir.toString());
+        writer = new TimeSeriesWriter(store, 100, 10, 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.stop();
+    }
+
+    @Test
+    void barrier_appliesEverythingQueuedBefore() throws Exception {
+        writer.start();
+        for (int i = 0; i < 25; i++) {
+            assertThat(writer.offer(1, "gatling", "", i, new double[] {i})).isTrue();
+        }
+
+        writer.barrier(null, false).get(5, TimeUnit.SECONDS);
+
+        assertThat(writer.isIdle()).isTrue();
+        assertThat(store.read(1, "gatling").orElseThrow().size()).isEqualTo(25);
+        MetricsWriterStats stats = writer.stats();
+        assertThat(stats.enqueued()).isEqualTo(25);
+        assertThat(stats.written()).isEqualTo(25);
+        assertThat(stats.dropped()).isZero();
+        assertThat(stats.commits()).isGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    void timeBasedCommit_withoutBarrier() throws Exception {
+        writer.start();
+        writer.offer(1, "gatling", "", 1L, new double[] {1});
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (writer.stats().written() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(writer.stats().written()).isEqualTo(1);
+    }
+
+    @Test
+    void sealingBarrier_writesRunToDisk() throws Exception {
+        writer.start();
+        writer.offer(1, "gatling", "", 1L, new double[] {1});
+        writer.offer(2, "gatling", "", 1L, new double[] {1});
+
+        writer.barrier(1L, true).get(5, TimeUnit.SECONDS);
+
+        assertThat(Files.exists(dir.resolve("1").resolve("gatling.tsc"))).isTrue();
+        assertThat(Files.exists(dir.resolve("2").resolve("gatling.tsc"))).isFalse();
+    }
+
+    @Test
+    void offer_whenNotRunning_dropsWithoutBlocking() {
+        assertThat(writer.offer(1, "gatling", "", 1L, new double[] {1})).isFalse();
+
+        assertThat(writer.stats().dropped()).isEqualTo(1);
+        assertThat(writer.stats().queueDepth()).isZero();
+    }
+
+    @Test
+    void stop_drainsAndSealsQueuedPoints() {
+        writer.start();
+        for (int i = 0; i < 5; i++) {
+            writer.offer(1, "gatling", "", i, new double[] {i});
+        }
+
+        writer.stop();
+
+        assertThat(new TimeSeriesStore(dir.toString()).read(1, "gatling").orElseThrow().size()).isEqualTo(5);
+    }
+}
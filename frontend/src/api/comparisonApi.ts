@@ -12,3 +12,57 @@ export async function fetchComparison(idA: number, idB: number): Promise<Compari
   if (!res.ok) throw new Error('Failed to fetch comparison')
   return res.json()
 }
+
+export interface LatencyDistribution {
+  count: number
+  min: number | null
+  max: number | null
+  mean: number | null
+  quantiles: Record<string, number | null>
+}
+
+export type ShiftVerdict = 'SLOWER' | 'FASTER' | 'CHANGED' | 'UNCHANGED' | 'NO_DATA'
+
+export interface DistributionShift {
+  requestName: string | null
+  baselineCount: number
+  count: number
+  ksStatistic: number | null
+  ksPValue: number | null
+  mannWhitneyPValue: number | null
+  probabilitySlower: number | null
+  p95ChangePercent: number | null
+  verdict: ShiftVerdict
+}
+
+export interface ElapsedPoint {
+  elapsedMs: number
+  requestsPerSecond: number
+  errorsPerSecond: number
+  meanResponseTime: number
+  p95: number
+}
+
+export interface ComparedRun {
+  run: TestRun
+  distribution: LatencyDistribution | null
+  shift: DistributionShift | null
+  requestShifts: DistributionShift[]
+  series: ElapsedPoint[]
+}
+
+export interface MultiRunComparison {
+  baselineId: number
+  alpha: number
+  minEffect: number
+  stepMs: number
+  runs: ComparedRun[]
+}
+
+/** Compares runs against the first id (baseline); differences are flagged only when significant. */
+export async function fetchMultiRunComparison(ids: number[], alpha = 0.01, minEffect = 0.05): Promise<MultiRunComparison> {
+  const params = new URLSearchParams({ ids: ids.join(','), alpha: String(alpha), minEffect: String(minEffect) })
+  const res = await authFetch(`/api/tests/compare/runs?${params}`)
+  if (!res.ok) throw new Error('Failed to fetch comparison')
+  return res.json()
+}
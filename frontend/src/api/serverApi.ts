@@ -1,21 +1,44 @@
 import { authFetch } from './authFetch'
 
-export type ServerType = 'API' | 'SQL' | 'WEB' | 'FILE'
+export type ServerType = 'API' | 'SQL' | 'WEB' | 'FILE' | 'JVM'
 
 export interface MonitoredServer {
   id: number
   name: string
   url: string
   serverType: ServerType
+  exporterProfile: string
   enabled: boolean
   lastSeenAt: string | null
   lastError: string | null
 }
 
+/** Live health from the last scrapes; `since` is when the server last went up or down */
+export interface ServerHealth {
+  serverId: number
+  serverName: string
+  up: boolean
+  since: string | null
+  lastSeenAt: string | null
+  lastError: string | null
+  lastScrapeMs: number | null
+  consecutiveFailures: number
+}
+
 export interface CreateServerRequest {
   name: string
   url: string
   serverType: ServerType
+  exporterProfile?: string
+}
+
+/** Exporter profile as declared in exporter-profiles.json; extra metrics are reported by name. */
+export interface ExporterProfile {
+  id: string
+  label: string | null
+  extra: { name: string; label: string | null; unit: string | null; kind: 'GAUGE' | 'RATE' | 'BUSY_PERCENT' }[] | null
+  /** Metrics split by one label (core, disk, interface), recorded for runs that ask for them */
+  breakdowns?: { name: string; label: string | null; unit: string | null; by: string }[] | null
 }
 
 export async function fetchServers(): Promise<MonitoredServer[]> {
@@ -24,6 +47,18 @@ export async function fetchServers(): Promise<MonitoredServer[]> {
   return res.json()
 }
 
+export async function fetchServerHealth(): Promise<ServerHealth[]> {
+  const res = await authFetch('/api/servers/health')
+  if (!res.ok) throw new Error('Failed to fetch server health')
+  return res.json()
+}
+
+export async function fetchExporterProfiles(): Promise<ExporterProfile[]> {
+  const res = await authFetch('/api/servers/exporter-profiles')
+  if (!res.ok) throw new Error('Failed to fetch exporter profiles')
+  return res.json()
+}
+
 export async function createServer(request: CreateServerRequest): Promise<MonitoredServer> {
   const res = await authFetch('/api/servers', {
     method: 'POST',
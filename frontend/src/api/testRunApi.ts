@@ -42,6 +42,12 @@ export interface Page<T> {
   last: boolean
 }
 
+/** Cursor page: pass nextCursor back to get the following rows; null on the last page. */
+export interface KeysetPage<T> {
+  content: T[]
+  nextCursor: string | null
+}
+
 export interface LaunchParams {
   simulationClass: string
   version?: string
@@ -51,6 +57,10 @@ export interface LaunchParams {
   duration?: number
   loop?: boolean
   bandwidthLimitMbps?: number
+  /** Scrape interval of the monitored servers, 500 ms to 60 s (default 2 s) */
+  infraIntervalMs?: number
+  /** Also record per-core, per-disk and per-interface series */
+  infraBreakdowns?: boolean
 }
 
 export async function launchTest(params: LaunchParams): Promise<TestRun> {
@@ -88,6 +98,47 @@ export async function fetchTestRuns(params: FetchTestRunsParams = {}): Promise<P
   return res.json()
 }
 
+export async function fetchTestRunsSeek(params: { size?: number; label?: string; cursor?: string | null } = {}): Promise<KeysetPage<TestRun>> {
+  const query = new URLSearchParams({ size: String(params.size ?? 20) })
+  if (params.label) query.set('label', params.label)
+  if (params.cursor) query.set('cursor', params.cursor)
+  const res = await authFetch(`/api/tests/seek?${query}`)
+  if (!res.ok) throw new Error('Failed to fetch test runs')
+  return res.json()
+}
+
+/** Search hits with, for each facet, the number of matching runs per value. */
+export interface SearchResult<T> {
+  content: T[]
+  totalElements: number
+  page: number
+  size: number
+  facets: Record<string, Record<string, number>>
+}
+
+export interface SearchTestRunsParams {
+  q?: string
+  simulation?: string[]
+  version?: string[]
+  label?: string[]
+  status?: string[]
+  verdict?: string[]
+  page?: number
+  size?: number
+}
+
+export async function searchTestRuns(params: SearchTestRunsParams): Promise<SearchResult<TestRun>> {
+  const { q, page = 0, size = 20, ...facets } = params
+  const query = new URLSearchParams({ page: String(page), size: String(size) })
+  if (q) query.set('q', q)
+  for (const [facet, values] of Object.entries(facets)) {
+    for (const value of values ?? []) query.append(facet, value)
+  }
+  const res = await authFetch(`/api/tests/search?${query}`)
+  if (!res.ok) throw new Error('Failed to search test runs')
+  return res.json()
+}
+
 export async function fetchTestRun(id: number): Promise<TestRun> {
   const res = await authFetch(`/api/tests/${id}`)
   if (!res.ok) throw new Error('Failed to fetch test run')
@@ -167,6 +218,13 @@ export interface InfraMetricsSnapshot {
   networkRecvBytesPerSec: number | null
   networkSentBytesPerSec: number | null
   sqlBatchPerSec: number | null
+  /** Metrics of the server's exporter profile beyond the common ones, by name */
+  extra?: Record<string, number | null>
+  /** Live only, when the run asked for them: per-core, per-disk and per-interface values by breakdown then label */
+  breakdowns?: Record<string, Record<string, number | null>>
+  /** Live only: duration of the scrape and bytes transferred (compressed when the exporter supports gzip) */
+  scrapeDurationMs?: number | null
+  payloadBytes?: number | null
   error: string | null
 }
 
@@ -176,6 +234,92 @@ export async function fetchInfraMetrics(id: number): Promise<InfraMetricsSnapsho
   return res.json()
 }
 
+/** One breakdown of a server over a run: values[k][i] is keys[k] at timestamps[i] */
+export interface InfraBreakdown {
+  serverId: number
+  serverName: string | null
+  name: string
+  resolution: string
+  keys: string[]
+  timestamps: number[]
+  values: (number | null)[][]
+}
+
+export async function fetchInfraBreakdowns(id: number, serverId?: number): Promise<InfraBreakdown[]> {
+  const q = serverId != null ? `?serverId=${serverId}` : ''
+  const res = await authFetch(`/api/tests/${id}/infra-breakdowns${q}`)
+  if (!res.ok) throw new Error('Failed to fetch infra breakdowns')
+  return res.json()
+}
+
+/** Means over a phase; a metric is null when no sample of the phase had it */
+export interface InfraUsage {
+  samples: number
+  fromTimestamp: number
+  toTimestamp: number
+  cpuPercent: number | null
+  memoryPercent: number | null
+  diskReadBytesPerSec: number | null
+  diskWriteBytesPerSec: number | null
+  networkRecvBytesPerSec: number | null
+  networkSentBytesPerSec: number | null
+  sqlBatchPerSec: number | null
+}
+
+/** A server's utilization at rest before the run, during it, net of the baseline, and while cooling down */
+export interface InfraBaseline {
+  serverId: number
+  serverName: string
+  serverType: string
+  baseline: InfraUsage | null
+  run: InfraUsage | null
+  net: InfraUsage | null
+  cooldown: InfraUsage | null
+}
+
+export async function fetchInfraBaseline(id: number): Promise<InfraBaseline[]> {
+  const res = await authFetch(`/api/tests/${id}/infra-baseline`)
+  if (!res.ok) throw new Error('Failed to fetch infra baseline')
+  return res.json()
+}
+
+export interface BottleneckFinding {
+  ranking: number
+  serverId: number
+  serverName: string
+  resource: string
+  correlation: number
+  lagMs: number
+  peak: number | null
+  kneeLevel: number | null
+  latencyBelowKnee: number | null
+  latencyAboveKnee: number | null
+  score: number
+}
+
+export interface BottleneckReport {
+  testRunId: number
+  analyzedAt: number
+  stepMs: number
+  points: number
+  bottleneck: BottleneckFinding | null
+  findings: BottleneckFinding[]
+}
+
+/** Null while the run has not finished */
+export async function fetchBottlenecks(id: number): Promise<BottleneckReport | null> {
+  const res = await authFetch(`/api/tests/${id}/bottlenecks`)
+  if (res.status === 409) return null
+  if (!res.ok) throw new Error('Failed to fetch bottleneck analysis')
+  return res.json()
+}
+
+export async function analyzeBottlenecks(id: number): Promise<BottleneckReport> {
+  const res = await authFetch(`/api/tests/${id}/bottlenecks/analyze`, { method: 'POST' })
+  if (!res.ok) throw new Error('Failed to analyze bottlenecks')
+  return res.json()
+}
+
 export async function fetchQueue(): Promise<TestRun[]> {
   const res = await authFetch('/api/tests/queue')
   if (!res.ok) throw new Error('Failed to fetch queue')
@@ -211,6 +355,29 @@ export async function fetchTrends(simulationClass: string, limit = 20): Promise<
   return res.json()
 }
 
+export interface PerformanceRegression {
+  id: number
+  simulationClass: string
+  metric: 'p95ResponseTime' | 'meanResponseTime'
+  changeRunId: number
+  changeVersion: string | null
+  detectedRunId: number | null
+  baselineValue: number
+  currentValue: number
+  changePercent: number
+  pValue: number
+  probabilitySlower: number | null
+  detectedAt: number
+}
+
+export async function fetchRegressions(simulationClass?: string, limit = 50): Promise<PerformanceRegression[]> {
+  const params = new URLSearchParams({ limit: String(limit) })
+  if (simulationClass) params.set('simulationClass', simulationClass)
+  const res = await authFetch(`/api/regressions?${params}`)
+  if (!res.ok) throw new Error('Failed to fetch regressions')
+  return res.json()
+}
+
 export async function fetchCompletedSimulationClasses(): Promise<string[]> {
   const res = await authFetch('/api/tests/simulation-classes')
   if (!res.ok) throw new Error('Failed to fetch simulation classes')
@@ -237,7 +404,7 @@ export async function fetchAllLabels(): Promise<string[]> {
 }
 
 export async function exportCsv(): Promise<void> {
-  const res = await authFetch('/api/tests/export/csv')
+  const res = await authFetch('/api/tests/export/csv?gzip=true')
   if (!res.ok) throw new Error('Failed to export CSV')
   const blob = await res.blob()
   const url = URL.createObjectURL(blob)
@@ -249,10 +416,9 @@ export async function exportCsv(): Promise<void> {
 }
 
 export async function exportJson(): Promise<void> {
-  const res = await authFetch('/api/tests/export/json')
+  const res = await authFetch('/api/tests/export/json?gzip=true')
   if (!res.ok) throw new Error('Failed to export JSON')
-  const data = await res.json()
-  const blob = new Blob([JSON.stringify(data, null, 2)], { type: 'application/json' })
+  const blob = await res.blob()
   const url = URL.createObjectURL(blob)
   const a = document.createElement('a')
   a.href = url
@@ -260,3 +426,47 @@ export async function exportJson(): Promise<void> {
   a.click()
   URL.revokeObjectURL(url)
 }
+
+export interface ThroughputControlState {
+  testRunId: number
+  rateMultiplier: number
+  paused: boolean
+  updatedAt: number
+}
+
+export async function fetchThroughputControl(id: number): Promise<ThroughputControlState | null> {
+  const res = await authFetch(`/api/tests/${id}/control`)
+  if (res.status === 409) return null
+  if (!res.ok) throw new Error('Failed to fetch throughput control')
+  return res.json()
+}
+
+export async function updateThroughputControl(
+  id: number,
+  control: { rateMultiplier?: number; paused?: boolean },
+): Promise<ThroughputControlState> {
+  const res = await authFetch(`/api/tests/${id}/control`, {
+    method: 'POST',
+    headers: { 'Content-Type': 'application/json' },
+    body: JSON.stringify(control),
+  })
+  if (!res.ok) {
+    const data = await res.json().catch(() => ({}))
+    throw new Error(data.error || 'Failed to update throughput control')
+  }
+  return res.json()
+}
+
+export interface RunAnnotation {
+  id: number
+  testRunId: number
+  timestamp: number
+  type: string
+  message: string | null
+}
+
+export async function fetchRunAnnotations(id: number): Promise<RunAnnotation[]> {
+  const res = await authFetch(`/api/tests/${id}/annotations`)
+  if (!res.ok) throw new Error('Failed to fetch annotations')
+  return res.json()
+}
@@ -0,0 +1,94 @@
+import { useState } from 'react'
+import { analyzeBottlenecks, type BottleneckFinding, type BottleneckReport } from '../api/testRunApi'
+
+const RESOURCE_LABELS: Record<string, string> = {
+  cpuPercent: 'CPU (%)',
+  memoryPercent: 'Memory (%)',
+  diskBytesPerSec: 'Disk (B/s)',
+  networkBytesPerSec: 'Network (B/s)',
+  sqlBatchPerSec: 'SQL Batch/s',
+  gcTimePercent: 'GC time (%)',
+  gcPausesPerSec: 'GC pauses/s',
+}
+
+const MAX_ROWS = 10
+
+interface Props {
+  report: BottleneckReport
+  testId: number
+  onReport: (report: BottleneckReport) => void
+}
+
+function label(f: BottleneckFinding): string {
+  return RESOURCE_LABELS[f.resource] ?? f.resource
+}
+
+function num(v: number | null, digits = 1): string {
+  return v == null ? '-' : v.toFixed(digits)
+}
+
+/** Server resources ranked by how closely the run's p95 followed them */
+export default function BottleneckPanel({ report, testId, onReport }: Props) {
+  const [analyzing, setAnalyzing] = useState(false)
+
+  const reanalyze = () => {
+    setAnalyzing(true)
+    analyzeBottlenecks(testId).then(onReport).catch(() => {}).finally(() => setAnalyzing(false))
+  }
+
+  if (report.findings.length === 0) return null
+  const b = report.bottleneck
+
+  return (
+    <div className="card" style={{ marginBottom: '1rem' }}>
+      <div className="flex-row" style={{ marginBottom: '0.5rem' }}>
+        <h3 style={{ margin: 0 }}>Latency vs Resources</h3>
+        <button className="btn btn-secondary" style={{ fontSize: '0.75rem', padding: '0.2rem 0.5rem' }}
+          onClick={reanalyze} disabled={analyzing}>
+          {analyzing ? 'Analyzing...' : 'Re-analyze'}
+        </button>
+      </div>
+      <div style={{ marginBottom: '0.5rem' }}>
+        {b ? (
+          <span>
+            Probable bottleneck: <strong>{b.serverName} - {label(b)}</strong>
+            {b.kneeLevel != null && ` (p95 rises past ${num(b.kneeLevel)}: ${num(b.latencyBelowKnee, 0)} ms → ${num(b.latencyAboveKnee, 0)} ms)`}
+          </span>
+        ) : (
+          <span style={{ color: 'var(--text-secondary)' }}>No resource clearly drives latency</span>
+        )}
+      </div>
+      <table>
+        <thead>
+          <tr>
+            <th>#</th>
+            <th>Server</th>
+            <th>Resource</th>
+            <th>Correlation</th>
+            <th>Lag</th>
+            <th>Peak</th>
+            <th>Knee</th>
+            <th>Score</th>
+          </tr>
+        </thead>
+        <tbody>
+          {report.findings.slice(0, MAX_ROWS).map((f) => (
+            <tr key={`${f.serverId}-${f.resource}`}>
+              <td>{f.ranking}</td>
+              <td>{f.serverName}</td>
+              <td style={{ fontWeight: 600 }}>{label(f)}</td>
+              <td>{f.correlation.toFixed(2)}</td>
+              <td>{(f.lagMs / 1000).toFixed(0)} s</td>
+              <td>{num(f.peak)}</td>
+              <td>{num(f.kneeLevel)}</td>
+              <td style={{ fontWeight: 600 }}>{f.score.toFixed(2)}</td>
+            </tr>
+          ))}
+        </tbody>
+      </table>
+      <div style={{ color: 'var(--text-secondary)', fontSize: '0.8rem', marginTop: '0.5rem' }}>
+        {report.points} points, {report.stepMs / 1000} s step
+      </div>
+    </div>
+  )
+}
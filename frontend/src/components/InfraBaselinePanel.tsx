@@ -0,0 +1,61 @@
+import type { InfraBaseline, InfraUsage } from '../api/testRunApi'
+
+interface Props {
+  servers: InfraBaseline[]
+}
+
+const METRICS: { label: string; value: (u: InfraUsage) => number | null; scale: number }[] = [
+  { label: 'CPU (%)', value: (u) => u.cpuPercent, scale: 1 },
+  { label: 'Memory (%)', value: (u) => u.memoryPercent, scale: 1 },
+  { label: 'Disk Read (MB/s)', value: (u) => u.diskReadBytesPerSec, scale: 1024 * 1024 },
+  { label: 'Disk Write (MB/s)', value: (u) => u.diskWriteBytesPerSec, scale: 1024 * 1024 },
+  { label: 'Network In (MB/s)', value: (u) => u.networkRecvBytesPerSec, scale: 1024 * 1024 },
+  { label: 'Network Out (MB/s)', value: (u) => u.networkSentBytesPerSec, scale: 1024 * 1024 },
+  { label: 'SQL Batch/s', value: (u) => u.sqlBatchPerSec, scale: 1 },
+]
+
+function format(usage: InfraUsage | null, value: (u: InfraUsage) => number | null, scale: number, signed = false): string {
+  const v = usage ? value(usage) : null
+  if (v == null) return '-'
+  const scaled = v / scale
+  return (signed && scaled > 0 ? '+' : '') + scaled.toFixed(2)
+}
+
+/** Run utilization next to the servers' idle baseline, what the run added, and the cool-down after it */
+export default function InfraBaselinePanel({ servers }: Props) {
+  const measured = servers.filter((s) => s.baseline || s.cooldown)
+  if (measured.length === 0) return null
+
+  return (
+    <div className="card" style={{ marginBottom: '1rem' }}>
+      <h3 style={{ marginTop: 0 }}>Utilization Net of Baseline</h3>
+      <table>
+        <thead>
+          <tr>
+            <th>Server</th>
+            <th>Metric</th>
+            <th>Baseline</th>
+            <th>Run</th>
+            <th>Net</th>
+            <th>Cool-down</th>
+          </tr>
+        </thead>
+        <tbody>
+          {measured.flatMap((s) =>
+            METRICS.filter((m) => (s.run && m.value(s.run) != null) || (s.baseline && m.value(s.baseline) != null))
+              .map((m) => (
+                <tr key={`${s.serverId}-${m.label}`}>
+                  <td>{s.serverName}</td>
+                  <td style={{ fontWeight: 600 }}>{m.label}</td>
+                  <td>{format(s.baseline, m.value, m.scale)}</td>
+                  <td>{format(s.run, m.value, m.scale)}</td>
+                  <td style={{ fontWeight: 600 }}>{format(s.net, m.value, m.scale, true)}</td>
+                  <td>{format(s.cooldown, m.value, m.scale)}</td>
+                </tr>
+              )),
+          )}
+        </tbody>
+      </table>
+    </div>
+  )
+}
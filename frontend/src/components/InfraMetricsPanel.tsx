@@ -15,6 +15,7 @@ const SERVER_TYPE_COLORS: Record<ServerType, string> = {
   SQL: '#9b59b6',
   WEB: '#27ae60',
   FILE: '#e67e22',
+  JVM: '#c0392b',
 }
 
 function formatBytes(bytes: number | null): string {
@@ -40,6 +41,15 @@ function formatTime(sec: unknown): string {
   return m > 0 ? `${m}m${s}s` : `${s}s`
 }
 
+/** The label value with the highest reading of a breakdown (busiest core, disk or interface) */
+function hottestEntry(values: Record<string, number | null>): [string, number] | null {
+  let hottest: [string, number] | null = null
+  for (const [key, value] of Object.entries(values)) {
+    if (value != null && (hottest == null || value > hottest[1])) hottest = [key, value]
+  }
+  return hottest
+}
+
 export default function InfraMetricsPanel({ metrics, connected }: InfraMetricsPanelProps) {
   const servers = useMemo(() => {
     const map = new Map<number, { name: string; type: ServerType }>()
@@ -173,6 +183,16 @@ export default function InfraMetricsPanel({ metrics, connected }: InfraMetricsPa
                   <div>Disk R/W: {formatBytesPerSec(last?.diskReadBytesPerSec ?? null)} / {formatBytesPerSec(last?.diskWriteBytesPerSec ?? null)}</div>
                   <div>Net In/Out: {formatBytesPerSec(last?.networkRecvBytesPerSec ?? null)} / {formatBytesPerSec(last?.networkSentBytesPerSec ?? null)}</div>
                   {last?.sqlBatchPerSec != null && <div>SQL Batch/s: {last.sqlBatchPerSec.toFixed(1)}</div>}
+                  {Object.entries(last?.extra ?? {}).map(([name, value]) =>
+                    value != null && <div key={name}>{name}: {value.toFixed(1)}</div>,
+                  )}
+                  {Object.entries(last?.breakdowns ?? {}).map(([name, values]) => {
+                    const hottest = hottestEntry(values)
+                    return hottest && <div key={name}>{name} max: {hottest[0]} {hottest[1].toFixed(1)} ({Object.keys(values).length})</div>
+                  })}
+                  {last?.scrapeDurationMs != null && (
+                    <div>Scrape: {last.scrapeDurationMs} ms, {formatBytes(last.payloadBytes ?? null)}</div>
+                  )}
                 </div>
               )}
             </div>
@@ -17,6 +17,13 @@ export interface InfraMetricsSnapshot {
   networkRecvBytesPerSec: number | null
   networkSentBytesPerSec: number | null
   sqlBatchPerSec: number | null
+  /** Metrics of the server's exporter profile beyond the common ones, by name */
+  extra?: Record<string, number | null>
+  /** Live only, when the run asked for them: per-core, per-disk and per-interface values by breakdown then label */
+  breakdowns?: Record<string, Record<string, number | null>>
+  /** Live only: duration of the scrape and bytes transferred (compressed when the exporter supports gzip) */
+  scrapeDurationMs?: number | null
+  payloadBytes?: number | null
   error: string | null
 }
 
@@ -0,0 +1,233 @@
+import { useEffect, useState } from 'react'
+import type { MetricsSnapshot } from './useWebSocket'
+import type { InfraMetricsSnapshot } from './useInfraMetricsWebSocket'
+import type { ServerType } from '../api/serverApi'
+
+/** Set to 'binary' in localStorage to receive a run's live streams over /ws-live */
+export const LIVE_CHANNEL_KEY = 'liveChannel'
+
+export function liveChannelEnabled(): boolean {
+  return localStorage.getItem(LIVE_CHANNEL_KEY) === 'binary'
+}
+
+const GATLING_METRICS = 1
+const INFRA_METRICS = 2
+const SCALE = 1000
+const MAX_METRICS_POINTS = 600
+const MAX_INFRA_POINTS_PER_SERVER = 250
+
+interface LiveRecord {
+  stream: number
+  key: number
+  timestamp: number
+  labels: (string | null)[]
+  values: Record<string, number | null>
+}
+
+interface StreamState {
+  labels: (string | null)[]
+  columns: string[]
+  last: number[]
+  timestamp: number
+}
+
+/**
+ * Decoder of the frames sent by LiveFrameEncoder: one state per stream and server, values as
+ * zigzag varint differences with the previous record. Arithmetic stays within Number's 2^53, as
+ * timestamps and values scaled by 1000 do.
+ */
+class LiveFrameDecoder {
+  private states = new Map<string, StreamState>()
+  private bytes = new Uint8Array(0)
+  private pos = 0
+
+  decode(buffer: ArrayBuffer): LiveRecord[] {
+    this.bytes = new Uint8Array(buffer)
+    this.pos = 0
+    if (this.bytes[this.pos++] !== 1) throw new Error('Unsupported live frame version')
+    const count = this.varint()
+    const records: LiveRecord[] = []
+    for (let r = 0; r < count; r++) {
+      const stream = this.bytes[this.pos++]
+      const key = this.varint()
+      const keyframe = (this.bytes[this.pos++] & 1) !== 0
+      const id = `${stream}:${key}`
+      let state = this.states.get(id)
+      if (keyframe) {
+        const labels = this.strings()
+        const columns = this.strings() as string[]
+        state = { labels, columns, last: new Array(columns.length).fill(0), timestamp: this.zigzag() }
+        this.states.set(id, state)
+      } else {
+        if (!state) throw new Error(`Delta before keyframe on ${id}`)
+        state.timestamp += this.zigzag()
+      }
+      const present = this.bytes.subarray(this.pos, this.pos + Math.ceil(state.columns.length / 8))
+      this.pos += present.length
+      const values: Record<string, number | null> = {}
+      state.columns.forEach((column, i) => {
+        if ((present[i >> 3] & (1 << (i & 7))) === 0) {
+          values[column] = null
+          return
+        }
+        state!.last[i] += this.zigzag()
+        values[column] = state!.last[i] / SCALE
+      })
+      records.push({ stream, key, timestamp: state.timestamp, labels: state.labels, values })
+    }
+    return records
+  }
+
+  private varint(): number {
+    let result = 0
+    let factor = 1
+    for (;;) {
+      const b = this.bytes[this.pos++]
+      result += (b & 0x7f) * factor
+      if ((b & 0x80) === 0) return result
+      factor *= 128
+    }
+  }
+
+  private zigzag(): number {
+    const v = this.varint()
+    return v % 2 === 0 ? v / 2 : -(v + 1) / 2
+  }
+
+  private strings(): (string | null)[] {
+    const count = this.varint()
+    const strings: (string | null)[] = []
+    for (let i = 0; i < count; i++) {
+      const length = this.varint()
+      if (length === 0) {
+        strings.push(null)
+        continue
+      }
+      strings.push(new TextDecoder().decode(this.bytes.subarray(this.pos, this.pos + length - 1)))
+      this.pos += length - 1
+    }
+    return strings
+  }
+}
+
+function toMetrics(r: LiveRecord): MetricsSnapshot {
+  const v = r.values
+  return {
+    timestamp: r.timestamp,
+    requestsPerSecond: v.requestsPerSecond ?? 0,
+    errorsPerSecond: v.errorsPerSecond ?? 0,
+    meanResponseTime: v.meanResponseTime ?? 0,
+    p50: v.p50 ?? 0,
+    p75: v.p75 ?? 0,
+    p95: v.p95 ?? 0,
+    p99: v.p99 ?? 0,
+    activeUsers: v.activeUsers ?? 0,
+    totalRequests: v.totalRequests ?? 0,
+    totalErrors: v.totalErrors ?? 0,
+  }
+}
+
+function toInfra(r: LiveRecord): InfraMetricsSnapshot {
+  const v = r.values
+  const extra: Record<string, number | null> = {}
+  const breakdowns: Record<string, Record<string, number | null>> = {}
+  for (const [column, value] of Object.entries(v)) {
+    if (column.startsWith('extra.')) {
+      extra[column.slice(6)] = value
+    } else if (column.startsWith('breakdown.')) {
+      const rest = column.slice(10)
+      const dot = rest.indexOf('.')
+      const name = rest.slice(0, dot)
+      if (!breakdowns[name]) breakdowns[name] = {}
+      breakdowns[name][rest.slice(dot + 1)] = value
+    }
+  }
+  return {
+    timestamp: r.timestamp,
+    serverId: r.key,
+    serverName: r.labels[0] ?? '',
+    serverType: (r.labels[1] ?? 'API') as ServerType,
+    cpuPercent: v.cpuPercent,
+    memoryUsedBytes: v.memoryUsedBytes,
+    memoryTotalBytes: v.memoryTotalBytes,
+    memoryPercent: v.memoryPercent,
+    diskReadBytesPerSec: v.diskReadBytesPerSec,
+    diskWriteBytesPerSec: v.diskWriteBytesPerSec,
+    networkRecvBytesPerSec: v.networkRecvBytesPerSec,
+    networkSentBytesPerSec: v.networkSentBytesPerSec,
+    sqlBatchPerSec: v.sqlBatchPerSec,
+    extra,
+    breakdowns,
+    scrapeDurationMs: v.scrapeDurationMs,
+    payloadBytes: v.payloadBytes,
+    error: r.labels[2] ?? null,
+  }
+}
+
+/** Gatling and infrastructure samples of a run over the binary channel; null disables it */
+export function useLiveChannel(testRunId: number | null) {
+  const [metrics, setMetrics] = useState<MetricsSnapshot[]>([])
+  const [infra, setInfra] = useState<InfraMetricsSnapshot[]>([])
+  const [connected, setConnected] = useState(false)
+
+  useEffect(() => {
+    if (testRunId == null) return
+    setMetrics([])
+    setInfra([])
+
+    let socket: WebSocket | null = null
+    let retry: ReturnType<typeof setTimeout> | undefined
+    let closed = false
+
+    const connect = () => {
+      const protocol = window.location.protocol === 'https:' ? 'wss:' : 'ws:'
+      socket = new WebSocket(`${protocol}//${window.location.host}/ws-live?kind=GATLING&run=${testRunId}`)
+      socket.binaryType = 'arraybuffer'
+      // Every connection starts from keyframes
+      const decoder = new LiveFrameDecoder()
+      socket.onopen = () => setConnected(true)
+      socket.onmessage = (event) => {
+        let records: LiveRecord[]
+        try {
+          records = decoder.decode(event.data as ArrayBuffer)
+        } catch {
+          // Out of step: reconnecting resends keyframes
+          socket?.close()
+          return
+        }
+        const gatling = records.filter((r) => r.stream === GATLING_METRICS).map(toMetrics)
+        const servers = records.filter((r) => r.stream === INFRA_METRICS).map(toInfra)
+        if (gatling.length > 0) {
+          setMetrics((prev) => [...prev, ...gatling].slice(-MAX_METRICS_POINTS))
+        }
+        if (servers.length > 0) {
+          setInfra((prev) => {
+            const next = [...prev, ...servers]
+            const counts = new Map<number, number>()
+            for (const m of next) counts.set(m.serverId, (counts.get(m.serverId) ?? 0) + 1)
+            // Keep the last samples of each server
+            const seen = new Map<number, number>()
+            return next.filter((m) => {
+              const index = (seen.get(m.serverId) ?? 0) + 1
+              seen.set(m.serverId, index)
+              return counts.get(m.serverId)! - index < MAX_INFRA_POINTS_PER_SERVER
+            })
+          })
+        }
+      }
+      socket.onclose = () => {
+        setConnected(false)
+        if (!closed) retry = setTimeout(connect, 5000)
+      }
+    }
+    connect()
+
+    return () => {
+      closed = true
+      clearTimeout(retry)
+      socket?.close()
+    }
+  }, [testRunId])
+
+  return { metrics, infra, connected }
+}
@@ -1,6 +1,8 @@
 import { useEffect, useRef, useState, useCallback } from 'react'
 import { Client } from '@stomp/stompjs'
 import SockJS from 'sockjs-client'
+import type { RunAnnotation } from '../api/testRunApi'
+import type { ServerHealth } from '../api/serverApi'
 
 export interface MetricsSnapshot {
   timestamp: number
@@ -154,3 +156,52 @@ export function useLogsWebSocket(testRunId: number | null) {
 
   return { logs, connected, clear }
 }
+
+export function useAnnotationsWebSocket(testRunId: number | null) {
+  const [annotations, setAnnotations] = useState<RunAnnotation[]>([])
+
+  useEffect(() => {
+    if (testRunId == null) return
+
+    setAnnotations([])
+
+    const client = new Client({
+      webSocketFactory: () => new SockJS('/ws'),
+      reconnectDelay: 5000,
+      onConnect: () => {
+        client.subscribe(`/topic/annotations/${testRunId}`, (message) => {
+          const annotation: RunAnnotation = JSON.parse(message.body)
+          setAnnotations((prev) => [...prev, annotation])
+        })
+      },
+    })
+
+    client.activate()
+    return () => { client.deactivate() }
+  }, [testRunId])
+
+  return { annotations }
+}
+
+/** Health of every monitored server by id, updated on each scrape */
+export function useServerHealthWebSocket() {
+  const [health, setHealth] = useState<Record<number, ServerHealth>>({})
+
+  useEffect(() => {
+    const client = new Client({
+      webSocketFactory: () => new SockJS('/ws'),
+      reconnectDelay: 5000,
+      onConnect: () => {
+        client.subscribe('/topic/server-health', (message) => {
+          const update: ServerHealth = JSON.parse(message.body)
+          setHealth((prev) => ({ ...prev, [update.serverId]: update }))
+        })
+      },
+    })
+
+    client.activate()
+    return () => { client.deactivate() }
+  }, [])
+
+  return { health }
+}
@@ -30,6 +30,8 @@ export default function DashboardPage() {
   const [bandwidthLimitMbps, setBandwidthLimitMbps] = useState<number | undefined>(
     searchParams.get('bandwidthLimitMbps') ? Number(searchParams.get('bandwidthLimitMbps')) : undefined
   )
+  const [infraIntervalMs, setInfraIntervalMs] = useState(Number(searchParams.get('infraIntervalMs')) || 2000)
+  const [infraBreakdowns, setInfraBreakdowns] = useState(searchParams.get('infraBreakdowns') === 'true')
   const [running, setRunning] = useState<TestRun | null>(null)
   const [queuedTests, setQueuedTests] = useState<TestRun[]>([])
   const [summary, setSummary] = useState<DashboardSummary | null>(null)
@@ -101,6 +103,8 @@ export default function DashboardPage() {
         duration,
         loop,
         bandwidthLimitMbps: bandwidthLimitMbps || undefined,
+        infraIntervalMs: infraIntervalMs !== 2000 ? infraIntervalMs : undefined,
+        infraBreakdowns: infraBreakdowns || undefined,
       })
       if (run.status === 'QUEUED') {
         setQueuedTests(prev => [...prev, run])
@@ -267,6 +271,20 @@ export default function DashboardPage() {
                   style={{ width: '80px' }}
                 />
               </label>
+              <label style={{ display: 'flex', alignItems: 'center', gap: '0.5rem' }}>
+                Infra scrape
+                <select value={infraIntervalMs} onChange={(e) => setInfraIntervalMs(Number(e.target.value))}>
+                  <option value={500}>500 ms</option>
+                  <option value={1000}>1 s</option>
+                  <option value={2000}>2 s</option>
+                  <option value={5000}>5 s</option>
+                  <option value={10000}>10 s</option>
+                </select>
+              </label>
+              <label style={{ display: 'flex', alignItems: 'center', gap: '0.5rem' }}>
+                <input type="checkbox" checked={infraBreakdowns} onChange={(e) => setInfraBreakdowns(e.target.checked)} />
+                Per core / disk / interface
+              </label>
             </div>
 
             <InjectionProfileChart users={users} rampUp={rampUp} rampUpDuration={rampUpDuration} duration={duration} loop={loop} />
@@ -1,6 +1,6 @@
 import React, { useState, useEffect } from 'react'
 import { useNavigate } from 'react-router-dom'
-import { fetchTestRuns, updateTestVersion, updateTestLabels, deleteTestRun, cancelQueuedTest, fetchAllLabels, exportCsv, exportJson, type TestRun, type Page } from '../api/testRunApi'
+import { fetchTestRuns, fetchTestRunsSeek, searchTestRuns, updateTestVersion, updateTestLabels, deleteTestRun, cancelQueuedTest, fetchAllLabels, exportCsv, exportJson, type TestRun, type Page } from '../api/testRunApi'
 import { getLabelColor } from '../utils/labelColors'
 
 type SortField = 'startTime' | 'simulationClass' | 'status' | 'totalRequests' | 'meanResponseTime'
@@ -46,10 +46,14 @@ export default function HistoryPage() {
   const [page, setPage] = useState<Page<TestRun> | null>(null)
   const [loading, setLoading] = useState(true)
   const [pageNum, setPageNum] = useState(0)
+  // Newest-first browsing pages by cursor: cursors[n] starts page n, nextCursor is null on the last page
+  const [cursors, setCursors] = useState<(string | null)[]>([null])
+  const [nextCursor, setNextCursor] = useState<string | null>(null)
   const [sortBy, setSortBy] = useState<SortField>('startTime')
   const [sortDir, setSortDir] = useState<SortDir>('desc')
   const [editingVersion, setEditingVersion] = useState<{ id: number; value: string } | null>(null)
   const [filterLabel, setFilterLabel] = useState('')
+  const [searchText, setSearchText] = useState('')
   const [filterStatus, setFilterStatus] = useState<StatusFilter>('')
   const [addingLabel, setAddingLabel] = useState<{ id: number; value: string } | null>(null)
   const [compareSelection, setCompareSelection] = useState<number[]>([])
@@ -67,14 +71,43 @@ export default function HistoryPage() {
     fetchAllLabels().then(setAllLabels).catch(() => {})
   }, [])
 
+  const searchMode = searchText.trim() !== ''
+  const seekMode = !searchMode && sortBy === 'startTime' && sortDir === 'desc'
+
   // List mode fetch
   useEffect(() => {
     if (viewMode !== 'list') return
     setLoading(true)
-    fetchTestRuns({ page: pageNum, size: 15, sortBy, sortDir, label: filterLabel || undefined })
+    const request = searchMode
+      ? searchTestRuns({
+          q: searchText.trim(), label: filterLabel ? [filterLabel] : undefined,
+          status: filterStatus ? [filterStatus] : undefined, page: pageNum, size: 15,
+        }).then((r): Page<TestRun> => {
+            const totalPages = Math.ceil(r.totalElements / 15)
+            return {
+              content: r.content, number: pageNum, size: 15, first: pageNum === 0, last: pageNum + 1 >= totalPages,
+              totalElements: r.totalElements, totalPages,
+            }
+          })
+      : seekMode
+      ? fetchTestRunsSeek({ size: 15, label: filterLabel || undefined, cursor: cursors[pageNum] ?? null })
+          .then((p): Page<TestRun> => {
+            setNextCursor(p.nextCursor)
+            return {
+              content: p.content, number: pageNum, size: 15, first: pageNum === 0, last: p.nextCursor === null,
+              totalElements: 0, totalPages: 0,
+            }
+          })
+      : fetchTestRuns({ page: pageNum, size: 15, sortBy, sortDir, label: filterLabel || undefined })
+    request
       .then(setPage)
       .finally(() => setLoading(false))
-  }, [pageNum, sortBy, sortDir, filterLabel, viewMode])
+  }, [pageNum, cursors, searchMode, seekMode, searchText, filterStatus, sortBy, sortDir, filterLabel, viewMode])
+
+  function goToNextPage() {
+    if (seekMode) setCursors(prev => [...prev.slice(0, pageNum + 1), nextCursor])
+    setPageNum(p => p + 1)
+  }
 
   // Folder mode fetch
   useEffect(() => {
@@ -368,6 +401,16 @@ export default function HistoryPage() {
 
       <div className="card" style={{ padding: '0.6rem 1.2rem', marginBottom: '0.5rem' }}>
         <div className="flex-row" style={{ flexWrap: 'wrap', gap: '1rem' }}>
+          <div>
+            <span style={{ color: 'var(--text-secondary)', fontSize: '0.85rem', marginRight: '0.5rem' }}>Search:</span>
+            <input
+              type="text"
+              placeholder="Simulation, version, notes..."
+              value={searchText}
+              onChange={(e) => { setSearchText(e.target.value); setPageNum(0) }}
+              style={{ width: '220px' }}
+            />
+          </div>
           <div style={{ position: 'relative' }}>
             <span style={{ color: 'var(--text-secondary)', fontSize: '0.85rem', marginRight: '0.5rem' }}>Label:</span>
             <input
@@ -457,7 +500,18 @@ export default function HistoryPage() {
                 </tbody>
               </table>
 
-              {page && page.totalPages > 1 && (
+              {page && seekMode && !(page.first && page.last) && (
+                <div className="pagination" style={{ marginTop: '1rem', display: 'flex', gap: '0.5rem', justifyContent: 'center', alignItems: 'center' }}>
+                  <button className="btn btn-secondary" disabled={page.first}
+                    onClick={() => setPageNum(0)} style={{ padding: '0.3rem 0.6rem' }}>First</button>
+                  <button className="btn btn-secondary" disabled={page.first}
+                    onClick={() => setPageNum((p) => p - 1)} style={{ padding: '0.3rem 0.6rem' }}>Prev</button>
+                  <span style={{ color: 'var(--text-secondary)' }}>Page {page.number + 1}</span>
+                  <button className="btn btn-secondary" disabled={page.last}
+                    onClick={goToNextPage} style={{ padding: '0.3rem 0.6rem' }}>Next</button>
+                </div>
+              )}
+              {page && !seekMode && page.totalPages > 1 && (
                 <div className="pagination" style={{ marginTop: '1rem', display: 'flex', gap: '0.5rem', justifyContent: 'center', alignItems: 'center' }}>
                   <button className="btn btn-secondary" disabled={page.first}
                     onClick={() => setPageNum(0)} style={{ padding: '0.3rem 0.6rem' }}>First</button>
@@ -5,23 +5,30 @@ import {
   updateServer,
   deleteServer,
   toggleServer,
+  fetchExporterProfiles,
+  fetchServerHealth,
+  type ExporterProfile,
+  type ServerHealth,
   type MonitoredServer,
   type CreateServerRequest,
   type ServerType,
 } from '../api/serverApi'
+import { useServerHealthWebSocket } from '../hooks/useWebSocket'
 
-const SERVER_TYPES: ServerType[] = ['API', 'SQL', 'WEB', 'FILE']
+const SERVER_TYPES: ServerType[] = ['API', 'SQL', 'WEB', 'FILE', 'JVM']
 
 interface ServerModalProps {
   server: MonitoredServer | null
+  profiles: ExporterProfile[]
   onClose: () => void
   onSave: (request: CreateServerRequest) => Promise<void>
 }
 
-function ServerModal({ server, onClose, onSave }: ServerModalProps) {
+function ServerModal({ server, profiles, onClose, onSave }: ServerModalProps) {
   const [name, setName] = useState(server?.name || '')
   const [url, setUrl] = useState(server?.url || '')
   const [serverType, setServerType] = useState<ServerType>(server?.serverType || 'API')
+  const [exporterProfile, setExporterProfile] = useState(server?.exporterProfile || 'windows_exporter')
   const [saving, setSaving] = useState(false)
   const [error, setError] = useState('')
 
@@ -30,7 +37,7 @@ function ServerModal({ server, onClose, onSave }: ServerModalProps) {
     setError('')
     setSaving(true)
     try {
-      await onSave({ name, url, serverType })
+      await onSave({ name, url, serverType, exporterProfile })
       onClose()
     } catch (err) {
       setError(err instanceof Error ? err.message : 'Save failed')
@@ -70,7 +77,12 @@ function ServerModal({ server, onClose, onSave }: ServerModalProps) {
             <label style={{ display: 'block', marginBottom: '0.3rem', color: 'var(--text-secondary)' }}>Type</label>
             <select
               value={serverType}
-              onChange={(e) => setServerType(e.target.value as ServerType)}
+              onChange={(e) => {
+                const type = e.target.value as ServerType
+                setServerType(type)
+                // JVM targets expose the JMX exporter or Micrometer families
+                if (type === 'JVM') setExporterProfile('jvm')
+              }}
               style={{ width: '100%' }}
             >
               {SERVER_TYPES.map((t) => (
@@ -78,6 +90,18 @@ function ServerModal({ server, onClose, onSave }: ServerModalProps) {
               ))}
             </select>
           </div>
+          <div style={{ marginBottom: '1rem' }}>
+            <label style={{ display: 'block', marginBottom: '0.3rem', color: 'var(--text-secondary)' }}>Exporter</label>
+            <select
+              value={exporterProfile}
+              onChange={(e) => setExporterProfile(e.target.value)}
+              style={{ width: '100%' }}
+            >
+              {profiles.map((p) => (
+                <option key={p.id} value={p.id}>{p.label || p.id}</option>
+              ))}
+            </select>
+          </div>
           {error && <div style={{ color: '#e94560', marginBottom: '1rem' }}>{error}</div>}
           <div className="flex-row" style={{ justifyContent: 'flex-end' }}>
             <button type="button" className="btn btn-secondary" onClick={onClose}>
@@ -98,6 +122,9 @@ export default function ServersPage() {
   const [loading, setLoading] = useState(true)
   const [modalOpen, setModalOpen] = useState(false)
   const [editingServer, setEditingServer] = useState<MonitoredServer | null>(null)
+  const [profiles, setProfiles] = useState<ExporterProfile[]>([])
+  const [initialHealth, setInitialHealth] = useState<ServerHealth[]>([])
+  const { health: liveHealth } = useServerHealthWebSocket()
 
   const loadServers = useCallback(async () => {
     try {
@@ -112,8 +139,18 @@ export default function ServersPage() {
 
   useEffect(() => {
     loadServers()
+    fetchExporterProfiles()
+      .then(setProfiles)
+      .catch((err) => console.error('Failed to load exporter profiles:', err))
+    fetchServerHealth()
+      .then(setInitialHealth)
+      .catch((err) => console.error('Failed to load server health:', err))
   }, [loadServers])
 
+  function healthOf(server: MonitoredServer): ServerHealth | undefined {
+    return liveHealth[server.id] ?? initialHealth.find((h) => h.serverId === server.id)
+  }
+
   function openCreateModal() {
     setEditingServer(null)
     setModalOpen(true)
@@ -174,7 +211,7 @@ export default function ServersPage() {
       <div className="card">
         {servers.length === 0 ? (
           <p style={{ color: 'var(--text-secondary)' }}>
-            No servers configured. Add a Windows Exporter endpoint to start monitoring infrastructure metrics.
+            No servers configured. Add a Prometheus exporter endpoint (windows_exporter, node_exporter, cAdvisor...) to start monitoring infrastructure metrics.
           </p>
         ) : (
           <table>
@@ -183,64 +220,77 @@ export default function ServersPage() {
                 <th>Name</th>
                 <th>URL</th>
                 <th>Type</th>
+                <th>Exporter</th>
                 <th>Status</th>
                 <th>Last Seen</th>
                 <th>Actions</th>
               </tr>
             </thead>
             <tbody>
-              {servers.map((server) => (
-                <tr key={server.id}>
-                  <td>{server.name}</td>
-                  <td style={{ fontFamily: 'monospace', fontSize: '0.85rem' }}>{server.url}</td>
-                  <td>
-                    <span className={`status-badge status-${server.serverType}`}>
-                      {server.serverType}
-                    </span>
-                  </td>
-                  <td>
-                    {server.enabled ? (
-                      server.lastError ? (
-                        <span style={{ color: '#e94560' }} title={server.lastError}>Error</span>
-                      ) : server.lastSeenAt ? (
-                        <span style={{ color: '#27ae60' }}>Online</span>
+              {servers.map((server) => {
+                const health = healthOf(server)
+                const lastError = health ? health.lastError : server.lastError
+                const lastSeenAt = health ? health.lastSeenAt : server.lastSeenAt
+                return (
+                  <tr key={server.id}>
+                    <td>{server.name}</td>
+                    <td style={{ fontFamily: 'monospace', fontSize: '0.85rem' }}>{server.url}</td>
+                    <td>
+                      <span className={`status-badge status-${server.serverType}`}>
+                        {server.serverType}
+                      </span>
+                    </td>
+                    <td style={{ fontSize: '0.85rem' }}>
+                      {profiles.find((p) => p.id === server.exporterProfile)?.label || server.exporterProfile}
+                    </td>
+                    <td>
+                      {server.enabled ? (
+                        lastError ? (
+                          <span style={{ color: '#e94560' }} title={lastError}>
+                            Error{health && health.consecutiveFailures > 1 ? ` (${health.consecutiveFailures}x)` : ''}
+                          </span>
+                        ) : lastSeenAt ? (
+                          <span style={{ color: '#27ae60' }}>
+                            Online{health?.lastScrapeMs != null ? ` (${health.lastScrapeMs} ms)` : ''}
+                          </span>
+                        ) : (
+                          <span style={{ color: 'var(--text-secondary)' }}>Unknown</span>
+                        )
                       ) : (
-                        <span style={{ color: 'var(--text-secondary)' }}>Unknown</span>
-                      )
-                    ) : (
-                      <span style={{ color: '#7f8c8d' }}>Disabled</span>
-                    )}
-                  </td>
-                  <td style={{ fontSize: '0.85rem', color: 'var(--text-secondary)' }}>
-                    {formatDate(server.lastSeenAt)}
-                  </td>
-                  <td>
-                    <div className="flex-row">
-                      <button
-                        className="btn btn-secondary"
-                        onClick={() => handleToggle(server)}
-                        style={{ padding: '0.3rem 0.6rem', fontSize: '0.8rem' }}
-                      >
-                        {server.enabled ? 'Disable' : 'Enable'}
-                      </button>
-                      <button
-                        className="btn btn-secondary"
-                        onClick={() => openEditModal(server)}
-                        style={{ padding: '0.3rem 0.6rem', fontSize: '0.8rem' }}
-                      >
-                        Edit
-                      </button>
-                      <button
-                        className="btn btn-danger"
-                        onClick={() => handleDelete(server)}
-                        style={{ padding: '0.3rem 0.6rem', fontSize: '0.8rem' }}
-                      >
-                        Delete
-                      </button>
-                    </div>
-                  </td>
-                </tr>
-              ))}
+                        <span style={{ color: '#7f8c8d' }}>Disabled</span>
+                      )}
+                    </td>
+                    <td style={{ fontSize: '0.85rem', color: 'var(--text-secondary)' }}>
+                      {formatDate(lastSeenAt)}
+                    </td>
+                    <td>
+                      <div className="flex-row">
+                        <button
+                          className="btn btn-secondary"
+                          onClick={() => handleToggle(server)}
+                          style={{ padding: '0.3rem 0.6rem', fontSize: '0.8rem' }}
+                        >
+                          {server.enabled ? 'Disable' : 'Enable'}
+                        </button>
+                        <button
+                          className="btn btn-secondary"
+                          onClick={() => openEditModal(server)}
+                          style={{ padding: '0.3rem 0.6rem', fontSize: '0.8rem' }}
+                        >
+                          Edit
+                        </button>
+                        <button
+                          className="btn btn-danger"
+                          onClick={() => handleDelete(server)}
+                          style={{ padding: '0.3rem 0.6rem', fontSize: '0.8rem' }}
+                        >
+                          Delete
+                        </button>
+                      </div>
+                    </td>
+                  </tr>
+                )
+              })}
             </tbody>
           </table>
         )}
@@ -249,6 +299,7 @@ export default function ServersPage() {
       {modalOpen && (
         <ServerModal
           server={editingServer}
+          profiles={profiles}
           onClose={() => setModalOpen(false)}
           onSave={handleSave}
         />
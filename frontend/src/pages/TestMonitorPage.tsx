@@ -1,14 +1,17 @@
 import { useEffect, useState, useCallback, useRef, useMemo } from 'react'
 import { useParams, useNavigate } from 'react-router-dom'
 import {
-  LineChart, Line, XAxis, YAxis, CartesianGrid, Tooltip, ResponsiveContainer,
+  LineChart, Line, XAxis, YAxis, CartesianGrid, Tooltip, ResponsiveContainer, ReferenceLine,
 } from 'recharts'
-import { fetchTestRun, cancelTest, cancelQueuedTest, updateTestLabels, updateTestNotes, fetchTestMetrics, fetchInfraMetrics, type TestRun } from '../api/testRunApi'
-import { useMetricsWebSocket, useTestStatusWebSocket, useLogsWebSocket } from '../hooks/useWebSocket'
+import { fetchTestRun, cancelTest, cancelQueuedTest, updateTestLabels, updateTestNotes, fetchTestMetrics, fetchInfraMetrics, fetchInfraBaseline, fetchBottlenecks, fetchRunAnnotations, type TestRun, type RunAnnotation, type InfraBaseline, type BottleneckReport } from '../api/testRunApi'
+import { useMetricsWebSocket, useTestStatusWebSocket, useLogsWebSocket, useAnnotationsWebSocket } from '../hooks/useWebSocket'
 import type { MetricsSnapshot } from '../api/testRunApi'
 import { useInfraMetricsWebSocket, type InfraMetricsSnapshot } from '../hooks/useInfraMetricsWebSocket'
+import { useLiveChannel, liveChannelEnabled } from '../hooks/useLiveChannel'
 import ErrorBoundary from '../components/ErrorBoundary'
 import InfraMetricsPanel from '../components/InfraMetricsPanel'
+import InfraBaselinePanel from '../components/InfraBaselinePanel'
+import BottleneckPanel from '../components/BottleneckPanel'
 import ThresholdDetailsPanel from '../components/ThresholdDetailsPanel'
 import NotesEditor from '../components/NotesEditor'
 
@@ -87,9 +90,20 @@ export default function TestMonitorPage() {
   const [showAddLabel, setShowAddLabel] = useState(false)
   const [historicalMetrics, setHistoricalMetrics] = useState<MetricsSnapshot[]>([])
   const [historicalInfra, setHistoricalInfra] = useState<InfraMetricsSnapshot[]>([])
-  const { metrics: liveMetrics, connected } = useMetricsWebSocket(testId)
-  const { metrics: liveInfraMetrics, connected: infraConnected } = useInfraMetricsWebSocket(testId)
+  const [infraBaseline, setInfraBaseline] = useState<InfraBaseline[]>([])
+  const [bottlenecks, setBottlenecks] = useState<BottleneckReport | null>(null)
+  const [historicalAnnotations, setHistoricalAnnotations] = useState<RunAnnotation[]>([])
+  // Opt-in: Gatling and infra samples on one binary connection instead of two STOMP topics
+  const [binaryLive] = useState(liveChannelEnabled)
+  const stomp = useMetricsWebSocket(binaryLive ? null : testId)
+  const stompInfra = useInfraMetricsWebSocket(binaryLive ? null : testId)
+  const live = useLiveChannel(binaryLive ? testId : null)
+  const liveMetrics = binaryLive ? live.metrics : stomp.metrics
+  const connected = binaryLive ? live.connected : stomp.connected
+  const liveInfraMetrics = binaryLive ? live.infra : stompInfra.metrics
+  const infraConnected = binaryLive ? live.connected : stompInfra.connected
   const { logs } = useLogsWebSocket(testId)
+  const { annotations: liveAnnotations } = useAnnotationsWebSocket(testId)
   const logsEndRef = useRef<HTMLDivElement>(null)
 
   const handleStatusChange = useCallback((status: string) => {
@@ -103,6 +117,9 @@ export default function TestMonitorPage() {
       fetchTestRun(testId).then(setTestRun)
       fetchTestMetrics(testId).then(setHistoricalMetrics).catch(() => {})
       fetchInfraMetrics(testId).then(data => setHistoricalInfra(data as InfraMetricsSnapshot[])).catch(() => {})
+      fetchInfraBaseline(testId).then(setInfraBaseline).catch(() => {})
+      fetchBottlenecks(testId).then(setBottlenecks).catch(() => {})
+      fetchRunAnnotations(testId).then(setHistoricalAnnotations).catch(() => {})
     }
   }, [testId])
 
@@ -112,12 +129,20 @@ export default function TestMonitorPage() {
     setLoading(true)
     setHistoricalMetrics([])
     setHistoricalInfra([])
+    setInfraBaseline([])
+    setBottlenecks(null)
+    setHistoricalAnnotations([])
     fetchTestRun(testId).then((run) => {
       setTestRun(run)
       // Always load historical metrics (backfill for running tests, full data for completed)
       if (run.status !== 'QUEUED') {
         fetchTestMetrics(testId).then(setHistoricalMetrics).catch(() => {})
         fetchInfraMetrics(testId).then(data => setHistoricalInfra(data as InfraMetricsSnapshot[])).catch(() => {})
+        fetchInfraBaseline(testId).then(setInfraBaseline).catch(() => {})
+        fetchRunAnnotations(testId).then(setHistoricalAnnotations).catch(() => {})
+      }
+      if (run.status !== 'QUEUED' && run.status !== 'RUNNING') {
+        fetchBottlenecks(testId).then(setBottlenecks).catch(() => {})
       }
     }).finally(() => setLoading(false))
   }, [testId])
@@ -162,6 +187,15 @@ export default function TestMonitorPage() {
   const smoothedMetrics = useMemo(() => smoothData(metrics, 3), [metrics])
   const startTs = metrics[0]?.timestamp ?? 0
 
+  // GC pauses reported by the JVM servers, placed on the latency timeline
+  const gcPauses = useMemo(() => {
+    const byId = new Map<number, RunAnnotation>()
+    for (const a of [...historicalAnnotations, ...liveAnnotations]) {
+      if (a.type === 'GC_PAUSE') byId.set(a.id, a)
+    }
+    return [...byId.values()].map((a) => ({ id: a.id, time: Math.round((a.timestamp - startTs) / 1000) }))
+  }, [historicalAnnotations, liveAnnotations, startTs])
+
   const chartData = useMemo(() => {
     const mapped = smoothedMetrics.map((m) => ({
       time: Math.round((m.timestamp - startTs) / 1000),
@@ -233,6 +267,8 @@ export default function TestMonitorPage() {
               if (params.duration) q.set('duration', String(params.duration))
               if (params.loop != null) q.set('loop', String(params.loop))
               if (params.bandwidthLimitMbps) q.set('bandwidthLimitMbps', String(params.bandwidthLimitMbps))
+              if (params.infraIntervalMs) q.set('infraIntervalMs', String(params.infraIntervalMs))
+              if (params.infraBreakdowns) q.set('infraBreakdowns', 'true')
               navigate(`/?${q}`)
             } catch { navigate('/') }
           }}>Replay</button>
@@ -377,10 +413,13 @@ export default function TestMonitorPage() {
             <ResponsiveContainer width="100%" height={250}>
               <LineChart data={chartData}>
                 <CartesianGrid strokeDasharray="3 3" stroke="var(--border-color)" />
-                <XAxis dataKey="time" stroke="var(--text-secondary)" tickFormatter={formatTime} />
+                <XAxis dataKey="time" type="number" domain={['dataMin', 'dataMax']} stroke="var(--text-secondary)" tickFormatter={formatTime} />
                 <YAxis stroke="var(--text-secondary)" />
                 <Tooltip contentStyle={tooltipStyle} formatter={(value) => [`${(Number(value) || 0).toFixed(0)} ms`, 'Mean RT']} />
                 <Line type="monotone" dataKey="meanResponseTime" stroke="#e67e22" dot={false} name="Mean RT (ms)" />
+                {gcPauses.map((a) => (
+                  <ReferenceLine key={a.id} x={a.time} stroke="#c0392b" strokeDasharray="2 2" />
+                ))}
               </LineChart>
             </ResponsiveContainer>
           </div>
@@ -415,6 +454,8 @@ export default function TestMonitorPage() {
 
       <div style={{ color: 'var(--text-secondary)', fontSize: '0.8rem', textTransform: 'uppercase', letterSpacing: '0.05em', margin: '1rem 0 0.5rem' }}>Infrastructure</div>
       <ErrorBoundary fallback={<div className="card">Failed to render infrastructure metrics</div>}>
+        <InfraBaselinePanel servers={infraBaseline} />
+        {bottlenecks && <BottleneckPanel report={bottlenecks} testId={testId} onReport={setBottlenecks} />}
         <InfraMetricsPanel metrics={infraMetrics} connected={infraConnected} />
       </ErrorBoundary>
     </div>
@@ -9,8 +9,10 @@ const METRICS = [
   { value: 'meanResponseTime', label: 'Mean Response Time (ms)' },
   { value: 'p50ResponseTime', label: 'p50 Response Time (ms)' },
   { value: 'p75ResponseTime', label: 'p75 Response Time (ms)' },
+  { value: 'p90ResponseTime', label: 'p90 Response Time (ms)' },
   { value: 'p95ResponseTime', label: 'p95 Response Time (ms)' },
   { value: 'p99ResponseTime', label: 'p99 Response Time (ms)' },
+  { value: 'p99.9ResponseTime', label: 'p99.9 Response Time (ms)' },
   { value: 'errorRate', label: 'Error Rate (%)' },
 ]
 